@@ -1,7 +1,8 @@
 package com.library;
 
 import com.library.controller.LoginController;
-import com.library.dao.DatabaseUtil;
+import com.library.dao.LogDAO;
+import com.library.util.DataLayerStartup;
 import javafx.application.Application;
 import javafx.application.HostServices;
 import javafx.scene.Scene;
@@ -13,7 +14,6 @@ public class Main extends Application {
     @Override
     public void start(Stage primaryStage) throws Exception {
         instance = this;  // Set the instance when the app starts
-        DatabaseUtil.initializeDatabase();
 
         // Revert to the original logic that creates the LoginController programmatically.
         // This controller builds its own scene.
@@ -24,6 +24,15 @@ public class Main extends Application {
         primaryStage.setHeight(850);
         primaryStage.setResizable(true);
         primaryStage.show();
+
+        // Database bootstrap runs in the background; the login button is enabled once it finishes
+        DataLayerStartup.start();
+    }
+
+    @Override
+    public void stop() {
+        // Write the audit entries still buffered before the connection pool closes at JVM exit
+        LogDAO.shutdown(5_000);
     }
 
     // Static getter for HostServices
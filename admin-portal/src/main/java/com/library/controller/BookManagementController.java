@@ -5,12 +5,15 @@ import com.library.dao.BookDAO;
 import com.library.dao.CategoryDAO;
 import com.library.model.Book;
 import com.library.model.Category;
+import com.library.model.Page;
 import com.library.model.Session;
+import com.library.util.LazyPagedList;
 import com.library.util.UIUtil;
 import com.library.util.UILayoutConstants;
 import animatefx.animation.Shake;
 import animatefx.animation.BounceIn;
 import animatefx.animation.Pulse;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -23,6 +26,7 @@ import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -33,8 +37,13 @@ public class BookManagementController {
     private Stage stage;
     private BookDAO bookDAO = new BookDAO();
     private CategoryDAO categoryDAO = new CategoryDAO();
-    private ObservableList<Book> books = FXCollections.observableArrayList();
-    private ObservableList<Book> filteredBooks = FXCollections.observableArrayList();
+    // Rows are fetched from the database a page at a time as the table scrolls, filtered and sorted in SQL
+    private LazyPagedList<Book> books = new LazyPagedList<>(new LazyPagedList.Loader<Book>() {
+        @Override
+        public Page<Book> load(String query, String sortKey, boolean ascending, Page.Key after, int offset, int limit) throws Exception {
+            return bookDAO.getBooksPage(query, sortKey, ascending, after, offset, limit);
+        }
+    }, Platform::runLater);
     private ObservableList<Category> categories = FXCollections.observableArrayList();
     private TableView<Book> bookTable = new TableView<>();
     private ListView<Category> categoryListView = new ListView<>();
@@ -59,7 +68,7 @@ public class BookManagementController {
         loadCategories();
         searchField.setPromptText("Search books...");
         searchField.setStyle("-fx-background-radius: 8; -fx-padding: 8 12 8 12; -fx-pref-width: 300; -fx-font-weight: bold;");
-        searchField.textProperty().addListener((observable, oldValue, newValue) -> filterBooks(newValue));
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> books.setQuery(newValue));
 
         filteredCategories.addAll(categories);
         categoryComboBox.setItems(filteredCategories);
@@ -277,26 +286,39 @@ public class BookManagementController {
 
     private void setupBookTable() {
         TableColumn<Book, String> titleCol = new TableColumn<>("Title");
+        titleCol.setId("name");
         titleCol.setCellValueFactory(new PropertyValueFactory<>("name"));
         titleCol.setPrefWidth(150);
 
         TableColumn<Book, String> authorCol = new TableColumn<>("Author");
+        authorCol.setId("author");
         authorCol.setCellValueFactory(new PropertyValueFactory<>("author"));
         authorCol.setPrefWidth(120);
 
         TableColumn<Book, String> barcodeCol = new TableColumn<>("Barcode");
+        barcodeCol.setId("barcode");
         barcodeCol.setCellValueFactory(new PropertyValueFactory<>("barcode"));
         barcodeCol.setPrefWidth(120);
 
         TableColumn<Book, String> categoryCol = new TableColumn<>("Category");
-        categoryCol.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue().getCategory().getName()));
+        categoryCol.setId("category");
+        categoryCol.setCellValueFactory(cellData -> cellData.getValue() == null ? null
+                : new javafx.beans.property.SimpleStringProperty(cellData.getValue().getCategory().getName()));
         categoryCol.setPrefWidth(120);
 
         TableColumn<Book, Integer> quantityCol = new TableColumn<>("Quantity");
+        quantityCol.setId("quantity");
         quantityCol.setCellValueFactory(new PropertyValueFactory<>("quantity"));
         quantityCol.setPrefWidth(80);
 
         bookTable.getColumns().setAll(titleCol, authorCol, barcodeCol, categoryCol, quantityCol);
+        // Sort in the database; only the first sort column is used, keyed by its id
+        bookTable.setSortPolicy(table -> {
+            TableColumn<Book, ?> column = table.getSortOrder().isEmpty() ? null : table.getSortOrder().get(0);
+            books.setSort(column == null ? null : column.getId(),
+                    column == null || column.getSortType() == TableColumn.SortType.ASCENDING);
+            return true;
+        });
         bookTable.setPrefHeight(300);
     }
 
@@ -311,8 +333,7 @@ public class BookManagementController {
     }
 
     private void loadBooks() {
-        books.clear();
-        books.addAll(bookDAO.getAllBooks());
+        books.refresh();
     }
 
     private void loadCategories() {
@@ -504,8 +525,10 @@ public class BookManagementController {
     }
 
     private void deleteBook() {
-        ObservableList<Book> selectedBooks = bookTable.getSelectionModel().getSelectedItems();
-        if (selectedBooks == null || selectedBooks.isEmpty()) {
+        // Rows still loading read as null; copy so the refresh after deleting cannot change the list mid-loop
+        List<Book> selectedBooks = new ArrayList<>(bookTable.getSelectionModel().getSelectedItems());
+        selectedBooks.removeIf(book -> book == null);
+        if (selectedBooks.isEmpty()) {
             UIUtil.showWarning("No Selection", "Please select one or more books from the table to delete.");
             return;
         }
@@ -591,25 +614,6 @@ public class BookManagementController {
             });
     }
 
-    private void filterBooks(String query) {
-        if (query == null || query.isEmpty()) {
-            bookTable.setItems(books);
-        } else {
-            filteredBooks.clear();
-            String lowerQuery = query.toLowerCase();
-            for (Book book : books) {
-                if (book.getName().toLowerCase().contains(lowerQuery) ||
-                    book.getAuthor().toLowerCase().contains(lowerQuery) ||
-                    book.getBarcode().toLowerCase().contains(lowerQuery) ||
-                    book.getCategory().getName().toLowerCase().contains(lowerQuery) ||
-                    String.valueOf(book.getQuantity()).contains(lowerQuery)) {
-                    filteredBooks.add(book);
-                }
-            }
-            bookTable.setItems(filteredBooks);
-        }
-    }
-
     /**
      * StringConverter for the Category ComboBox.
      */
@@ -1,13 +1,13 @@
 package com.library.controller;
 
 import com.library.Main;
-import com.library.dao.BookDAO;
-import com.library.dao.FacultyDAO;
 import com.library.dao.IssuedBookDAO;
-import com.library.dao.StudentDAO;
+import com.library.model.LibraryStats;
 import com.library.model.Session;
+import com.library.service.LibraryStatsService;
 import com.library.util.UIUtil;
 import com.library.util.UILayoutConstants;
+import javafx.application.Platform;
 import javafx.event.EventHandler;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -26,10 +26,18 @@ import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
 import java.util.Map;
-import java.sql.SQLException;
 
 public class DashboardController {
+    // Shown until the counters have been loaded
+    private static final String PLACEHOLDER = "…";
+
     private Stage stage;
+    private final Label totalBooksLabel = new Label(PLACEHOLDER);
+    private final Label issuedBooksLabel = new Label(PLACEHOLDER);
+    private final Label availableBooksLabel = new Label(PLACEHOLDER);
+    private final Label pendingReturnsLabel = new Label(PLACEHOLDER);
+    private final Label studentsLabel = new Label(PLACEHOLDER);
+    private final Label facultyLabel = new Label(PLACEHOLDER);
 
     public DashboardController(Stage stage) {
         this.stage = stage;
@@ -64,18 +72,17 @@ public class DashboardController {
     /**
      * Creates a styled VBox "card" to display a single statistic.
      * @param title The descriptive title for the statistic (e.g., "Total Books").
-     * @param value The numerical value of the statistic.
+     * @param valueLabel The label holding the value of the statistic, filled in once it is loaded.
      * @param icon An emoji or icon string to be displayed.
      * @return A styled VBox representing the stat card.
      */
-    private VBox createStatCard(String title, String value, String icon) {
+    private VBox createStatCard(String title, Label valueLabel, String icon) {
         VBox card = new VBox(5);
         card.setPadding(new Insets(20));
         card.setAlignment(Pos.CENTER_LEFT);
         card.setStyle("-fx-background-color: white; -fx-background-radius: 12; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.06), 8, 0, 0, 3);");
         card.setPrefWidth(220);
 
-        Label valueLabel = new Label(value);
         valueLabel.setStyle("-fx-font-size: 32px; -fx-font-weight: 700; -fx-text-fill: #1e293b;");
 
         Label titleLabel = new Label(title);
@@ -105,7 +112,8 @@ public class DashboardController {
 
         Button reloadBtn = UIUtil.createStyledButton("🔄 Reload", "#07ee5cff", "#009035ff");
         reloadBtn.setOnAction(e -> {
-            // Reload the dashboard by switching to a new instance
+            // Reload the dashboard by switching to a new instance, counting everything again
+            LibraryStatsService.getInstance().invalidate();
             UIUtil.switchScene(stage, new DashboardController(stage).getScene());
         });
 
@@ -130,28 +138,15 @@ public class DashboardController {
         overview.setAlignment(Pos.CENTER);
         overview.setStyle("-fx-padding: 20;");
 
-        // Labels for statistics, fetching with DAOs
-        BookDAO bookDAO = new BookDAO();
-        IssuedBookDAO issuedBookDAO = new IssuedBookDAO();
-        int totalBooks = bookDAO.getTotalBooks();
-        int issuedBooks = 0;
-        try {
-            issuedBooks = issuedBookDAO.getTotalIssuedBooks();
-        } catch (SQLException ex) {
-            UIUtil.showAlert("Error", "Failed to fetch issued book count.", Alert.AlertType.ERROR);
-        }
-        int availableBooks = totalBooks - issuedBooks;
-        int pendingReturns = issuedBooks; // Pending returns are the issued books not yet returned
-
-        // Create and add stat cards to the overview grid
-        overview.add(createStatCard("Total Books", String.valueOf(totalBooks), "📚"), 0, 0);
-        overview.add(createStatCard("Books Issued", String.valueOf(issuedBooks), "📖"), 1, 0);
-        overview.add(createStatCard("Available Books", String.valueOf(availableBooks), "✅"), 2, 0);
-
-        overview.add(createStatCard("Pending Returns", String.valueOf(pendingReturns), "⏳"), 0, 1);
-        overview.add(createStatCard("Students Registered", String.valueOf(new StudentDAO().getTotalStudents()), "👨‍🎓"), 1, 1);
-        overview.add(createStatCard("Faculty Registered", String.valueOf(new FacultyDAO().getTotalFaculty()), "👨‍🏫"), 2, 1);
+        // Create and add stat cards to the overview grid; the values are filled in by showStats
+        overview.add(createStatCard("Total Books", totalBooksLabel, "📚"), 0, 0);
+        overview.add(createStatCard("Books Issued", issuedBooksLabel, "📖"), 1, 0);
+        overview.add(createStatCard("Available Books", availableBooksLabel, "✅"), 2, 0);
 
+        overview.add(createStatCard("Pending Returns", pendingReturnsLabel, "⏳"), 0, 1);
+        overview.add(createStatCard("Students Registered", studentsLabel, "👨‍🎓"), 1, 1);
+        overview.add(createStatCard("Faculty Registered", facultyLabel, "👨‍🏫"), 2, 1);
+        loadStats();
 
         // --- Navigation Section ---
         // Use a TilePane for a responsive grid of navigation cards.
@@ -172,6 +167,7 @@ public class DashboardController {
             IssuedBookDAO cleanupDAO = new IssuedBookDAO();
             int removed = cleanupDAO.removeOrphanedIssuedBooks();
             if (removed > 0) {
+                LibraryStatsService.getInstance().invalidate();
                 UIUtil.showAlert("Success", "Removed " + removed + " orphaned issued book records.", Alert.AlertType.INFORMATION);
                 UIUtil.switchScene(stage, new DashboardController(stage).getScene()); // Reload to update stats
             } else {
@@ -188,6 +184,33 @@ public class DashboardController {
         return UIUtil.createScene(topBar, centerLayout);
     }
 
+    /**
+     * Shows the last known counters at once, then the fresh ones when they have been loaded in the background.
+     */
+    private void loadStats() {
+        LibraryStatsService statsService = LibraryStatsService.getInstance();
+        LibraryStats cached = statsService.getCached();
+        if (cached != null) {
+            showStats(cached);
+        }
+        statsService.get().whenComplete((stats, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                UIUtil.showAlert("Error", "Failed to fetch library statistics.", Alert.AlertType.ERROR);
+            } else {
+                showStats(stats);
+            }
+        }));
+    }
+
+    private void showStats(LibraryStats stats) {
+        totalBooksLabel.setText(String.valueOf(stats.getTotalBooks()));
+        issuedBooksLabel.setText(String.valueOf(stats.getIssuedBooks()));
+        availableBooksLabel.setText(String.valueOf(stats.getAvailableBooks()));
+        pendingReturnsLabel.setText(String.valueOf(stats.getPendingReturns()));
+        studentsLabel.setText(String.valueOf(stats.getStudents()));
+        facultyLabel.setText(String.valueOf(stats.getFaculty()));
+    }
+
     /**
      * Creates the sidebar navigation component.
      * @param currentView The name of the currently active view to highlight it.
@@ -3,12 +3,15 @@ package com.library.controller;
 import com.library.dao.FacultyDAO;
 import com.library.dao.StudentDAO;
 import com.library.model.Faculty;
+import com.library.model.Page;
 import com.library.model.Student;
 import com.library.service.RegistrationService;
 import com.library.util.EmailService;
+import com.library.util.LazyPagedList;
 import com.library.util.UIUtil;
 import com.library.util.EmailValidator;
 import com.library.util.UILayoutConstants;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -21,21 +24,24 @@ import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * FacultyManagementController handles faculty management operations.
  */
-// import javafx.concurrent.Task; import will be added
-import javafx.concurrent.Task;
-
 public class FacultyManagementController {
     private Stage stage;
     private FacultyDAO facultyDAO = new FacultyDAO();
     private StudentDAO studentDAO = new StudentDAO();
     private EmailService emailService = new EmailService();
-    private ObservableList<Faculty> faculty = FXCollections.observableArrayList();
-    private ObservableList<Faculty> filteredFaculty = FXCollections.observableArrayList();
+    // Active faculty, fetched a page at a time as the table scrolls; filtered and sorted in SQL
+    private LazyPagedList<Faculty> faculty = new LazyPagedList<>(new LazyPagedList.Loader<Faculty>() {
+        @Override
+        public Page<Faculty> load(String query, String sortKey, boolean ascending, Page.Key after, int offset, int limit) throws Exception {
+            return facultyDAO.getFacultyPage(query, true, sortKey, ascending, after, offset, limit);
+        }
+    }, Platform::runLater);
     private TableView<Faculty> facultyTable = new TableView<>();
     private TextField searchField = new TextField();
     private TextField nameField = new TextField();
@@ -67,7 +73,7 @@ public class FacultyManagementController {
         this.mobileField.setPromptText("Mobile");
         this.rfidField.setPromptText("RFID");
         this.searchField.setPromptText("Search faculty...");
-        this.searchField.textProperty().addListener((observable, oldValue, newValue) -> filterFaculty(newValue));
+        this.searchField.textProperty().addListener((observable, oldValue, newValue) -> faculty.setQuery(newValue));
 
         clearAllFacultyBtn.setStyle("-fx-background-color: linear-gradient(#ef4444, #dc2626); -fx-text-fill: white; -fx-font-weight: 600; -fx-background-radius: 8; -fx-padding: 10 16 10 16; -fx-cursor: hand;");
         clearAllFacultyBtn.setOnAction(e -> clearAllFaculty());
@@ -211,51 +217,44 @@ public class FacultyManagementController {
 
     private void setupFacultyTable(TableView<Faculty> facultyTable) {
         TableColumn<Faculty, String> nameCol = new TableColumn<>("Name");
+        nameCol.setId("name");
         nameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
         nameCol.setPrefWidth(120);
 
         TableColumn<Faculty, String> idCol = new TableColumn<>("Faculty ID");
+        idCol.setId("facultyId");
         idCol.setCellValueFactory(new PropertyValueFactory<>("facultyId"));
         idCol.setPrefWidth(100);
 
         TableColumn<Faculty, String> emailCol = new TableColumn<>("Email");
+        emailCol.setId("email");
         emailCol.setCellValueFactory(new PropertyValueFactory<>("email"));
         emailCol.setPrefWidth(150);
 
         TableColumn<Faculty, String> mobileCol = new TableColumn<>("Mobile");
+        mobileCol.setId("mobile");
         mobileCol.setCellValueFactory(new PropertyValueFactory<>("mobile"));
         mobileCol.setPrefWidth(100);
 
         TableColumn<Faculty, String> rfidCol = new TableColumn<>("RFID");
+        rfidCol.setId("rfid");
         rfidCol.setCellValueFactory(new PropertyValueFactory<>("rfid"));
         rfidCol.setPrefWidth(100);
 
         facultyTable.getColumns().setAll(nameCol, idCol, emailCol, mobileCol, rfidCol);
+        // Sort in the database; only the first sort column is used, keyed by its id
+        facultyTable.setSortPolicy(table -> {
+            TableColumn<Faculty, ?> column = table.getSortOrder().isEmpty() ? null : table.getSortOrder().get(0);
+            faculty.setSort(column == null ? null : column.getId(),
+                    column == null || column.getSortType() == TableColumn.SortType.ASCENDING);
+            return true;
+        });
         facultyTable.setPrefHeight(400);
     }
 
     private void loadFaculty() {
-        Task<List<Faculty>> loadFacultyTask = new Task<List<Faculty>>() {
-            @Override
-            protected List<Faculty> call() throws Exception {
-                return facultyDAO.getAllFaculty(true);
-            }
-        };
-
-        loadFacultyTask.setOnSucceeded(event -> {
-            List<Faculty> result = loadFacultyTask.getValue();
-            faculty.clear();
-            faculty.addAll(result);
-        });
-
-        loadFacultyTask.setOnFailed(event -> {
-            System.err.println("Failed to load faculty: " + loadFacultyTask.getException());
-            UIUtil.showAlert("Error", "Failed to load faculty data.", javafx.scene.control.Alert.AlertType.ERROR);
-        });
-
-        Thread thread = new Thread(loadFacultyTask);
-        thread.setDaemon(true);
-        thread.start();
+        // Counts and loads the first page in the background; further pages load as the table scrolls
+        faculty.refresh();
     }
 
     private void updateFaculty() {
@@ -386,8 +385,10 @@ public class FacultyManagementController {
     }
 
     private void deleteFaculty() {
-        ObservableList<Faculty> selectedFaculty = facultyTable.getSelectionModel().getSelectedItems();
-        if (selectedFaculty == null || selectedFaculty.isEmpty()) {
+        // Rows still loading read as null; copy so the refresh after deleting cannot change the list mid-loop
+        List<Faculty> selectedFaculty = new ArrayList<>(facultyTable.getSelectionModel().getSelectedItems());
+        selectedFaculty.removeIf(fac -> fac == null);
+        if (selectedFaculty.isEmpty()) {
             UIUtil.showAlert("Error", "Please select one or more faculty to delete", Alert.AlertType.ERROR);
             return;
         }
@@ -555,25 +556,6 @@ public class FacultyManagementController {
         });
     }
 
-    private void filterFaculty(String query) {
-        if (query == null || query.isEmpty()) {
-            facultyTable.setItems(faculty);
-        } else {
-            filteredFaculty.clear();
-            String lowerQuery = query.toLowerCase();
-            for (Faculty fac : faculty) {
-                if (fac.getName().toLowerCase().contains(lowerQuery) ||
-                    fac.getFacultyId().toLowerCase().contains(lowerQuery) ||
-                    fac.getEmail().toLowerCase().contains(lowerQuery) ||
-                    fac.getMobile().toLowerCase().contains(lowerQuery) ||
-                    fac.getRfid().toLowerCase().contains(lowerQuery)) {
-                    filteredFaculty.add(fac);
-                }
-            }
-            facultyTable.setItems(filteredFaculty);
-        }
-    }
-
     private void clearAllFaculty() {
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
         alert.setTitle("Clear All Faculty");
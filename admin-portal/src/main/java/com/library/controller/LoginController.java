@@ -3,6 +3,7 @@ package com.library.controller;
 import com.library.dao.AdminDAO;
 import com.library.model.Admin;
 import com.library.model.Session;
+import com.library.util.DataLayerStartup;
 import com.library.util.UIUtil;
 import com.library.util.UILayoutConstants;
 import io.github.palexdev.materialfx.controls.MFXButton;
@@ -14,6 +15,7 @@ import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.effect.DropShadow;
 import javafx.scene.input.KeyCode;
 import javafx.scene.layout.StackPane;
@@ -113,8 +115,24 @@ public class LoginController {
         registerBtn.setOnMouseEntered(e -> registerBtn.setStyle("-fx-background-color: #e2e8f0; -fx-text-fill: #475569; -fx-font-weight: 600; -fx-background-radius: 8; -fx-border-color: #d1d5db; -fx-border-radius: 8;"));
         registerBtn.setOnMouseExited(e -> registerBtn.setStyle("-fx-background-color: #f1f5f9; -fx-text-fill: #475569; -fx-font-weight: 600; -fx-background-radius: 8; -fx-border-color: #d1d5db; -fx-border-radius: 8;"));
 
+        // Startup status, shown until the background database bootstrap has finished
+        Label startupStatus = new Label();
+        startupStatus.textProperty().bind(DataLayerStartup.statusProperty());
+        startupStatus.setStyle("-fx-font-size: 13px; -fx-text-fill: #475569;");
+        ProgressBar startupProgress = new ProgressBar();
+        startupProgress.setPrefWidth(350);
+        startupProgress.progressProperty().bind(DataLayerStartup.progressProperty());
+        for (javafx.scene.Node node : new javafx.scene.Node[]{startupStatus, startupProgress}) {
+            node.visibleProperty().bind(DataLayerStartup.readyProperty().not());
+            node.managedProperty().bind(node.visibleProperty());
+        }
+        loginBtn.disableProperty().bind(DataLayerStartup.readyProperty().not());
+
         // Login action
         Runnable performLogin = () -> {
+            if (!DataLayerStartup.isReady()) {
+                return;
+            }
             String adminId = adminIdField.getText().trim();
             String password = passwordField.getText();
 
@@ -157,7 +175,7 @@ public class LoginController {
             UIUtil.switchScene(stage, registrationController.getScene());
         });
 
-        contentBox.getChildren().addAll(headingPane, subHeading, adminIdField, passwordField, loginBtn, forgotPasswordBtn, registerBtn);
+        contentBox.getChildren().addAll(headingPane, subHeading, adminIdField, passwordField, loginBtn, startupStatus, startupProgress, forgotPasswordBtn, registerBtn);
         mainLayout.getChildren().add(contentBox);
         StackPane.setAlignment(contentBox, Pos.CENTER);
 
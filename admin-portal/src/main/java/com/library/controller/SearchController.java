@@ -19,7 +19,7 @@ import javafx.application.Platform;
 import java.sql.SQLException;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 /**
  * Advanced SearchController provides Google/YouTube-like search functionality.
@@ -31,13 +31,16 @@ public class SearchController {
     private ComboBox<SearchResult.EntityType> entityFilter;
     private DatePicker dateFromPicker;
     private DatePicker dateToPicker;
+    private CheckBox fuzzyToggle;
     private ListView<SearchResult> resultsListView;
-    private ObservableList<SearchResult> allResults = FXCollections.observableArrayList();
+    // Only the best matches are shown; the index keeps the rest out of the list view
+    private static final int MAX_RESULTS = 200;
+    private final SearchIndex searchIndex = new SearchIndex();
     private ObservableList<SearchResult> filteredResults = FXCollections.observableArrayList();
     private ObservableList<String> suggestions = FXCollections.observableArrayList();
 
     // Search enhancements
-    private ScheduledExecutorService debounceExecutor = Executors.newSingleThreadScheduledExecutor();
+    private final SearchScheduler searchScheduler = new SearchScheduler(300, Platform::runLater);
     private Map<String, List<String>> suggestionCache = new HashMap<>();
     private ProgressIndicator loadingIndicator;
     private Label resultsCountLabel;
@@ -119,17 +122,17 @@ public class SearchController {
         dateToPicker = new DatePicker();
         dateToPicker.setPromptText("To");
 
+        // Typo-tolerant matching ("harrry" -> "Harry"); exact hits still rank first
+        fuzzyToggle = new CheckBox("Typo tolerant");
+        fuzzyToggle.setOnAction(e -> applyFilters());
+
         Button clearFiltersBtn = new Button("Clear Filters");
         clearFiltersBtn.setOnAction(e -> clearFilters());
 
-        filtersRow.getChildren().addAll(filterLabel, entityFilter, dateLabel, dateFromPicker, dateToPicker, clearFiltersBtn);
+        filtersRow.getChildren().addAll(filterLabel, entityFilter, dateLabel, dateFromPicker, dateToPicker, fuzzyToggle, clearFiltersBtn);
 
         // Search field with debounced listener
-        searchField.textProperty().addListener((obs, oldText, newText) -> {
-            debounceExecutor.shutdownNow();
-            debounceExecutor = Executors.newSingleThreadScheduledExecutor();
-            debounceExecutor.schedule(() -> Platform.runLater(() -> performSearch(newText)), 300, TimeUnit.MILLISECONDS);
-        });
+        searchField.textProperty().addListener((obs, oldText, newText) -> scheduleSearch(newText, true));
 
         searchSection.getChildren().addAll(searchField, filtersRow);
         return searchSection;
@@ -183,14 +186,14 @@ public class SearchController {
                     isLoading = true;
                 });
 
-                allResults.clear();
+                List<SearchResult> loaded = new ArrayList<>();
 
                 // Load books
                 try {
                     BookDAO bookDAO = new BookDAO();
                     List<Book> books = bookDAO.getAllBooks();
                     for (Book book : books) {
-                        allResults.add(new SearchResult(
+                        loaded.add(new SearchResult(
                             SearchResult.EntityType.BOOK,
                             book.getName(),
                             "by " + book.getAuthor(),
@@ -208,7 +211,7 @@ public class SearchController {
                     StudentDAO studentDAO = new StudentDAO();
                     List<Student> students = studentDAO.getAllStudents(true); // Load active students
                     for (Student student : students) {
-                        allResults.add(new SearchResult(
+                        loaded.add(new SearchResult(
                             SearchResult.EntityType.STUDENT,
                             student.getName(),
                             "ID: " + student.getStudentId(),
@@ -226,7 +229,7 @@ public class SearchController {
                     FacultyDAO facultyDAO = new FacultyDAO();
                     List<Faculty> faculty = facultyDAO.getAllFaculty(true); // Load active faculty
                     for (Faculty fac : faculty) {
-                        allResults.add(new SearchResult(
+                        loaded.add(new SearchResult(
                             SearchResult.EntityType.FACULTY,
                             fac.getName(),
                             "ID: " + fac.getFacultyId(),
@@ -244,7 +247,7 @@ public class SearchController {
                     CategoryDAO categoryDAO = new CategoryDAO();
                     List<Category> categories = categoryDAO.getAllCategories();
                     for (Category cat : categories) {
-                        allResults.add(new SearchResult(
+                        loaded.add(new SearchResult(
                             SearchResult.EntityType.CATEGORY,
                             cat.getName(),
                             "ID: " + cat.getId(),
@@ -257,11 +260,13 @@ public class SearchController {
                     System.err.println("Error loading categories: " + e.getMessage());
                 }
 
+                searchIndex.clear();
+                searchIndex.addAll(loaded);
+
                 Platform.runLater(() -> {
-                    filteredResults.setAll(allResults);
-                    updateResultsCount();
-                    loadingIndicator.setVisible(false);
                     isLoading = false;
+                    performSearch(searchField.getText());
+                    loadingIndicator.setVisible(false);
                 });
 
                 return null;
@@ -274,52 +279,40 @@ public class SearchController {
     }
 
     private void performSearch(String query) {
+        scheduleSearch(query, false);
+    }
+
+    /**
+     * Runs the index lookup and highlighting on a search worker and applies only the latest result.
+     * The entity filter and fuzzy toggle are read here, on the FX thread, before the work is handed off.
+     */
+    private void scheduleSearch(String query, boolean debounce) {
         if (isLoading) return;
 
-        String lowerQuery = query.toLowerCase().trim();
+        String lowerQuery = query == null ? "" : query.toLowerCase().trim();
+        SearchResult.EntityType type = entityFilter.getValue();
+        boolean fuzzy = fuzzyToggle.isSelected();
 
-        List<SearchResult> results = allResults.stream()
-            .map(result -> {
-                double score = calculateRelevanceScore(result, lowerQuery);
-                result.setRelevanceScore(score);
-                if (score > 0) {
+        Callable<List<SearchResult>> search = () -> {
+            List<SearchResult> results = searchIndex.search(lowerQuery, type, MAX_RESULTS, fuzzy);
+            if (!lowerQuery.isEmpty()) {
+                for (SearchResult result : results) {
                     result.setHighlightedTitle(highlightText(result.getTitle(), lowerQuery));
                     result.setHighlightedSubtitle(highlightText(result.getSubtitle(), lowerQuery));
                 }
-                return result;
-            })
-            .filter(result -> result.getRelevanceScore() > 0)
-            .sorted()
-            .collect(Collectors.toList());
-
-        filteredResults.setAll(results);
-        applyFilters();
-    }
-
-    private double calculateRelevanceScore(SearchResult result, String query) {
-        if (query.isEmpty()) return 1.0;
-
-        String title = result.getTitle().toLowerCase();
-        String subtitle = result.getSubtitle().toLowerCase();
-        String details = result.getDetails().toLowerCase();
-
-        double score = 0;
-
-        // Exact matches get highest score
-        if (title.equals(query)) score += 10;
-        if (subtitle.contains(query)) score += 5;
-        if (title.contains(query)) score += 3;
-        if (details.contains(query)) score += 1;
+            }
+            return results;
+        };
+        Consumer<List<SearchResult>> show = results -> {
+            filteredResults.setAll(results);
+            updateResultsCount();
+        };
 
-        // Word matches
-        String[] queryWords = query.split("\\s+");
-        for (String word : queryWords) {
-            if (title.contains(word)) score += 2;
-            if (subtitle.contains(word)) score += 1.5;
-            if (details.contains(word)) score += 0.5;
+        if (debounce) {
+            searchScheduler.submit(search, show);
+        } else {
+            searchScheduler.submitNow(search, show);
         }
-
-        return score;
     }
 
     private String highlightText(String text, String query) {
@@ -339,32 +332,16 @@ public class SearchController {
     }
 
     private void applyFilters() {
-        List<SearchResult> filtered = new ArrayList<>(filteredResults);
-
-        // Entity type filter
-        SearchResult.EntityType selectedType = entityFilter.getValue();
-        if (selectedType != null) {
-            filtered = filtered.stream()
-                .filter(result -> result.getEntityType() == selectedType)
-                .collect(Collectors.toList());
-        }
-
-        // Date filters (if applicable - would need date fields in models)
-        // For now, skip date filtering as models don't have date fields
-
-        filteredResults.setAll(filtered);
-        updateResultsCount();
+        // The entity type filter is applied inside the index so it does not eat into MAX_RESULTS.
+        // Date filters would need date fields in the models; for now they are not applied.
+        performSearch(searchField.getText());
     }
 
     private void clearFilters() {
         entityFilter.setValue(null);
         dateFromPicker.setValue(null);
         dateToPicker.setValue(null);
-        filteredResults.setAll(allResults.stream()
-            .filter(result -> result.getRelevanceScore() > 0)
-            .sorted()
-            .collect(Collectors.toList()));
-        updateResultsCount();
+        performSearch(searchField.getText());
     }
 
     private void updateResultsCount() {
@@ -8,13 +8,16 @@
 package com.library.controller;
 
 import com.library.dao.StudentDAO;
-import com.library.model.Student;
+import com.library.model.Page;
 import com.library.model.Session;
+import com.library.model.Student;
 import com.library.service.RegistrationService;
+import com.library.util.LazyPagedList;
 import com.library.util.UIUtil;
 import com.library.util.EmailService;
 import com.library.util.EmailValidator;
 import com.library.util.UILayoutConstants;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -28,6 +31,7 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
+import java.util.ArrayList;
 import java.util.List;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
@@ -36,8 +40,13 @@ public class StudentManagementController {
     private Stage stage;
     private StudentDAO studentDAO = new StudentDAO();
     private EmailService emailService = new EmailService();
-    private ObservableList<Student> students = FXCollections.observableArrayList();
-    private ObservableList<Student> filteredStudents = FXCollections.observableArrayList();
+    // Active students, fetched a page at a time as the table scrolls; filtered and sorted in SQL
+    private LazyPagedList<Student> students = new LazyPagedList<>(new LazyPagedList.Loader<Student>() {
+        @Override
+        public Page<Student> load(String query, String sortKey, boolean ascending, Page.Key after, int offset, int limit) throws Exception {
+            return studentDAO.getStudentsPage(query, true, sortKey, ascending, after, offset, limit);
+        }
+    }, Platform::runLater);
     private TableView<Student> studentTable = new TableView<>();
     private TextField searchField = new TextField();
     private TextField nameField = new TextField();
@@ -156,7 +165,7 @@ public class StudentManagementController {
 
         searchField.setPromptText("Search students...");
         searchField.setStyle("-fx-background-radius: 8; -fx-padding: 8 12 8 12; -fx-pref-width: 300; -fx-font-weight: bold;");
-        searchField.textProperty().addListener((observable, oldValue, newValue) -> filterStudents(newValue));
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> students.setQuery(newValue));
 
         Label tableTitle = new Label("Students");
         tableTitle.setStyle("-fx-font-size: 18px; -fx-font-weight: 700; -fx-text-fill: #1e293b;");
@@ -181,36 +190,48 @@ public class StudentManagementController {
 
     private void setupStudentTable() {
         TableColumn<Student, String> nameCol = new TableColumn<>("Name");
+        nameCol.setId("name");
         nameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
         nameCol.setPrefWidth(120);
 
         TableColumn<Student, String> idCol = new TableColumn<>("Student ID");
+        idCol.setId("studentId");
         idCol.setCellValueFactory(new PropertyValueFactory<>("studentId"));
         idCol.setPrefWidth(100);
 
         TableColumn<Student, String> emailCol = new TableColumn<>("Email");
+        emailCol.setId("email");
         emailCol.setCellValueFactory(new PropertyValueFactory<>("email"));
         emailCol.setPrefWidth(150);
 
         TableColumn<Student, String> mobileCol = new TableColumn<>("Mobile");
+        mobileCol.setId("mobile");
         mobileCol.setCellValueFactory(new PropertyValueFactory<>("mobile"));
         mobileCol.setPrefWidth(100);
 
         TableColumn<Student, String> courseCol = new TableColumn<>("Course");
+        courseCol.setId("course");
         courseCol.setCellValueFactory(new PropertyValueFactory<>("course"));
         courseCol.setPrefWidth(100);
 
         TableColumn<Student, String> rfidCol = new TableColumn<>("RFID");
+        rfidCol.setId("rfid");
         rfidCol.setCellValueFactory(new PropertyValueFactory<>("rfid"));
         rfidCol.setPrefWidth(100);
 
         studentTable.getColumns().setAll(nameCol, idCol, emailCol, mobileCol, courseCol, rfidCol);
+        // Sort in the database; only the first sort column is used, keyed by its id
+        studentTable.setSortPolicy(table -> {
+            TableColumn<Student, ?> column = table.getSortOrder().isEmpty() ? null : table.getSortOrder().get(0);
+            students.setSort(column == null ? null : column.getId(),
+                    column == null || column.getSortType() == TableColumn.SortType.ASCENDING);
+            return true;
+        });
         studentTable.setPrefHeight(400);
     }
 
     private void loadStudents() {
-        students.clear();
-        students.addAll(studentDAO.getAllStudents(true)); // Load active students
+        students.refresh();
     }
 
     private void addStudent() {
@@ -321,7 +342,9 @@ public class StudentManagementController {
     }
 
     private void deleteStudent() {
-        ObservableList<Student> selectedStudents = studentTable.getSelectionModel().getSelectedItems();
+        // Rows still loading read as null; copy so the refresh after deleting cannot change the list mid-loop
+        List<Student> selectedStudents = new ArrayList<>(studentTable.getSelectionModel().getSelectedItems());
+        selectedStudents.removeIf(student -> student == null);
         if (selectedStudents.isEmpty()) {
             UIUtil.showAlert("Error", "Please select students to delete", Alert.AlertType.ERROR);
             return;
@@ -393,26 +416,6 @@ public class StudentManagementController {
         studentTable.getSelectionModel().clearSelection();
     }
 
-    private void filterStudents(String query) {
-        if (query == null || query.isEmpty()) {
-            studentTable.setItems(students);
-        } else {
-            filteredStudents.clear();
-            String lowerQuery = query.toLowerCase();
-            for (Student student : students) {
-                if (student.getName().toLowerCase().contains(lowerQuery) ||
-                    student.getStudentId().toLowerCase().contains(lowerQuery) ||
-                    student.getEmail().toLowerCase().contains(lowerQuery) ||
-                    student.getMobile().toLowerCase().contains(lowerQuery) ||
-                    student.getCourse().toLowerCase().contains(lowerQuery) ||
-                    student.getRfid().toLowerCase().contains(lowerQuery)) {
-                    filteredStudents.add(student);
-                }
-            }
-            studentTable.setItems(filteredStudents);
-        }
-    }
-
     private Scene getBlockedStudentsScene() {
         // Content container with semi-transparent background
         BorderPane mainLayout = new BorderPane();
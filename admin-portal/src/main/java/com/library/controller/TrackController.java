@@ -2,27 +2,53 @@ package com.library.controller;
 
 import com.library.dao.LogDAO;
 import com.library.model.Log;
-import com.library.util.UILayoutConstants;
+import com.library.model.LogFilter;
+import com.library.model.Page;
+import com.library.util.LazyPagedList;
 import com.library.util.UIUtil;
-import javafx.fxml.FXMLLoader;
+import javafx.application.Platform;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.ListChangeListener;
 import javafx.geometry.Insets;
-import javafx.scene.Parent;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
-import javafx.scene.control.Button;
-import javafx.scene.control.ListView;
-import javafx.scene.control.TextField;
 import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
 import javafx.scene.control.SelectionMode;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
-import java.io.IOException;
-import java.util.ArrayList;
+
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class TrackController {
     private Stage stage;
+    private LogDAO logDAO = new LogDAO();
+    // Time range, type and actor; the search text is the list's query. Replaced, never mutated, when a filter changes
+    private volatile LogFilter filter = LogFilter.ALL;
+    // Log entries, fetched a page at a time as the table scrolls; filtered and sorted in SQL
+    private LazyPagedList<Log> logs = new LazyPagedList<>(new LazyPagedList.Loader<Log>() {
+        @Override
+        public Page<Log> load(String query, String sortKey, boolean ascending, Page.Key after, int offset, int limit) throws Exception {
+            // Newest first unless a column was clicked
+            return sortKey == null
+                    ? logDAO.getLogsPage(filter.withText(query), "timestamp", false, after, offset, limit)
+                    : logDAO.getLogsPage(filter.withText(query), sortKey, ascending, after, offset, limit);
+        }
+    }, Platform::runLater);
+    private TableView<Log> logTable = new TableView<>();
 
     public TrackController(Stage stage) {
         this.stage = stage;
@@ -34,48 +60,67 @@ public class TrackController {
         layout.setPadding(new Insets(20));
         layout.setAlignment(Pos.CENTER);
 
-        ListView<String> logView = new ListView<>();
-        logView.setStyle("-fx-background-color: #fafafa; -fx-border-color:#e5e7eb; -fx-padding:8; -fx-background-radius:6;");
-        logView.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
-
-        // Method to refresh logs
-        Runnable refreshLogs = () -> {
-            List<Log> allLogs = new LogDAO().getAllLogs();
-            logView.getItems().clear();
-            for (Log log : allLogs) {
-                logView.getItems().add(log.getTimestamp() + ": " + log.getAction());
-            }
+        setupLogTable();
+
+        TextField searchField = new TextField();
+        searchField.setPromptText("Search log text");
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> logs.setQuery(newValue));
+        HBox.setHgrow(searchField, Priority.ALWAYS);
+
+        ComboBox<Log.ActionType> typeBox = new ComboBox<>();
+        typeBox.getItems().add(null);
+        typeBox.getItems().addAll(Log.ActionType.values());
+        typeBox.setPromptText("All types");
+        typeBox.setButtonCell(new ActionTypeCell());
+        typeBox.setCellFactory(list -> new ActionTypeCell());
+
+        TextField actorField = new TextField();
+        actorField.setPromptText("Admin ID");
+        actorField.setPrefWidth(110);
+
+        DatePicker fromPicker = new DatePicker();
+        fromPicker.setPromptText("From");
+        fromPicker.setPrefWidth(130);
+        DatePicker toPicker = new DatePicker();
+        toPicker.setPromptText("To");
+        toPicker.setPrefWidth(130);
+
+        Runnable applyFilter = () -> {
+            LocalDate from = fromPicker.getValue();
+            LocalDate to = toPicker.getValue();
+            String actor = actorField.getText();
+            filter = new LogFilter(from != null ? from.atStartOfDay() : null,
+                    // The To date is inclusive
+                    to != null ? to.plusDays(1).atStartOfDay() : null,
+                    typeBox.getValue(),
+                    actor == null || actor.trim().isEmpty() ? null : actor.trim(),
+                    null);
+            logs.refresh();
         };
+        typeBox.valueProperty().addListener((obs, oldValue, newValue) -> applyFilter.run());
+        fromPicker.valueProperty().addListener((obs, oldValue, newValue) -> applyFilter.run());
+        toPicker.valueProperty().addListener((obs, oldValue, newValue) -> applyFilter.run());
+        actorField.setOnAction(e -> applyFilter.run());
 
-        // Initial load
-        refreshLogs.run();
+        HBox filterBar = new HBox(8, searchField, typeBox, actorField, fromPicker, toPicker);
+        filterBar.setAlignment(Pos.CENTER_LEFT);
 
-        TextField searchField = new TextField();
-        searchField.setPromptText("Search by action or timestamp");
-
-        Button searchBtn = UIUtil.createStyledButton("Search", "#3b82f6", "#1d4ed8");
-        searchBtn.setOnAction(e -> {
-            String query = searchField.getText().toLowerCase();
-            List<Log> allLogs = new LogDAO().getAllLogs();
-            logView.getItems().clear();
-            for (Log log : allLogs) {
-                if (log.getAction().toLowerCase().contains(query) || log.getTimestamp().toLowerCase().contains(query)) {
-                    logView.getItems().add(log.getTimestamp() + ": " + log.getAction());
-                }
-            }
-        });
+        Label countLabel = new Label();
+        logs.addListener((ListChangeListener<Log>) change -> countLabel.setText(logs.isSizeExact()
+                ? String.format("%,d matching entries", logs.size())
+                : String.format("About %,d matching entries", logs.size())));
 
         Button deleteBtn = UIUtil.createStyledButton("Delete Selected", "#ef4444", "#dc2626");
         deleteBtn.setOnAction(e -> {
-            List<Integer> selectedIndices = logView.getSelectionModel().getSelectedIndices();
-            List<Log> allLogs = new LogDAO().getAllLogs();
-            List<Integer> idsToDelete = new ArrayList<>();
-            for (int index : selectedIndices) {
-                idsToDelete.add(allLogs.get(index).getId());
-            }
-            new LogDAO().deleteLogsByIds(idsToDelete);
+            // Rows still loading are null and cannot be selected meaningfully, so only loaded rows are deleted
+            List<Integer> idsToDelete = logTable.getSelectionModel().getSelectedItems().stream()
+                    .filter(Objects::nonNull)
+                    .map(Log::getId)
+                    .collect(Collectors.toList());
+            logDAO.deleteLogsByIds(idsToDelete);
+            logTable.getSelectionModel().clearSelection();
             // Refresh
-            refreshLogs.run();
+            logs.refresh();
         });
 
         Button advancedBtn = UIUtil.createStyledButton("Advanced Feature", "#10b981", "#059669");
@@ -90,7 +135,54 @@ public class TrackController {
         Button backBtn = UIUtil.createStyledButton("Back", "#6b7280", "#4b5563");
         backBtn.setOnAction(e -> UIUtil.switchScene(stage, new DashboardController(stage).getScene()));
 
-        layout.getChildren().addAll(searchField, searchBtn, logView, deleteBtn, advancedBtn, backBtn);
+        VBox.setVgrow(logTable, Priority.ALWAYS);
+        layout.getChildren().addAll(filterBar, countLabel, logTable, deleteBtn, advancedBtn, backBtn);
+
+        // Initial load
+        logs.refresh();
         return UIUtil.createScene(null, layout);
     }
-}
\ No newline at end of file
+
+    private void setupLogTable() {
+        logTable.setItems(logs);
+        logTable.setStyle("-fx-background-color: #fafafa; -fx-border-color:#e5e7eb; -fx-padding:8; -fx-background-radius:6;");
+        logTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        logTable.setPlaceholder(new Label("No log entries"));
+
+        TableColumn<Log, String> timeCol = column("Time", "timestamp", Log::getTimestamp, 170);
+        TableColumn<Log, String> typeCol = column("Type", "type", log -> log.getActionType().getDisplayName(), 90);
+        TableColumn<Log, String> actorCol = column("Admin", "actor", Log::getActor, 100);
+        TableColumn<Log, String> entityCol = column("Record", "entity",
+                log -> log.getEntityType() == null ? null
+                        : log.getEntityId() == null ? log.getEntityType() : log.getEntityType() + " #" + log.getEntityId(), 120);
+        TableColumn<Log, String> actionCol = column("Details", null, Log::getAction, 480);
+        actionCol.setSortable(false);
+
+        logTable.getColumns().setAll(timeCol, typeCol, actorCol, entityCol, actionCol);
+        // Sort in the database; only the first sort column is used, keyed by its id
+        logTable.setSortPolicy(table -> {
+            TableColumn<Log, ?> column = table.getSortOrder().isEmpty() ? null : table.getSortOrder().get(0);
+            logs.setSort(column == null ? null : column.getId(),
+                    column == null || column.getSortType() == TableColumn.SortType.ASCENDING);
+            return true;
+        });
+        logTable.setPrefHeight(450);
+    }
+
+    private static TableColumn<Log, String> column(String title, String sortKey, Function<Log, String> value, double width) {
+        TableColumn<Log, String> column = new TableColumn<>(title);
+        column.setId(sortKey);
+        // Rows that are still loading are null
+        column.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue() == null ? null : value.apply(cell.getValue())));
+        column.setPrefWidth(width);
+        return column;
+    }
+
+    private static class ActionTypeCell extends ListCell<Log.ActionType> {
+        @Override
+        protected void updateItem(Log.ActionType item, boolean empty) {
+            super.updateItem(item, empty);
+            setText(empty ? null : item == null ? "All types" : item.getDisplayName());
+        }
+    }
+}
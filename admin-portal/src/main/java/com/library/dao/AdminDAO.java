@@ -139,10 +139,7 @@ public class AdminDAO {
         }
         String resetCode = generateResetCode();
         // Store reset code temporarily, but for simplicity, we'll send it directly
-        String subject = "Password Reset Verification";
-        String body = "Your password reset code is: " + resetCode + "\n\nUse this code to reset your password.";
-        EmailService emailService = new EmailService();
-        return emailService.sendEmail(email, subject, body);
+        return new EmailService().sendPasswordResetCode(email, resetCode);
     }
 
     public boolean isEmailTakenByAnotherAdmin(String email, int currentAdminId) {
@@ -0,0 +1,292 @@
+package com.library.dao;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind buffer for audit entries. {@link #append(String)} only puts the entry into a bounded in-memory
+ * buffer; a background thread hands them to a {@link BatchSink} in batches, as soon as {@code batchSize} entries are
+ * waiting or {@code flushIntervalMs} after the oldest one arrived, whichever comes first.
+ *
+ * When the buffer is full, {@link OverflowPolicy#BLOCK} makes the caller wait up to {@code blockTimeoutMs} for room
+ * and {@link OverflowPolicy#DROP} gives up straight away. Dropped entries are counted, and the count is written as an
+ * entry of its own with the next batch so the gap shows up in the log. A batch the sink rejects is retried twice,
+ * one flush interval apart, before it is printed to stderr and discarded.
+ *
+ * {@link #shutdown(long)} writes everything still buffered before the thread stops.
+ */
+public class AuditLogWriter {
+
+    /**
+     * Writes one batch of entries, all or nothing.
+     */
+    public interface BatchSink {
+        void write(List<Entry> entries) throws SQLException;
+    }
+
+    public enum OverflowPolicy { BLOCK, DROP }
+
+    /**
+     * One audit entry, stamped with the time it was appended rather than the time it was written.
+     */
+    public static class Entry {
+        public final String actor;
+        public final String actionType;
+        public final String entityType;
+        public final String entityId;
+        public final String action;
+        public final long timestampMillis;
+        // Set only on the markers used by flush() and shutdown(), which are never written
+        final CountDownLatch written;
+
+        Entry(String actor, String actionType, String entityType, String entityId, String action,
+              long timestampMillis, CountDownLatch written) {
+            this.actor = actor;
+            this.actionType = actionType;
+            this.entityType = entityType;
+            this.entityId = entityId;
+            this.action = action;
+            this.timestampMillis = timestampMillis;
+            this.written = written;
+        }
+    }
+
+    /**
+     * Snapshot of the writer's counters.
+     */
+    public static class Stats {
+        private final long written;
+        private final long dropped;
+        private final long failedBatches;
+        private final int pending;
+
+        Stats(long written, long dropped, long failedBatches, int pending) {
+            this.written = written;
+            this.dropped = dropped;
+            this.failedBatches = failedBatches;
+            this.pending = pending;
+        }
+
+        public long getWritten() { return written; }
+        public long getDropped() { return dropped; }
+        public long getFailedBatches() { return failedBatches; }
+        public int getPending() { return pending; }
+
+        @Override
+        public String toString() {
+            return String.format("AuditLogWriter[written=%d, dropped=%d, failedBatches=%d, pending=%d]",
+                    written, dropped, failedBatches, pending);
+        }
+    }
+
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private final BatchSink sink;
+    private final BlockingQueue<Entry> buffer;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutMs;
+    private final Thread flusher;
+    private volatile boolean shutdown = false;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    // Drops not yet reported in the log itself
+    private final AtomicLong unreportedDrops = new AtomicLong();
+
+    public AuditLogWriter(BatchSink sink, int capacity, int batchSize, long flushIntervalMs,
+                          OverflowPolicy overflowPolicy, long blockTimeoutMs) {
+        if (capacity < 1 || batchSize < 1 || flushIntervalMs < 1) {
+            throw new IllegalArgumentException("Invalid audit log settings: capacity=" + capacity
+                    + ", batchSize=" + batchSize + ", flushIntervalMs=" + flushIntervalMs);
+        }
+        this.sink = sink;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMs = blockTimeoutMs;
+        this.flusher = new Thread(this::run, "audit-log-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Buffers an unclassified entry for writing.
+     *
+     * @return false if the entry was dropped because the buffer was full or the writer is shut down
+     */
+    public boolean append(String action) {
+        return append(null, "info", null, null, action);
+    }
+
+    /**
+     * Buffers an entry for writing.
+     *
+     * @return false if the entry was dropped because the buffer was full or the writer is shut down
+     */
+    public boolean append(String actor, String actionType, String entityType, String entityId, String action) {
+        if (shutdown) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        Entry entry = new Entry(actor, actionType, entityType, entityId, action, System.currentTimeMillis(), null);
+        if (buffer.offer(entry)) {
+            return true;
+        }
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            try {
+                if (buffer.offer(entry, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        dropped.incrementAndGet();
+        unreportedDrops.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Waits until every entry appended before this call has been written (or given up on).
+     *
+     * @return false if that did not happen within the timeout
+     */
+    public boolean flush(long timeoutMs) {
+        if (shutdown) {
+            // Nothing is written any more; shutdown() has already waited for the buffer
+            return buffer.isEmpty();
+        }
+        return awaitMarker(marker(0), timeoutMs);
+    }
+
+    /**
+     * Stops accepting entries, writes the ones still buffered and stops the background thread.
+     *
+     * @param timeoutMs how long to wait for the remaining entries to be written
+     */
+    public void shutdown(long timeoutMs) {
+        if (shutdown) {
+            return;
+        }
+        shutdown = true;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        awaitMarker(marker(-1), timeoutMs);
+        try {
+            flusher.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusher.isAlive()) {
+            System.err.println("Audit log writer did not finish within " + timeoutMs + " ms; " + buffer.size() + " entries not written");
+        }
+    }
+
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    public Stats getStats() {
+        return new Stats(written.get(), dropped.get(), failedBatches.get(), buffer.size());
+    }
+
+    private static Entry marker(long timestampMillis) {
+        return new Entry(null, null, null, null, null, timestampMillis, new CountDownLatch(1));
+    }
+
+    private boolean awaitMarker(Entry marker, long timeoutMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        try {
+            if (!buffer.offer(marker, timeoutMs, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+            return marker.written.await(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void run() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        List<CountDownLatch> markers = new ArrayList<>();
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                Entry first = buffer.take();
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                Entry next = first;
+                // Collect until the batch is full, the interval is up, or someone is waiting for a flush
+                while (true) {
+                    if (next.written != null) {
+                        markers.add(next.written);
+                        stopping = next.timestampMillis < 0;
+                        break;
+                    }
+                    batch.add(next);
+                    if (batch.size() >= batchSize) {
+                        break;
+                    }
+                    next = buffer.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                }
+            } catch (InterruptedException e) {
+                stopping = true;
+            }
+            if (stopping) {
+                // Anything appended while shutdown() was starting is written too
+                buffer.drainTo(batch);
+                batch.removeIf(entry -> entry.written != null && markers.add(entry.written));
+            }
+            writeBatch(batch);
+            batch.clear();
+            markers.forEach(CountDownLatch::countDown);
+            markers.clear();
+        }
+    }
+
+    private void writeBatch(List<Entry> batch) {
+        long drops = unreportedDrops.getAndSet(0);
+        if (drops > 0) {
+            batch.add(new Entry(null, "warning", null, null, "Audit log buffer full: " + drops + " entries dropped",
+                    System.currentTimeMillis(), null));
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                sink.write(batch);
+                written.addAndGet(batch.size());
+                return;
+            } catch (SQLException | RuntimeException e) {
+                failedBatches.incrementAndGet();
+                if (attempt == MAX_WRITE_ATTEMPTS || shutdown) {
+                    System.err.println("Error writing " + batch.size() + " audit log entries, giving up: " + e.getMessage());
+                    for (Entry entry : batch) {
+                        System.err.println("  " + new Timestamp(entry.timestampMillis) + " " + entry.action);
+                    }
+                    return;
+                }
+                System.err.println("Error writing " + batch.size() + " audit log entries, retrying: " + e.getMessage());
+                try {
+                    Thread.sleep(flushIntervalMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -3,39 +3,58 @@ package com.library.dao;
 import com.library.dao.IssuedBookDAO;
 import com.library.model.Book;
 import com.library.model.Category;
+import com.library.model.Log;
+import com.library.model.Page;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class BookDAO {
 public List<Book> getAllBooks() {
-        LogDAO.log("Entering getAllBooks method.");
+        LogDAO.log(Log.ActionType.TRACE, "book", null, "Entering getAllBooks method.");
         List<Book> books = new ArrayList<>();
-        String sql = "SELECT b.*, c.name AS category_name FROM books b JOIN categories c ON b.category_id = c.id";
-        try (Connection conn = DatabaseUtil.getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                Category category = new Category();
-                category.setId(rs.getInt("category_id"));
-                category.setName(rs.getString("category_name"));
-                Book book = new Book();
-                book.setId(rs.getInt("id"));
-                book.setName(rs.getString("name"));
-                book.setAuthor(rs.getString("author"));
-                book.setBarcode(rs.getString("barcode"));
-                book.setCategoryId(rs.getInt("category_id"));
-                book.setCategory(category);
-                book.setQuantity(rs.getInt("quantity"));
-                books.add(book);
-            }
-            LogDAO.log("Retrieved " + books.size() + " books.");
+        try {
+            books = CatalogCache.books();
+            LogDAO.log(Log.ActionType.TRACE, "book", null, "Retrieved " + books.size() + " books.");
         } catch (SQLException e) {
-            LogDAO.log("SQLException in getAllBooks: " + e.getMessage());
+            LogDAO.log(Log.ActionType.ERROR, "book", null, "SQLException in getAllBooks: " + e.getMessage());
             e.printStackTrace();
         }
-        LogDAO.log("Exiting getAllBooks method.");
+        LogDAO.log(Log.ActionType.TRACE, "book", null, "Exiting getAllBooks method.");
         return books;
     }
 
+    /**
+     * Looks up a book by id in the catalog cache.
+     *
+     * @param id the book id
+     * @return the book with its category, or null if not found
+     */
+    public Book getBookById(int id) {
+        try {
+            return CatalogCache.bookById(id);
+        } catch (SQLException e) {
+            System.err.println("Error getting book by id: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Looks up a book by its exact barcode in the catalog cache.
+     *
+     * @param barcode the barcode
+     * @return the book with its category, or null if not found
+     */
+    public Book getBookByBarcode(String barcode) {
+        try {
+            return CatalogCache.bookByBarcode(barcode);
+        } catch (SQLException e) {
+            System.err.println("Error getting book by barcode: " + e.getMessage());
+            return null;
+        }
+    }
+
     public List<Book> getBooksByCategory(int categoryId) {
         List<Book> books = new ArrayList<>();
         String sql = "SELECT * FROM books WHERE category_id = ?";
@@ -57,7 +76,7 @@ public List<Book> getAllBooks() {
     }
 
 public boolean addBook(Book book) {
-        LogDAO.log("Entering addBook method with book: " + book.getName() + ", Author: " + book.getAuthor() + ", Barcode: " + book.getBarcode());
+        LogDAO.log(Log.ActionType.TRACE, "book", null, "Entering addBook method with book: " + book.getName() + ", Author: " + book.getAuthor() + ", Barcode: " + book.getBarcode());
         String sql = "INSERT INTO books (name, author, barcode, category_id, quantity) VALUES (?, ?, ?, ?, ?)";
         try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, book.getName());
@@ -67,23 +86,24 @@ public boolean addBook(Book book) {
             stmt.setInt(5, book.getQuantity());
             int rowsAffected = stmt.executeUpdate();
             if (rowsAffected > 0) {
-                LogDAO.log("Successfully added book: " + book.getName());
+                CatalogCache.invalidateBarcode(book.getBarcode());
+                LogDAO.log(Log.ActionType.CREATE, "book", null, "Successfully added book: " + book.getName());
             } else {
-                LogDAO.log("Failed to add book: " + book.getName());
+                LogDAO.log(Log.ActionType.WARNING, "book", null, "Failed to add book: " + book.getName());
             }
             return rowsAffected > 0;
         } catch (SQLException e) {
-            LogDAO.log("SQLException in addBook: " + e.getMessage());
+            LogDAO.log(Log.ActionType.ERROR, "book", null, "SQLException in addBook: " + e.getMessage());
             System.err.println("Error adding book to the database: " + e.getMessage());
             e.printStackTrace();
             return false;
         } finally {
-            LogDAO.log("Exiting addBook method.");
+            LogDAO.log(Log.ActionType.TRACE, "book", null, "Exiting addBook method.");
         }
     }
 
 public boolean updateBook(Book book) {
-        LogDAO.log("Entering updateBook method for book ID: " + book.getId());
+        LogDAO.log(Log.ActionType.TRACE, "book", book.getId(), "Entering updateBook method for book ID: " + book.getId());
         String sql = "UPDATE books SET name = ?, author = ?, barcode = ?, category_id = ?, quantity = ? WHERE id = ?";
         try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, book.getName());
@@ -94,17 +114,18 @@ public boolean updateBook(Book book) {
             stmt.setInt(6, book.getId());
             int rowsAffected = stmt.executeUpdate();
             if (rowsAffected > 0) {
-                LogDAO.log("Successfully updated book: " + book.getName());
+                CatalogCache.invalidateBook(book.getId());
+                LogDAO.log(Log.ActionType.UPDATE, "book", book.getId(), "Successfully updated book: " + book.getName());
             } else {
-                LogDAO.log("Failed to update book: " + book.getName());
+                LogDAO.log(Log.ActionType.WARNING, "book", book.getId(), "Failed to update book: " + book.getName());
             }
             return rowsAffected > 0;
         } catch (SQLException e) {
-            LogDAO.log("SQLException in updateBook: " + e.getMessage());
+            LogDAO.log(Log.ActionType.ERROR, "book", null, "SQLException in updateBook: " + e.getMessage());
             e.printStackTrace();
             return false;
         } finally {
-            LogDAO.log("Exiting updateBook method for book ID: " + book.getId());
+            LogDAO.log(Log.ActionType.TRACE, "book", book.getId(), "Exiting updateBook method for book ID: " + book.getId());
         }
     }
 
@@ -118,37 +139,38 @@ public boolean updateBook(Book book) {
      * @return true if all deletions were successful and password verified, false otherwise.
      */
     public boolean deleteAllBooks(String adminPassword) {
-        LogDAO.log("Attempt to delete all books initiated at " + new java.util.Date());
+        LogDAO.log(Log.ActionType.INFO, "book", null, "Attempt to delete all books initiated at " + new java.util.Date());
         // Simple password check, replace with actual authentication check if available
         if (!"admin123".equals(adminPassword)) {
-            LogDAO.log("Unauthorized attempt to delete all books. Invalid admin password at " + new java.util.Date());
+            LogDAO.log(Log.ActionType.DENIED, "book", null, "Unauthorized attempt to delete all books. Invalid admin password at " + new java.util.Date());
             return false;
         }
-        LogDAO.log("Admin password verification successful. Proceeding with deletion at " + new java.util.Date());
+        LogDAO.log(Log.ActionType.INFO, "book", null, "Admin password verification successful. Proceeding with deletion at " + new java.util.Date());
         try {
             IssuedBookDAO issuedDao = new IssuedBookDAO();
             String deleteIssuedSql = "DELETE FROM issued_books";
             try (Connection conn = DatabaseUtil.getConnection(); Statement stmt = conn.createStatement()) {
                 int issuedDeleted = stmt.executeUpdate(deleteIssuedSql);
-                LogDAO.log("Deleted " + issuedDeleted + " issued book records for fresh start at " + new java.util.Date());
+                LogDAO.log(Log.ActionType.DELETE, "book", null, "Deleted " + issuedDeleted + " issued book records for fresh start at " + new java.util.Date());
             }
             String deleteBooksSql = "DELETE FROM books";
             try (Connection conn = DatabaseUtil.getConnection(); Statement stmt = conn.createStatement()) {
                 int booksDeleted = stmt.executeUpdate(deleteBooksSql);
-                LogDAO.log("Deleted " + booksDeleted + " books for fresh start at " + new java.util.Date());
+                CatalogCache.invalidate();
+                LogDAO.log(Log.ActionType.DELETE, "book", null, "Deleted " + booksDeleted + " books for fresh start at " + new java.util.Date());
                 return true;
             }
         } catch (SQLException e) {
-            LogDAO.log("SQLException in deleteAllBooks: " + e.getMessage() + " at " + new java.util.Date());
+            LogDAO.log(Log.ActionType.ERROR, "book", null, "SQLException in deleteAllBooks: " + e.getMessage() + " at " + new java.util.Date());
             e.printStackTrace();
             return false;
         } finally {
-            LogDAO.log("Exiting deleteAllBooks method at " + new java.util.Date());
+            LogDAO.log(Log.ActionType.TRACE, "book", null, "Exiting deleteAllBooks method at " + new java.util.Date());
         }
     }
 
     public boolean deleteBook(int id) {
-        LogDAO.log("Attempt to delete book started for book ID: " + id + " at " + new java.util.Date());
+        LogDAO.log(Log.ActionType.INFO, "book", id, "Attempt to delete book started for book ID: " + id + " at " + new java.util.Date());
         try {
             // Get barcode for the book
             String barcodeSql = "SELECT barcode FROM books WHERE id = ?";
@@ -159,18 +181,18 @@ public boolean updateBook(Book book) {
                     if (rs.next()) {
                         barcode = rs.getString("barcode");
                     } else {
-                        LogDAO.log("No book found with id " + id + " to get barcode at " + new java.util.Date());
+                        LogDAO.log(Log.ActionType.WARNING, "book", id, "No book found with id " + id + " to get barcode at " + new java.util.Date());
                     }
                 }
             }
             if (barcode != null) {
                 // Check if the book is currently issued
                 if (new IssuedBookDAO().isBookIssued(barcode)) {
-                    LogDAO.log("Cannot delete book ID " + id + " because it is currently issued at " + new java.util.Date());
+                    LogDAO.log(Log.ActionType.WARNING, "book", id, "Cannot delete book ID " + id + " because it is currently issued at " + new java.util.Date());
                     return false;
                 }
             } else {
-                LogDAO.log("Barcode is null for book ID " + id + ", aborting delete at " + new java.util.Date());
+                LogDAO.log(Log.ActionType.WARNING, "book", id, "Barcode is null for book ID " + id + ", aborting delete at " + new java.util.Date());
                 return false;
             }
             String sql = "DELETE FROM books WHERE id = ?";
@@ -178,18 +200,19 @@ public boolean updateBook(Book book) {
                 stmt.setInt(1, id);
                 int rowsAffected = stmt.executeUpdate();
                 if (rowsAffected > 0) {
-                    LogDAO.log("Successfully deleted book: ID " + id + " at " + new java.util.Date());
+                    CatalogCache.invalidateBook(id);
+                    LogDAO.log(Log.ActionType.DELETE, "book", id, "Successfully deleted book: ID " + id + " at " + new java.util.Date());
                 } else {
-                    LogDAO.log("Failed to delete book: ID " + id + " at " + new java.util.Date());
+                    LogDAO.log(Log.ActionType.WARNING, "book", id, "Failed to delete book: ID " + id + " at " + new java.util.Date());
                 }
                 return rowsAffected > 0;
             }
         } catch (SQLException e) {
-            LogDAO.log("SQLException in deleteBook: " + e.getMessage() + " at " + new java.util.Date());
+            LogDAO.log(Log.ActionType.ERROR, "book", null, "SQLException in deleteBook: " + e.getMessage() + " at " + new java.util.Date());
             e.printStackTrace();
             return false;
         } finally {
-            LogDAO.log("Exiting deleteBook method for book ID: " + id + " at " + new java.util.Date());
+            LogDAO.log(Log.ActionType.TRACE, "book", id, "Exiting deleteBook method for book ID: " + id + " at " + new java.util.Date());
         }
     }
 
@@ -202,23 +225,17 @@ public boolean updateBook(Book book) {
     }
 
     /**
-     * Searches for books by name or barcode, showing all books with correct availability based on quantity vs issued count.
-     * This method is used for centralized search, limiting results to 10 for performance.
+     * Searches books by name, author or barcode, one page at a time, with availability from the loan counters.
      *
-     * @param query the search query (partial name or barcode)
-     * @return a list of Book objects matching the query with correct availability
+     * @param query    the search text, matched anywhere in those columns; blank returns all books
+     * @param after    {@link Page#getNextKey()} of the previous page, or null for the first page
+     * @param pageSize number of books per page
+     * @return the page of books, ordered by id
      * @throws SQLException if a database access error occurs
      */
-    public List<Book> searchBooks(String query) throws SQLException {
-        List<Book> books = new ArrayList<>();
-        String sql = "SELECT id, name, author, barcode, category_id, quantity FROM books WHERE LOWER(name) LIKE LOWER(?) OR LOWER(author) LIKE LOWER(?) OR LOWER(barcode) LIKE LOWER(?) LIMIT 10";
-        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            String searchPattern = query + "%";
-            stmt.setString(1, searchPattern);
-            stmt.setString(2, searchPattern);
-            stmt.setString(3, searchPattern);
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
+    public Page<Book> searchBooks(String query, Page.Key after, int pageSize) throws SQLException {
+        return PagedQuery.search("SELECT b.id, b.name, b.author, b.barcode, b.category_id, b.quantity, b.issued_count",
+                "FROM books b", null, BOOK_FILTER, query, null, true, "b.id", after, 0, pageSize, rs -> {
                     Book book = new Book();
                     book.setId(rs.getInt("id"));
                     book.setName(rs.getString("name"));
@@ -227,12 +244,52 @@ public boolean updateBook(Book book) {
                     book.setCategoryId(rs.getInt("category_id"));
                     book.setQuantity(rs.getInt("quantity"));
                     // Calculate availability: available if quantity > issued count
-                    int issuedCount = new IssuedBookDAO().getIssuedCountForBook(book.getId());
-                    book.setAvailable(book.getQuantity() > issuedCount);
-                    books.add(book);
-                }
-            }
-        }
-        return books;
+                    book.setAvailable(book.getQuantity() > rs.getInt("issued_count"));
+                    return book;
+                });
+    }
+
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "name", "b.name",
+            "author", "b.author",
+            "barcode", "b.barcode",
+            "category", "c.name",
+            "quantity", "b.quantity");
+
+    private static final String BOOK_COLUMNS = "SELECT b.id, b.name, b.author, b.barcode, b.category_id, b.quantity, c.name AS category_name";
+    private static final String BOOK_FROM = "FROM books b LEFT JOIN categories c ON b.category_id = c.id";
+    private static final String BOOK_FILTER = "LOWER(b.name) LIKE ? OR LOWER(b.author) LIKE ? OR LOWER(b.barcode) LIKE ?";
+
+    /**
+     * Reads one page of the book management table.
+     *
+     * @param query     the filter text, matched anywhere in name, author, barcode or category; blank matches all books
+     * @param sortKey   one of name, author, barcode, category, quantity; anything else sorts by id
+     * @param ascending the sort direction
+     * @param after     {@link Page#getNextKey()} of the previous page, or null for the first page or a jump
+     * @param offset    index of the first row when {@code after} is null
+     * @param pageSize  maximum number of rows
+     * @return the page of books, with their category; the first page carries the total
+     * @throws SQLException if a database access error occurs
+     */
+    public Page<Book> getBooksPage(String query, String sortKey, boolean ascending, Page.Key after, int offset,
+                                   int pageSize) throws SQLException {
+        return PagedQuery.search(BOOK_COLUMNS, BOOK_FROM, null, BOOK_FILTER + " OR LOWER(c.name) LIKE ?", query,
+                PagedQuery.sortColumn(SORT_COLUMNS, sortKey), ascending, "b.id", after, offset, pageSize, BookDAO::mapBook);
+    }
+
+    private static Book mapBook(ResultSet rs) throws SQLException {
+        Category category = new Category();
+        category.setId(rs.getInt("category_id"));
+        category.setName(rs.getString("category_name"));
+        Book book = new Book();
+        book.setId(rs.getInt("id"));
+        book.setName(rs.getString("name"));
+        book.setAuthor(rs.getString("author"));
+        book.setBarcode(rs.getString("barcode"));
+        book.setCategoryId(rs.getInt("category_id"));
+        book.setCategory(category);
+        book.setQuantity(rs.getInt("quantity"));
+        return book;
     }
 }
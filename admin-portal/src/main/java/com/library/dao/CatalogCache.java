@@ -0,0 +1,324 @@
+package com.library.dao;
+
+import com.library.model.Book;
+import com.library.model.Category;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide cache of the catalog: books by id and by barcode, and categories by id.
+ * {@link BookDAO} and {@link CategoryDAO} read from it instead of querying the whole catalog on every screen.
+ *
+ * Entries expire after {@code catalog.cache.ttlSeconds} seconds (env {@code CATALOG_CACHE_TTL_SECONDS}, default 300),
+ * after which the next read reloads everything with one query per table. Writes made through the DAOs update the
+ * cache straight away: a changed book is re-read on its own, and category changes drop the whole cache since
+ * books carry their category name.
+ *
+ * Changes made by other processes (the other portal, another kiosk) arrive through Postgres LISTEN/NOTIFY:
+ * the triggers added in schema migration 4 send the changed row on the {@value #CHANNEL} channel, and a background
+ * thread applies them. The listener can be turned off with {@code catalog.cache.listen=false}
+ * (env {@code CATALOG_CACHE_LISTEN}), e.g. behind a connection pooler that does not support LISTEN; the TTL still applies.
+ *
+ * Callers always get copies, so editing a returned book does not change the cached one.
+ */
+public final class CatalogCache {
+
+    static final String CHANNEL = "catalog_changed";
+
+    private static final String SELECT_BOOKS =
+            "SELECT b.*, c.name AS category_name FROM books b JOIN categories c ON b.category_id = c.id";
+    private static final String SELECT_CATEGORIES = "SELECT id, name FROM categories";
+    private static final long LISTEN_POLL_MS = 10_000;
+    private static final long LISTEN_RETRY_MS = 30_000;
+
+    /**
+     * One loaded copy of the catalog. Single-book updates are applied to it in place.
+     */
+    private static final class Catalog {
+        final Map<Integer, Book> booksById = new ConcurrentSkipListMap<>();
+        final Map<String, Book> booksByBarcode = new ConcurrentHashMap<>();
+        final Map<Integer, Category> categoriesById = new ConcurrentSkipListMap<>();
+        final long loadedAt = System.nanoTime();
+
+        boolean isExpired() {
+            return System.nanoTime() - loadedAt > TTL_NANOS;
+        }
+
+        void put(Book book) {
+            remove(book.getId());
+            booksById.put(book.getId(), book);
+            if (book.getBarcode() != null) {
+                booksByBarcode.put(book.getBarcode(), book);
+            }
+        }
+
+        void remove(int bookId) {
+            Book old = booksById.remove(bookId);
+            if (old != null && old.getBarcode() != null) {
+                booksByBarcode.remove(old.getBarcode(), old);
+            }
+        }
+    }
+
+    private static final long TTL_NANOS = TimeUnit.SECONDS.toNanos(Long.parseLong(System.getProperty("catalog.cache.ttlSeconds",
+            System.getenv().getOrDefault("CATALOG_CACHE_TTL_SECONDS", "300"))));
+
+    private static volatile Catalog catalog;
+    // Bumped by every invalidation so a full load that overlapped a change is not installed
+    private static final AtomicLong version = new AtomicLong();
+    private static Thread listener;
+
+    private CatalogCache() {
+    }
+
+    /**
+     * Loads the catalog and, unless disabled, starts listening for changes made elsewhere.
+     * Safe to call more than once.
+     */
+    public static synchronized void warmUp() {
+        try {
+            current();
+        } catch (SQLException e) {
+            System.err.println("Error loading catalog cache: " + e.getMessage());
+            e.printStackTrace();
+        }
+        boolean listen = Boolean.parseBoolean(System.getProperty("catalog.cache.listen",
+                System.getenv().getOrDefault("CATALOG_CACHE_LISTEN", "true")));
+        if (listen && listener == null) {
+            listener = new Thread(CatalogCache::listen, "catalog-cache-listener");
+            listener.setDaemon(true);
+            listener.start();
+        }
+    }
+
+    /**
+     * Drops the whole cache; the next read reloads it.
+     */
+    public static void invalidate() {
+        version.incrementAndGet();
+        catalog = null;
+    }
+
+    /**
+     * Re-reads one book after it was added, edited or deleted. Does nothing if the cache is not loaded.
+     *
+     * @param bookId the id of the changed book
+     */
+    public static void invalidateBook(int bookId) {
+        reloadBook("b.id = ?", stmt -> stmt.setInt(1, bookId), bookId);
+    }
+
+    /**
+     * Re-reads the book with the given barcode, for inserts where the new id is not known.
+     *
+     * @param barcode the barcode of the added book
+     */
+    public static void invalidateBarcode(String barcode) {
+        if (barcode != null) {
+            reloadBook("b.barcode = ?", stmt -> stmt.setString(1, barcode), -1);
+        }
+    }
+
+    /**
+     * @return copies of all books with their category, ordered by id
+     */
+    static List<Book> books() throws SQLException {
+        List<Book> books = new ArrayList<>();
+        for (Book book : current().booksById.values()) {
+            books.add(copyOf(book));
+        }
+        return books;
+    }
+
+    /**
+     * @return a copy of the book, or null if there is no such book
+     */
+    static Book bookById(int id) throws SQLException {
+        Book book = current().booksById.get(id);
+        return book != null ? copyOf(book) : null;
+    }
+
+    /**
+     * @return a copy of the book with this exact barcode, or null if there is none
+     */
+    static Book bookByBarcode(String barcode) throws SQLException {
+        Book book = barcode != null ? current().booksByBarcode.get(barcode) : null;
+        return book != null ? copyOf(book) : null;
+    }
+
+    /**
+     * @return copies of all categories, ordered by id
+     */
+    static List<Category> categories() throws SQLException {
+        List<Category> categories = new ArrayList<>();
+        for (Category category : current().categoriesById.values()) {
+            categories.add(copyOf(category));
+        }
+        return categories;
+    }
+
+    /**
+     * @return a copy of the category, or null if there is no such category
+     */
+    static Category categoryById(int id) throws SQLException {
+        Category category = current().categoriesById.get(id);
+        return category != null ? copyOf(category) : null;
+    }
+
+    private static Catalog current() throws SQLException {
+        Catalog c = catalog;
+        if (c != null && !c.isExpired()) {
+            return c;
+        }
+        synchronized (CatalogCache.class) {
+            c = catalog;
+            if (c == null || c.isExpired()) {
+                long loadVersion = version.get();
+                c = load();
+                if (version.get() == loadVersion) {
+                    catalog = c;
+                }
+            }
+            return c;
+        }
+    }
+
+    private static Catalog load() throws SQLException {
+        Catalog loaded = new Catalog();
+        try (Connection conn = DatabaseUtil.getConnection(); Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery(SELECT_CATEGORIES)) {
+                while (rs.next()) {
+                    Category category = new Category();
+                    category.setId(rs.getInt("id"));
+                    category.setName(rs.getString("name"));
+                    loaded.categoriesById.put(category.getId(), category);
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery(SELECT_BOOKS)) {
+                while (rs.next()) {
+                    loaded.put(readBook(rs));
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private interface Binder {
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+
+    private static void reloadBook(String condition, Binder binder, int bookId) {
+        version.incrementAndGet();
+        Catalog c = catalog;
+        if (c == null) {
+            return;
+        }
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BOOKS + " WHERE " + condition)) {
+            binder.bind(stmt);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    c.put(readBook(rs));
+                } else if (bookId > 0) {
+                    c.remove(bookId);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error refreshing cached book: " + e.getMessage());
+            invalidate();
+        }
+    }
+
+    /**
+     * Applies change notifications until the JVM exits, reconnecting after errors.
+     * Anything missed while disconnected is covered by dropping the cache on every (re)connect.
+     */
+    private static void listen() {
+        while (true) {
+            try (Connection conn = DatabaseUtil.openPhysicalConnection(); Statement stmt = conn.createStatement()) {
+                stmt.execute("LISTEN " + CHANNEL);
+                invalidate();
+                PGConnection pg = conn.unwrap(PGConnection.class);
+                while (true) {
+                    PGNotification[] notifications = pg.getNotifications((int) LISTEN_POLL_MS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            apply(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                System.err.println("Catalog change listener disconnected: " + e.getMessage());
+            }
+            try {
+                Thread.sleep(LISTEN_RETRY_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Applies one notification payload: "books:&lt;id&gt;" for a single book, anything else drops the cache.
+     * Student and faculty changes (schema migration 10) share the channel but are ignored here; only the user
+     * portal caches borrowers.
+     */
+    static void apply(String payload) {
+        if (payload != null && (payload.startsWith("students") || payload.startsWith("faculty"))) {
+            return;
+        }
+        if (payload != null && payload.startsWith("books:")) {
+            try {
+                invalidateBook(Integer.parseInt(payload.substring("books:".length())));
+                return;
+            } catch (NumberFormatException e) {
+                // fall through to a full reload
+            }
+        }
+        invalidate();
+    }
+
+    private static Book readBook(ResultSet rs) throws SQLException {
+        Category category = new Category();
+        category.setId(rs.getInt("category_id"));
+        category.setName(rs.getString("category_name"));
+        Book book = new Book();
+        book.setId(rs.getInt("id"));
+        book.setName(rs.getString("name"));
+        book.setAuthor(rs.getString("author"));
+        book.setBarcode(rs.getString("barcode"));
+        book.setCategoryId(rs.getInt("category_id"));
+        book.setCategory(category);
+        book.setQuantity(rs.getInt("quantity"));
+        return book;
+    }
+
+    private static Book copyOf(Book source) {
+        Book book = new Book();
+        book.setId(source.getId());
+        book.setName(source.getName());
+        book.setAuthor(source.getAuthor());
+        book.setBarcode(source.getBarcode());
+        book.setCategoryId(source.getCategoryId());
+        book.setCategory(source.getCategory() != null ? copyOf(source.getCategory()) : null);
+        book.setQuantity(source.getQuantity());
+        book.setAvailable(source.isAvailable());
+        return book;
+    }
+
+    private static Category copyOf(Category source) {
+        Category category = new Category();
+        category.setId(source.getId());
+        category.setName(source.getName());
+        return category;
+    }
+}
@@ -2,6 +2,8 @@
 package com.library.dao;
 
 import com.library.model.Category;
+import com.library.model.Log;
+import com.library.model.Page;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -9,36 +11,22 @@ import java.util.List;
 
 public class CategoryDAO {
 public List<Category> getAllCategories() {
-        LogDAO.log("Entering getAllCategories method.");
-        String sql = "SELECT * FROM categories";
+        LogDAO.log(Log.ActionType.TRACE, "category", null, "Entering getAllCategories method.");
         List<Category> categories = new ArrayList<>();
-        try (Connection conn = DatabaseUtil.getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                Category c = new Category();
-                c.setId(rs.getInt("id"));
-                c.setName(rs.getString("name"));
-                categories.add(c);
-            }
-            LogDAO.log("Retrieved " + categories.size() + " categories.");
+        try {
+            categories = CatalogCache.categories();
+            LogDAO.log(Log.ActionType.TRACE, "category", null, "Retrieved " + categories.size() + " categories.");
         } catch (SQLException e) {
-            LogDAO.log("SQLException in getAllCategories: " + e.getMessage());
+            LogDAO.log(Log.ActionType.ERROR, "category", null, "SQLException in getAllCategories: " + e.getMessage());
             e.printStackTrace();
         }
-        LogDAO.log("Exiting getAllCategories method.");
+        LogDAO.log(Log.ActionType.TRACE, "category", null, "Exiting getAllCategories method.");
         return categories;
     }
 
     public Category getCategoryById(int id) {
-        String sql = "SELECT id, name FROM categories WHERE id = ?";
-        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, id);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                Category category = new Category();
-                category.setId(rs.getInt("id"));
-                category.setName(rs.getString("name"));
-                return category;
-            }
+        try {
+            return CatalogCache.categoryById(id);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -46,73 +34,68 @@ public List<Category> getAllCategories() {
     }
 
 public boolean addCategory(String name) {
-        LogDAO.log("Entering addCategory method with name: " + name);
+        LogDAO.log(Log.ActionType.TRACE, "category", null, "Entering addCategory method with name: " + name);
         String sql = "INSERT INTO categories (name) VALUES (?)";
         try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, name);
             int rowsAffected = stmt.executeUpdate();
             if (rowsAffected > 0) {
-                LogDAO.log("Successfully added category: " + name);
+                CatalogCache.invalidate();
+                LogDAO.log(Log.ActionType.CREATE, "category", null, "Successfully added category: " + name);
             } else {
-                LogDAO.log("Failed to add category: " + name);
+                LogDAO.log(Log.ActionType.WARNING, "category", null, "Failed to add category: " + name);
             }
             return rowsAffected > 0;
         } catch (SQLException e) {
-            LogDAO.log("SQLException in addCategory: " + e.getMessage());
+            LogDAO.log(Log.ActionType.ERROR, "category", null, "SQLException in addCategory: " + e.getMessage());
             e.printStackTrace();
             return false;
         } finally {
-            LogDAO.log("Exiting addCategory method.");
+            LogDAO.log(Log.ActionType.TRACE, "category", null, "Exiting addCategory method.");
         }
     }
 
 public boolean updateCategory(Category category) {
-        LogDAO.log("Entering updateCategory method for category ID: " + category.getId());
+        LogDAO.log(Log.ActionType.TRACE, "category", category.getId(), "Entering updateCategory method for category ID: " + category.getId());
         String sql = "UPDATE categories SET name = ? WHERE id = ?";
         try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, category.getName());
             stmt.setInt(2, category.getId());
             int rowsAffected = stmt.executeUpdate();
             if (rowsAffected > 0) {
-                LogDAO.log("Successfully updated category: " + category.getName());
+                CatalogCache.invalidate();
+                LogDAO.log(Log.ActionType.UPDATE, "category", category.getId(), "Successfully updated category: " + category.getName());
             } else {
-                LogDAO.log("Failed to update category: " + category.getName());
+                LogDAO.log(Log.ActionType.WARNING, "category", category.getId(), "Failed to update category: " + category.getName());
             }
             return rowsAffected > 0;
         } catch (SQLException e) {
-            LogDAO.log("SQLException in updateCategory: " + e.getMessage());
+            LogDAO.log(Log.ActionType.ERROR, "category", null, "SQLException in updateCategory: " + e.getMessage());
             e.printStackTrace();
             return false;
         } finally {
-            LogDAO.log("Exiting updateCategory method for category ID: " + category.getId());
+            LogDAO.log(Log.ActionType.TRACE, "category", category.getId(), "Exiting updateCategory method for category ID: " + category.getId());
         }
     }
 
     public String getCategoryNameById(int id) {
-        String sql = "SELECT name FROM categories WHERE id = ?";
-        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, id);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getString("name");
-            }
-        } catch (SQLException e) { e.printStackTrace(); }
-        return null;
+        Category category = getCategoryById(id);
+        return category != null ? category.getName() : null;
     }
 
 public boolean deleteCategory(int id) {
-        LogDAO.log("Entering deleteCategory method for category ID: " + id);
+        LogDAO.log(Log.ActionType.TRACE, "category", id, "Entering deleteCategory method for category ID: " + id);
         // Check if category has books
         String checkSql = "SELECT COUNT(*) FROM books WHERE category_id = ?";
         try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement checkStmt = conn.prepareStatement(checkSql)) {
             checkStmt.setInt(1, id);
             ResultSet rs = checkStmt.executeQuery();
             if (rs.next() && rs.getInt(1) > 0) {
-                LogDAO.log("Cannot delete category ID " + id + ": category contains books.");
+                LogDAO.log(Log.ActionType.WARNING, "category", id, "Cannot delete category ID " + id + ": category contains books.");
                 return false; // Cannot delete if books exist
             }
         } catch (SQLException e) {
-            LogDAO.log("SQLException in deleteCategory check: " + e.getMessage());
+            LogDAO.log(Log.ActionType.ERROR, "category", null, "SQLException in deleteCategory check: " + e.getMessage());
             e.printStackTrace();
             return false;
         }
@@ -122,44 +105,43 @@ public boolean deleteCategory(int id) {
             stmt.setInt(1, id);
             int rowsAffected = stmt.executeUpdate();
             if (rowsAffected > 0) {
-                LogDAO.log("Successfully deleted category: " + (categoryName != null ? categoryName : "ID " + id));
+                CatalogCache.invalidate();
+                LogDAO.log(Log.ActionType.DELETE, "category", id, "Successfully deleted category: " + (categoryName != null ? categoryName : "ID " + id));
             } else {
-                LogDAO.log("Failed to delete category: " + (categoryName != null ? categoryName : "ID " + id));
+                LogDAO.log(Log.ActionType.WARNING, "category", id, "Failed to delete category: " + (categoryName != null ? categoryName : "ID " + id));
             }
             return rowsAffected > 0;
         } catch (SQLException e) {
-            LogDAO.log("SQLException in deleteCategory: " + e.getMessage());
+            LogDAO.log(Log.ActionType.ERROR, "category", null, "SQLException in deleteCategory: " + e.getMessage());
             e.printStackTrace();
             return false;
         } finally {
-            LogDAO.log("Exiting deleteCategory method for category ID: " + id);
+            LogDAO.log(Log.ActionType.TRACE, "category", id, "Exiting deleteCategory method for category ID: " + id);
         }
     }
 
 
     /**
-     * Searches for categories by name.
+     * Searches categories by name, one page at a time.
      *
-     * @param query the search query (partial name)
-     * @return a list of Category objects matching the query
+     * @param query    the search text, matched anywhere in the name; blank returns all categories
+     * @param after    {@link Page#getNextKey()} of the previous page, or null for the first page
+     * @param pageSize number of categories per page
+     * @return the page of categories, ordered by id; empty if the query failed
      */
-    public List<Category> searchCategories(String query) {
-        List<Category> categories = new ArrayList<>();
-        String sql = "SELECT * FROM categories WHERE name LIKE ?";
-        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, query + "%");
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    Category category = new Category();
-                    category.setId(rs.getInt("id"));
-                    category.setName(rs.getString("name"));
-                    categories.add(category);
-                }
-            }
+    public Page<Category> searchCategories(String query, Page.Key after, int pageSize) {
+        try {
+            return PagedQuery.search("SELECT id, name", "FROM categories", null, "LOWER(name) LIKE ?", query,
+                    null, true, "id", after, 0, pageSize, rs -> {
+                        Category category = new Category();
+                        category.setId(rs.getInt("id"));
+                        category.setName(rs.getString("name"));
+                        return category;
+                    });
         } catch (SQLException e) {
             e.printStackTrace();
+            return Page.empty();
         }
-        return categories;
     }
 
     /**
@@ -172,7 +154,8 @@ public boolean deleteCategory(int id) {
         String sql = "DELETE FROM categories";
         try (Connection conn = DatabaseUtil.getConnection(); Statement stmt = conn.createStatement()) {
             int deletedRows = stmt.executeUpdate(sql);
-            LogDAO.log("All categories deleted. Rows affected: " + deletedRows);
+            CatalogCache.invalidate();
+            LogDAO.log(Log.ActionType.DELETE, "category", null, "All categories deleted. Rows affected: " + deletedRows);
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -2,12 +2,15 @@
 package com.library.dao;
 
 import com.library.model.Faculty;
+import com.library.model.Log;
+import com.library.model.Page;
 import com.library.util.EmailValidator;
 import com.library.util.MobileNumberValidator;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class FacultyDAO {
     public int getTotalFaculty() {
@@ -47,29 +50,58 @@ public class FacultyDAO {
         return faculty;
     }
 
-    public List<Faculty> searchFaculty(String query) {
-        String sql = "SELECT * FROM faculty WHERE LOWER(name) LIKE LOWER(?) OR LOWER(faculty_id) LIKE LOWER(?) OR LOWER(email) LIKE LOWER(?) OR LOWER(mobile) LIKE LOWER(?)";
-        List<Faculty> faculty = new ArrayList<>();
-        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            String searchPattern = query + "%";
-            stmt.setString(1, searchPattern);
-            stmt.setString(2, searchPattern);
-            stmt.setString(3, searchPattern);
-            stmt.setString(4, searchPattern);
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                Faculty f = new Faculty();
-                f.setId(rs.getInt("id"));
-                f.setName(rs.getString("name"));
-                f.setFacultyId(rs.getString("faculty_id"));
-                f.setEmail(rs.getString("email"));
-                f.setMobile(rs.getString("mobile"));
-                f.setActive(rs.getBoolean("active"));
-                f.setRfid(rs.getString("rfid"));
-                faculty.add(f);
-            }
-        } catch (SQLException e) { e.printStackTrace(); }
-        return faculty;
+    /**
+     * Searches faculty by name, ID, email, mobile or RFID, one page at a time.
+     *
+     * @param query    the search text, matched anywhere in those columns; blank returns all faculty
+     * @param after    {@link Page#getNextKey()} of the previous page, or null for the first page
+     * @param pageSize number of faculty members per page
+     * @return the page of faculty, ordered by id; empty if the query failed
+     */
+    public Page<Faculty> searchFaculty(String query, Page.Key after, int pageSize) {
+        try {
+            return PagedQuery.search("SELECT *", "FROM faculty", null, SEARCH_FILTER, query,
+                    null, true, "id", after, 0, pageSize, FacultyDAO::mapFaculty);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return Page.empty();
+        }
+    }
+
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "name", "name",
+            "facultyId", "faculty_id",
+            "email", "email",
+            "mobile", "mobile",
+            "rfid", "rfid");
+
+    private static final String SEARCH_FILTER =
+            "LOWER(name) LIKE ? OR LOWER(faculty_id) LIKE ? OR LOWER(email) LIKE ? OR LOWER(mobile) LIKE ? OR LOWER(rfid) LIKE ?";
+
+    /**
+     * Reads one page of the faculty management table, matching the filter anywhere in name, ID, email, mobile
+     * or RFID.
+     *
+     * @param sortKey one of name, facultyId, email, mobile, rfid; anything else sorts by id
+     * @param after   {@link Page#getNextKey()} of the previous page, or null for the first page or a jump
+     * @param offset  index of the first row when {@code after} is null
+     */
+    public Page<Faculty> getFacultyPage(String query, boolean active, String sortKey, boolean ascending,
+                                        Page.Key after, int offset, int pageSize) throws SQLException {
+        return PagedQuery.search("SELECT *", "FROM faculty", "active = " + active, SEARCH_FILTER, query,
+                PagedQuery.sortColumn(SORT_COLUMNS, sortKey), ascending, "id", after, offset, pageSize, FacultyDAO::mapFaculty);
+    }
+
+    private static Faculty mapFaculty(ResultSet rs) throws SQLException {
+        Faculty f = new Faculty();
+        f.setId(rs.getInt("id"));
+        f.setName(rs.getString("name"));
+        f.setFacultyId(rs.getString("faculty_id"));
+        f.setEmail(rs.getString("email"));
+        f.setMobile(rs.getString("mobile"));
+        f.setActive(rs.getBoolean("active"));
+        f.setRfid(rs.getString("rfid"));
+        return f;
     }
 
     /**
@@ -81,7 +113,7 @@ public class FacultyDAO {
         String sql = "DELETE FROM faculty";
         try (Connection conn = DatabaseUtil.getConnection(); Statement stmt = conn.createStatement()) {
             int affectedRows = stmt.executeUpdate(sql);
-            LogDAO.log("All faculty records deleted. Rows affected: " + affectedRows);
+            LogDAO.log(Log.ActionType.DELETE, "faculty", null, "All faculty records deleted. Rows affected: " + affectedRows);
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -155,7 +187,7 @@ public class FacultyDAO {
             stmt.setString(4, faculty.getMobile());
             stmt.setString(5, faculty.getRfid());
             stmt.executeUpdate();
-            LogDAO.log("Faculty registered: " + faculty.getName());
+            LogDAO.log(Log.ActionType.CREATE, "faculty", null, "Faculty registered: " + faculty.getName());
             return true;
         } catch (SQLException e) { e.printStackTrace(); return false; }
     }
@@ -185,7 +217,7 @@ public class FacultyDAO {
         try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
             stmt.executeUpdate();
-            LogDAO.log("Faculty blocked: ID " + id);
+            LogDAO.log(Log.ActionType.BLOCK, "faculty", id, "Faculty blocked: ID " + id);
             return true;
         } catch (SQLException e) { e.printStackTrace(); return false; }
     }
@@ -195,7 +227,7 @@ public class FacultyDAO {
         try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
             stmt.executeUpdate();
-            LogDAO.log("Faculty unblocked: ID " + id);
+            LogDAO.log(Log.ActionType.UNBLOCK, "faculty", id, "Faculty unblocked: ID " + id);
             return true;
         } catch (SQLException e) { e.printStackTrace(); return false; }
     }
@@ -211,7 +243,7 @@ public class FacultyDAO {
             stmt.setBoolean(6, faculty.isActive());
             stmt.setInt(7, faculty.getId());
             stmt.executeUpdate();
-            LogDAO.log("Faculty updated: ID " + faculty.getId());
+            LogDAO.log(Log.ActionType.UPDATE, "faculty", faculty.getId(), "Faculty updated: ID " + faculty.getId());
             return true;
         } catch (SQLException e) { e.printStackTrace(); return false; }
     }
@@ -221,7 +253,7 @@ public class FacultyDAO {
         try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
             stmt.executeUpdate();
-            LogDAO.log("Faculty deleted: ID " + id);
+            LogDAO.log(Log.ActionType.DELETE, "faculty", id, "Faculty deleted: ID " + id);
             return true;
         } catch (SQLException e) { e.printStackTrace(); return false; }
     }
@@ -1,6 +1,8 @@
 package com.library.dao;
 
 import com.library.dao.DatabaseUtil;
+import com.library.model.Log;
+import com.library.model.Page;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -11,6 +13,34 @@ import java.util.List;
  */
 public class IssuedBookDAO {
 
+    /**
+     * Kind of borrower a book is issued to, mapped to its column in issued_books.
+     */
+    private enum BorrowerType {
+        STUDENT("student_id"),
+        FACULTY("faculty_id");
+
+        private final String column;
+
+        BorrowerType(String column) {
+            this.column = column;
+        }
+
+        String getColumn() {
+            return column;
+        }
+    }
+
+    // Deletes one issued copy and records it in returned_books in a single statement; %1$s is the borrower column
+    private static final String ATOMIC_RETURN_SQL =
+            "WITH target AS (" +
+            "SELECT ib.id FROM issued_books ib JOIN books b ON b.id = ib.book_id " +
+            "WHERE ib.%1$s = ? AND b.barcode = ? ORDER BY ib.issue_date, ib.id LIMIT 1 FOR UPDATE OF ib), " +
+            "del AS (DELETE FROM issued_books WHERE id IN (SELECT id FROM target) " +
+            "RETURNING student_id, faculty_id, book_id) " +
+            "INSERT INTO returned_books (student_id, faculty_id, book_id) " +
+            "SELECT student_id, faculty_id, book_id FROM del";
+
     /**
      * Retrieves a list of books issued to a specific student.
      * Returns a list of string arrays for each book: [book_title, barcode, author].
@@ -99,102 +129,42 @@ public class IssuedBookDAO {
 
     /**
      * Returns a book from a student using barcode.
-     * Inserts a record into returned_books before deleting from issued_books.
+     * Moves one issued_books record into returned_books in a single statement.
      *
      * @param studentId the ID of the student
      * @param barcode the barcode of the book
      * @return true if returned successfully, false otherwise
      */
     public boolean returnBook(int studentId, String barcode) {
-        // First get the book_id for the barcode
-        String getBookIdSql = "SELECT id FROM books WHERE barcode = ? LIMIT 1";
-        // Insert into returned_books
-        String insertSql = "INSERT INTO returned_books (student_id, book_id) VALUES (?, ?)";
-        // Then delete one issued_books entry for this student and book
-        String deleteSql = "DELETE FROM issued_books WHERE student_id = ? AND book_id = ? LIMIT 1";
-
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            // Get book_id
-            try (PreparedStatement getBookStmt = conn.prepareStatement(getBookIdSql)) {
-                getBookStmt.setString(1, barcode);
-                ResultSet rs = getBookStmt.executeQuery();
-                if (rs.next()) {
-                    int bookId = rs.getInt("id");
-
-                    // Insert into returned_books
-                    try (PreparedStatement insertStmt = conn.prepareStatement(insertSql)) {
-                        insertStmt.setInt(1, studentId);
-                        insertStmt.setInt(2, bookId);
-                        insertStmt.executeUpdate();
-                    }
-
-                    // Delete one entry
-                    try (PreparedStatement deleteStmt = conn.prepareStatement(deleteSql)) {
-                        deleteStmt.setInt(1, studentId);
-                        deleteStmt.setInt(2, bookId);
-                        int rows = deleteStmt.executeUpdate();
-                        return rows > 0;
-                    }
-                } else {
-                    System.err.println("Book with barcode " + barcode + " not found.");
-                    return false;
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error returning book: " + e.getMessage());
-            e.printStackTrace();
-            return false;
-        }
+        return returnAtomically(BorrowerType.STUDENT, studentId, barcode, "returnBook");
     }
 
     /**
      * Returns a book from a faculty member using barcode.
-     * Inserts a record into returned_books before deleting from issued_books.
+     * Moves one issued_books record into returned_books in a single statement.
      *
      * @param facultyId the ID of the faculty
      * @param barcode the barcode of the book
      * @return true if returned successfully, false otherwise
      */
     public boolean returnBookFromFaculty(int facultyId, String barcode) {
-        // First get the book_id for the barcode
-        String getBookIdSql = "SELECT id FROM books WHERE barcode = ? LIMIT 1";
-        // Insert into returned_books
-        String insertSql = "INSERT INTO returned_books (faculty_id, book_id) VALUES (?, ?)";
-        // Then delete one issued_books entry for this faculty and book
-        String deleteSql = "DELETE FROM issued_books WHERE faculty_id = ? AND book_id = ? LIMIT 1";
-
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            // Get book_id
-            try (PreparedStatement getBookStmt = conn.prepareStatement(getBookIdSql)) {
-                getBookStmt.setString(1, barcode);
-                ResultSet rs = getBookStmt.executeQuery();
-                if (rs.next()) {
-                    int bookId = rs.getInt("id");
-
-                    // Insert into returned_books
-                    try (PreparedStatement insertStmt = conn.prepareStatement(insertSql)) {
-                        insertStmt.setInt(1, facultyId);
-                        insertStmt.setInt(2, bookId);
-                        insertStmt.executeUpdate();
-                    }
+        return returnAtomically(BorrowerType.FACULTY, facultyId, barcode, "returnBookFromFaculty");
+    }
 
-                    // Delete one entry
-                    try (PreparedStatement deleteStmt = conn.prepareStatement(deleteSql)) {
-                        deleteStmt.setInt(1, facultyId);
-                        deleteStmt.setInt(2, bookId);
-                        int rows = deleteStmt.executeUpdate();
-                        return rows > 0;
-                    }
-                } else {
-                    System.err.println("Book with barcode " + barcode + " not found.");
-                    return false;
-                }
+    private boolean returnAtomically(BorrowerType borrowerType, int borrowerId, String barcode, String operation) {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(String.format(ATOMIC_RETURN_SQL, borrowerType.getColumn()))) {
+            stmt.setInt(1, borrowerId);
+            stmt.setString(2, barcode);
+            if (stmt.executeUpdate() > 0) {
+                return true;
             }
+            System.err.println("No issued book found for " + borrowerType.name().toLowerCase() + " " + borrowerId + " and barcode " + barcode);
         } catch (SQLException e) {
-            System.err.println("Error returning book from faculty: " + e.getMessage());
+            System.err.println("Error in " + operation + ": " + e.getMessage());
             e.printStackTrace();
-            return false;
         }
+        return false;
     }
 
     /**
@@ -246,50 +216,43 @@ public class IssuedBookDAO {
     }
 
     /**
-     * Searches for issued books by book name, barcode, user name, or user ID.
+     * Searches issued books by book name, barcode, user name or user ID, one page at a time.
      * Includes both students and faculty issued books.
      *
-     * @param query the search query
-     * @return a list of issued book details as string arrays [book_name, barcode, user_name_with_type, user_id, issue_date]
-     *         where user_name_with_type is "Name (student)" or "Name (faculty)"
+     * @param query    the search text, matched anywhere in those columns; blank returns all issued books
+     * @param after    {@link Page#getNextKey()} of the previous page, or null for the first page
+     * @param pageSize number of rows per page
+     * @return the page of rows as [book_name, barcode, user_name_with_type, user_id, issue_date], ordered by
+     *         issue record id, where user_name_with_type is "Name (student)" or "Name (faculty)"; empty if the
+     *         query failed
      */
-    public List<String[]> searchIssuedBooks(String query) {
-        List<String[]> issuedBooks = new ArrayList<>();
-        String sql = "SELECT b.name AS book_name, b.barcode, " +
-                     "CASE WHEN ib.student_id IS NOT NULL THEN CONCAT(s.name, ' (student)') ELSE CONCAT(f.name, ' (faculty)') END AS user_name_with_type, " +
-                     "CASE WHEN ib.student_id IS NOT NULL THEN s.student_id ELSE f.faculty_id END AS user_id, " +
-                     "ib.issue_date " +
-                     "FROM issued_books ib " +
-                     "JOIN books b ON ib.book_id = b.id " +
-                     "LEFT JOIN students s ON ib.student_id = s.id " +
-                     "LEFT JOIN faculty f ON ib.faculty_id = f.id " +
-                     "WHERE b.name LIKE ? OR b.barcode LIKE ? OR " +
-                     "(ib.student_id IS NOT NULL AND (s.name LIKE ? OR s.student_id LIKE ?)) OR " +
-                     "(ib.faculty_id IS NOT NULL AND (f.name LIKE ? OR f.faculty_id LIKE ?))";
-        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            String likeQuery = query + "%";
-            stmt.setString(1, likeQuery);
-            stmt.setString(2, likeQuery);
-            stmt.setString(3, likeQuery);
-            stmt.setString(4, likeQuery);
-            stmt.setString(5, likeQuery);
-            stmt.setString(6, likeQuery);
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    issuedBooks.add(new String[]{
+    public Page<String[]> searchIssuedBooks(String query, Page.Key after, int pageSize) {
+        try {
+            return PagedQuery.search(
+                    "SELECT b.name AS book_name, b.barcode, " +
+                    "CASE WHEN ib.student_id IS NOT NULL THEN CONCAT(s.name, ' (student)') ELSE CONCAT(f.name, ' (faculty)') END AS user_name_with_type, " +
+                    "CASE WHEN ib.student_id IS NOT NULL THEN s.student_id ELSE f.faculty_id END AS user_id, " +
+                    "ib.issue_date",
+                    "FROM issued_books ib " +
+                    "JOIN books b ON ib.book_id = b.id " +
+                    "LEFT JOIN students s ON ib.student_id = s.id " +
+                    "LEFT JOIN faculty f ON ib.faculty_id = f.id",
+                    null,
+                    "LOWER(b.name) LIKE ? OR LOWER(b.barcode) LIKE ? OR " +
+                    "(ib.student_id IS NOT NULL AND (LOWER(s.name) LIKE ? OR LOWER(s.student_id) LIKE ?)) OR " +
+                    "(ib.faculty_id IS NOT NULL AND (LOWER(f.name) LIKE ? OR LOWER(f.faculty_id) LIKE ?))",
+                    query, null, true, "ib.id", after, 0, pageSize, rs -> new String[]{
                         rs.getString("book_name"),
                         rs.getString("barcode"),
                         rs.getString("user_name_with_type"),
                         rs.getString("user_id"),
                         rs.getString("issue_date")
                     });
-                }
-            }
         } catch (SQLException e) {
             System.err.println("Error searching issued books: " + e.getMessage());
             e.printStackTrace();
+            return Page.empty();
         }
-        return issuedBooks;
     }
 
     /**
@@ -317,7 +280,7 @@ public class IssuedBookDAO {
      * @return the count of issued copies
      */
     public int getIssuedCountForBook(int bookId) {
-        String sql = "SELECT COUNT(*) FROM issued_books WHERE book_id = ?";
+        String sql = "SELECT issued_count FROM books WHERE id = ?";
         try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, bookId);
             ResultSet rs = stmt.executeQuery();
@@ -338,7 +301,7 @@ public class IssuedBookDAO {
      * @return the count of issued books
      */
     public int getIssuedCountForStudent(int studentId) {
-        String sql = "SELECT COUNT(*) FROM issued_books WHERE student_id = ?";
+        String sql = "SELECT issued_count FROM students WHERE id = ?";
         try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, studentId);
             ResultSet rs = stmt.executeQuery();
@@ -390,7 +353,7 @@ public class IssuedBookDAO {
         try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
             int rowsAffected = stmt.executeUpdate();
             if (rowsAffected > 0) {
-                LogDAO.log("Removed " + rowsAffected + " orphaned issued book records at " + new java.util.Date());
+                LogDAO.log(Log.ActionType.DELETE, "issued_book", null, "Removed " + rowsAffected + " orphaned issued book records at " + new java.util.Date());
             }
             return rowsAffected;
         } catch (SQLException e) {
@@ -0,0 +1,73 @@
+package com.library.dao;
+
+import com.library.model.Log;
+
+import java.sql.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the loan counters of schema migration 9 (books, students and faculty issued_count) against issued_books.
+ *
+ * The counters are kept by triggers, so they only drift if a trigger was disabled or rows were changed with
+ * triggers off, e.g. by a restore. Every {@code issued.counts.reconcileHours} hours (env
+ * {@code ISSUED_COUNTS_RECONCILE_HOURS}, default 24, 0 turns it off) reconcile_issued_counts recounts them
+ * and corrects any that are wrong; corrections are written to the audit log as a warning.
+ * The recount only locks the rows that look wrong, in the order issues and returns lock them (schema migration 11),
+ * so it neither holds up other checkouts nor deadlocks with them.
+ */
+public final class IssuedCountReconciler {
+
+    private static final long INITIAL_DELAY_MINUTES = 10;
+
+    private static final long INTERVAL_HOURS = Long.parseLong(System.getProperty("issued.counts.reconcileHours",
+            System.getenv().getOrDefault("ISSUED_COUNTS_RECONCILE_HOURS", "24")));
+
+    private static ScheduledExecutorService scheduler;
+
+    private IssuedCountReconciler() {
+    }
+
+    /**
+     * Schedules the periodic check, the first one a few minutes after startup. Safe to call more than once.
+     */
+    public static synchronized void start() {
+        if (scheduler != null || INTERVAL_HOURS <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "issued-count-reconciler");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                runOnce();
+            } catch (SQLException | RuntimeException e) {
+                System.err.println("Error reconciling issued book counters: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }, INITIAL_DELAY_MINUTES, TimeUnit.HOURS.toMinutes(INTERVAL_HOURS), TimeUnit.MINUTES);
+    }
+
+    /**
+     * Recounts the loan counters and corrects the ones that drifted.
+     *
+     * @return the number of book, student and faculty rows corrected
+     */
+    public static int runOnce() throws SQLException {
+        int fixed;
+        try (Connection conn = DatabaseUtil.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT reconcile_issued_counts()")) {
+            rs.next();
+            fixed = rs.getInt(1);
+        }
+        if (fixed > 0) {
+            LogDAO.log(Log.ActionType.WARNING, "issued_books", null,
+                    "Corrected " + fixed + " issued book counters that did not match issued_books");
+        }
+        return fixed;
+    }
+}
@@ -1,38 +1,168 @@
 // Placeholder for LogDAO.java
 package com.library.dao;
 
+import com.library.model.Admin;
 import com.library.model.Log;
+import com.library.model.LogFilter;
+import com.library.model.Page;
+import com.library.model.Session;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Audit log access. {@link #log(Log.ActionType, String, Object, String)} records who did what to which record;
+ * the actor is the admin logged in at the time. Logging is write-behind: entries are buffered and written in JDBC
+ * batches by an {@link AuditLogWriter}, so it costs the caller no database round trip. Readers flush the buffer
+ * first so they see everything logged before the call.
+ *
+ * The Track screen reads the log a page at a time with {@link #getLogsPage}, filtered in SQL by time range,
+ * action type, actor and full text; schema migration 6 indexes each of those.
+ *
+ * Writer settings (system property / environment variable):
+ * - audit.log.capacity / AUDIT_LOG_CAPACITY (default: 10000) entries buffered before the overflow policy applies
+ * - audit.log.batchSize / AUDIT_LOG_BATCH_SIZE (default: 200) entries per INSERT batch
+ * - audit.log.flushMs / AUDIT_LOG_FLUSH_MS (default: 1000) longest time an entry waits in the buffer
+ * - audit.log.overflow / AUDIT_LOG_OVERFLOW (default: block) block or drop when the buffer is full
+ * - audit.log.blockMs / AUDIT_LOG_BLOCK_MS (default: 100) longest a caller blocks before its entry is dropped
+ */
 public class LogDAO {
+    // Widths of the logs columns; a longer value would fail the whole batch
+    private static final int MAX_ACTION_LENGTH = 255;
+    private static final int MAX_ACTOR_LENGTH = 100;
+    private static final int MAX_ENTITY_ID_LENGTH = 64;
+    private static final long READ_FLUSH_TIMEOUT_MS = 2000;
+
+    // Must match the expression of idx_logs_action_fts, or the index is not used
+    private static final String SEARCH_VECTOR = "to_tsvector('simple', COALESCE(action, ''))";
+    private static final String SELECT_COLUMNS = "SELECT id, action, timestamp, actor, action_type, entity_type, entity_id";
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "timestamp", "timestamp",
+            "actor", "actor",
+            "type", "action_type",
+            "entity", "entity_type");
+
+    private static volatile AuditLogWriter writer;
+
+    /**
+     * Logs an unclassified message. Prefer {@link #log(Log.ActionType, String, Object, String)}.
+     */
     public static void log(String action) {
-        String sql = "INSERT INTO logs (action) VALUES (?)";
-        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, action);
-            stmt.executeUpdate();
-        } catch (SQLException e) { e.printStackTrace(); }
+        log(Log.ActionType.INFO, null, null, action);
+    }
+
+    /**
+     * Logs an action by the current admin.
+     *
+     * @param type       what kind of action it was
+     * @param entityType the kind of record acted on, e.g. "book", or null
+     * @param entityId   the record's id, or null
+     * @param action     a human-readable description
+     */
+    public static void log(Log.ActionType type, String entityType, Object entityId, String action) {
+        Admin admin = Session.getLoggedInAdmin();
+        String actor = admin != null ? admin.getAdminId() : null;
+        String id = entityId != null ? String.valueOf(entityId) : null;
+        AuditLogWriter w = getWriter();
+        if (!w.append(actor, type.getCode(), entityType, id, action) && w.isShutdown()) {
+            // Logged while the application is closing; the writer is gone, so write it directly
+            writeBatch(List.of(new AuditLogWriter.Entry(actor, type.getCode(), entityType, id, action,
+                    System.currentTimeMillis(), null)));
+        }
+    }
+
+    /**
+     * Waits until every entry logged so far has been written.
+     *
+     * @return false if that did not happen within the timeout
+     */
+    public static boolean flush(long timeoutMs) {
+        AuditLogWriter w = writer;
+        return w == null || w.flush(timeoutMs);
+    }
+
+    /**
+     * Writes the buffered entries and stops the background writer. Entries logged afterwards are written synchronously.
+     */
+    public static void shutdown(long timeoutMs) {
+        AuditLogWriter w = writer;
+        if (w != null) {
+            w.shutdown(timeoutMs);
+            System.out.println("Audit log writer stopped: " + w.getStats());
+        }
+    }
+
+    /**
+     * Returns the writer's counters, or null if nothing has been logged yet.
+     */
+    public static AuditLogWriter.Stats getWriterStats() {
+        AuditLogWriter w = writer;
+        return w == null ? null : w.getStats();
+    }
+
+    /**
+     * Reads one page of matching entries. The first page also flushes the write buffer, so a reload shows
+     * everything logged before it, and carries the estimated number of matching entries.
+     *
+     * @param sortKey   timestamp, actor, type or entity; anything else sorts by id
+     * @param ascending the sort direction; newest first is timestamp descending
+     * @param after     {@link Page#getNextKey()} of the previous page, or null for the first page or a jump
+     * @param offset    index of the first entry when {@code after} is null
+     */
+    public Page<Log> getLogsPage(LogFilter filter, String sortKey, boolean ascending, Page.Key after, int offset,
+                                 int pageSize) throws SQLException {
+        if (after == null && offset == 0) {
+            flush(READ_FLUSH_TIMEOUT_MS);
+        }
+        List<Object> params = new ArrayList<>();
+        String where = where(filter, params);
+        return PagedQuery.fetchPage(SELECT_COLUMNS, "FROM logs", where, params,
+                PagedQuery.sortColumn(SORT_COLUMNS, sortKey), ascending, "id", after, offset, pageSize, LogDAO::mapLog);
+    }
+
+    /**
+     * Turns search text into a tsquery that requires every word, each matched as a prefix, so "stud blo"
+     * finds "Student blocked". Words are quoted, so operators typed by the user are matched literally.
+     *
+     * @return the tsquery text, or null if the text has no words
+     */
+    public static String toPrefixQuery(String text) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder query = new StringBuilder();
+        for (String word : text.trim().split("\\s+")) {
+            // Edge punctuation is not part of the indexed words, e.g. the colon in "registered:"
+            String term = word.replaceAll("^[^\\p{L}\\p{N}]+|[^\\p{L}\\p{N}]+$", "").toLowerCase();
+            if (term.isEmpty()) {
+                continue;
+            }
+            if (query.length() > 0) {
+                query.append(" & ");
+            }
+            query.append('\'').append(term.replace("'", "''").replace("\\", "\\\\")).append("':*");
+        }
+        return query.length() > 0 ? query.toString() : null;
     }
 
     public List<Log> getAllLogs() {
+        flush(READ_FLUSH_TIMEOUT_MS);
         String sql = "SELECT * FROM logs ORDER BY timestamp DESC";
         List<Log> logs = new ArrayList<>();
         try (Connection conn = DatabaseUtil.getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
-                Log l = new Log();
-                l.setId(rs.getInt("id"));
-                l.setAction(rs.getString("action"));
-                l.setTimestamp(rs.getString("timestamp"));
-                logs.add(l);
+                logs.add(mapLog(rs));
             }
         } catch (SQLException e) { e.printStackTrace(); }
         return logs;
     }
 
+    // TRUNCATE empties every monthly partition at once instead of deleting row by row
     public void deleteAllLogs() {
-        String sql = "DELETE FROM logs";
+        flush(READ_FLUSH_TIMEOUT_MS);
+        String sql = "TRUNCATE logs";
         try (Connection conn = DatabaseUtil.getConnection(); Statement stmt = conn.createStatement()) {
             stmt.executeUpdate(sql);
         } catch (SQLException e) { e.printStackTrace(); }
@@ -40,9 +170,113 @@ public class LogDAO {
 
     public void deleteLogsByIds(List<Integer> ids) {
         if (ids.isEmpty()) return;
-        String sql = "DELETE FROM logs WHERE id IN (" + String.join(",", ids.stream().map(String::valueOf).toArray(String[]::new)) + ")";
-        try (Connection conn = DatabaseUtil.getConnection(); Statement stmt = conn.createStatement()) {
-            stmt.executeUpdate(sql);
+        String sql = "DELETE FROM logs WHERE id = ANY(?)";
+        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, conn.createArrayOf("integer", ids.toArray()));
+            stmt.executeUpdate();
+        } catch (SQLException e) { e.printStackTrace(); }
+    }
+
+    private static String where(LogFilter filter, List<Object> params) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.getFrom() != null) {
+            conditions.add("timestamp >= ?");
+            params.add(Timestamp.valueOf(filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            conditions.add("timestamp < ?");
+            params.add(Timestamp.valueOf(filter.getTo()));
+        }
+        if (filter.getActionType() != null) {
+            conditions.add("action_type = ?");
+            params.add(filter.getActionType().getCode());
+        }
+        if (filter.getActor() != null && !filter.getActor().trim().isEmpty()) {
+            conditions.add("actor = ?");
+            params.add(filter.getActor().trim());
+        }
+        String query = toPrefixQuery(filter.getText());
+        if (query != null) {
+            conditions.add(SEARCH_VECTOR + " @@ to_tsquery('simple', ?)");
+            params.add(query);
+        }
+        return conditions.isEmpty() ? "TRUE" : String.join(" AND ", conditions);
+    }
+
+    private static void bind(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            stmt.setObject(i + 1, params.get(i));
+        }
+    }
+
+    private static Log mapLog(ResultSet rs) throws SQLException {
+        Log l = new Log();
+        l.setId(rs.getInt("id"));
+        l.setAction(rs.getString("action"));
+        l.setTimestamp(rs.getString("timestamp"));
+        l.setActor(rs.getString("actor"));
+        l.setActionType(Log.ActionType.fromCode(rs.getString("action_type")));
+        l.setEntityType(rs.getString("entity_type"));
+        l.setEntityId(rs.getString("entity_id"));
+        return l;
+    }
+
+    private static AuditLogWriter getWriter() {
+        AuditLogWriter w = writer;
+        if (w == null) {
+            synchronized (LogDAO.class) {
+                w = writer;
+                if (w == null) {
+                    w = new AuditLogWriter(LogDAO::insertBatch,
+                            Integer.parseInt(setting("audit.log.capacity", "AUDIT_LOG_CAPACITY", "10000")),
+                            Integer.parseInt(setting("audit.log.batchSize", "AUDIT_LOG_BATCH_SIZE", "200")),
+                            Long.parseLong(setting("audit.log.flushMs", "AUDIT_LOG_FLUSH_MS", "1000")),
+                            AuditLogWriter.OverflowPolicy.valueOf(setting("audit.log.overflow", "AUDIT_LOG_OVERFLOW", "block").toUpperCase()),
+                            Long.parseLong(setting("audit.log.blockMs", "AUDIT_LOG_BLOCK_MS", "100")));
+                    writer = w;
+                }
+            }
+        }
+        return w;
+    }
+
+    private static void writeBatch(List<AuditLogWriter.Entry> entries) {
+        try {
+            insertBatch(entries);
         } catch (SQLException e) { e.printStackTrace(); }
     }
-}
\ No newline at end of file
+
+    // All entries go in one transaction so a retried batch is never half written twice
+    private static void insertBatch(List<AuditLogWriter.Entry> entries) throws SQLException {
+        String sql = "INSERT INTO logs (action, timestamp, actor, action_type, entity_type, entity_id) VALUES (?, ?, ?, ?, ?, ?)";
+        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            try {
+                for (AuditLogWriter.Entry entry : entries) {
+                    stmt.setString(1, truncate(entry.action, MAX_ACTION_LENGTH));
+                    stmt.setTimestamp(2, new Timestamp(entry.timestampMillis));
+                    stmt.setString(3, truncate(entry.actor, MAX_ACTOR_LENGTH));
+                    stmt.setString(4, entry.actionType != null ? entry.actionType : Log.ActionType.INFO.getCode());
+                    stmt.setString(5, entry.entityType);
+                    stmt.setString(6, truncate(entry.entityId, MAX_ENTITY_ID_LENGTH));
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    private static String setting(String property, String env, String defaultValue) {
+        return System.getProperty(property, System.getenv().getOrDefault(env, defaultValue));
+    }
+}
@@ -0,0 +1,181 @@
+package com.library.dao;
+
+import com.library.model.Log;
+import org.postgresql.PGConnection;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.*;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the partitioned audit log (schema migration 7) to a fixed number of months.
+ *
+ * Once a day it makes sure the partitions for this month and next month exist, then archives every monthly
+ * partition older than {@code audit.log.retentionMonths} months (env {@code AUDIT_LOG_RETENTION_MONTHS}, default 12,
+ * 0 keeps everything): the partition is detached from logs, copied to {@code logs_YYYY_MM.csv.gz} in
+ * {@code audit.log.archiveDir} (env {@code AUDIT_LOG_ARCHIVE_DIR}, default {@code library-log-archive} in the
+ * user's home directory) and dropped. Dropping a partition is instant, unlike deleting its rows.
+ * With {@code audit.log.archive=false} (env {@code AUDIT_LOG_ARCHIVE}) old partitions are dropped without a copy.
+ *
+ * Each step can be repeated, so a run that stops halfway (a detached but not dropped partition, a half-written
+ * archive) is finished by the next one. The archive is written under a temporary name and renamed once complete.
+ */
+public final class LogRetention {
+
+    // Partition names come from ensure_log_partition; only names of this form are ever put into SQL
+    private static final Pattern PARTITION_NAME = Pattern.compile("logs_(\\d{4})_(\\d{2})");
+    private static final long INITIAL_DELAY_MINUTES = 5;
+
+    private static final int RETENTION_MONTHS = Integer.parseInt(System.getProperty("audit.log.retentionMonths",
+            System.getenv().getOrDefault("AUDIT_LOG_RETENTION_MONTHS", "12")));
+    private static final boolean ARCHIVE = Boolean.parseBoolean(System.getProperty("audit.log.archive",
+            System.getenv().getOrDefault("AUDIT_LOG_ARCHIVE", "true")));
+    private static final Path ARCHIVE_DIR = Paths.get(System.getProperty("audit.log.archiveDir",
+            System.getenv().getOrDefault("AUDIT_LOG_ARCHIVE_DIR",
+                    Paths.get(System.getProperty("user.home"), "library-log-archive").toString())));
+
+    private static ScheduledExecutorService scheduler;
+
+    private LogRetention() {
+    }
+
+    /**
+     * Schedules the daily run, the first one a few minutes after startup. Safe to call more than once.
+     */
+    public static synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "log-retention");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                runOnce();
+            } catch (SQLException | IOException | RuntimeException e) {
+                System.err.println("Error archiving old audit log partitions: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }, INITIAL_DELAY_MINUTES, TimeUnit.DAYS.toMinutes(1), TimeUnit.MINUTES);
+    }
+
+    /**
+     * Creates the upcoming partitions and archives the expired ones.
+     *
+     * @return the names of the partitions archived
+     */
+    public static List<String> runOnce() throws SQLException, IOException {
+        List<String> archived = new ArrayList<>();
+        // A physical connection, so a long COPY does not hold a pooled one
+        try (Connection conn = DatabaseUtil.openPhysicalConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("SELECT ensure_log_partition(CURRENT_DATE)");
+                stmt.execute("SELECT ensure_log_partition((CURRENT_DATE + INTERVAL '1 month')::date)");
+            }
+            if (RETENTION_MONTHS <= 0) {
+                return archived;
+            }
+            YearMonth cutoff = YearMonth.now().minusMonths(RETENTION_MONTHS);
+            for (String partition : listPartitions(conn)) {
+                if (!isExpired(partition, cutoff)) {
+                    continue;
+                }
+                long rows = archive(conn, partition);
+                archived.add(partition);
+                LogDAO.log(Log.ActionType.DELETE, "logs", partition, ARCHIVE
+                        ? "Archived " + rows + " audit log entries to " + ARCHIVE_DIR.resolve(partition + ".csv.gz")
+                        : "Dropped audit log partition " + partition + " past the retention period");
+            }
+        }
+        return archived;
+    }
+
+    /**
+     * @return the month a partition holds, or null if the name is not a monthly log partition
+     */
+    public static YearMonth partitionMonth(String name) {
+        Matcher m = PARTITION_NAME.matcher(name);
+        if (!m.matches()) {
+            return null;
+        }
+        int month = Integer.parseInt(m.group(2));
+        return month >= 1 && month <= 12 ? YearMonth.of(Integer.parseInt(m.group(1)), month) : null;
+    }
+
+    /**
+     * @return true if the partition only holds entries from before {@code cutoff}
+     */
+    public static boolean isExpired(String name, YearMonth cutoff) {
+        YearMonth month = partitionMonth(name);
+        return month != null && month.isBefore(cutoff);
+    }
+
+    /**
+     * Lists the monthly partitions, attached or left detached by an interrupted run, oldest first.
+     */
+    private static List<String> listPartitions(Connection conn) throws SQLException {
+        String sql = "SELECT c.relname FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace " +
+                "WHERE n.nspname = current_schema() AND c.relkind = 'r' AND c.relname LIKE 'logs\\_%' ORDER BY c.relname";
+        List<String> partitions = new ArrayList<>();
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                String name = rs.getString(1);
+                if (partitionMonth(name) != null) {
+                    partitions.add(name);
+                }
+            }
+        }
+        return partitions;
+    }
+
+    private static long archive(Connection conn, String partition) throws SQLException, IOException {
+        try (Statement stmt = conn.createStatement()) {
+            // Detaching first keeps the copy consistent and takes the rows out of the log at once
+            if (isAttached(conn, partition)) {
+                stmt.execute("ALTER TABLE logs DETACH PARTITION \"" + partition + "\"");
+            }
+            long rows = ARCHIVE ? export(conn, partition) : 0;
+            stmt.execute("DROP TABLE \"" + partition + "\"");
+            return rows;
+        }
+    }
+
+    private static boolean isAttached(Connection conn, String partition) throws SQLException {
+        String sql = "SELECT c.relispartition FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace " +
+                "WHERE n.nspname = current_schema() AND c.relname = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, partition);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private static long export(Connection conn, String partition) throws SQLException, IOException {
+        Files.createDirectories(ARCHIVE_DIR);
+        Path target = ARCHIVE_DIR.resolve(partition + ".csv.gz");
+        Path temp = ARCHIVE_DIR.resolve(partition + ".csv.gz.tmp");
+        long rows;
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+            rows = conn.unwrap(PGConnection.class).getCopyAPI()
+                    .copyOut("COPY \"" + partition + "\" TO STDOUT WITH (FORMAT csv, HEADER)", out);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return rows;
+    }
+}
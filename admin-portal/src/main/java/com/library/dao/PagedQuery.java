@@ -0,0 +1,209 @@
+package com.library.dao;
+
+import com.library.model.Page;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Shared keyset (seek) pagination for the DAO searches and the management tables.
+ *
+ * A page is fetched with {@code WHERE <filter> AND (<sort>, <id>) after the previous page's last row
+ * ORDER BY <sort>, <id> LIMIT size + 1}; the extra row only tells whether another page exists. Unlike OFFSET the
+ * database never reads and discards the rows of earlier pages, so page 1000 costs about as much as page 1.
+ * Only a jump to an arbitrary row (dragging a table's scroll bar) has no previous row to seek from and reads
+ * at an offset instead, once; the pages after it seek again.
+ *
+ * The first page carries the number of matches: exact if they all fit on it, otherwise the planner's row
+ * estimate from {@code EXPLAIN}, which costs nothing like a {@code COUNT(*)} over a large table.
+ *
+ * The filter text is matched anywhere in the searched columns ({@code LIKE '%text%'}), which the pg_trgm
+ * indexes of schema migration 3 serve for names, authors and barcodes.
+ */
+final class PagedQuery {
+
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    private static final Pattern ESTIMATED_ROWS = Pattern.compile("rows=(\\d+)");
+
+    private PagedQuery() {
+    }
+
+    /**
+     * Runs a paged search over a fixed scope and a text filter.
+     *
+     * @param select     the select list, e.g. {@code "SELECT s.*"}
+     * @param from       the from clause including joins, e.g. {@code "FROM students s"}
+     * @param scope      a fixed condition without parameters, e.g. {@code "active = TRUE"}, or null
+     * @param filter     a condition with one {@code ?} per searched column, applied when the query is not blank
+     * @param query      the search text; blank matches every row in scope
+     * @param sortColumn the column to order by before the id, or null to order by id only
+     * @param ascending  the sort direction
+     * @param idColumn   the unique id column
+     * @param after      {@link Page#getNextKey()} of the previous page, or null for the first page or a jump
+     * @param offset     index of the first row when {@code after} is null; 0 for the first page
+     * @param pageSize   rows per page, clamped to 1..{@link Page#MAX_SIZE}
+     * @param mapper     maps the current result row
+     * @return the page of rows
+     * @throws SQLException if a database access error occurs
+     */
+    static <T> Page<T> search(String select, String from, String scope, String filter, String query,
+                              String sortColumn, boolean ascending, String idColumn,
+                              Page.Key after, int offset, int pageSize, RowMapper<T> mapper) throws SQLException {
+        String where = scope != null ? scope : "TRUE";
+        List<Object> params = new ArrayList<>();
+        if (!isBlank(query)) {
+            where += " AND (" + filter + ")";
+            String pattern = "%" + escapeLike(query.trim().toLowerCase()) + "%";
+            for (int i = countPlaceholders(filter); i > 0; i--) {
+                params.add(pattern);
+            }
+        }
+        return fetchPage(select, from, where, params, sortColumn, ascending, idColumn, after, offset, pageSize, mapper);
+    }
+
+    /**
+     * Runs a paged query over any condition, for DAOs that build their own WHERE clause.
+     *
+     * @param where  the condition, with {@code ?} placeholders
+     * @param params the values of the placeholders, in order
+     * @see #search
+     */
+    static <T> Page<T> fetchPage(String select, String from, String where, List<Object> params,
+                                 String sortColumn, boolean ascending, String idColumn,
+                                 Page.Key after, int offset, int pageSize, RowMapper<T> mapper) throws SQLException {
+        int size = Math.max(1, Math.min(pageSize, Page.MAX_SIZE));
+        String sortKey = sortColumn != null ? sortColumn : "NULL";
+        String direction = ascending ? " ASC" : " DESC";
+        String orderBy = sortColumn != null
+                ? sortColumn + direction + ", " + idColumn + direction
+                : idColumn + direction;
+
+        List<Object> pageParams = new ArrayList<>(params);
+        StringBuilder sql = new StringBuilder(select).append(", ").append(sortKey).append(" AS page_sort, ")
+                .append(idColumn).append(" AS page_id ").append(from).append(" WHERE ").append(where);
+        if (after != null) {
+            sql.append(" AND ").append(seek(sortColumn, ascending, idColumn, after, pageParams));
+        }
+        sql.append(" ORDER BY ").append(orderBy).append(" LIMIT ?");
+        pageParams.add(size + 1);
+        if (after == null && offset > 0) {
+            sql.append(" OFFSET ?");
+            pageParams.add(offset);
+        }
+
+        List<T> items = new ArrayList<>();
+        Page.Key last = null;
+        boolean more = false;
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                bind(stmt, pageParams);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        if (items.size() == size) {
+                            more = true;
+                            break;
+                        }
+                        last = new Page.Key(rs.getObject("page_sort"), rs.getInt("page_id"));
+                        items.add(mapper.map(rs));
+                    }
+                }
+            }
+
+            if (after != null || offset > 0) {
+                return new Page<>(items, more ? last : null, Page.TOTAL_UNKNOWN, false);
+            }
+            if (!more) {
+                return new Page<>(items, null, items.size(), true);
+            }
+            // More than one page matched: the planner's estimate, but never less than what is known to exist
+            int estimate = estimateRows(conn, "SELECT 1 " + from + " WHERE " + where, params);
+            return new Page<>(items, last, Math.max(estimate, size + 1), false);
+        }
+    }
+
+    /**
+     * Picks the column for a sort key chosen in the UI. Only keys in {@code columns} are accepted, so the
+     * key never reaches the SQL as text.
+     *
+     * @param columns sort key to column expression
+     * @param sortKey the requested key, or null
+     * @return the column, or null (for a null or unknown key) to order by id only
+     */
+    static String sortColumn(Map<String, String> columns, String sortKey) {
+        return sortKey != null ? columns.get(sortKey) : null;
+    }
+
+    /**
+     * Builds the condition for rows after {@code after} in the page order. Postgres sorts nulls last ascending
+     * and first descending, so rows whose sort column is null are placed accordingly.
+     */
+    private static String seek(String sortColumn, boolean ascending, String idColumn, Page.Key after,
+                               List<Object> params) {
+        String cmp = ascending ? " > ?" : " < ?";
+        if (sortColumn == null) {
+            params.add(after.getId());
+            return idColumn + cmp;
+        }
+        if (after.getSortValue() == null) {
+            params.add(after.getId());
+            return ascending
+                    ? "(" + sortColumn + " IS NULL AND " + idColumn + cmp + ")"
+                    : "(" + sortColumn + " IS NOT NULL OR " + idColumn + cmp + ")";
+        }
+        params.add(after.getSortValue());
+        params.add(after.getSortValue());
+        params.add(after.getId());
+        return "(" + sortColumn + cmp + " OR (" + sortColumn + " = ? AND " + idColumn + cmp + ")"
+                + (ascending ? " OR " + sortColumn + " IS NULL)" : ")");
+    }
+
+    private static int estimateRows(Connection conn, String sql, List<Object> params) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + sql)) {
+            bind(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    Matcher matcher = ESTIMATED_ROWS.matcher(rs.getString(1));
+                    if (matcher.find()) {
+                        return (int) Math.min(Integer.MAX_VALUE, Long.parseLong(matcher.group(1)));
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static void bind(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            stmt.setObject(i + 1, params.get(i));
+        }
+    }
+
+    private static boolean isBlank(String query) {
+        return query == null || query.trim().isEmpty();
+    }
+
+    private static int countPlaceholders(String sql) {
+        int count = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            if (sql.charAt(i) == '?') count++;
+        }
+        return count;
+    }
+
+    /**
+     * Escapes LIKE wildcards so "50%" or "a_b" typed by the user are matched literally.
+     */
+    static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
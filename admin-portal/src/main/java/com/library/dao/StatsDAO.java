@@ -0,0 +1,63 @@
+package com.library.dao;
+
+import com.library.model.LibraryStats;
+
+import java.sql.*;
+
+/**
+ * Reads the dashboard counters in a single round trip, either live from the tables or from the
+ * library_stats_summary materialized view (schema migration 8).
+ */
+public class StatsDAO {
+
+    private static final String LIVE_SQL = "SELECT " +
+            "(SELECT COALESCE(SUM(quantity), 0) FROM books), " +
+            "(SELECT COUNT(*) FROM issued_books), " +
+            "(SELECT COUNT(*) FROM students), " +
+            "(SELECT COUNT(*) FROM faculty), " +
+            "CURRENT_TIMESTAMP";
+
+    private static final String SUMMARY_SQL =
+            "SELECT total_books, issued_books, students, faculty, refreshed_at FROM library_stats_summary";
+
+    /**
+     * Counts everything now, in one statement so the counters agree with each other.
+     */
+    public LibraryStats loadLive() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(LIVE_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return map(rs);
+        }
+    }
+
+    /**
+     * Reads the precomputed counters, refreshing them first if they are older than {@code maxAgeSeconds}.
+     * The refresh is concurrent, so other readers keep seeing the previous counters meanwhile.
+     */
+    public LibraryStats loadSummary(long maxAgeSeconds) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            LibraryStats stats = readSummary(conn);
+            if (stats == null || System.currentTimeMillis() - stats.getComputedAt() > maxAgeSeconds * 1000) {
+                try (Statement stmt = conn.createStatement()) {
+                    // CONCURRENTLY needs a populated view; a new one is always populated by CREATE
+                    stmt.execute("REFRESH MATERIALIZED VIEW CONCURRENTLY library_stats_summary");
+                }
+                stats = readSummary(conn);
+            }
+            return stats;
+        }
+    }
+
+    private LibraryStats readSummary(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SUMMARY_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? map(rs) : null;
+        }
+    }
+
+    private static LibraryStats map(ResultSet rs) throws SQLException {
+        return new LibraryStats(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getTimestamp(5).getTime());
+    }
+}
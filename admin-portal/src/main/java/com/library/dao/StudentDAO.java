@@ -1,10 +1,13 @@
 package com.library.dao;
 
+import com.library.model.Log;
+import com.library.model.Page;
 import com.library.model.Student;
 import com.library.util.MobileNumberValidator;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class StudentDAO {
 
@@ -67,36 +70,59 @@ public class StudentDAO {
     }
 
     // ============================
-    // Search student by name or ID
+    // Search students one page at a time
     // ============================
-    public List<Student> searchStudents(String query) {
-        String sql = "SELECT * FROM students WHERE LOWER(name) LIKE LOWER(?) OR LOWER(student_id) LIKE LOWER(?) OR LOWER(email) LIKE LOWER(?) OR LOWER(mobile) LIKE LOWER(?) OR LOWER(course) LIKE LOWER(?)";
-        List<Student> students = new ArrayList<>();
-        try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            String searchPattern = query + "%";
-            stmt.setString(1, searchPattern);
-            stmt.setString(2, searchPattern);
-            stmt.setString(3, searchPattern);
-            stmt.setString(4, searchPattern);
-            stmt.setString(5, searchPattern);
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                Student s = new Student();
-                s.setId(rs.getInt("id"));
-                s.setName(rs.getString("name"));
-                s.setStudentId(rs.getString("student_id"));
-                s.setEmail(rs.getString("email"));
-                s.setMobile(rs.getString("mobile"));
-                s.setRfid(rs.getString("rfid"));
-                s.setCourse(rs.getString("course"));
-                s.setActive(rs.getBoolean("active"));
-                students.add(s);
-            }
+    /**
+     * Searches students by name, ID, email, mobile, course or RFID, one page at a time.
+     *
+     * @param query    the search text, matched anywhere in those columns; blank returns all students
+     * @param after    {@link Page#getNextKey()} of the previous page, or null for the first page
+     * @param pageSize number of students per page
+     * @return the page of students, ordered by id; empty if the query failed
+     */
+    public Page<Student> searchStudents(String query, Page.Key after, int pageSize) {
+        try {
+            return PagedQuery.search("SELECT *", "FROM students", null, SEARCH_FILTER, query,
+                    null, true, "id", after, 0, pageSize, StudentDAO::mapStudent);
         } catch (SQLException e) {
             e.printStackTrace();
+            return Page.empty();
         }
-        return students;
+    }
+
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "name", "name",
+            "studentId", "student_id",
+            "email", "email",
+            "mobile", "mobile",
+            "course", "course",
+            "rfid", "rfid");
+
+    private static final String SEARCH_FILTER =
+            "LOWER(name) LIKE ? OR LOWER(student_id) LIKE ? OR LOWER(email) LIKE ? OR LOWER(mobile) LIKE ? OR LOWER(course) LIKE ? OR LOWER(rfid) LIKE ?";
+
+    // ============================
+    // Read one page of the management table
+    // sortKey: name, studentId, email, mobile, course or rfid; anything else sorts by id
+    // after: the previous page's next key, or null with the row offset of a page jumped to
+    // ============================
+    public Page<Student> getStudentsPage(String query, boolean active, String sortKey, boolean ascending,
+                                         Page.Key after, int offset, int pageSize) throws SQLException {
+        return PagedQuery.search("SELECT *", "FROM students", "active = " + active, SEARCH_FILTER, query,
+                PagedQuery.sortColumn(SORT_COLUMNS, sortKey), ascending, "id", after, offset, pageSize, StudentDAO::mapStudent);
+    }
+
+    private static Student mapStudent(ResultSet rs) throws SQLException {
+        Student s = new Student();
+        s.setId(rs.getInt("id"));
+        s.setName(rs.getString("name"));
+        s.setStudentId(rs.getString("student_id"));
+        s.setEmail(rs.getString("email"));
+        s.setMobile(rs.getString("mobile"));
+        s.setRfid(rs.getString("rfid"));
+        s.setCourse(rs.getString("course"));
+        s.setActive(rs.getBoolean("active"));
+        return s;
     }
 
     // ============================
@@ -126,7 +152,7 @@ public class StudentDAO {
             stmt.setString(5, student.getRfid());
             stmt.setString(6, student.getCourse());
             stmt.executeUpdate();
-            LogDAO.log("Student registered: " + student.getName());
+            LogDAO.log(Log.ActionType.CREATE, "student", null, "Student registered: " + student.getName());
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -143,7 +169,7 @@ public class StudentDAO {
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
             stmt.executeUpdate();
-            LogDAO.log("Student blocked: ID " + id);
+            LogDAO.log(Log.ActionType.BLOCK, "student", id, "Student blocked: ID " + id);
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -160,7 +186,7 @@ public class StudentDAO {
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
             stmt.executeUpdate();
-            LogDAO.log("Student unblocked: ID " + id);
+            LogDAO.log(Log.ActionType.UNBLOCK, "student", id, "Student unblocked: ID " + id);
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -184,7 +210,7 @@ public class StudentDAO {
             stmt.setBoolean(7, student.isActive());
             stmt.setInt(8, student.getId());
             stmt.executeUpdate();
-            LogDAO.log("Student updated: ID " + student.getId());
+            LogDAO.log(Log.ActionType.UPDATE, "student", student.getId(), "Student updated: ID " + student.getId());
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -285,7 +311,7 @@ public class StudentDAO {
                 stmt.setInt(1, id);
                 int rowsAffected = stmt.executeUpdate();
                 if (rowsAffected > 0) {
-                    LogDAO.log("Student deleted: ID " + id);
+                    LogDAO.log(Log.ActionType.DELETE, "student", id, "Student deleted: ID " + id);
                     return true;
                 }
             }
@@ -0,0 +1,31 @@
+package com.library.model;
+
+/**
+ * The dashboard counters, as read together at one moment. Immutable.
+ */
+public class LibraryStats {
+    private final int totalBooks;
+    private final int issuedBooks;
+    private final int students;
+    private final int faculty;
+    // When the counters were computed, in epoch millis
+    private final long computedAt;
+
+    public LibraryStats(int totalBooks, int issuedBooks, int students, int faculty, long computedAt) {
+        this.totalBooks = totalBooks;
+        this.issuedBooks = issuedBooks;
+        this.students = students;
+        this.faculty = faculty;
+        this.computedAt = computedAt;
+    }
+
+    /** Copies of every book, the sum of quantity. */
+    public int getTotalBooks() { return totalBooks; }
+    public int getIssuedBooks() { return issuedBooks; }
+    public int getAvailableBooks() { return totalBooks - issuedBooks; }
+    // Pending returns are the issued books not yet returned
+    public int getPendingReturns() { return issuedBooks; }
+    public int getStudents() { return students; }
+    public int getFaculty() { return faculty; }
+    public long getComputedAt() { return computedAt; }
+}
@@ -1,10 +1,52 @@
 // Placeholder for Log.java
 package com.library.model;
 
+/**
+ * One audit log entry: who ({@code actor}) did what ({@code actionType} and the free-text {@code action})
+ * to which record ({@code entityType} and {@code entityId}), and when.
+ */
 public class Log {
+    public enum ActionType {
+        CREATE("Created"),
+        UPDATE("Updated"),
+        DELETE("Deleted"),
+        BLOCK("Blocked"),
+        UNBLOCK("Unblocked"),
+        DENIED("Denied"),
+        WARNING("Warning"),
+        ERROR("Error"),
+        INFO("Info"),
+        TRACE("Trace");
+
+        private final String displayName;
+
+        ActionType(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() { return displayName; }
+
+        /** The value stored in logs.action_type. */
+        public String getCode() { return name().toLowerCase(); }
+
+        /** Looks up a stored action_type; unknown values read as INFO. */
+        public static ActionType fromCode(String code) {
+            for (ActionType type : values()) {
+                if (type.getCode().equals(code)) {
+                    return type;
+                }
+            }
+            return INFO;
+        }
+    }
+
     private int id;
     private String action;
     private String timestamp;
+    private String actor;
+    private ActionType actionType = ActionType.INFO;
+    private String entityType;
+    private String entityId;
 
     public int getId() { return id; }
     public void setId(int id) { this.id = id; }
@@ -12,4 +54,12 @@ public class Log {
     public void setAction(String action) { this.action = action; }
     public String getTimestamp() { return timestamp; }
     public void setTimestamp(String timestamp) { this.timestamp = timestamp; }
-}
\ No newline at end of file
+    public String getActor() { return actor; }
+    public void setActor(String actor) { this.actor = actor; }
+    public ActionType getActionType() { return actionType; }
+    public void setActionType(ActionType actionType) { this.actionType = actionType; }
+    public String getEntityType() { return entityType; }
+    public void setEntityType(String entityType) { this.entityType = entityType; }
+    public String getEntityId() { return entityId; }
+    public void setEntityId(String entityId) { this.entityId = entityId; }
+}
@@ -0,0 +1,43 @@
+package com.library.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Criteria for reading the audit log. Every field is optional; null means "any".
+ * Instances are immutable, so a filter can be handed to a background loader while the user edits the next one.
+ */
+public class LogFilter {
+
+    public static final LogFilter ALL = new LogFilter(null, null, null, null, null);
+
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final Log.ActionType actionType;
+    private final String actor;
+    private final String text;
+
+    /**
+     * @param from       earliest timestamp, inclusive
+     * @param to         latest timestamp, exclusive
+     * @param actionType only entries of this type
+     * @param actor      only entries by this admin
+     * @param text       words that must all appear in the entry text, each matched as a word prefix
+     */
+    public LogFilter(LocalDateTime from, LocalDateTime to, Log.ActionType actionType, String actor, String text) {
+        this.from = from;
+        this.to = to;
+        this.actionType = actionType;
+        this.actor = actor;
+        this.text = text;
+    }
+
+    public LocalDateTime getFrom() { return from; }
+    public LocalDateTime getTo() { return to; }
+    public Log.ActionType getActionType() { return actionType; }
+    public String getActor() { return actor; }
+    public String getText() { return text; }
+
+    public LogFilter withText(String text) {
+        return new LogFilter(from, to, actionType, actor, text);
+    }
+}
@@ -0,0 +1,74 @@
+package com.library.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a keyset (seek) paginated search.
+ * To fetch the following page pass {@link #getNextKey()} back to the DAO. The total is only known for the first
+ * page: exact if every match fit on it, otherwise the planner's estimate.
+ *
+ * @param <T> the type of the rows in the page
+ */
+public class Page<T> {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 500;
+    /** Total value used when the total was not estimated (every page after the first). */
+    public static final int TOTAL_UNKNOWN = -1;
+
+    /**
+     * Position of the last row of a page: its sort column value, and its id to break ties.
+     */
+    public static final class Key {
+        private final Object sortValue;
+        private final int id;
+
+        public Key(Object sortValue, int id) {
+            this.sortValue = sortValue;
+            this.id = id;
+        }
+
+        /**
+         * @return the sort column value of the row, null if the column was null or the pages are ordered by id only
+         */
+        public Object getSortValue() { return sortValue; }
+
+        public int getId() { return id; }
+    }
+
+    private final List<T> items;
+    private final Key nextKey;
+    private final int total;
+    private final boolean totalExact;
+
+    public Page(List<T> items, Key nextKey, int total, boolean totalExact) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextKey = nextKey;
+        this.total = total;
+        this.totalExact = totalExact;
+    }
+
+    public static <T> Page<T> empty() {
+        return new Page<>(Collections.emptyList(), null, 0, true);
+    }
+
+    public List<T> getItems() { return items; }
+
+    /**
+     * @return the key to pass as {@code after} for the next page, or null if this is the last page
+     */
+    public Key getNextKey() { return nextKey; }
+
+    public boolean hasNext() { return nextKey != null; }
+
+    /**
+     * @return the number of matching rows, or {@link #TOTAL_UNKNOWN} after the first page
+     */
+    public int getTotal() { return total; }
+
+    /**
+     * @return false if {@link #getTotal()} is an estimate
+     */
+    public boolean isTotalExact() { return totalExact; }
+}
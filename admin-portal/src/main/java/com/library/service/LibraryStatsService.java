@@ -0,0 +1,128 @@
+package com.library.service;
+
+import com.library.dao.StatsDAO;
+import com.library.model.LibraryStats;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.LongSupplier;
+
+/**
+ * LibraryStatsService keeps the dashboard counters off the JavaFX thread.
+ *
+ * The counters are loaded in the background with one query and kept for {@code dashboard.stats.ttlSeconds}
+ * (env {@code DASHBOARD_STATS_TTL_SECONDS}, default 30), so going back to the dashboard shows them at once.
+ * Callers asking while a load is running share it rather than starting another. With
+ * {@code dashboard.stats.source=summary} (env {@code DASHBOARD_STATS_SOURCE}) they are read from the
+ * library_stats_summary materialized view instead, refreshed when older than
+ * {@code dashboard.stats.summaryMaxAgeSeconds} (env {@code DASHBOARD_STATS_SUMMARY_MAX_AGE_SECONDS}, default 300).
+ */
+public class LibraryStatsService {
+
+    /**
+     * Loads a fresh set of counters; called on the service's executor.
+     */
+    public interface Loader {
+        LibraryStats load() throws Exception;
+    }
+
+    private static final long TTL_SECONDS = Long.parseLong(System.getProperty("dashboard.stats.ttlSeconds",
+            System.getenv().getOrDefault("DASHBOARD_STATS_TTL_SECONDS", "30")));
+    private static final String SOURCE = System.getProperty("dashboard.stats.source",
+            System.getenv().getOrDefault("DASHBOARD_STATS_SOURCE", "live"));
+    private static final long SUMMARY_MAX_AGE_SECONDS = Long.parseLong(System.getProperty("dashboard.stats.summaryMaxAgeSeconds",
+            System.getenv().getOrDefault("DASHBOARD_STATS_SUMMARY_MAX_AGE_SECONDS", "300")));
+
+    private static LibraryStatsService instance;
+
+    private final Loader loader;
+    private final long ttlMillis;
+    private final Executor executor;
+    private final LongSupplier clock;
+
+    // Guarded by this
+    private LibraryStats cached;
+    private long cachedAt;
+    private boolean stale = true;
+    private CompletableFuture<LibraryStats> inFlight;
+
+    public LibraryStatsService(Loader loader, long ttlMillis, Executor executor, LongSupplier clock) {
+        this.loader = loader;
+        this.ttlMillis = ttlMillis;
+        this.executor = executor;
+        this.clock = clock;
+    }
+
+    /**
+     * The service used by the portal, loading on a daemon thread from the configured source.
+     */
+    public static synchronized LibraryStatsService getInstance() {
+        if (instance == null) {
+            StatsDAO statsDAO = new StatsDAO();
+            Loader loader = "summary".equalsIgnoreCase(SOURCE)
+                    ? () -> statsDAO.loadSummary(SUMMARY_MAX_AGE_SECONDS)
+                    : statsDAO::loadLive;
+            instance = new LibraryStatsService(loader, TTL_SECONDS * 1000, Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "library-stats");
+                t.setDaemon(true);
+                return t;
+            }), System::currentTimeMillis);
+        }
+        return instance;
+    }
+
+    /**
+     * @return the last counters loaded, however old, or null if none have been loaded yet
+     */
+    public synchronized LibraryStats getCached() {
+        return cached;
+    }
+
+    /**
+     * @return the cached counters if still fresh, otherwise a load, shared with any other caller waiting for one
+     */
+    public synchronized CompletableFuture<LibraryStats> get() {
+        if (cached != null && !stale && clock.getAsLong() - cachedAt < ttlMillis) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        if (inFlight != null) {
+            return inFlight;
+        }
+        CompletableFuture<LibraryStats> load = new CompletableFuture<>();
+        inFlight = load;
+        executor.execute(() -> {
+            try {
+                LibraryStats stats = loader.load();
+                loaded(load, stats);
+                load.complete(stats);
+            } catch (Exception e) {
+                loaded(load, null);
+                load.completeExceptionally(e);
+            }
+        });
+        return load;
+    }
+
+    /**
+     * Makes the next {@link #get()} load again, e.g. after records were added or removed.
+     * A load already running is not waited for; its result is still shown but not kept as fresh.
+     */
+    public synchronized void invalidate() {
+        stale = true;
+        inFlight = null;
+    }
+
+    private synchronized void loaded(CompletableFuture<LibraryStats> load, LibraryStats stats) {
+        if (inFlight != load) {
+            // Invalidated while loading
+            return;
+        }
+        inFlight = null;
+        if (stats != null) {
+            cached = stats;
+            cachedAt = clock.getAsLong();
+            stale = false;
+        }
+    }
+}
@@ -15,19 +15,18 @@ import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 import javafx.util.Duration;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Callable;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 /**
  * AdvancedSearchBar is a reusable JavaFX component that provides instant live search functionality.
  * It supports manual typing, RFID scanner input, and barcode scanner input (all treated as text input).
  * Features debounced search, search and clear icons, rounded design, and smooth animations.
+ * Filtering runs on a {@link SearchScheduler} worker; only the final update happens on the JavaFX thread.
  *
  * @param <T> The type of data to search through.
  */
@@ -36,7 +35,7 @@ public class AdvancedSearchBar<T> extends HBox {
     private final TextField searchField;
     private final Button searchButton;
     private final Button clearButton;
-    private ScheduledExecutorService debounceExecutor = Executors.newSingleThreadScheduledExecutor();
+    private final SearchScheduler searchScheduler = new SearchScheduler(300, Platform::runLater);
 
     private final Supplier<List<T>> dataSupplier;
     private final Function<T, String> toStringFunction;
@@ -93,27 +92,39 @@ public class AdvancedSearchBar<T> extends HBox {
     private void handleTextChange(String newText) {
         clearButton.setVisible(!newText.isEmpty());
 
-        // Cancel previous debounce task
-        debounceExecutor.shutdownNow();
-        debounceExecutor = Executors.newSingleThreadScheduledExecutor();
-
-        // Debounce search by 300ms
-        debounceExecutor.schedule(() -> Platform.runLater(() -> performSearch(newText)), 300, TimeUnit.MILLISECONDS);
+        // Debounce search by 300ms; a newer keystroke cancels the pending filter
+        searchScheduler.submit(filterTask(newText), this::showResults);
     }
 
     private void performSearch(String query) {
-        List<T> allItems = dataSupplier.get();
-        List<T> filteredItems;
+        searchScheduler.submitNow(filterTask(query), this::showResults);
+    }
 
-        if (query == null || query.trim().isEmpty()) {
-            filteredItems = allItems;
-        } else {
+    /**
+     * Takes a snapshot of the items on the calling (FX) thread and returns the filter work for a worker thread.
+     */
+    private Callable<List<T>> filterTask(String query) {
+        List<T> allItems = new ArrayList<>(dataSupplier.get());
+        return () -> {
+            if (query == null || query.trim().isEmpty()) {
+                return allItems;
+            }
             String lowerQuery = query.toLowerCase();
-            filteredItems = allItems.stream()
-                    .filter(item -> toStringFunction.apply(item).toLowerCase().contains(lowerQuery))
-                    .collect(Collectors.toList());
-        }
+            List<T> filteredItems = new ArrayList<>();
+            for (int i = 0; i < allItems.size(); i++) {
+                if ((i & 1023) == 0 && Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException("Search superseded");
+                }
+                T item = allItems.get(i);
+                if (toStringFunction.apply(item).toLowerCase().contains(lowerQuery)) {
+                    filteredItems.add(item);
+                }
+            }
+            return filteredItems;
+        };
+    }
 
+    private void showResults(List<T> filteredItems) {
         // Animate update
         FadeTransition fadeOut = new FadeTransition(Duration.millis(100), this);
         fadeOut.setFromValue(1.0);
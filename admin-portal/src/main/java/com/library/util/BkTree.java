@@ -0,0 +1,159 @@
+package com.library.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * BK-tree over words for typo-tolerant lookups by Levenshtein distance.
+ *
+ * Every child edge is labelled with the distance between the child and its parent, so a search for words
+ * within {@code maxDistance} of a query only descends into edges labelled {@code d - maxDistance .. d + maxDistance}
+ * (triangle inequality), which visits a small part of the tree for small distances.
+ * Words are kept in one tree per length, since a word can only be within {@code maxDistance} edits of words
+ * whose length differs by at most {@code maxDistance}; this skips most of the vocabulary outright.
+ *
+ * Not thread-safe; {@link SearchIndex} guards it with its own lock.
+ */
+public class BkTree {
+
+    private static final class Node {
+        final String word;
+        int[] distances = new int[0];
+        Node[] children = new Node[0];
+
+        Node(String word) {
+            this.word = word;
+        }
+
+        Node child(int distance) {
+            for (int i = 0; i < distances.length; i++) {
+                if (distances[i] == distance) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        void addChild(int distance, Node child) {
+            distances = Arrays.copyOf(distances, distances.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            distances[distances.length - 1] = distance;
+            children[children.length - 1] = child;
+        }
+    }
+
+    private Node[] roots = new Node[0];
+    private int size;
+
+    /**
+     * Adds a word; adding a word that is already present does nothing.
+     *
+     * @param word the word to add
+     */
+    public void add(String word) {
+        int length = word.length();
+        if (length >= roots.length) {
+            roots = Arrays.copyOf(roots, length + 1);
+        }
+        if (roots[length] == null) {
+            roots[length] = new Node(word);
+            size++;
+            return;
+        }
+        Node node = roots[length];
+        while (true) {
+            int distance = distance(word, node.word);
+            if (distance == 0) {
+                return;
+            }
+            Node child = node.child(distance);
+            if (child == null) {
+                node.addChild(distance, new Node(word));
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Finds the words within {@code maxDistance} edits of {@code query}.
+     * The search stops early when {@code deadlineNanos} (a {@link System#nanoTime()} value) has passed,
+     * returning the words found so far.
+     *
+     * @param query         the word to look up
+     * @param maxDistance   maximum number of insertions, deletions or substitutions
+     * @param deadlineNanos time at which to give up
+     * @return matching words, in no particular order
+     */
+    public List<String> search(String query, int maxDistance, long deadlineNanos) {
+        List<String> matches = new ArrayList<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        int from = Math.max(0, query.length() - maxDistance);
+        int to = Math.min(roots.length - 1, query.length() + maxDistance);
+        for (int length = from; length <= to; length++) {
+            if (roots[length] != null) {
+                pending.push(roots[length]);
+            }
+        }
+        int visited = 0;
+        while (!pending.isEmpty()) {
+            // Checking the clock on every node would cost more than the distance computations
+            if ((++visited & 63) == 0 && System.nanoTime() > deadlineNanos) {
+                break;
+            }
+            Node node = pending.pop();
+            int distance = distance(query, node.word);
+            if (distance <= maxDistance) {
+                matches.add(node.word);
+            }
+            for (int i = 0; i < node.distances.length; i++) {
+                if (Math.abs(node.distances[i] - distance) <= maxDistance) {
+                    pending.push(node.children[i]);
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Removes every word.
+     */
+    public void clear() {
+        roots = new Node[0];
+        size = 0;
+    }
+
+    /**
+     * @return the number of distinct words in the tree
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Levenshtein distance between two words, using two rolling rows.
+     */
+    static int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (ca == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j] + 1, current[j - 1] + 1));
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
@@ -0,0 +1,114 @@
+package com.library.util;
+
+import com.library.dao.CatalogCache;
+import com.library.dao.DatabaseUtil;
+import com.library.dao.IssuedCountReconciler;
+import com.library.dao.LogRetention;
+import com.library.dao.SchemaMigrator;
+import javafx.animation.PauseTransition;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.concurrent.Task;
+import javafx.util.Duration;
+
+import java.sql.Connection;
+
+/**
+ * Prepares the data layer in the background so the login window can be shown straight away.
+ * The stages are: opening the connection pool, bringing the schema up to date and loading the catalog cache;
+ * the audit log retention and loan counter reconciliation jobs are scheduled once they are done.
+ * Progress and status are exposed as JavaFX properties for the login screen, and {@link #readyProperty()}
+ * turns true once everything is done. If the database cannot be reached the startup is retried.
+ *
+ * All methods must be called on the JavaFX application thread.
+ */
+public final class DataLayerStartup {
+
+    private static final Duration RETRY_DELAY = Duration.seconds(5);
+
+    private static final ReadOnlyBooleanWrapper ready = new ReadOnlyBooleanWrapper(false);
+    private static final ReadOnlyStringWrapper status = new ReadOnlyStringWrapper("Starting...");
+    private static final ReadOnlyDoubleWrapper progress = new ReadOnlyDoubleWrapper(0);
+    private static Task<Void> task;
+
+    private DataLayerStartup() {
+    }
+
+    /**
+     * Starts the background initialization. Does nothing if it is already running or has completed.
+     */
+    public static void start() {
+        if (ready.get() || (task != null && task.isRunning())) {
+            return;
+        }
+        task = new Task<Void>() {
+            @Override
+            protected Void call() throws Exception {
+                updateProgress(0, 3);
+                updateMessage("Connecting to database...");
+                DatabaseUtil.warmUpPool();
+
+                updateProgress(1, 3);
+                updateMessage("Checking database schema...");
+                try (Connection conn = DatabaseUtil.getConnection()) {
+                    SchemaMigrator.migrate(conn);
+                }
+
+                updateProgress(2, 3);
+                updateMessage("Loading catalog...");
+                CatalogCache.warmUp();
+                LogRetention.start();
+                IssuedCountReconciler.start();
+
+                updateProgress(3, 3);
+                updateMessage("Ready");
+                return null;
+            }
+        };
+        status.bind(task.messageProperty());
+        progress.bind(task.progressProperty());
+        task.setOnSucceeded(e -> {
+            status.unbind();
+            progress.unbind();
+            ready.set(true);
+        });
+        task.setOnFailed(e -> {
+            status.unbind();
+            progress.unbind();
+            Throwable error = task.getException();
+            System.err.println("Data layer startup failed: " + error.getMessage());
+            error.printStackTrace();
+            status.set("Database unavailable, retrying...");
+            PauseTransition retry = new PauseTransition(RETRY_DELAY);
+            retry.setOnFinished(ev -> start());
+            retry.play();
+        });
+
+        Thread thread = new Thread(task, "data-layer-startup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @return true once the database is reachable, the schema is current and the catalog is loaded
+     */
+    public static boolean isReady() {
+        return ready.get();
+    }
+
+    public static ReadOnlyBooleanProperty readyProperty() {
+        return ready.getReadOnlyProperty();
+    }
+
+    public static ReadOnlyStringProperty statusProperty() {
+        return status.getReadOnlyProperty();
+    }
+
+    public static ReadOnlyDoubleProperty progressProperty() {
+        return progress.getReadOnlyProperty();
+    }
+}
@@ -1,73 +1,20 @@
 package com.library.util;
 
-import jakarta.mail.*;
-import jakarta.mail.internet.*;
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.Properties;
+import jakarta.mail.MessagingException;
 
 /**
  * EmailService handles sending emails for the Library Management System.
- * Supports various email templates for notifications and verification.
+ * Message texts come from {@link MailTemplates} and are sent over the shared {@link MailSession},
+ * so creating an EmailService is cheap.
  */
 public class EmailService {
-    private static final String CONFIG_FILE = "email.properties";
-    private Properties emailConfig;
-    private Session session;
-
-    public EmailService() {
-        loadEmailConfig();
-        setupMailSession();
-    }
-
-    private void loadEmailConfig() {
-        emailConfig = new Properties();
-        try (InputStream input = getClass().getClassLoader().getResourceAsStream(CONFIG_FILE)) {
-            if (input == null) {
-                System.err.println("❌ Unable to find " + CONFIG_FILE);
-                throw new RuntimeException("Email configuration file not found");
-            }
-            emailConfig.load(input);
-        } catch (IOException e) {
-            System.err.println("❌ Error loading email configuration: " + e.getMessage());
-            throw new RuntimeException("Failed to load email configuration", e);
-        }
-    }
-
-    private void setupMailSession() {
-        Properties props = new Properties();
-        props.put("mail.smtp.host", emailConfig.getProperty("mail.smtp.host", "smtp.gmail.com"));
-        props.put("mail.smtp.port", emailConfig.getProperty("mail.smtp.port", "587"));
-        props.put("mail.smtp.auth", emailConfig.getProperty("mail.smtp.auth", "true"));
-        props.put("mail.smtp.starttls.enable", emailConfig.getProperty("mail.smtp.starttls.enable", "true"));
-
-        final String username = emailConfig.getProperty("mail.username");
-        final String password = emailConfig.getProperty("mail.password");
-
-        if (username == null || password == null) {
-            throw new RuntimeException("Email username or password not configured");
-        }
-
-        session = Session.getInstance(props, new Authenticator() {
-            @Override
-            protected PasswordAuthentication getPasswordAuthentication() {
-                return new PasswordAuthentication(username, password);
-            }
-        });
-    }
 
     /**
      * Sends an email with the specified parameters.
      */
     public boolean sendEmail(String to, String subject, String body) {
         try {
-            Message message = new MimeMessage(session);
-            message.setFrom(new InternetAddress(emailConfig.getProperty("mail.username")));
-            message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(to));
-            message.setSubject(subject);
-            message.setText(body);
-
-            Transport.send(message);
+            MailSession.send(to, subject, body);
             System.out.println("✅ Email sent successfully to: " + to);
             return true;
         } catch (MessagingException e) {
@@ -83,25 +30,10 @@ public class EmailService {
     public boolean sendBookIssueNotification(String studentEmail, String studentName, String rfid,
                                            String bookName, String issueDate, String dueDate,
                                            String issuedBooksList) {
-        String subject = "Library Book Issue Confirmation";
-        String body = String.format(
-            "Dear %s,\n\n" +
-            "Your book has been successfully issued!\n\n" +
-            "Student Details:\n" +
-            "Name: %s\n" +
-            "RFID: %s\n\n" +
-            "Book Details:\n" +
-            "Book Name: %s\n" +
-            "Issue Date: %s\n" +
-            "Due Date: %s\n\n" +
-            "Currently Issued Books:\n%s\n\n" +
-            "Please return the book by the due date to avoid fines.\n\n" +
-            "Best regards,\n" +
-            "Library Management System",
-            studentName, studentName, rfid, bookName, issueDate, dueDate, issuedBooksList
-        );
-
-        return sendEmail(studentEmail, subject, body);
+        return sendEmail(studentEmail, MailTemplates.BOOK_ISSUE_SUBJECT,
+                MailTemplates.BOOK_ISSUE_HEADER.render("name", studentName, "role", "Student", "rfid", rfid)
+                + MailTemplates.BOOK_ISSUE_ITEM.render("book", bookName, "issueDate", issueDate, "dueDate", dueDate)
+                + MailTemplates.BOOK_ISSUE_FOOTER.render("issuedBooks", issuedBooksList));
     }
 
     /**
@@ -109,115 +41,57 @@ public class EmailService {
      */
     public boolean sendBookReturnNotification(String studentEmail, String studentName, String rfid,
                                             String bookReturned, String returnDate, String remainingBooksList) {
-        String subject = "Library Book Return Confirmation";
-        String body = String.format(
-            "Dear %s,\n\n" +
-            "Your book return has been successfully processed!\n\n" +
-            "Student Details:\n" +
-            "Name: %s\n" +
-            "RFID: %s\n\n" +
-            "Return Details:\n" +
-            "Book Returned: %s\n" +
-            "Return Date: %s\n\n" +
-            "Remaining Issued Books:\n%s\n\n" +
-            "Thank you for returning the book on time.\n\n" +
-            "Best regards,\n" +
-            "Library Management System",
-            studentName, studentName, rfid, bookReturned, returnDate, remainingBooksList
-        );
-
-        return sendEmail(studentEmail, subject, body);
+        return sendEmail(studentEmail, MailTemplates.BOOK_RETURN_SUBJECT,
+                MailTemplates.BOOK_RETURN_HEADER.render("name", studentName, "role", "Student", "rfid", rfid)
+                + MailTemplates.BOOK_RETURN_ITEM.render("book", bookReturned, "returnDate", returnDate)
+                + MailTemplates.BOOK_RETURN_FOOTER.render("issuedBooks", remainingBooksList));
     }
 
     /**
      * Sends student registration confirmation email.
      */
     public boolean sendStudentRegistrationNotification(String studentEmail, String studentName, String rfid) {
-        String subject = "Welcome to Library Management System";
-        String body = String.format(
-            "Dear %s,\n\n" +
-            "Welcome to the Library Management System!\n\n" +
-            "Your registration has been successfully completed.\n\n" +
-            "Student Details:\n" +
-            "Name: %s\n" +
-            "RFID: %s\n\n" +
-            "You can now use your RFID card to login and issue books.\n\n" +
-            "Best regards,\n" +
-            "Library Management System",
-            studentName, studentName, rfid
-        );
-
-        return sendEmail(studentEmail, subject, body);
+        return sendEmail(studentEmail, MailTemplates.STUDENT_REGISTRATION_SUBJECT,
+                MailTemplates.STUDENT_REGISTRATION.render("name", studentName, "rfid", rfid));
     }
 
     /**
      * Sends admin registration confirmation email.
      */
     public boolean sendAdminRegistrationNotification(String adminEmail, String adminId) {
-        String subject = "Admin Registration Confirmation";
-        String body = String.format(
-            "Dear Admin,\n\n" +
-            "Your admin account has been successfully registered.\n\n" +
-            "Admin Details:\n" +
-            "Admin ID: %s\n" +
-            "Email: %s\n\n" +
-            "You can now login to the Admin Portal using your Admin ID and password.\n\n" +
-            "Best regards,\n" +
-            "Library Management System",
-            adminId, adminEmail
-        );
-
-        return sendEmail(adminEmail, subject, body);
+        return sendEmail(adminEmail, MailTemplates.ADMIN_REGISTRATION_SUBJECT,
+                MailTemplates.ADMIN_REGISTRATION.render("adminId", adminId, "email", adminEmail));
     }
 
     /**
      * Sends password change confirmation email to admin.
      */
     public boolean sendPasswordChangeNotification(String adminEmail, String adminName) {
-        String subject = "Password Change Confirmation";
-        String body = String.format(
-            "Dear %s,\n\n" +
-            "Your password has been successfully changed.\n\n" +
-            "If you did not make this change, please contact support immediately.\n\n" +
-            "Best regards,\n" +
-            "Library Management System",
-            adminName
-        );
+        return sendEmail(adminEmail, MailTemplates.PASSWORD_CHANGE_SUBJECT,
+                MailTemplates.PASSWORD_CHANGE.render("name", adminName));
+    }
 
-        return sendEmail(adminEmail, subject, body);
+    /**
+     * Sends a password reset code to an admin.
+     */
+    public boolean sendPasswordResetCode(String adminEmail, String resetCode) {
+        return sendEmail(adminEmail, MailTemplates.PASSWORD_RESET_SUBJECT,
+                MailTemplates.PASSWORD_RESET.render("code", resetCode));
     }
 
     /**
      * Sends student deletion notification email.
      */
     public boolean sendStudentDeletionNotification(String studentEmail, String studentName) {
-        String subject = "Account Deletion Notification";
-        String body = String.format(
-            "Dear %s,\n\n" +
-            "We regret to inform you that your student account has been deleted from the Library Management System.\n\n" +
-            "If you believe this was done in error or have any questions, please contact the library administration.\n\n" +
-            "Best regards,\n" +
-            "Library Management System",
-            studentName
-        );
-
-        return sendEmail(studentEmail, subject, body);
+        return sendEmail(studentEmail, MailTemplates.ACCOUNT_DELETION_SUBJECT,
+                MailTemplates.ACCOUNT_DELETION.render("name", studentName, "accountType", "student"));
     }
 
     /**
      * Sends faculty deletion notification email.
      */
     public boolean sendFacultyDeletionNotification(String facultyEmail, String facultyName) {
-        String subject = "Account Deletion Notification";
-        String body = String.format(
-            "Dear %s,\n\n" +
-            "We regret to inform you that your faculty account has been deleted from the Library Management System.\n\n" +
-            "If you believe this was done in error or have any questions, please contact the library administration.\n\n" +
-            "Best regards,\n" +
-            "Library Management System",
-            facultyName
-        );
-
-        return sendEmail(facultyEmail, subject, body);
+        return sendEmail(facultyEmail, MailTemplates.ACCOUNT_DELETION_SUBJECT,
+                MailTemplates.ACCOUNT_DELETION.render("name", facultyName, "accountType", "faculty"));
     }
 }
@@ -0,0 +1,306 @@
+package com.library.util;
+
+import com.library.model.Page;
+import javafx.collections.ObservableListBase;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read-only observable list that loads its rows from the database a page at a time, for large TableViews.
+ *
+ * {@link #size()} is the number of matching rows, but only the pages the table actually asks for are fetched.
+ * A TableView only calls {@link #get(int)} for the rows it is about to display, so scrolling loads the visible
+ * page plus its neighbours in the background. Until a page arrives its rows read as null (empty table rows),
+ * then the list fires a change and the table fills them in. At most {@code maxCachedPages} pages are kept,
+ * least recently used first out, so memory stays bounded however far the user scrolls.
+ *
+ * Pages are keyset pages ({@link Page}): a page whose predecessor has been loaded is fetched after that page's
+ * last row, so scrolling never makes the database skip rows. Only a jump to a page with no loaded predecessor
+ * passes its row offset instead. The size starts as the first page's total, which for large results is an
+ * estimate ({@link #isSizeExact()}), and is corrected when a page shows the result ends earlier or goes on.
+ *
+ * Changing the filter text or the sort order re-counts and reloads from the first page. Filter changes are
+ * debounced so typing does not issue a query per keystroke. Results from superseded loads are dropped.
+ *
+ * All methods must be called on the JavaFX application thread; loading happens on shared worker threads and
+ * results are applied through the executor given to the constructor (normally {@code Platform::runLater}).
+ *
+ * @param <T> the row type
+ */
+public class LazyPagedList<T> extends ObservableListBase<T> {
+
+    /**
+     * Fetches rows for a {@link LazyPagedList}; called on a worker thread.
+     */
+    public interface Loader<T> {
+        /**
+         * @param sortKey   the sort key set with {@link LazyPagedList#setSort}, or null for the default order
+         * @param ascending the sort direction
+         * @param after     the last row of the previous page, or null for the first page or a jump
+         * @param offset    index of the first row; only used when {@code after} is null
+         * @return up to {@code limit} rows; the first page also carries the total
+         */
+        Page<T> load(String query, String sortKey, boolean ascending, Page.Key after, int offset, int limit) throws Exception;
+    }
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int DEFAULT_CACHED_PAGES = 10;
+    private static final long FILTER_DELAY_MS = 250;
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    private static final ScheduledThreadPoolExecutor WORKERS = createWorkers();
+
+    private final Loader<T> loader;
+    private final Executor resultExecutor;
+    private final int pageSize;
+    private final Map<Integer, List<T>> pages;
+    // Where each loaded page ended, so the page after it can be fetched by seeking; kept when the page is evicted
+    private final Map<Integer, Page.Key> pageEnds = new HashMap<>();
+    private final Set<Integer> loading = new HashSet<>();
+
+    private int size;
+    private boolean sizeExact = true;
+    private String query = "";
+    private String sortKey;
+    private boolean ascending = true;
+    private long generation;
+    private ScheduledFuture<?> pendingReload;
+
+    public LazyPagedList(Loader<T> loader, Executor resultExecutor) {
+        this(loader, resultExecutor, DEFAULT_PAGE_SIZE, DEFAULT_CACHED_PAGES);
+    }
+
+    /**
+     * @param loader         fetches counts and pages
+     * @param resultExecutor where loaded pages are applied, e.g. {@code Platform::runLater}
+     * @param pageSize       rows per fetch
+     * @param maxCachedPages pages kept in memory; must be at least 3 so a page and its neighbours fit
+     */
+    public LazyPagedList(Loader<T> loader, Executor resultExecutor, int pageSize, int maxCachedPages) {
+        this.loader = loader;
+        this.resultExecutor = resultExecutor;
+        this.pageSize = pageSize;
+        int capacity = Math.max(3, maxCachedPages);
+        this.pages = new LinkedHashMap<Integer, List<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the row at {@code index}, or null while its page is still loading.
+     */
+    @Override
+    public T get(int index) {
+        Objects.checkIndex(index, size);
+        int page = index / pageSize;
+        int offset = index % pageSize;
+        List<T> rows = pages.get(page);
+        if (rows == null) {
+            requestPage(page);
+            requestPage(page + 1);
+            if (page > 0) {
+                requestPage(page - 1);
+            }
+            return null;
+        }
+        // Fetch ahead once the reader is past the middle of a page
+        if (offset >= pageSize / 2) {
+            requestPage(page + 1);
+        } else if (page > 0) {
+            requestPage(page - 1);
+        }
+        return offset < rows.size() ? rows.get(offset) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return false while {@link #size()} is an estimate of the number of matching rows
+     */
+    public boolean isSizeExact() {
+        return sizeExact;
+    }
+
+    /**
+     * @return true if the row at {@code index} is in memory
+     */
+    public boolean isLoaded(int index) {
+        return index >= 0 && index < size && pages.containsKey(index / pageSize);
+    }
+
+    /**
+     * Filters the rows; the reload starts after a short delay so consecutive keystrokes only query once.
+     */
+    public void setQuery(String query) {
+        String normalized = query == null ? "" : query.trim();
+        if (normalized.equals(this.query)) {
+            return;
+        }
+        this.query = normalized;
+        scheduleReload(FILTER_DELAY_MS);
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * Sorts the rows by a loader-defined key and reloads.
+     *
+     * @param sortKey   the key passed to {@link Loader#load}, or null for the default order
+     * @param ascending the sort direction
+     */
+    public void setSort(String sortKey, boolean ascending) {
+        if (Objects.equals(sortKey, this.sortKey) && ascending == this.ascending) {
+            return;
+        }
+        this.sortKey = sortKey;
+        this.ascending = ascending;
+        scheduleReload(0);
+    }
+
+    /**
+     * Drops all cached pages and reloads, e.g. after rows were added, edited or deleted.
+     */
+    public void refresh() {
+        scheduleReload(0);
+    }
+
+    private void scheduleReload(long delayMs) {
+        long gen = ++generation;
+        String q = query;
+        String key = sortKey;
+        boolean asc = ascending;
+        if (pendingReload != null) {
+            pendingReload.cancel(false);
+        }
+        pendingReload = WORKERS.schedule(() -> {
+            try {
+                Page<T> first = loader.load(q, key, asc, null, 0, pageSize);
+                resultExecutor.execute(() -> {
+                    if (gen == generation) {
+                        reset(first);
+                    }
+                });
+            } catch (Exception e) {
+                System.err.println("Error loading table rows: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void reset(Page<T> first) {
+        int oldSize = size;
+        pages.clear();
+        pageEnds.clear();
+        loading.clear();
+        sizeExact = first.isTotalExact();
+        size = Math.max(first.getItems().size(), first.getTotal());
+        if (size > 0) {
+            pages.put(0, first.getItems());
+            if (first.hasNext()) {
+                pageEnds.put(0, first.getNextKey());
+            }
+        }
+        beginChange();
+        if (oldSize > 0) {
+            nextRemove(0, Collections.<T>nCopies(oldSize, null));
+        }
+        if (size > 0) {
+            nextAdd(0, size);
+        }
+        endChange();
+    }
+
+    private void requestPage(int page) {
+        int from = page * pageSize;
+        if (from >= size || pages.containsKey(page) || !loading.add(page)) {
+            return;
+        }
+        long gen = generation;
+        String q = query;
+        String key = sortKey;
+        boolean asc = ascending;
+        Page.Key after = page > 0 ? pageEnds.get(page - 1) : null;
+        WORKERS.execute(() -> {
+            Page<T> loaded;
+            try {
+                loaded = loader.load(q, key, asc, after, after == null ? from : 0, pageSize);
+            } catch (Exception e) {
+                System.err.println("Error loading table rows: " + e.getMessage());
+                e.printStackTrace();
+                resultExecutor.execute(() -> {
+                    if (gen == generation) {
+                        loading.remove(page);
+                    }
+                });
+                return;
+            }
+            resultExecutor.execute(() -> {
+                if (gen == generation) {
+                    pageLoaded(page, loaded);
+                }
+            });
+        });
+    }
+
+    private void pageLoaded(int page, Page<T> loaded) {
+        List<T> rows = loaded.getItems();
+        loading.remove(page);
+        pages.put(page, rows);
+        if (loaded.hasNext()) {
+            pageEnds.put(page, loaded.getNextKey());
+        }
+        int from = page * pageSize;
+        int end = from + rows.size();
+        int oldSize = size;
+        if (!loaded.hasNext()) {
+            // The result ends on this page. An empty page only shows it ends somewhere before, so the rows
+            // above it are asked for again and shrink the list further if needed
+            size = end;
+            sizeExact = !rows.isEmpty() || from == 0;
+        } else if (end >= size) {
+            // The result goes on past the estimated size; grow by a row so the table asks for the next page
+            size = end + 1;
+            sizeExact = false;
+        }
+        beginChange();
+        for (int i = from; i < Math.min(end, oldSize); i++) {
+            nextSet(i, null);
+        }
+        if (size < oldSize) {
+            nextRemove(size, Collections.<T>nCopies(oldSize - size, null));
+        } else if (size > oldSize) {
+            nextAdd(oldSize, size);
+        }
+        endChange();
+    }
+
+    private static ScheduledThreadPoolExecutor createWorkers() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(2, r -> {
+            Thread t = new Thread(r, "table-loader-" + THREAD_COUNTER.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+}
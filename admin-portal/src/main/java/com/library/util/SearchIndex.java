@@ -0,0 +1,630 @@
+package com.library.util;
+
+import com.library.model.SearchResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over {@link SearchResult} entries for the admin search screen.
+ *
+ * Title, subtitle and details are tokenized (lower-cased, split on anything that is not a letter or digit,
+ * with letter/digit runs such as "BK001" also indexed as "bk" and "001") and every token points to the
+ * entries and fields that contain it. Query words match any token they are a prefix of, so results appear
+ * while the user is still typing.
+ *
+ * Scoring keeps the weights of the original linear scan:
+ * <ul>
+ *   <li>per query word: title +2, subtitle +1.5, details +0.5</li>
+ *   <li>whole query: title equals +10, subtitle contains +5, title contains +3, details contains +1</li>
+ * </ul>
+ * For single-word queries the whole-query boosts come straight from the matched fields; for longer queries
+ * they are checked only on entries that matched every word. Consecutive queries that extend each other
+ * are narrowed from the previous matches instead of being looked up again. The best {@code limit} entries
+ * are kept in a bounded heap, so a search never sorts the full candidate set.
+ *
+ * An optional fuzzy mode also matches words within a small edit distance through a {@link BkTree}
+ * of the indexed words.
+ *
+ * Entries can be added, updated and removed at any time; searches and updates are guarded by a read/write lock.
+ */
+public class SearchIndex {
+
+    private static final byte TITLE = 1;
+    private static final byte SUBTITLE = 2;
+    private static final byte DETAILS = 4;
+
+    /**
+     * Re-checking one entry's tokens costs roughly this many postings visits; narrowing is only used when
+     * the previous matches are cheaper to re-check than the postings a full lookup would walk.
+     */
+    private static final int NARROW_COST = 32;
+
+    /**
+     * Upper bound on the time spent looking up typo candidates per search; slower lookups return what they found.
+     */
+    private static final long FUZZY_BUDGET_NANOS = 20_000_000L;
+
+    /**
+     * Doc ids and field masks for one token, kept in ascending doc id order.
+     */
+    private static final class Postings {
+        int[] docs = new int[2];
+        byte[] fields = new byte[2];
+        int size;
+
+        void add(int doc, byte field) {
+            if (size > 0 && docs[size - 1] == doc) {
+                fields[size - 1] |= field;
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            docs[size] = doc;
+            fields[size] = field;
+            size++;
+        }
+
+        void remove(int doc) {
+            int i = Arrays.binarySearch(docs, 0, size, doc);
+            if (i >= 0) {
+                System.arraycopy(docs, i + 1, docs, i, size - i - 1);
+                System.arraycopy(fields, i + 1, fields, i, size - i - 1);
+                size--;
+            }
+        }
+    }
+
+    /**
+     * An indexed entry with its fields pre-lower-cased for the whole-query checks,
+     * and its distinct tokens with the fields they occur in.
+     */
+    private static final class Doc {
+        final SearchResult source;
+        final String title;
+        final String subtitle;
+        final String details;
+        final String[] tokens;
+        final byte[] tokenFields;
+
+        Doc(SearchResult source) {
+            this.source = source;
+            this.title = lower(source.getTitle());
+            this.subtitle = lower(source.getSubtitle());
+            this.details = lower(source.getDetails());
+
+            Map<String, Byte> fields = new LinkedHashMap<>();
+            for (String token : tokenize(title, true)) fields.merge(token, TITLE, (a, b) -> (byte) (a | b));
+            for (String token : tokenize(subtitle, true)) fields.merge(token, SUBTITLE, (a, b) -> (byte) (a | b));
+            for (String token : tokenize(details, true)) fields.merge(token, DETAILS, (a, b) -> (byte) (a | b));
+            this.tokens = fields.keySet().toArray(new String[0]);
+            this.tokenFields = new byte[tokens.length];
+            for (int i = 0; i < tokens.length; i++) {
+                tokenFields[i] = fields.get(tokens[i]);
+            }
+        }
+
+        /**
+         * @return the fields containing a token that starts with {@code word}, as a bit mask
+         */
+        byte fieldsMatching(String word) {
+            byte mask = 0;
+            for (int i = 0; i < tokens.length; i++) {
+                if (tokens[i].startsWith(word)) {
+                    mask |= tokenFields[i];
+                }
+            }
+            return mask;
+        }
+    }
+
+    /**
+     * The entries matched by the last search, kept so a query that extends it only re-checks those entries.
+     */
+    private static final class Refinement {
+        final String query;
+        final SearchResult.EntityType type;
+        final long version;
+        final int[] docs;
+
+        Refinement(String query, SearchResult.EntityType type, long version, int[] docs) {
+            this.query = query;
+            this.type = type;
+            this.version = version;
+            this.docs = docs;
+        }
+
+        boolean canNarrow(String newQuery, SearchResult.EntityType newType, long currentVersion) {
+            return version == currentVersion && type == newType && newQuery.startsWith(query);
+        }
+    }
+
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+    private final List<Doc> docs = new ArrayList<>();
+    private final Map<Object, Integer> idsByObject = new IdentityHashMap<>();
+    private final BkTree fuzzyTerms = new BkTree();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int liveCount;
+    private long version;
+    private volatile Refinement lastSearch;
+
+    /**
+     * Adds an entry, replacing any entry that wraps the same original object.
+     *
+     * @param result the entry to index
+     */
+    public void add(SearchResult result) {
+        lock.writeLock().lock();
+        try {
+            Object key = keyOf(result);
+            Integer existing = idsByObject.get(key);
+            if (existing != null) {
+                removeDoc(existing);
+            }
+            int id = docs.size();
+            Doc doc = new Doc(result);
+            docs.add(doc);
+            idsByObject.put(key, id);
+            liveCount++;
+            version++;
+            for (int i = 0; i < doc.tokens.length; i++) {
+                String token = doc.tokens[i];
+                Postings postings = terms.get(token);
+                if (postings == null) {
+                    postings = new Postings();
+                    terms.put(token, postings);
+                    if (isFuzzyCandidate(token)) {
+                        // Terms stay in the tree after their last entry is removed; lookups skip them
+                        fuzzyTerms.add(token);
+                    }
+                }
+                postings.add(id, doc.tokenFields[i]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds several entries under one lock acquisition.
+     *
+     * @param results the entries to index
+     */
+    public void addAll(List<SearchResult> results) {
+        lock.writeLock().lock();
+        try {
+            for (SearchResult result : results) {
+                add(result);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-indexes an entry after its text changed.
+     *
+     * @param result the changed entry
+     */
+    public void update(SearchResult result) {
+        add(result);
+    }
+
+    /**
+     * Removes the entry for an original object (a Book, Student, ...).
+     *
+     * @param originalObject the object passed as {@link SearchResult#getOriginalObject()}
+     * @return true if an entry was removed
+     */
+    public boolean remove(Object originalObject) {
+        lock.writeLock().lock();
+        try {
+            Integer id = idsByObject.get(originalObject);
+            if (id == null) {
+                return false;
+            }
+            removeDoc(id);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+            fuzzyTerms.clear();
+            docs.clear();
+            idsByObject.clear();
+            liveCount = 0;
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of indexed entries
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the best matching entries. An entry matches when every query word is a prefix of one of its tokens.
+     * The returned results are new {@link SearchResult} objects carrying the score, so concurrent searches
+     * never modify the indexed entries.
+     *
+     * If the query extends the previous one (e.g. "harr" then "harry" then "harry p") with the same type filter
+     * and no index changes in between, only the previous matches are re-checked, since adding characters or
+     * words can only remove matches. Anything else (deletions, edits, a new filter) runs a full lookup.
+     *
+     * @param query the raw query text; an empty query returns the first {@code limit} entries with score 1
+     * @param type  only return entries of this type, or null for all types
+     * @param limit maximum number of results
+     * @return matching entries, highest score first
+     */
+    public List<SearchResult> search(String query, SearchResult.EntityType type, int limit) {
+        return search(query, type, limit, false);
+    }
+
+    /**
+     * Like {@link #search(String, SearchResult.EntityType, int)}, optionally tolerating typos.
+     *
+     * In fuzzy mode a query word also matches indexed words within a small edit distance
+     * (1 edit for words of 4-7 letters, 2 for longer words), so "harrry" finds "harry" and "sarma" finds "sharma".
+     * Typo matches score half the weight of exact matches, so exact hits keep ranking first.
+     * The typo lookup is time-boxed; fuzzy searches do not use or update the incremental refinement.
+     *
+     * @param fuzzy whether to include typo matches
+     */
+    public List<SearchResult> search(String query, SearchResult.EntityType type, int limit, boolean fuzzy) {
+        String lowerQuery = lower(query).trim();
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(tokenize(lowerQuery, false)));
+        boolean singleWord = words.size() == 1 && words.get(0).equals(lowerQuery);
+
+        lock.readLock().lock();
+        try {
+            if (words.isEmpty()) {
+                lastSearch = null;
+                return firstEntries(type, limit);
+            }
+
+            float[] scores = new float[docs.size()];
+            if (fuzzy) {
+                lastSearch = null;
+                long deadline = System.nanoTime() + FUZZY_BUDGET_NANOS;
+                return topResults(lookup(words, singleWord, lowerQuery, type, deadline, scores), scores, limit);
+            }
+
+            Refinement previous = lastSearch;
+            int[] matches = previous != null && previous.canNarrow(lowerQuery, type, version)
+                    && cheaperToNarrow(previous.docs.length, words)
+                    ? narrow(previous.docs, words, singleWord, lowerQuery, scores)
+                    : lookup(words, singleWord, lowerQuery, type, 0, scores);
+            lastSearch = new Refinement(lowerQuery, type, version, matches);
+
+            return topResults(matches, scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Full lookup through the postings: ORs the field masks of every token each word is a prefix of,
+     * and keeps the entries matched by all words.
+     *
+     * @param fuzzyDeadline {@link System#nanoTime()} deadline for typo lookups, or 0 for exact matching only
+     * @return the matching doc ids in ascending order, with their scores written to {@code scores}
+     */
+    private int[] lookup(List<String> words, boolean singleWord, String lowerQuery,
+                         SearchResult.EntityType type, long fuzzyDeadline, float[] scores) {
+        int n = docs.size();
+        byte[] matchedFields = new byte[n];
+        byte[] typoFields = fuzzyDeadline != 0 ? new byte[n] : null;
+        int[] wordStamp = new int[n];
+        int[] wordDocs = new int[n];
+        int[] candidates = null;
+        int candidateCount = 0;
+
+        for (int w = 0; w < words.size(); w++) {
+            String word = words.get(w);
+            int stamp = w + 1;
+            int wordDocCount = 0;
+            Collection<Postings> exact = terms.subMap(word, true, word + Character.MAX_VALUE, false).values();
+            Collection<Postings> typos = typoFields != null ? typoPostings(word, fuzzyDeadline) : Collections.emptyList();
+            for (int pass = 0; pass < 2; pass++) {
+                byte[] fieldMasks = pass == 0 ? matchedFields : typoFields;
+                for (Postings postings : pass == 0 ? exact : typos) {
+                    for (int i = 0; i < postings.size; i++) {
+                        int doc = postings.docs[i];
+                        // From the second word on, only entries that matched every earlier word are candidates
+                        if (wordStamp[doc] < stamp - 1 || (type != null && docs.get(doc).source.getEntityType() != type)) {
+                            continue;
+                        }
+                        if (wordStamp[doc] != stamp) {
+                            wordStamp[doc] = stamp;
+                            matchedFields[doc] = 0;
+                            if (typoFields != null) {
+                                typoFields[doc] = 0;
+                            }
+                            wordDocs[wordDocCount++] = doc;
+                        }
+                        fieldMasks[doc] |= postings.fields[i];
+                    }
+                }
+            }
+            for (int i = 0; i < wordDocCount; i++) {
+                int doc = wordDocs[i];
+                scores[doc] += wordBoost(docs.get(doc), matchedFields[doc], singleWord, lowerQuery);
+                if (typoFields != null) {
+                    // Typo matches count at half weight, and only for fields without an exact match
+                    scores[doc] += fieldBoost((byte) (typoFields[doc] & ~matchedFields[doc]), 1f, 0.75f, 0.25f);
+                }
+            }
+            candidates = wordDocs;
+            candidateCount = wordDocCount;
+            wordDocs = new int[n];
+        }
+
+        int[] matches = Arrays.copyOf(candidates, candidateCount);
+        Arrays.sort(matches);
+        if (!singleWord) {
+            for (int doc : matches) {
+                scores[doc] += phraseBoost(docs.get(doc), lowerQuery);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Postings of the indexed words within the allowed edit distance of {@code word},
+     * leaving out words that {@code word} is a prefix of since those already match exactly.
+     */
+    private List<Postings> typoPostings(String word, long deadline) {
+        List<Postings> result = new ArrayList<>();
+        int maxEdits = word.length() < 4 ? 0 : word.length() < 8 ? 1 : 2;
+        if (maxEdits == 0 || !isFuzzyCandidate(word)) {
+            return result;
+        }
+        for (String term : fuzzyTerms.search(word, maxEdits, deadline)) {
+            Postings postings = terms.get(term);
+            if (postings != null && !term.startsWith(word)) {
+                result.add(postings);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Only alphabetic words take part in typo matching; ids, barcodes and numbers must match exactly.
+     */
+    private static boolean isFuzzyCandidate(String token) {
+        if (token.length() < 3) {
+            return false;
+        }
+        for (int i = 0; i < token.length(); i++) {
+            if (!Character.isLetter(token.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares the cost of re-checking {@code candidates} entries against the postings a lookup would visit.
+     * Stops counting as soon as the lookup is known to be more expensive.
+     */
+    private boolean cheaperToNarrow(int candidates, List<String> words) {
+        long budget = (long) candidates * NARROW_COST;
+        long lookupCost = 0;
+        for (String word : words) {
+            for (Postings postings : terms.subMap(word, true, word + Character.MAX_VALUE, false).values()) {
+                lookupCost += postings.size;
+                if (lookupCost > budget) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Re-checks only the entries matched by the previous query against their own tokens.
+     *
+     * @return the entries that still match, in ascending order, with their scores written to {@code scores}
+     */
+    private int[] narrow(int[] previous, List<String> words, boolean singleWord, String lowerQuery, float[] scores) {
+        int[] matches = new int[previous.length];
+        int count = 0;
+        for (int doc : previous) {
+            Doc entry = docs.get(doc);
+            float score = 0;
+            boolean matched = true;
+            for (String word : words) {
+                byte fields = entry.fieldsMatching(word);
+                if (fields == 0) {
+                    matched = false;
+                    break;
+                }
+                score += wordBoost(entry, fields, singleWord, lowerQuery);
+            }
+            if (matched) {
+                if (!singleWord) {
+                    score += phraseBoost(entry, lowerQuery);
+                }
+                scores[doc] = score;
+                matches[count++] = doc;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Keeps the best {@code limit} matches in a bounded min-heap; ties go to the entry indexed first.
+     */
+    private List<SearchResult> topResults(int[] matches, float[] scores, int limit) {
+        PriorityQueue<Integer> top = new PriorityQueue<>(Math.max(1, limit),
+                (a, b) -> scores[a] != scores[b] ? Float.compare(scores[a], scores[b]) : Integer.compare(b, a));
+        for (int doc : matches) {
+            if (top.size() < limit) {
+                top.add(doc);
+            } else if (limit > 0 && scores[doc] > scores[top.peek()]) {
+                // Matches are visited in ascending id order, so an equal score never displaces an earlier entry
+                top.poll();
+                top.add(doc);
+            }
+        }
+
+        List<SearchResult> results = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            int doc = top.poll();
+            results.add(copyWithScore(docs.get(doc).source, scores[doc]));
+        }
+        Collections.reverse(results);
+        return results;
+    }
+
+    /**
+     * Score for one query word given the fields it matched. For a single-word query "field contains the query"
+     * is exactly the per-word field match, so the whole-query boosts are added here too.
+     */
+    private static float wordBoost(Doc doc, byte fields, boolean singleWord, String lowerQuery) {
+        float boost = fieldBoost(fields, 2f, 1.5f, 0.5f);
+        if (singleWord) {
+            boost += fieldBoost(fields, 3f, 5f, 1f);
+            if ((fields & TITLE) != 0 && doc.title.equals(lowerQuery)) {
+                boost += 10;
+            }
+        }
+        return boost;
+    }
+
+    /**
+     * Splits text into lower-case tokens. With {@code splitRuns} mixed letter/digit runs are also split
+     * at the transitions, so "BK001" yields "bk001", "bk" and "001".
+     */
+    static List<String> tokenize(String text, boolean splitRuns) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = lower(text);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = lower.substring(start, i);
+                if (splitRuns) {
+                    addToken(tokens, token);
+                } else {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static void addToken(List<String> tokens, String token) {
+        tokens.add(token);
+        int runStart = 0;
+        for (int i = 1; i <= token.length(); i++) {
+            if (i == token.length() || Character.isDigit(token.charAt(i)) != Character.isDigit(token.charAt(i - 1))) {
+                if (runStart > 0 || i < token.length()) {
+                    tokens.add(token.substring(runStart, i));
+                }
+                runStart = i;
+            }
+        }
+    }
+
+    private void removeDoc(int id) {
+        Doc doc = docs.get(id);
+        if (doc == null) {
+            return;
+        }
+        for (String token : doc.tokens) {
+            Postings postings = terms.get(token);
+            if (postings != null) {
+                postings.remove(id);
+                if (postings.size == 0) {
+                    terms.remove(token);
+                }
+            }
+        }
+        docs.set(id, null);
+        idsByObject.remove(keyOf(doc.source));
+        liveCount--;
+        version++;
+    }
+
+    private List<SearchResult> firstEntries(SearchResult.EntityType type, int limit) {
+        List<SearchResult> results = new ArrayList<>();
+        for (Doc doc : docs) {
+            if (results.size() >= limit) {
+                break;
+            }
+            if (doc != null && (type == null || doc.source.getEntityType() == type)) {
+                results.add(copyWithScore(doc.source, 1.0));
+            }
+        }
+        return results;
+    }
+
+    private static float phraseBoost(Doc doc, String query) {
+        float boost = 0;
+        if (doc.title.equals(query)) boost += 10;
+        if (doc.subtitle.contains(query)) boost += 5;
+        if (doc.title.contains(query)) boost += 3;
+        if (doc.details.contains(query)) boost += 1;
+        return boost;
+    }
+
+    private static float fieldBoost(byte fields, float title, float subtitle, float details) {
+        float boost = 0;
+        if ((fields & TITLE) != 0) boost += title;
+        if ((fields & SUBTITLE) != 0) boost += subtitle;
+        if ((fields & DETAILS) != 0) boost += details;
+        return boost;
+    }
+
+    private static SearchResult copyWithScore(SearchResult source, double score) {
+        return new SearchResult(source.getEntityType(), source.getTitle(), source.getSubtitle(),
+                source.getDetails(), score, source.getOriginalObject());
+    }
+
+    private static Object keyOf(SearchResult result) {
+        return result.getOriginalObject() != null ? result.getOriginalObject() : result;
+    }
+
+    private static String lower(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,118 @@
+package com.library.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Runs search-as-you-type queries off the JavaFX application thread.
+ *
+ * Each call to {@link #submit} supersedes the previous one: the pending or running query is cancelled
+ * and its result, should it still arrive, is dropped because its sequence number is no longer current.
+ * Only the latest result is handed to the callback, on the result executor (normally {@code Platform::runLater}),
+ * so the UI thread does nothing but apply it.
+ *
+ * All schedulers share one small pool of daemon worker threads that lives for the whole application.
+ */
+public class SearchScheduler {
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    private static final ScheduledThreadPoolExecutor WORKERS = createWorkers();
+
+    private final long debounceMs;
+    private final Executor resultExecutor;
+    private final AtomicLong sequence = new AtomicLong();
+    private Future<?> current;
+
+    /**
+     * @param debounceMs     delay before a submitted query starts; a newer submission within this window replaces it
+     * @param resultExecutor where results are delivered, e.g. {@code Platform::runLater}
+     */
+    public SearchScheduler(long debounceMs, Executor resultExecutor) {
+        this.debounceMs = debounceMs;
+        this.resultExecutor = resultExecutor;
+    }
+
+    /**
+     * Schedules a query after the debounce delay, cancelling any earlier one.
+     *
+     * @param query    the search work; runs on a worker thread and should not touch UI nodes
+     * @param onResult receives the result on the result executor, unless a newer query was submitted meanwhile
+     */
+    public <R> void submit(Callable<R> query, Consumer<R> onResult) {
+        schedule(query, onResult, debounceMs);
+    }
+
+    /**
+     * Like {@link #submit} but without the debounce delay, for filter changes and reloads.
+     */
+    public <R> void submitNow(Callable<R> query, Consumer<R> onResult) {
+        schedule(query, onResult, 0);
+    }
+
+    /**
+     * Cancels the pending or running query; its result will not be delivered.
+     */
+    public synchronized void cancel() {
+        sequence.incrementAndGet();
+        if (current != null) {
+            current.cancel(true);
+            current = null;
+        }
+    }
+
+    /**
+     * @return true if the query with this sequence number has been superseded
+     */
+    boolean isStale(long seq) {
+        return seq != sequence.get();
+    }
+
+    private synchronized <R> void schedule(Callable<R> query, Consumer<R> onResult, long delayMs) {
+        long seq = sequence.incrementAndGet();
+        if (current != null) {
+            current.cancel(true);
+        }
+        current = WORKERS.schedule(() -> {
+            if (isStale(seq)) {
+                return;
+            }
+            R result;
+            try {
+                result = query.call();
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                if (!isStale(seq)) {
+                    System.err.println("Error in search: " + e.getMessage());
+                    e.printStackTrace();
+                }
+                return;
+            }
+            if (isStale(seq)) {
+                return;
+            }
+            resultExecutor.execute(() -> {
+                // A newer query may have been submitted while this result was queued for the UI thread
+                if (!isStale(seq)) {
+                    onResult.accept(result);
+                }
+            });
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static ScheduledThreadPoolExecutor createWorkers() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(2, r -> {
+            Thread t = new Thread(r, "search-worker-" + THREAD_COUNTER.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+}
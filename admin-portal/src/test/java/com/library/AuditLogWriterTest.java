@@ -0,0 +1,124 @@
+package com.library;
+
+import com.library.dao.AuditLogWriter;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuditLogWriterTest {
+
+    // Batches handed to the sink, in order; stands in for the logs table
+    private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    private void record(List<AuditLogWriter.Entry> entries) {
+        batches.add(entries.stream().map(e -> e.action).collect(Collectors.toList()));
+    }
+
+    private List<String> allWritten() {
+        synchronized (batches) {
+            return batches.stream().flatMap(List::stream).collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void testFullBatchIsWrittenWithoutWaitingForTheInterval() {
+        AuditLogWriter writer = new AuditLogWriter(this::record, 100, 5, 60_000, AuditLogWriter.OverflowPolicy.BLOCK, 100);
+        try {
+            for (int i = 0; i < 5; i++) {
+                assertTrue(writer.append("entry " + i));
+            }
+            long deadline = System.currentTimeMillis() + 2000;
+            while (batches.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.onSpinWait();
+            }
+            assertEquals(List.of(List.of("entry 0", "entry 1", "entry 2", "entry 3", "entry 4")), batches);
+        } finally {
+            writer.shutdown(1000);
+        }
+    }
+
+    @Test
+    public void testFlushWritesPendingEntriesInOrder() {
+        AuditLogWriter writer = new AuditLogWriter(this::record, 100, 50, 60_000, AuditLogWriter.OverflowPolicy.BLOCK, 100);
+        try {
+            writer.append("first");
+            writer.append("second");
+            assertTrue(writer.flush(2000));
+            assertEquals(List.of("first", "second"), allWritten());
+            assertEquals(2, writer.getStats().getWritten());
+        } finally {
+            writer.shutdown(1000);
+        }
+    }
+
+    @Test
+    public void testShutdownWritesEverythingBuffered() {
+        AuditLogWriter writer = new AuditLogWriter(this::record, 1000, 1000, 60_000, AuditLogWriter.OverflowPolicy.BLOCK, 100);
+        for (int i = 0; i < 300; i++) {
+            writer.append("entry " + i);
+        }
+        writer.shutdown(2000);
+        assertEquals(300, allWritten().size());
+        assertFalse(writer.append("too late"), "Entries after shutdown should be refused");
+    }
+
+    @Test
+    public void testDropPolicyCountsAndReportsDroppedEntries() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch sinkEntered = new CountDownLatch(1);
+        AuditLogWriter writer = new AuditLogWriter(entries -> {
+            sinkEntered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            record(entries);
+        }, 2, 1, 60_000, AuditLogWriter.OverflowPolicy.DROP, 0);
+        try {
+            writer.append("in flight");
+            assertTrue(sinkEntered.await(2, TimeUnit.SECONDS));
+            // The sink is stuck, so the buffer holds two entries and the third is dropped
+            assertTrue(writer.append("buffered 1"));
+            assertTrue(writer.append("buffered 2"));
+            assertFalse(writer.append("dropped"));
+            assertEquals(1, writer.getStats().getDropped());
+
+            release.countDown();
+            assertTrue(writer.flush(2000));
+            List<String> written = allWritten();
+            assertEquals(List.of("in flight", "buffered 1", "Audit log buffer full: 1 entries dropped", "buffered 2"), written);
+        } finally {
+            release.countDown();
+            writer.shutdown(1000);
+        }
+    }
+
+    @Test
+    public void testFailedBatchIsRetried() {
+        AtomicInteger calls = new AtomicInteger();
+        AuditLogWriter writer = new AuditLogWriter(entries -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new SQLException("connection reset");
+            }
+            record(entries);
+        }, 100, 10, 20, AuditLogWriter.OverflowPolicy.BLOCK, 100);
+        try {
+            writer.append("kept");
+            assertTrue(writer.flush(2000));
+            assertEquals(List.of("kept"), allWritten());
+            assertEquals(1, writer.getStats().getFailedBatches());
+        } finally {
+            writer.shutdown(1000);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.library;
+
+import com.library.dao.ConnectionPool;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTest {
+
+    private final AtomicInteger opened = new AtomicInteger();
+
+    // Minimal in-memory Connection so the pool can be exercised without a database
+    private Connection fakeConnection(AtomicBoolean valid) {
+        opened.incrementAndGet();
+        AtomicBoolean closed = new AtomicBoolean(false);
+        AtomicBoolean autoCommit = new AtomicBoolean(true);
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "close": closed.set(true); return null;
+                    case "isClosed": return closed.get();
+                    case "isValid": return valid.get();
+                    case "getAutoCommit": return autoCommit.get();
+                    case "setAutoCommit": autoCommit.set((Boolean) args[0]); return null;
+                    case "rollback": return null;
+                    case "hashCode": return System.identityHashCode(proxy);
+                    case "equals": return proxy == args[0];
+                    default: return null;
+                }
+            });
+    }
+
+    @Test
+    public void testConnectionIsReusedAfterClose() throws SQLException {
+        AtomicBoolean valid = new AtomicBoolean(true);
+        ConnectionPool pool = new ConnectionPool(() -> fakeConnection(valid), 0, 2, 1000, 60000, 5000, 0);
+        try {
+            Connection first = pool.getConnection();
+            first.close();
+            assertTrue(first.isClosed(), "Returned handle should report closed");
+
+            Connection second = pool.getConnection();
+            assertEquals(1, opened.get(), "Idle connection should be reused instead of opening a new one");
+            assertEquals(1, pool.getStats().getActive());
+            second.close();
+            assertEquals(1, pool.getStats().getIdle());
+            assertEquals(2, pool.getStats().getBorrowCount());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testBorrowTimesOutWhenExhausted() throws SQLException {
+        AtomicBoolean valid = new AtomicBoolean(true);
+        ConnectionPool pool = new ConnectionPool(() -> fakeConnection(valid), 0, 1, 100, 60000, 5000, 0);
+        try {
+            Connection held = pool.getConnection();
+            assertThrows(SQLException.class, pool::getConnection);
+            held.close();
+            pool.getConnection().close();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testInvalidIdleConnectionIsReplaced() throws SQLException {
+        AtomicBoolean valid = new AtomicBoolean(true);
+        // Validation interval of 0 forces every idle connection to be validated on borrow
+        ConnectionPool pool = new ConnectionPool(() -> fakeConnection(valid), 0, 2, 1000, 60000, 0, 0);
+        try {
+            pool.getConnection().close();
+            valid.set(false);
+            pool.getConnection().close();
+            assertEquals(2, opened.get(), "Broken idle connection should be discarded and a new one opened");
+            assertEquals(1, pool.getStats().getTotal());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testUseAfterCloseFails() throws SQLException {
+        AtomicBoolean valid = new AtomicBoolean(true);
+        ConnectionPool pool = new ConnectionPool(() -> fakeConnection(valid), 0, 1, 1000, 60000, 5000, 0);
+        try {
+            Connection conn = pool.getConnection();
+            conn.close();
+            assertThrows(SQLException.class, () -> conn.prepareStatement("SELECT 1"));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.library;
+
+import com.library.model.Page;
+import com.library.util.LazyPagedList;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LazyPagedListTest {
+
+    /** Stands in for the FX thread: results are queued and applied by the test thread. */
+    private final BlockingQueue<Runnable> fxQueue = new LinkedBlockingQueue<>();
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicInteger offsetLoads = new AtomicInteger();
+
+    /** Rows are the numbers 0..count-1; a non-blank query keeps the even ones. */
+    private LazyPagedList.Loader<Integer> numbers(int count) {
+        return numbers(count, -1);
+    }
+
+    /**
+     * Like {@link #numbers(int)}, but the first page reports {@code estimate} as an inexact total (unless negative).
+     */
+    private LazyPagedList.Loader<Integer> numbers(int count, int estimate) {
+        return new LazyPagedList.Loader<Integer>() {
+            @Override
+            public Page<Integer> load(String query, String sortKey, boolean ascending, Page.Key after, int offset, int limit) {
+                loads.incrementAndGet();
+                List<Integer> rows = rows(query, ascending);
+                int from = offset;
+                if (after != null) {
+                    from = rows.indexOf(after.getId()) + 1;
+                } else if (offset > 0) {
+                    offsetLoads.incrementAndGet();
+                }
+                from = Math.min(from, rows.size());
+                List<Integer> items = new ArrayList<>(rows.subList(from, Math.min(from + limit, rows.size())));
+                boolean more = from + limit < rows.size();
+                Page.Key next = more ? new Page.Key(null, items.get(items.size() - 1)) : null;
+                if (after != null || offset > 0) {
+                    return new Page<>(items, next, Page.TOTAL_UNKNOWN, false);
+                }
+                return estimate >= 0 && more
+                        ? new Page<>(items, next, estimate, false)
+                        : new Page<>(items, next, rows.size(), true);
+            }
+
+            private List<Integer> rows(String query, boolean ascending) {
+                List<Integer> rows = new ArrayList<>();
+                for (int i = 0; i < count; i++) {
+                    if (query.isEmpty() || i % 2 == 0) {
+                        rows.add(i);
+                    }
+                }
+                rows.sort(ascending ? Comparator.naturalOrder() : Comparator.reverseOrder());
+                return rows;
+            }
+        };
+    }
+
+    private void runNextResult() throws InterruptedException {
+        Runnable result = fxQueue.poll(5, TimeUnit.SECONDS);
+        assertNotNull(result, "no result was delivered");
+        result.run();
+    }
+
+    @Test
+    public void testLoadsOnlyRequestedPages() throws Exception {
+        LazyPagedList<Integer> list = new LazyPagedList<>(numbers(100_000), fxQueue::add, 10, 4);
+        list.refresh();
+        runNextResult();
+
+        assertEquals(100_000, list.size());
+        assertEquals(0, list.get(0));
+        assertEquals(1, loads.get());
+
+        // Jumping far ahead returns a placeholder and loads that page and its neighbours
+        assertNull(list.get(50_005));
+        for (int i = 0; i < 3; i++) {
+            runNextResult();
+        }
+        assertEquals(50_005, list.get(50_005));
+        assertTrue(list.isLoaded(49_995));
+        assertTrue(list.isLoaded(50_015));
+        assertEquals(4, loads.get());
+        // None of the three pages had a loaded predecessor to seek from
+        assertEquals(3, offsetLoads.get());
+    }
+
+    @Test
+    public void testScrollingSeeksFromThePreviousPage() throws Exception {
+        LazyPagedList<Integer> list = new LazyPagedList<>(numbers(100), fxQueue::add, 10, 4);
+        list.refresh();
+        runNextResult();
+
+        // Reading past the middle of each page fetches the next one after its last row
+        for (int page = 0; page < 9; page++) {
+            assertEquals(page * 10 + 5, list.get(page * 10 + 5));
+            runNextResult();
+        }
+        assertEquals(99, list.get(99));
+        assertEquals(0, offsetLoads.get());
+        assertEquals(10, loads.get());
+    }
+
+    @Test
+    public void testEstimatedSizeShrinksToTheLastPage() throws Exception {
+        LazyPagedList<Integer> list = new LazyPagedList<>(numbers(25, 1_000), fxQueue::add, 10, 4);
+        list.refresh();
+        runNextResult();
+        assertEquals(1_000, list.size());
+        assertFalse(list.isSizeExact());
+
+        list.get(15);
+        runNextResult();
+        runNextResult();
+        assertEquals(25, list.size());
+        assertTrue(list.isSizeExact());
+        assertEquals(24, list.get(24));
+    }
+
+    @Test
+    public void testEstimatedSizeGrowsWhileRowsContinue() throws Exception {
+        LazyPagedList<Integer> list = new LazyPagedList<>(numbers(35, 12), fxQueue::add, 10, 4);
+        list.refresh();
+        runNextResult();
+        assertEquals(12, list.size());
+
+        list.get(11);
+        runNextResult();
+        assertEquals(21, list.size());
+        list.get(20);
+        runNextResult();
+        assertEquals(31, list.size());
+        list.get(30);
+        runNextResult();
+        assertEquals(35, list.size());
+        assertTrue(list.isSizeExact());
+        assertEquals(34, list.get(34));
+    }
+
+    @Test
+    public void testCacheIsBounded() throws Exception {
+        LazyPagedList<Integer> list = new LazyPagedList<>(numbers(1_000), fxQueue::add, 10, 3);
+        list.refresh();
+        runNextResult();
+
+        list.get(500);
+        for (int i = 0; i < 3; i++) {
+            runNextResult();
+        }
+
+        assertTrue(list.isLoaded(500));
+        assertFalse(list.isLoaded(0));
+    }
+
+    @Test
+    public void testQueryAndSortReload() throws Exception {
+        LazyPagedList<Integer> list = new LazyPagedList<>(numbers(100), fxQueue::add, 10, 3);
+        list.refresh();
+        runNextResult();
+
+        list.setQuery("even");
+        runNextResult();
+        assertEquals(50, list.size());
+        assertEquals(2, list.get(1));
+
+        list.setSort("value", false);
+        runNextResult();
+        assertEquals(98, list.get(0));
+    }
+
+    @Test
+    public void testSupersededResultsAreDropped() throws Exception {
+        LazyPagedList<Integer> list = new LazyPagedList<>(numbers(100), fxQueue::add, 10, 3);
+        list.refresh();
+        runNextResult();
+
+        // A page requested before a reload must not be applied after it
+        list.get(50);
+        Thread.sleep(200);
+        list.setQuery("even");
+        while (list.size() != 50) {
+            runNextResult();
+        }
+        assertFalse(list.isLoaded(40));
+    }
+}
@@ -0,0 +1,122 @@
+package com.library;
+
+import com.library.model.LibraryStats;
+import com.library.service.LibraryStatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LibraryStatsServiceTest {
+
+    private static final long TTL = 1_000;
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    // Loads run only when the test says so
+    private final Queue<Runnable> pending = new ArrayDeque<>();
+    private LibraryStatsService service;
+
+    @BeforeEach
+    public void setUp() {
+        service = new LibraryStatsService(() -> {
+            int n = loads.incrementAndGet();
+            return new LibraryStats(100 * n, n, 10, 5, now.get());
+        }, TTL, pending::add, now::get);
+    }
+
+    private void runPending() {
+        while (!pending.isEmpty()) {
+            pending.poll().run();
+        }
+    }
+
+    @Test
+    public void testCountersAreDerived() {
+        LibraryStats stats = new LibraryStats(120, 20, 7, 3, 0);
+        assertEquals(100, stats.getAvailableBooks());
+        assertEquals(20, stats.getPendingReturns());
+    }
+
+    @Test
+    public void testFreshCountersAreServedFromTheCache() throws Exception {
+        assertNull(service.getCached());
+        CompletableFuture<LibraryStats> first = service.get();
+        runPending();
+        assertEquals(100, first.get().getTotalBooks());
+
+        now.set(TTL - 1);
+        CompletableFuture<LibraryStats> second = service.get();
+        assertTrue(second.isDone());
+        assertSame(first.get(), second.get());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testExpiredCountersAreLoadedAgain() throws Exception {
+        service.get();
+        runPending();
+        now.set(TTL);
+        CompletableFuture<LibraryStats> reload = service.get();
+        assertFalse(reload.isDone());
+        // The old counters stay available while the new ones load
+        assertEquals(100, service.getCached().getTotalBooks());
+        runPending();
+        assertEquals(200, reload.get().getTotalBooks());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testCallersShareARunningLoad() {
+        CompletableFuture<LibraryStats> a = service.get();
+        CompletableFuture<LibraryStats> b = service.get();
+        assertSame(a, b);
+        runPending();
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testInvalidateForcesALoad() throws Exception {
+        service.get();
+        runPending();
+        service.invalidate();
+        CompletableFuture<LibraryStats> reload = service.get();
+        runPending();
+        assertEquals(200, reload.get().getTotalBooks());
+    }
+
+    @Test
+    public void testLoadInvalidatedWhileRunningIsNotCached() throws Exception {
+        CompletableFuture<LibraryStats> old = service.get();
+        service.invalidate();
+        runPending();
+        assertEquals(100, old.get().getTotalBooks());
+        assertNull(service.getCached());
+        CompletableFuture<LibraryStats> reload = service.get();
+        runPending();
+        assertEquals(200, reload.get().getTotalBooks());
+    }
+
+    @Test
+    public void testFailedLoadIsReportedAndRetried() {
+        LibraryStatsService failing = new LibraryStatsService(() -> {
+            if (loads.incrementAndGet() == 1) {
+                throw new IllegalStateException("database down");
+            }
+            return new LibraryStats(1, 0, 0, 0, now.get());
+        }, TTL, pending::add, now::get);
+        CompletableFuture<LibraryStats> first = failing.get();
+        runPending();
+        assertThrows(ExecutionException.class, first::get);
+        CompletableFuture<LibraryStats> retry = failing.get();
+        runPending();
+        assertEquals(1, retry.join().getTotalBooks());
+    }
+}
@@ -0,0 +1,42 @@
+package com.library;
+
+import com.library.dao.LogDAO;
+import com.library.model.Log;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogDAOTest {
+
+    @Test
+    public void testEveryWordBecomesARequiredPrefix() {
+        assertEquals("'stud':* & 'blo':*", LogDAO.toPrefixQuery("Stud  BLO"));
+    }
+
+    @Test
+    public void testEdgePunctuationIsStripped() {
+        assertEquals("'registered':* & '42':*", LogDAO.toPrefixQuery("registered: (42)"));
+        assertEquals("'a@b.com':*", LogDAO.toPrefixQuery("a@b.com"));
+    }
+
+    @Test
+    public void testOperatorsAndQuotesAreMatchedLiterally() {
+        assertEquals("'o''brien':* & 'x|y':*", LogDAO.toPrefixQuery("o'brien & x|y !"));
+    }
+
+    @Test
+    public void testTextWithoutWordsIsNoFilter() {
+        assertNull(LogDAO.toPrefixQuery(null));
+        assertNull(LogDAO.toPrefixQuery("   "));
+        assertNull(LogDAO.toPrefixQuery("%% & !"));
+    }
+
+    @Test
+    public void testActionTypeCodesRoundTrip() {
+        for (Log.ActionType type : Log.ActionType.values()) {
+            assertEquals(type, Log.ActionType.fromCode(type.getCode()));
+        }
+        assertEquals(Log.ActionType.INFO, Log.ActionType.fromCode(null));
+        assertEquals(Log.ActionType.INFO, Log.ActionType.fromCode("something-else"));
+    }
+}
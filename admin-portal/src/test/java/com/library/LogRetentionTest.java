@@ -0,0 +1,36 @@
+package com.library;
+
+import com.library.dao.LogRetention;
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogRetentionTest {
+
+    @Test
+    public void testPartitionNamesAreParsed() {
+        assertEquals(YearMonth.of(2025, 1), LogRetention.partitionMonth("logs_2025_01"));
+        assertEquals(YearMonth.of(2024, 12), LogRetention.partitionMonth("logs_2024_12"));
+    }
+
+    @Test
+    public void testOtherTablesAreNotPartitions() {
+        assertNull(LogRetention.partitionMonth("logs"));
+        assertNull(LogRetention.partitionMonth("logs_default"));
+        assertNull(LogRetention.partitionMonth("logs_2025_13"));
+        assertNull(LogRetention.partitionMonth("logs_2025_1"));
+        assertNull(LogRetention.partitionMonth("logs_2025_01; DROP TABLE books"));
+    }
+
+    @Test
+    public void testOnlyMonthsBeforeTheCutoffExpire() {
+        YearMonth cutoff = YearMonth.of(2025, 10);
+        assertTrue(LogRetention.isExpired("logs_2025_09", cutoff));
+        assertTrue(LogRetention.isExpired("logs_2019_12", cutoff));
+        assertFalse(LogRetention.isExpired("logs_2025_10", cutoff));
+        assertFalse(LogRetention.isExpired("logs_2026_10", cutoff));
+        assertFalse(LogRetention.isExpired("logs_default", cutoff));
+    }
+}
@@ -0,0 +1,59 @@
+package com.library;
+
+import com.library.util.EmailService;
+import com.library.util.MailSession;
+import com.library.util.MailTemplates;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MailTemplatesTest {
+
+    @BeforeEach
+    public void useLocalMail() {
+        System.setProperty("mail.mode", "local");
+        MailSession.clearLocalOutbox();
+    }
+
+    @AfterEach
+    public void restoreMailMode() {
+        System.clearProperty("mail.mode");
+    }
+
+    @Test
+    public void testRenderFillsEveryPlaceholder() {
+        String body = MailTemplates.BOOK_ISSUE_HEADER.render("name", "Asha", "role", "Student", "rfid", "RFID001");
+        assertEquals("Dear Asha,\n\n" +
+                "Your books have been successfully issued!\n\n" +
+                "Student Details:\n" +
+                "Name: Asha\n" +
+                "RFID: RFID001\n\n", body);
+    }
+
+    @Test
+    public void testMissingValueIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> MailTemplates.PASSWORD_CHANGE.render("email", "a@b.c"));
+    }
+
+    @Test
+    public void testNullValueRendersEmpty() {
+        assertEquals("Your password reset code is: \n\nUse this code to reset your password.",
+                MailTemplates.PASSWORD_RESET.render("code", null));
+    }
+
+    @Test
+    public void testLocalModeKeepsMessagesInsteadOfSending() {
+        assertTrue(new EmailService().sendStudentDeletionNotification("student@example.org", "Ravi"));
+
+        List<MailSession.LocalMessage> sent = MailSession.localOutbox();
+        assertEquals(1, sent.size());
+        assertEquals("student@example.org", sent.get(0).to);
+        assertEquals(MailTemplates.ACCOUNT_DELETION_SUBJECT, sent.get(0).subject);
+        assertTrue(sent.get(0).body.startsWith("Dear Ravi,"));
+        assertTrue(sent.get(0).body.contains("your student account has been deleted"));
+    }
+}
@@ -0,0 +1,181 @@
+package com.library;
+
+import com.library.model.SearchResult;
+import com.library.util.SearchIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchIndexTest {
+
+    private static SearchResult book(String title, String author, String barcode) {
+        return new SearchResult(SearchResult.EntityType.BOOK, title, "by " + author,
+                "Barcode: " + barcode + " | Category: Fiction", 1.0, new Object());
+    }
+
+    private static SearchResult student(String name, String id) {
+        return new SearchResult(SearchResult.EntityType.STUDENT, name, "ID: " + id,
+                "Email: " + id.toLowerCase() + "@example.com | Phone: 123", 1.0, new Object());
+    }
+
+    @Test
+    public void testExactTitleRanksFirst() {
+        SearchIndex index = new SearchIndex();
+        index.add(book("Dune Messiah", "Frank Herbert", "BK002"));
+        index.add(book("Dune", "Frank Herbert", "BK001"));
+
+        List<SearchResult> results = index.search("dune", null, 10);
+
+        assertEquals(2, results.size());
+        assertEquals("Dune", results.get(0).getTitle());
+        // title equals (10) + title contains (3) + title word (2)
+        assertEquals(15.0, results.get(0).getRelevanceScore(), 0.001);
+        assertEquals(5.0, results.get(1).getRelevanceScore(), 0.001);
+    }
+
+    @Test
+    public void testPrefixAndBarcodeMatching() {
+        SearchIndex index = new SearchIndex();
+        index.add(book("Sapiens", "Yuval Noah Harari", "BK003"));
+        index.add(book("A Brief History of Time", "Stephen Hawking", "BK004"));
+
+        assertEquals("Sapiens", index.search("sap", null, 10).get(0).getTitle());
+        assertEquals("A Brief History of Time", index.search("haw", null, 10).get(0).getTitle());
+        assertEquals("A Brief History of Time", index.search("bk004", null, 10).get(0).getTitle());
+        assertEquals(1, index.search("004", null, 10).size());
+        assertTrue(index.search("tolkien", null, 10).isEmpty());
+    }
+
+    @Test
+    public void testMultiWordQueryRequiresAllWords() {
+        SearchIndex index = new SearchIndex();
+        index.add(book("History of Rome", "Mary Beard", "BK010"));
+        index.add(book("A Brief History of Time", "Stephen Hawking", "BK004"));
+
+        List<SearchResult> results = index.search("brief history", null, 10);
+
+        assertEquals(1, results.size());
+        assertEquals("A Brief History of Time", results.get(0).getTitle());
+        // title words (2 + 2) + title contains the phrase (3)
+        assertEquals(7.0, results.get(0).getRelevanceScore(), 0.001);
+    }
+
+    private static SearchIndex harryIndex() {
+        SearchIndex index = new SearchIndex();
+        index.add(book("Harry Potter and the Philosopher's Stone", "J. K. Rowling", "BK020"));
+        index.add(book("Harry Potter and the Chamber of Secrets", "J. K. Rowling", "BK021"));
+        index.add(book("Harriet the Spy", "Louise Fitzhugh", "BK022"));
+        index.add(book("The Harrowing", "Alexandra Sokoloff", "BK023"));
+        // Enough "potter" matches that re-checking the previous matches is cheaper than a lookup
+        for (int i = 0; i < 100; i++) {
+            index.add(book("Pottery Basics " + i, "Various", "BK" + (100 + i)));
+        }
+        return index;
+    }
+
+    @Test
+    public void testExtendingQueryNarrowsPreviousMatches() {
+        SearchIndex index = harryIndex();
+
+        assertEquals(4, index.search("harr", null, 10).size());
+        assertEquals(2, index.search("harry", null, 10).size());
+        List<SearchResult> narrowed = index.search("harry potter cha", null, 10);
+        List<SearchResult> full = harryIndex().search("harry potter cha", null, 10);
+
+        assertEquals(1, narrowed.size());
+        assertEquals("Harry Potter and the Chamber of Secrets", narrowed.get(0).getTitle());
+        assertEquals(full.get(0).getRelevanceScore(), narrowed.get(0).getRelevanceScore(), 0.001);
+
+        // Deleting characters falls back to a full lookup
+        assertEquals(4, index.search("har", null, 10).size());
+    }
+
+    @Test
+    public void testIndexChangesInvalidateRefinement() {
+        SearchIndex index = new SearchIndex();
+        index.add(book("Dune", "Frank Herbert", "BK001"));
+        assertEquals(1, index.search("du", null, 10).size());
+
+        index.add(book("Dune Messiah", "Frank Herbert", "BK002"));
+        assertEquals(2, index.search("dun", null, 10).size());
+
+        assertEquals(0, index.search("dun", SearchResult.EntityType.STUDENT, 10).size());
+        assertEquals(2, index.search("dune", null, 10).size());
+    }
+
+    @Test
+    public void testFuzzyModeToleratesTypos() {
+        SearchIndex index = new SearchIndex();
+        index.add(book("Harry Potter and the Chamber of Secrets", "J. K. Rowling", "BK021"));
+        index.add(student("Priya Sharma", "STU010"));
+
+        assertTrue(index.search("harrry", null, 10).isEmpty());
+        assertEquals("Harry Potter and the Chamber of Secrets", index.search("harrry", null, 10, true).get(0).getTitle());
+        assertEquals("Priya Sharma", index.search("sarma", null, 10, true).get(0).getTitle());
+        assertEquals(1, index.search("harry poter", null, 10, true).size());
+        // Short words and barcodes must still match exactly
+        assertTrue(index.search("bk022", null, 10, true).isEmpty());
+    }
+
+    @Test
+    public void testFuzzyMatchesRankBelowExactMatches() {
+        SearchIndex index = new SearchIndex();
+        index.add(student("Ravi Sarma", "STU011"));
+        index.add(student("Priya Sharma", "STU010"));
+
+        List<SearchResult> results = index.search("sharma", null, 10, true);
+
+        assertEquals(2, results.size());
+        assertEquals("Priya Sharma", results.get(0).getTitle());
+        assertEquals("Ravi Sarma", results.get(1).getTitle());
+        assertTrue(results.get(0).getRelevanceScore() > results.get(1).getRelevanceScore());
+    }
+
+    @Test
+    public void testTypeFilterAndLimit() {
+        SearchIndex index = new SearchIndex();
+        for (int i = 0; i < 50; i++) {
+            index.add(book("Java Volume " + i, "Author", "BK" + i));
+        }
+        index.add(student("Java Student", "STU001"));
+
+        List<SearchResult> students = index.search("java", SearchResult.EntityType.STUDENT, 10);
+        assertEquals(1, students.size());
+        assertEquals(SearchResult.EntityType.STUDENT, students.get(0).getEntityType());
+
+        List<SearchResult> top = index.search("java", null, 5);
+        assertEquals(5, top.size());
+        for (int i = 1; i < top.size(); i++) {
+            assertTrue(top.get(i - 1).getRelevanceScore() >= top.get(i).getRelevanceScore());
+        }
+    }
+
+    @Test
+    public void testRemoveAndUpdate() {
+        SearchIndex index = new SearchIndex();
+        Object original = new Object();
+        index.add(new SearchResult(SearchResult.EntityType.CATEGORY, "Poetry", "ID: 1", "Book category", 1.0, original));
+        assertEquals(1, index.search("poetry", null, 10).size());
+
+        index.update(new SearchResult(SearchResult.EntityType.CATEGORY, "Drama", "ID: 1", "Book category", 1.0, original));
+        assertTrue(index.search("poetry", null, 10).isEmpty());
+        assertEquals(1, index.search("drama", null, 10).size());
+        assertEquals(1, index.size());
+
+        assertTrue(index.remove(original));
+        assertTrue(index.search("drama", null, 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testEmptyQueryReturnsEntries() {
+        SearchIndex index = new SearchIndex();
+        index.add(book("Dune", "Frank Herbert", "BK001"));
+        index.add(student("Jane Smith", "STU002"));
+
+        assertEquals(2, index.search("", null, 10).size());
+        assertEquals(1, index.search("  ", SearchResult.EntityType.STUDENT, 10).size());
+    }
+}
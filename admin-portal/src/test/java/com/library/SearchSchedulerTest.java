@@ -0,0 +1,91 @@
+package com.library;
+
+import com.library.util.SearchScheduler;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchSchedulerTest {
+
+    @Test
+    public void testOnlyLatestDebouncedQueryIsDelivered() throws Exception {
+        SearchScheduler scheduler = new SearchScheduler(100, Runnable::run);
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        scheduler.submit(() -> "a", delivered::add);
+        scheduler.submit(() -> "ab", delivered::add);
+        scheduler.submit(() -> "abc", r -> {
+            delivered.add(r);
+            latch.countDown();
+        });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Thread.sleep(200);
+        assertEquals(List.of("abc"), delivered);
+    }
+
+    @Test
+    public void testRunningQueryIsCancelledAndDropped() throws Exception {
+        SearchScheduler scheduler = new SearchScheduler(0, Runnable::run);
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+
+        scheduler.submitNow(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+            return "slow";
+        }, delivered::add);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CountDownLatch done = new CountDownLatch(1);
+        scheduler.submitNow(() -> "fast", r -> {
+            delivered.add(r);
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertTrue(interrupted.get());
+        assertEquals(List.of("fast"), delivered);
+    }
+
+    @Test
+    public void testCancelDropsPendingResult() throws Exception {
+        SearchScheduler scheduler = new SearchScheduler(50, Runnable::run);
+        List<String> delivered = new CopyOnWriteArrayList<>();
+
+        scheduler.submit(() -> "x", delivered::add);
+        scheduler.cancel();
+
+        Thread.sleep(200);
+        assertTrue(delivered.isEmpty());
+    }
+
+    @Test
+    public void testQueriesRunOffCallerThread() throws Exception {
+        SearchScheduler scheduler = new SearchScheduler(0, Runnable::run);
+        Thread caller = Thread.currentThread();
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicBoolean offThread = new AtomicBoolean();
+
+        scheduler.submitNow(() -> Thread.currentThread() != caller, r -> {
+            offThread.set(r);
+            latch.countDown();
+        });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(offThread.get());
+    }
+}
@@ -1,29 +1,27 @@
 package com.library;
 
 import com.library.controller.UserLoginController;
-import com.library.dao.DatabaseUtil;
+import com.library.util.DataLayerStartup;
+import com.library.util.EmailQueue;
 import javafx.application.Application;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 /**
  * Main class for the User Portal JavaFX application.
- * This class initializes the database, performs hardware checks, and starts the login scene.
+ * This class shows the login scene and starts the background database initialization.
  */
 public class UserPortalMain extends Application {
 
     /**
      * Starts the JavaFX application.
-     * Initializes the database, checks hardware connectivity, and displays the login scene.
+     * Displays the login scene immediately and initializes the database in the background.
      *
      * @param primaryStage the primary stage for the application
      * @throws Exception if an error occurs during initialization
      */
     @Override
     public void start(Stage primaryStage) throws Exception {
-        // Initialize the database with tables and sample data
-        DatabaseUtil.initializeDatabase();
-
         // Proceed to the login scene
         Scene scene = new UserLoginController(primaryStage).getScene();
         primaryStage.setTitle("User Portal");
@@ -32,9 +30,18 @@ public class UserPortalMain extends Application {
         primaryStage.setHeight(850);
         primaryStage.setResizable(true);
         primaryStage.show();
-    }
 
+        // Connect, migrate the schema and load the RFID cache off the UI thread; login is enabled when done
+        DataLayerStartup.start();
+    }
 
+    /**
+     * Sends any queued notification emails before the application exits.
+     */
+    @Override
+    public void stop() {
+        EmailQueue.shutdown(10_000);
+    }
 
     /**
      * Main method to launch the JavaFX application.
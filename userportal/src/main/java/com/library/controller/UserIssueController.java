@@ -5,7 +5,10 @@ import com.library.dao.BookDAO;
 import com.library.model.Book;
 import com.library.model.User;
 import com.library.model.UserSession;
+import com.library.util.BarcodeIndex;
+import com.library.util.EmailQueue;
 import com.library.util.EmailService;
+import com.library.util.ScannerInput;
 import com.library.util.UIUtil;
 import javafx.geometry.Pos;
 import com.library.util.UILayoutConstants;
@@ -21,22 +24,19 @@ import javafx.scene.paint.Color;
 import javafx.stage.Stage;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import java.io.IOException;
-import java.io.InputStream;
+import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.Properties;
 
 import javafx.beans.property.SimpleStringProperty;
 import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import javafx.application.Platform;
 
-import jakarta.mail.*;
-import jakarta.mail.internet.*;
-
 /**
  * Controller for handling book issuing functionality.
  * Allows users to search, select, and issue books, without email confirmation.
@@ -49,7 +49,13 @@ public class UserIssueController {
 
     private List<Book> issuedBooksList = null;
     private List<Book> allBooks = new java.util.ArrayList<>();
-    private ScheduledExecutorService debounceExecutor = Executors.newSingleThreadScheduledExecutor();
+    private BarcodeIndex barcodeIndex = new BarcodeIndex(allBooks);
+    private ScheduledExecutorService debounceExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "issue-search-debounce");
+        t.setDaemon(true);
+        return t;
+    });
+    private ScheduledFuture<?> pendingSearch;
 
     /**
      * Constructor for UserIssueController.
@@ -66,6 +72,7 @@ public class UserIssueController {
             System.err.println("Error loading books: " + e.getMessage());
             allBooks = new java.util.ArrayList<>();
         }
+        barcodeIndex = new BarcodeIndex(allBooks);
     }
 
     /**
@@ -187,8 +194,8 @@ public class UserIssueController {
                 // Student
                 currentIssued = new IssuedBookDAO().getIssuedCountForStudent(user.getId());
             }
-            if (currentIssued + selectedBooks.size() + 1 > 5) {
-                UIUtil.showAlert("Error", "You can issue a maximum of 5 books. You currently have " + currentIssued + " issued, and have " + selectedBooks.size() + " selected.", Alert.AlertType.ERROR);
+            if (currentIssued + selectedBooks.size() + 1 > IssuedBookDAO.MAX_ISSUED_BOOKS) {
+                UIUtil.showAlert("Error", "You can issue a maximum of " + IssuedBookDAO.MAX_ISSUED_BOOKS + " books. You currently have " + currentIssued + " issued, and have " + selectedBooks.size() + " selected.", Alert.AlertType.ERROR);
                 return;
             }
             selectedBooks.add(selected);
@@ -218,25 +225,30 @@ public class UserIssueController {
             try {
                 // Issue the books and build issuedBooksList for confirmation scene
                 issuedBooksList = new java.util.ArrayList<>();
-                IssuedBookDAO issuedBookDAO = new IssuedBookDAO();
-                for (Book book : selectedBooks) {
-                    boolean success = false;
-                    if (user.getCourse().isEmpty()) {
-                        // Faculty
-                        success = issuedBookDAO.issueBookForFaculty(user.getId(), book.getBarcode());
-                    } else {
-                        // Student
-                        success = issuedBookDAO.issueBook(user.getId(), book.getBarcode());
-                    }
-                    if (!success) {
-                        UIUtil.showAlert("Error", "Failed to issue book: " + book.getName() + " (" + book.getBarcode() + ").", Alert.AlertType.ERROR);
-                        return;
+                IssuedBookDAO.BorrowerType userType = user.getCourse().isEmpty()
+                        ? IssuedBookDAO.BorrowerType.FACULTY
+                        : IssuedBookDAO.BorrowerType.STUDENT;
+                List<String> barcodes = selectedBooks.stream().map(Book::getBarcode).collect(Collectors.toList());
+                // The notification email is written to the outbox in the same transaction as the issue
+                IssuedBookDAO.BatchIssueResult batch = new IssuedBookDAO().issueBooks(user.getId(), userType, barcodes,
+                        (conn, issued) -> queueBookIssueEmail(conn, user, userType));
+                if (!batch.isCommitted()) {
+                    // Nothing was issued; report every book that blocked the checkout. Outcomes are in the
+                    // same order as selectedBooks, one per copy requested
+                    StringBuilder failures = new StringBuilder("No books were issued.");
+                    for (int i = 0; i < selectedBooks.size(); i++) {
+                        IssuedBookDAO.IssueResult result = batch.getOutcomes().get(i).getValue();
+                        if (result != IssuedBookDAO.IssueResult.NOT_ATTEMPTED) {
+                            failures.append("\n").append(issueFailureMessage(result, selectedBooks.get(i)));
+                        }
                     }
-                    issuedBooksList.add(book);
+                    UIUtil.showAlert("Error", failures.toString(), Alert.AlertType.ERROR);
+                    return;
                 }
+                issuedBooksList.addAll(selectedBooks);
 
-                // Send email notification for book issue
-                sendBookIssueEmail(stage);
+                // Send the notification email in the background
+                EmailQueue.wakeUp();
 
                 // Clear inputs after storing issued list
                 selectedBooks.clear();
@@ -267,18 +279,16 @@ public class UserIssueController {
             UIUtil.switchScene(stage, new UserLoginController(stage).getScene());
         });
 
-        searchField.textProperty().addListener((observable, oldValue, newValue) -> {
-            String trimmed = newValue.trim();
+        Consumer<String> applySearch = text -> {
+            String trimmed = text.trim();
             // Cancel previous debounce task
-            debounceExecutor.shutdownNow();
-            debounceExecutor = Executors.newSingleThreadScheduledExecutor();
+            if (pendingSearch != null) {
+                pendingSearch.cancel(false);
+            }
 
             if (!trimmed.isEmpty()) {
                 // Check for exact barcode match for auto-add
-                Book exactMatch = allBooks.stream()
-                        .filter(book -> book.getBarcode().equals(trimmed))
-                        .findFirst()
-                        .orElse(null);
+                Book exactMatch = barcodeIndex.get(trimmed);
                 if (exactMatch != null) {
                     // Auto-add to selected books if not already added
                     if (selectedBooks.stream().noneMatch(b -> b.getBarcode().equals(trimmed))) {
@@ -289,18 +299,32 @@ public class UserIssueController {
                     return;
                 }
 
-                // Debounce search
-                debounceExecutor.schedule(() -> {
-                    List<Book> results = allBooks.stream()
-                            .filter(book -> book.getName().toLowerCase().contains(trimmed.toLowerCase()) ||
-                                           book.getBarcode().contains(trimmed))
-                            .limit(10)
-                            .collect(Collectors.toList());
-                    searchResults.setAll(results);
+                // Debounce search; barcode prefix matches come first, then name and barcode substring matches
+                pendingSearch = debounceExecutor.schedule(() -> {
+                    List<Book> results = barcodeIndex.withPrefix(trimmed, 10);
+                    if (results.size() < 10) {
+                        String lowerQuery = trimmed.toLowerCase();
+                        allBooks.stream()
+                                .filter(book -> !book.getBarcode().startsWith(trimmed) &&
+                                               (book.getName().toLowerCase().contains(lowerQuery) ||
+                                                book.getBarcode().contains(trimmed)))
+                                .limit(10 - results.size())
+                                .forEach(results::add);
+                    }
+                    Platform.runLater(() -> searchResults.setAll(results));
                 }, 300, TimeUnit.MILLISECONDS);
             } else {
                 searchResults.clear();
             }
+        };
+
+        // A scan is handled once, as a whole code; the characters of a scan in progress are not searched one by one.
+        // Fast typing that only looked like a scan is searched once it ends
+        ScannerInput scanner = ScannerInput.attach(searchField, applySearch, () -> applySearch.accept(searchField.getText()));
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> {
+            if (!scanner.isScanning()) {
+                applySearch.accept(newValue);
+            }
         });
 
         HBox buttonsBox = new HBox(10, addBookBtn, removeBookBtn);
@@ -381,101 +405,53 @@ public class UserIssueController {
         return new Scene(mainLayout, UILayoutConstants.SCENE_WIDTH, UILayoutConstants.SCENE_HEIGHT);
     }
 
-    private void sendBookIssueEmail(Stage stage) {
-        try {
-            EmailService emailService = new EmailService();
-            User user = UserSession.getLoggedInUser(stage);
-
-            // Get current issued books list
-            StringBuilder issuedBooksStr = new StringBuilder();
-            List<String[]> issuedBooks = null;
-            if (user.getCourse().isEmpty()) {
-                // Faculty
-                issuedBooks = new IssuedBookDAO().getIssuedBooksForFaculty(user.getId());
-            } else {
-                // Student
-                issuedBooks = new IssuedBookDAO().getIssuedBooks(user.getId());
-            }
-            if (issuedBooks.size() > 0) {
-                for (String[] book : issuedBooks) {
-                    issuedBooksStr.append("- ").append(book[0]).append(" (Barcode: ").append(book[1]).append(")\n");
-                }
-            } else {
-                issuedBooksStr.append("No books currently issued.");
-            }
-
-            // Calculate due date (assuming 14 days from now)
-            java.time.LocalDate dueDate = java.time.LocalDate.now().plusDays(14);
-            String dueDateStr = dueDate.toString();
-
-            // Send email for each issued book
-            for (Book book : issuedBooksList) {
-                boolean success = emailService.sendBookIssueNotification(
-                    user.getEmail(),
-                    user.getName(),
-                    user.getRfid(),
-                    book.getName(),
-                    java.time.LocalDate.now().toString(),
-                    dueDateStr,
-                    issuedBooksStr.toString()
-                );
-
-                if (!success) {
-                    System.err.println("Failed to send issue notification email for book: " + book.getName());
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Error sending book issue email: " + e.getMessage());
-            e.printStackTrace();
+    private String issueFailureMessage(IssuedBookDAO.IssueResult result, Book book) {
+        String label = book.getName() + " (" + book.getBarcode() + ")";
+        switch (result) {
+            case NO_COPIES:
+                return "No copies of " + label + " are available any more.";
+            case NOT_FOUND:
+                return "Book " + label + " was not found.";
+            case LIMIT_REACHED:
+                return "You can issue a maximum of " + IssuedBookDAO.MAX_ISSUED_BOOKS + " books. Could not issue " + label + ".";
+            default:
+                return "Failed to issue book: " + label + ".";
         }
     }
 
-    private void sendConfirmationEmail(String toEmail, String subject, String body) {
-        Properties config = new Properties();
-        String fromEmail;
-        String password;
-
-        try (InputStream input = getClass().getClassLoader().getResourceAsStream("config.properties")) {
-            if (input == null) {
-                System.out.println("❌ Sorry, unable to find config.properties");
-                return;
-            }
-            config.load(input);
-            fromEmail = config.getProperty("email.username");
-            password = config.getProperty("email.password");
-        } catch (IOException ex) {
-            ex.printStackTrace();
+    private void queueBookIssueEmail(Connection conn, User user, IssuedBookDAO.BorrowerType userType) throws SQLException {
+        if (user.getEmail() == null || user.getEmail().trim().isEmpty()) {
             return;
         }
 
-        Properties props = new Properties();
-        props.put("mail.smtp.host", "smtp.gmail.com");
-        props.put("mail.smtp.port", "587");
-        props.put("mail.smtp.auth", "true");
-        props.put("mail.smtp.starttls.enable", "true");
-
-        final String finalFromEmail = fromEmail;
-        final String finalPassword = password;
-        Session session = Session.getInstance(props, new Authenticator() {
-            @Override
-            protected PasswordAuthentication getPasswordAuthentication() {
-                return new PasswordAuthentication(finalFromEmail, finalPassword);
+        // Current issued books list, including the books being issued
+        StringBuilder issuedBooksStr = new StringBuilder();
+        List<String[]> issuedBooks = new IssuedBookDAO().getIssuedBooks(conn, userType, user.getId());
+        if (issuedBooks.size() > 0) {
+            for (String[] book : issuedBooks) {
+                issuedBooksStr.append("- ").append(book[0]).append(" (Barcode: ").append(book[1]).append(")\n");
             }
-        });
+        } else {
+            issuedBooksStr.append("No books currently issued.");
+        }
 
-        try {
-            Message message = new MimeMessage(session);
-            message.setFrom(new InternetAddress(finalFromEmail));
-            message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(toEmail));
-            message.setSubject(subject);
-            message.setText(body);
-
-            Transport.send(message);
-            System.out.println("✅ Confirmation email sent to " + toEmail);
-        } catch (MessagingException e) {
-
-            e.printStackTrace();
-            System.out.println("❌ Failed to send confirmation email.");
+        // Calculate due date (assuming 14 days from now)
+        java.time.LocalDate dueDate = java.time.LocalDate.now().plusDays(14);
+        String dueDateStr = dueDate.toString();
+
+        // One notice per issued book; they are sent together as one email
+        for (Book book : selectedBooks) {
+            EmailService.queueBookIssueNotification(
+                conn,
+                user.getEmail(),
+                user.getName(),
+                user.getRfid(),
+                book.getName(),
+                java.time.LocalDate.now().toString(),
+                dueDateStr,
+                issuedBooksStr.toString()
+            );
         }
     }
+
 }
@@ -3,6 +3,8 @@ package com.library.controller;
 import com.library.dao.UserDAO;
 import com.library.model.User;
 import com.library.model.UserSession;
+import com.library.util.DataLayerStartup;
+import com.library.util.ScannerInput;
 import com.library.util.UIUtil;
 import com.library.util.UILayoutConstants;
 import javafx.geometry.Pos;
@@ -14,6 +16,8 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
 import javafx.stage.Stage;
 
 /**
@@ -65,6 +69,18 @@ public class UserLoginController {
         rfidField.setStyle("-fx-background-color: white; -fx-border-radius: 8; -fx-background-radius: 8; -fx-border-color: #d1d5db; -fx-font-size: 14; -fx-text-fill: #1e293b;");
         rfidField.setFocusTraversable(true);
 
+        // Shown until the background database startup has finished
+        Label startupStatus = new Label();
+        startupStatus.textProperty().bind(DataLayerStartup.statusProperty());
+        startupStatus.setStyle("-fx-font-size: 13px; -fx-text-fill: #475569;");
+        ProgressBar startupProgress = new ProgressBar();
+        startupProgress.setPrefWidth(350);
+        startupProgress.progressProperty().bind(DataLayerStartup.progressProperty());
+        for (javafx.scene.Node node : new javafx.scene.Node[]{startupStatus, startupProgress}) {
+            node.visibleProperty().bind(DataLayerStartup.readyProperty().not());
+            node.managedProperty().bind(node.visibleProperty());
+        }
+
         // Method to perform login
         Runnable performLogin = () -> {
             String rfid = rfidField.getText().trim();
@@ -72,6 +88,10 @@ public class UserLoginController {
                 UIUtil.showAlert("Error", "Please Tap your RFID card.", Alert.AlertType.ERROR);
                 return;
             }
+            if (!DataLayerStartup.isReady()) {
+                // Keep the tapped card; the ready listener below logs it in once startup finishes
+                return;
+            }
             try {
                 User user = new UserDAO().loginByRfid(rfid);
                 if (user != null) {
@@ -89,18 +109,31 @@ public class UserLoginController {
             }
         };
 
-        // Automatic login when RFID reaches expected length (e.g., 10 characters for sample data)
-        rfidField.textProperty().addListener((observable, oldValue, newValue) -> {
-            if (newValue.length() == 10) { // Assuming RFID length is 10 characters like RFID001001N
-                // Use Platform.runLater to avoid triggering another change event during current event processing
-                javafx.application.Platform.runLater(() -> performLogin.run());
-            }
+        // Automatic login once per card tap, whatever the length of the card number
+        ScannerInput.attach(rfidField, rfid -> {
+            rfidField.setText(rfid);
+            performLogin.run();
         });
 
+        if (!DataLayerStartup.isReady()) {
+            DataLayerStartup.readyProperty().addListener(new ChangeListener<Boolean>() {
+                @Override
+                public void changed(ObservableValue<? extends Boolean> observable, Boolean wasReady, Boolean isReady) {
+                    if (isReady) {
+                        DataLayerStartup.readyProperty().removeListener(this);
+                        if (stage.getScene() == rfidField.getScene() && !rfidField.getText().trim().isEmpty()) {
+                            performLogin.run();
+                        }
+                    }
+                }
+            });
+        }
+
         Button loginBtn = UIUtil.createStyledButton("Login", "#1f7aec", "#0f62fe");
         loginBtn.setPrefWidth(350);
         loginBtn.setPrefHeight(50);
         loginBtn.setOnAction(e -> performLogin.run());
+        loginBtn.disableProperty().bind(DataLayerStartup.readyProperty().not());
 
         rfidField.setOnKeyPressed(e -> {
             if (e.getCode() == KeyCode.ENTER) {
@@ -108,7 +141,7 @@ public class UserLoginController {
             }
         });
 
-        contentBox.getChildren().addAll(heading, rfidField, loginBtn);
+        contentBox.getChildren().addAll(heading, rfidField, loginBtn, startupStatus, startupProgress);
         mainLayout.getChildren().add(contentBox);
         StackPane.setAlignment(contentBox, Pos.CENTER);
 
@@ -6,7 +6,9 @@ import com.library.model.User;
 import com.library.model.UserSession;
 import com.library.util.UIUtil;
 import com.library.util.UILayoutConstants;
+import com.library.util.EmailQueue;
 import com.library.util.EmailService;
+import com.library.util.ScannerInput;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -23,23 +25,20 @@ import javafx.scene.paint.Color;
 import javafx.stage.Stage;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import javafx.scene.control.Alert;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.application.Platform;
 
-// For email functionality
-import jakarta.mail.*;
-import jakarta.mail.internet.*;
-import java.io.InputStream;
-import java.io.IOException;
-import java.util.Properties;
-
 /**
  * Controller for handling book return functionality.
  * Allows users to view issued books and return them by barcode, with email confirmation.
@@ -50,7 +49,12 @@ public class UserReturnController {
     private List<String[]> returnedBooks = new ArrayList<>();
     private ObservableList<Book> searchResults = FXCollections.observableArrayList();
     private ObservableList<Book> selectedBooks = FXCollections.observableArrayList();
-    private ScheduledExecutorService debounceExecutor = Executors.newSingleThreadScheduledExecutor();
+    private ScheduledExecutorService debounceExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "return-search-debounce");
+        t.setDaemon(true);
+        return t;
+    });
+    private ScheduledFuture<?> pendingSearch;
 
     /**
      * Constructor for UserReturnController.
@@ -187,26 +191,32 @@ public class UserReturnController {
             try {
                 // Return the books and build returnedBooksList for confirmation scene
                 returnedBooks = new ArrayList<>();
-                IssuedBookDAO issuedBookDAO = new IssuedBookDAO();
+                IssuedBookDAO.BorrowerType userType = user.getCourse().isEmpty()
+                        ? IssuedBookDAO.BorrowerType.FACULTY
+                        : IssuedBookDAO.BorrowerType.STUDENT;
+                List<String> barcodes = selectedBooks.stream().map(Book::getBarcode).collect(Collectors.toList());
+                // The notification email is written to the outbox in the same transaction as the return
+                List<String> returnedBarcodes = new ArrayList<>(new IssuedBookDAO().returnBooks(user.getId(), userType, barcodes,
+                        (conn, returned) -> queueBookReturnEmail(conn, user, userType, returned)));
+                List<String> failed = new ArrayList<>();
                 for (Book book : selectedBooks) {
-                    boolean success = false;
-                    if (user.getCourse().isEmpty()) {
-                        // Faculty
-                        success = issuedBookDAO.returnBookForFaculty(user.getId(), book.getBarcode());
+                    if (returnedBarcodes.remove(book.getBarcode())) {
+                        // Add to returnedBooks for email
+                        returnedBooks.add(new String[]{book.getName(), book.getBarcode(), book.getAuthor()});
                     } else {
-                        // Student
-                        success = issuedBookDAO.returnBook(user.getId(), book.getBarcode());
-                    }
-                    if (!success) {
-                        UIUtil.showAlert("Error", "Failed to return book: " + book.getName() + " (" + book.getBarcode() + ").", Alert.AlertType.ERROR);
-                        return;
+                        failed.add(book.getName() + " (" + book.getBarcode() + ")");
                     }
-                    // Add to returnedBooks for email
-                    returnedBooks.add(new String[]{book.getName(), book.getBarcode(), book.getAuthor()});
+                }
+                if (returnedBooks.isEmpty()) {
+                    UIUtil.showAlert("Error", "Failed to return book(s): " + String.join(", ", failed) + ".", Alert.AlertType.ERROR);
+                    return;
+                }
+                if (!failed.isEmpty()) {
+                    UIUtil.showAlert("Warning", "These books could not be returned: " + String.join(", ", failed) + ".", Alert.AlertType.WARNING);
                 }
 
-                // Send email notification for book return
-                sendBookReturnEmail(stage);
+                // Send the notification email in the background
+                EmailQueue.wakeUp();
 
                 // Clear inputs after storing returned list
                 selectedBooks.clear();
@@ -236,11 +246,12 @@ public class UserReturnController {
             UIUtil.switchScene(stage, new UserLoginController(stage).getScene());
         });
 
-        searchField.textProperty().addListener((observable, oldValue, newValue) -> {
-            String trimmed = newValue.trim();
+        Consumer<String> applySearch = text -> {
+            String trimmed = text.trim();
             // Cancel previous debounce task
-            debounceExecutor.shutdownNow();
-            debounceExecutor = Executors.newSingleThreadScheduledExecutor();
+            if (pendingSearch != null) {
+                pendingSearch.cancel(false);
+            }
 
             if (!trimmed.isEmpty()) {
                 // Check for exact barcode match for auto-add
@@ -260,7 +271,7 @@ public class UserReturnController {
                 }
 
                 // Debounce search
-                debounceExecutor.schedule(() -> {
+                pendingSearch = debounceExecutor.schedule(() -> {
                     List<Book> results = issuedBooks.stream()
                             .filter(bookData -> bookData[0].toLowerCase().contains(trimmed.toLowerCase()) ||
                                                bookData[1].contains(trimmed))
@@ -273,7 +284,7 @@ public class UserReturnController {
                             })
                             .limit(10)
                             .collect(Collectors.toList());
-                    searchResults.setAll(results);
+                    Platform.runLater(() -> searchResults.setAll(results));
                 }, 300, TimeUnit.MILLISECONDS);
             } else {
                 // Show all issued books when search is empty
@@ -288,6 +299,15 @@ public class UserReturnController {
                         .collect(Collectors.toList());
                 searchResults.setAll(allBooks);
             }
+        };
+
+        // A scan is handled once, as a whole code; the characters of a scan in progress are not searched one by one.
+        // Fast typing that only looked like a scan is searched once it ends
+        ScannerInput scanner = ScannerInput.attach(searchField, applySearch, () -> applySearch.accept(searchField.getText()));
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> {
+            if (!scanner.isScanning()) {
+                applySearch.accept(newValue);
+            }
         });
 
         HBox buttonsBox = new HBox(10, addBookBtn, removeBookBtn);
@@ -378,96 +398,39 @@ public class UserReturnController {
         return new Scene(mainLayout, UILayoutConstants.SCENE_WIDTH, UILayoutConstants.SCENE_HEIGHT);
     }
 
-    /**
-     * Sends a confirmation email to the user after returning books.
-     *
-     * @param toEmail the recipient's email address
-     * @param subject the email subject
-     * @param body the email body content
-     */
-    private void sendConfirmationEmail(String toEmail, String subject, String body) {
-        Properties config = new Properties();
-        String fromEmail = "";
-        String password = "";
-
-        try (InputStream input = getClass().getClassLoader().getResourceAsStream("config.properties")) {
-            if (input == null) {
-                System.out.println("❌ Sorry, unable to find config.properties");
-                return;
-            }
-            config.load(input);
-            fromEmail = config.getProperty("email.username");
-            password = config.getProperty("email.password");
-        } catch (IOException ex) {
-            ex.printStackTrace();
-            return; // Stop if config fails to load
+    private void queueBookReturnEmail(Connection conn, User user, IssuedBookDAO.BorrowerType userType,
+                                      List<String> returnedBarcodes) throws SQLException {
+        if (user.getEmail() == null || user.getEmail().trim().isEmpty()) {
+            return;
         }
 
-        Properties props = new Properties();
-        props.put("mail.smtp.host", "smtp.gmail.com"); // Gmail SMTP Host
-        props.put("mail.smtp.port", "587"); // Gmail SMTP Port
-        props.put("mail.smtp.auth", "true"); // Enable authentication
-        props.put("mail.smtp.starttls.enable", "true"); // Enable STARTTLS
-
-        // Create a session with an authenticator
-        final String finalFromEmail = fromEmail;
-        final String finalPassword = password;
-        Session session = Session.getInstance(props, new Authenticator() {
-            @Override
-            protected PasswordAuthentication getPasswordAuthentication() {
-                return new PasswordAuthentication(finalFromEmail, finalPassword);
+        // Books still issued after this return
+        StringBuilder issuedBooksStr = new StringBuilder();
+        List<String[]> issuedBooks = new IssuedBookDAO().getIssuedBooks(conn, userType, user.getId());
+        if (issuedBooks.size() > 0) {
+            for (String[] book : issuedBooks) {
+                issuedBooksStr.append("- ").append(book[0]).append(" (Barcode: ").append(book[1]).append(")\n");
             }
-        });
-
-        try {
-            Message message = new MimeMessage(session);
-            message.setFrom(new InternetAddress(fromEmail));
-            message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(toEmail));
-            message.setSubject(subject);
-            message.setText(body);
-
-            Transport.send(message);
-            System.out.println("✅ Confirmation email sent to " + toEmail);
-        } catch (MessagingException e) {
-            e.printStackTrace();
-            System.out.println("❌ Failed to send confirmation email.");
+        } else {
+            issuedBooksStr.append("No books currently issued.");
         }
-    }
-
-    private void sendBookReturnEmail(Stage stage) {
-        try {
-            EmailService emailService = new EmailService();
-            User user = UserSession.getLoggedInUser(stage);
 
-            // Get current issued books list
-            StringBuilder issuedBooksStr = new StringBuilder();
-            List<String[]> issuedBooks = new IssuedBookDAO().getIssuedBooks(user.getId());
-            if (issuedBooks.size() > 0) {
-                for (String[] book : issuedBooks) {
-                    issuedBooksStr.append("- ").append(book[0]).append(" (Barcode: ").append(book[1]).append(")\n");
-                }
-            } else {
-                issuedBooksStr.append("No books currently issued.");
-            }
-
-            // Send email for each returned book
-            for (String[] book : returnedBooks) {
-                boolean success = emailService.sendBookReturnNotification(
-                    user.getEmail(),
-                    user.getName(),
-                    user.getRfid(),
-                    book[0], // book name
-                    java.time.LocalDate.now().toString(),
-                    issuedBooksStr.toString()
-                );
-
-                if (!success) {
-                    System.err.println("Failed to send return notification email for book: " + book[0]);
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Error sending book return email: " + e.getMessage());
-            e.printStackTrace();
+        // One notice per returned book; they are sent together as one email
+        for (String barcode : returnedBarcodes) {
+            String bookName = selectedBooks.stream()
+                    .filter(b -> b.getBarcode().equals(barcode))
+                    .map(Book::getName)
+                    .findFirst()
+                    .orElse(barcode);
+            EmailService.queueBookReturnNotification(
+                conn,
+                user.getEmail(),
+                user.getName(),
+                user.getRfid(),
+                bookName,
+                java.time.LocalDate.now().toString(),
+                issuedBooksStr.toString()
+            );
         }
     }
 
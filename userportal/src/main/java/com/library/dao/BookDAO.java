@@ -4,6 +4,7 @@ import com.library.model.Book;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Data Access Object (DAO) for Book entities.
@@ -12,23 +13,20 @@ import java.util.List;
 public class BookDAO {
 
     /**
-     * Retrieves all books from the database.
+     * Retrieves all books.
      * This method is used for displaying or searching books in the user portal.
+     * Book details come from {@link CatalogCache}; availability is read from the issued_count counters with one query.
      *
      * @return a list of all Book objects
      * @throws SQLException if a database access error occurs
      */
     public List<Book> getAllBooks() throws SQLException {
         List<Book> books = new ArrayList<>();
-        String sql = "SELECT id, name, author, barcode, category_id, quantity FROM books";
-        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
-            while (rs.next()) {
-                Book book = new Book(rs.getInt("id"), rs.getString("name"), rs.getString("author"), rs.getString("barcode"), rs.getInt("category_id"));
-                int quantity = rs.getInt("quantity");
-                int issuedCount = new IssuedBookDAO().getIssuedCountForBook(rs.getInt("id"));
-                book.setAvailable(issuedCount < quantity);
-                books.add(book);
-            }
+        Map<Integer, Integer> issuedCounts = new IssuedBookDAO().getIssuedCounts();
+        for (CatalogCache.Entry entry : CatalogCache.entries()) {
+            Book book = CatalogCache.copyOf(entry.book);
+            book.setAvailable(issuedCounts.getOrDefault(book.getId(), 0) < entry.quantity);
+            books.add(book);
         }
         return books;
     }
@@ -42,20 +40,8 @@ public class BookDAO {
      * @throws SQLException if a database access error occurs
      */
     public Book getBookById(int id) throws SQLException {
-        String sql = "SELECT id, name, author, barcode, category_id, quantity FROM books WHERE id = ?";
-        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, id);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    Book book = new Book(rs.getInt("id"), rs.getString("name"), rs.getString("author"), rs.getString("barcode"), rs.getInt("category_id"));
-                    int quantity = rs.getInt("quantity");
-                    int issuedCount = new IssuedBookDAO().getIssuedCountForBook(rs.getInt("id"));
-                    book.setAvailable(issuedCount < quantity);
-                    return book;
-                }
-            }
-        }
-        return null;
+        CatalogCache.Entry entry = CatalogCache.byId(id);
+        return entry != null ? withAvailability(entry) : null;
     }
 
     /**
@@ -67,16 +53,18 @@ public class BookDAO {
      * @throws SQLException if a database access error occurs
      */
     public Book getBookByBarcodeOrName(String input) throws SQLException {
-        String sql = "SELECT id, name, author, barcode, category_id, quantity FROM books WHERE barcode = ? OR name = ?";
+        CatalogCache.Entry entry = CatalogCache.byBarcode(input);
+        if (entry != null) {
+            return withAvailability(entry);
+        }
+        String sql = "SELECT id, name, author, barcode, category_id, quantity, issued_count FROM books WHERE barcode = ? OR name = ?";
         try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, input);
             stmt.setString(2, input);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
                     Book book = new Book(rs.getInt("id"), rs.getString("name"), rs.getString("author"), rs.getString("barcode"), rs.getInt("category_id"));
-                    int quantity = rs.getInt("quantity");
-                    int issuedCount = new IssuedBookDAO().getIssuedCountForBook(rs.getInt("id"));
-                    book.setAvailable(issuedCount < quantity);
+                    book.setAvailable(rs.getInt("issued_count") < rs.getInt("quantity"));
                     return book;
                 }
             }
@@ -95,8 +83,8 @@ public class BookDAO {
      */
     public List<Book> searchBooks(String query) throws SQLException {
         List<Book> books = new ArrayList<>();
-        // Updated SQL: Make it case-insensitive using UPPER() for broader matching
-        String sql = "SELECT id, name, author, barcode, category_id, quantity FROM books WHERE UPPER(name) LIKE UPPER(?) OR UPPER(barcode) LIKE UPPER(?) LIMIT 20";
+        // Case-insensitive via LOWER() so the trigram indexes on LOWER(name)/LOWER(barcode) apply
+        String sql = "SELECT id, name, author, barcode, category_id, quantity, issued_count FROM books WHERE LOWER(name) LIKE LOWER(?) OR LOWER(barcode) LIKE LOWER(?) LIMIT 20";
         try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
             String likeQuery = "%" + query + "%";
             stmt.setString(1, likeQuery);
@@ -104,9 +92,7 @@ public class BookDAO {
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
                     int bookId = rs.getInt("id");
-                    int quantity = rs.getInt("quantity");
-                    int issuedCount = new IssuedBookDAO().getIssuedCountForBook(bookId);
-                    if (issuedCount < quantity) {
+                    if (rs.getInt("issued_count") < rs.getInt("quantity")) {
                         Book book = new Book(bookId, rs.getString("name"), rs.getString("author"), rs.getString("barcode"), rs.getInt("category_id"));
                         book.setAvailable(true);
                         books.add(book);
@@ -131,17 +117,13 @@ public class BookDAO {
      * @throws SQLException if a database access error occurs
      */
     public boolean isBookAvailable(int bookId) throws SQLException {
-        String sql = "SELECT quantity FROM books WHERE id = ?";
-        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, bookId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    int quantity = rs.getInt("quantity");
-                    int issuedCount = new IssuedBookDAO().getIssuedCountForBook(bookId);
-                    return issuedCount < quantity;
-                }
-            }
-        }
-        return false;
+        CatalogCache.Entry entry = CatalogCache.byId(bookId);
+        return entry != null && new IssuedBookDAO().getIssuedCountForBook(bookId) < entry.quantity;
+    }
+
+    private static Book withAvailability(CatalogCache.Entry entry) {
+        Book book = CatalogCache.copyOf(entry.book);
+        book.setAvailable(new IssuedBookDAO().getIssuedCountForBook(book.getId()) < entry.quantity);
+        return book;
     }
 }
@@ -0,0 +1,286 @@
+package com.library.dao;
+
+import com.library.model.Book;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide cache of the book catalog, by id and by barcode, so the issue screens do not re-read
+ * every book from the database each time they open.
+ *
+ * Only catalog data is cached (title, author, barcode, category and number of copies). Availability depends on
+ * books.issued_count, which changes with every issue and return, so {@link BookDAO} still reads it from the database.
+ *
+ * Entries expire after {@code catalog.cache.ttlSeconds} seconds (env {@code CATALOG_CACHE_TTL_SECONDS}, default 300).
+ * Changes made in the admin portal arrive through Postgres LISTEN/NOTIFY on the {@value #CHANNEL} channel (see
+ * schema migration 4) and are applied by a background thread; turn this off with {@code catalog.cache.listen=false}
+ * (env {@code CATALOG_CACHE_LISTEN}) behind a connection pooler that does not support LISTEN.
+ * Lookups that miss fall back to the database and the result is added to the cache.
+ */
+public final class CatalogCache {
+
+    /**
+     * A cached book and its number of copies.
+     */
+    static final class Entry {
+        final Book book;
+        final int quantity;
+
+        Entry(Book book, int quantity) {
+            this.book = book;
+            this.quantity = quantity;
+        }
+    }
+
+    static final String CHANNEL = "catalog_changed";
+    // Whether change notifications are listened for; RfidCache only polls when they are not
+    static final boolean LISTEN = Boolean.parseBoolean(System.getProperty("catalog.cache.listen",
+            System.getenv().getOrDefault("CATALOG_CACHE_LISTEN", "true")));
+
+    private static final String SELECT_BOOKS = "SELECT id, name, author, barcode, category_id, quantity FROM books";
+    private static final long LISTEN_POLL_MS = 10_000;
+    private static final long LISTEN_RETRY_MS = 30_000;
+
+    private static final long TTL_NANOS = TimeUnit.SECONDS.toNanos(Long.parseLong(System.getProperty("catalog.cache.ttlSeconds",
+            System.getenv().getOrDefault("CATALOG_CACHE_TTL_SECONDS", "300"))));
+
+    /**
+     * One loaded copy of the catalog. Single-book updates are applied to it in place.
+     */
+    private static final class Catalog {
+        final Map<Integer, Entry> byId = new ConcurrentSkipListMap<>();
+        final Map<String, Entry> byBarcode = new ConcurrentHashMap<>();
+        final long loadedAt = System.nanoTime();
+
+        boolean isExpired() {
+            return System.nanoTime() - loadedAt > TTL_NANOS;
+        }
+
+        void put(Entry entry) {
+            remove(entry.book.getId());
+            byId.put(entry.book.getId(), entry);
+            if (entry.book.getBarcode() != null) {
+                byBarcode.put(entry.book.getBarcode(), entry);
+            }
+        }
+
+        void remove(int bookId) {
+            Entry old = byId.remove(bookId);
+            if (old != null && old.book.getBarcode() != null) {
+                byBarcode.remove(old.book.getBarcode(), old);
+            }
+        }
+    }
+
+    private static volatile Catalog catalog;
+    // Bumped by every invalidation so a full load that overlapped a change is not installed
+    private static final AtomicLong version = new AtomicLong();
+    private static Thread listener;
+
+    private CatalogCache() {
+    }
+
+    /**
+     * Loads the catalog and, unless disabled, starts listening for changes made in the admin portal.
+     * Safe to call more than once.
+     */
+    public static synchronized void warmUp() {
+        try {
+            current();
+        } catch (SQLException e) {
+            System.err.println("Error loading catalog cache: " + e.getMessage());
+            e.printStackTrace();
+        }
+        if (LISTEN && listener == null) {
+            listener = new Thread(CatalogCache::listen, "catalog-cache-listener");
+            listener.setDaemon(true);
+            listener.start();
+        }
+    }
+
+    /**
+     * Drops the whole cache; the next read reloads it.
+     */
+    public static void invalidate() {
+        version.incrementAndGet();
+        catalog = null;
+    }
+
+    /**
+     * Re-reads one book after it changed. Does nothing if the cache is not loaded.
+     *
+     * @param bookId the id of the changed book
+     */
+    public static void invalidateBook(int bookId) {
+        version.incrementAndGet();
+        Catalog c = catalog;
+        if (c == null) {
+            return;
+        }
+        try {
+            Entry entry = query("id = ?", stmt -> stmt.setInt(1, bookId));
+            if (entry != null) {
+                c.put(entry);
+            } else {
+                c.remove(bookId);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error refreshing cached book: " + e.getMessage());
+            invalidate();
+        }
+    }
+
+    /**
+     * @return all cached books, ordered by id; the books are shared and must be copied before they are modified
+     */
+    static List<Entry> entries() throws SQLException {
+        return new ArrayList<>(current().byId.values());
+    }
+
+    /**
+     * @return the book with this id, or null if there is none
+     */
+    static Entry byId(int id) throws SQLException {
+        Catalog c = current();
+        Entry entry = c.byId.get(id);
+        if (entry == null) {
+            entry = query("id = ?", stmt -> stmt.setInt(1, id));
+            if (entry != null) {
+                c.put(entry);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * @return the book with this exact barcode, or null if there is none
+     */
+    static Entry byBarcode(String barcode) throws SQLException {
+        Catalog c = current();
+        Entry entry = c.byBarcode.get(barcode);
+        if (entry == null) {
+            entry = query("barcode = ?", stmt -> stmt.setString(1, barcode));
+            if (entry != null) {
+                c.put(entry);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Returns a copy of a cached book so callers cannot modify the shared instance.
+     */
+    static Book copyOf(Book source) {
+        Book book = new Book(source.getId(), source.getName(), source.getAuthor(), source.getBarcode(), source.getCategoryId());
+        book.setAvailable(source.isAvailable());
+        return book;
+    }
+
+    private static Catalog current() throws SQLException {
+        Catalog c = catalog;
+        if (c != null && !c.isExpired()) {
+            return c;
+        }
+        synchronized (CatalogCache.class) {
+            c = catalog;
+            if (c == null || c.isExpired()) {
+                long loadVersion = version.get();
+                c = new Catalog();
+                try (Connection conn = DatabaseUtil.getConnection();
+                     Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery(SELECT_BOOKS)) {
+                    while (rs.next()) {
+                        c.put(readEntry(rs));
+                    }
+                }
+                if (version.get() == loadVersion) {
+                    catalog = c;
+                }
+            }
+            return c;
+        }
+    }
+
+    private interface Binder {
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+
+    private static Entry query(String condition, Binder binder) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BOOKS + " WHERE " + condition)) {
+            binder.bind(stmt);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? readEntry(rs) : null;
+            }
+        }
+    }
+
+    /**
+     * Applies change notifications until the JVM exits, reconnecting after errors.
+     * Anything missed while disconnected is covered by dropping the cache, and reloading {@link RfidCache},
+     * on every (re)connect.
+     */
+    private static void listen() {
+        while (true) {
+            try (Connection conn = DatabaseUtil.openPhysicalConnection(); Statement stmt = conn.createStatement()) {
+                stmt.execute("LISTEN " + CHANNEL);
+                invalidate();
+                RfidCache.refresh();
+                PGConnection pg = conn.unwrap(PGConnection.class);
+                while (true) {
+                    PGNotification[] notifications = pg.getNotifications((int) LISTEN_POLL_MS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            apply(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                System.err.println("Catalog change listener disconnected: " + e.getMessage());
+            }
+            try {
+                Thread.sleep(LISTEN_RETRY_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Applies one notification payload: "books:&lt;id&gt;" for a single book, anything else drops the cache.
+     * Category changes are ignored here since the user portal does not cache category names, and student and
+     * faculty changes go to {@link RfidCache}.
+     */
+    static void apply(String payload) {
+        if (payload != null && payload.startsWith("categories")) {
+            return;
+        }
+        if (payload != null && (payload.startsWith("students") || payload.startsWith("faculty"))) {
+            RfidCache.apply(payload);
+            return;
+        }
+        if (payload != null && payload.startsWith("books:")) {
+            try {
+                invalidateBook(Integer.parseInt(payload.substring("books:".length())));
+                return;
+            } catch (NumberFormatException e) {
+                // fall through to a full reload
+            }
+        }
+        invalidate();
+    }
+
+    private static Entry readEntry(ResultSet rs) throws SQLException {
+        Book book = new Book(rs.getInt("id"), rs.getString("name"), rs.getString("author"), rs.getString("barcode"), rs.getInt("category_id"));
+        return new Entry(book, rs.getInt("quantity"));
+    }
+}
@@ -0,0 +1,368 @@
+package com.library.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded JDBC connection pool used by {@link DatabaseUtil}.
+ * Physical connections are opened through a {@link ConnectionFactory} and handed out
+ * wrapped in a proxy whose close() returns the connection to the pool instead of closing it,
+ * so existing try-with-resources DAO code keeps working unchanged.
+ *
+ * Features:
+ * - min/max pool size, with borrowers blocking up to a timeout when the pool is exhausted
+ * - idle eviction down to the minimum size by a background housekeeper
+ * - validation on borrow for connections that have been idle longer than the validation interval
+ * - leak detection: connections held longer than the leak threshold are reported with the
+ *   stack trace captured at borrow time
+ */
+public class ConnectionPool {
+
+    /**
+     * Opens a new physical connection to the database.
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    /**
+     * Snapshot of pool counters, used for troubleshooting.
+     */
+    public static class PoolStats {
+        private final int active;
+        private final int idle;
+        private final int total;
+        private final int waiting;
+        private final long borrowCount;
+        private final double averageWaitMillis;
+        private final double maxWaitMillis;
+        private final long leaksDetected;
+
+        public PoolStats(int active, int idle, int total, int waiting, long borrowCount,
+                         double averageWaitMillis, double maxWaitMillis, long leaksDetected) {
+            this.active = active;
+            this.idle = idle;
+            this.total = total;
+            this.waiting = waiting;
+            this.borrowCount = borrowCount;
+            this.averageWaitMillis = averageWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+            this.leaksDetected = leaksDetected;
+        }
+
+        public int getActive() { return active; }
+        public int getIdle() { return idle; }
+        public int getTotal() { return total; }
+        public int getWaiting() { return waiting; }
+        public long getBorrowCount() { return borrowCount; }
+        public double getAverageWaitMillis() { return averageWaitMillis; }
+        public double getMaxWaitMillis() { return maxWaitMillis; }
+        public long getLeaksDetected() { return leaksDetected; }
+
+        @Override
+        public String toString() {
+            return String.format("active=%d, idle=%d, total=%d, waiting=%d, borrows=%d, avgWait=%.3fms, maxWait=%.3fms, leaks=%d",
+                    active, idle, total, waiting, borrowCount, averageWaitMillis, maxWaitMillis, leaksDetected);
+        }
+    }
+
+    /**
+     * A physical connection together with the bookkeeping the pool needs for it.
+     */
+    private static class PooledConnection {
+        final Connection physical;
+        volatile long lastReturnedAt = System.currentTimeMillis();
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+    }
+
+    /**
+     * One checkout of a pooled connection. Tracked while active for leak detection.
+     */
+    private class Lease implements InvocationHandler {
+        final PooledConnection pooled;
+        final long borrowedAt = System.currentTimeMillis();
+        final Throwable borrowTrace;
+        volatile boolean closed = false;
+        volatile boolean leakReported = false;
+
+        Lease(PooledConnection pooled, Throwable borrowTrace) {
+            this.pooled = pooled;
+            this.borrowTrace = borrowTrace;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    if (closed) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    try {
+                        return method.invoke(pooled.physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+
+    private final ConnectionFactory factory;
+    private final int minSize;
+    private final int maxSize;
+    private final long connectionTimeoutMs;
+    private final long idleTimeoutMs;
+    private final long validationIntervalMs;
+    private final long leakThresholdMs;
+
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<Lease> activeLeases = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong leaksDetected = new AtomicLong();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean shutdown = false;
+
+    /**
+     * Creates a pool and starts its housekeeping thread.
+     *
+     * @param factory opens new physical connections
+     * @param minSize number of idle connections kept open
+     * @param maxSize upper bound on open connections
+     * @param connectionTimeoutMs how long a borrower waits for a free connection before failing
+     * @param idleTimeoutMs idle time after which connections above minSize are closed
+     * @param validationIntervalMs connections idle longer than this are validated before being handed out
+     * @param leakThresholdMs checkout duration after which a lease is reported as a leak (0 disables)
+     */
+    public ConnectionPool(ConnectionFactory factory, int minSize, int maxSize, long connectionTimeoutMs,
+                          long idleTimeoutMs, long validationIntervalMs, long leakThresholdMs) {
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.factory = factory;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.connectionTimeoutMs = connectionTimeoutMs;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.validationIntervalMs = validationIntervalMs;
+        this.leakThresholdMs = leakThresholdMs;
+        this.permits = new Semaphore(maxSize, true);
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, Math.min(idleTimeoutMs, 30_000) / 2);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, blocking up to the connection timeout if the pool is exhausted.
+     * The caller must close() the returned connection to hand it back.
+     *
+     * @return a pooled connection
+     * @throws SQLException if no connection could be obtained in time or the database is unreachable
+     */
+    public Connection getConnection() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool has been shut down");
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(connectionTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        if (!acquired) {
+            throw new SQLException("Timed out after " + connectionTimeoutMs + "ms waiting for a database connection (" + getStats() + ")");
+        }
+
+        try {
+            PooledConnection pooled = takeIdleConnection();
+            if (pooled == null) {
+                pooled = new PooledConnection(factory.create());
+                totalConnections.incrementAndGet();
+            }
+            recordWait(System.nanoTime() - start);
+
+            Lease lease = new Lease(pooled, leakThresholdMs > 0 ? new Throwable("Connection borrowed here") : null);
+            activeLeases.add(lease);
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, lease);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a snapshot of the pool counters.
+     *
+     * @return the current pool statistics
+     */
+    public PoolStats getStats() {
+        long borrows = borrowCount.get();
+        double avgWait = borrows == 0 ? 0 : totalWaitNanos.get() / (double) borrows / 1_000_000.0;
+        return new PoolStats(activeLeases.size(), idle.size(), totalConnections.get(), permits.getQueueLength(),
+                borrows, avgWait, maxWaitNanos.get() / 1_000_000.0, leaksDetected.get());
+    }
+
+    /**
+     * Opens connections until at least minSize are idle. Used to warm the pool at startup.
+     */
+    public void fillToMinimum() {
+        while (!shutdown && totalConnections.get() < minSize) {
+            try {
+                idle.offerFirst(new PooledConnection(factory.create()));
+                totalConnections.incrementAndGet();
+            } catch (SQLException e) {
+                System.err.println("Error pre-opening pooled connection: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Closes all idle connections and stops the housekeeper. Connections still checked out
+     * are closed when they are returned.
+     */
+    public void shutdown() {
+        shutdown = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            closeQuietly(pooled);
+        }
+    }
+
+    private PooledConnection takeIdleConnection() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isUsable(pooled)) {
+                return pooled;
+            }
+            closeQuietly(pooled);
+        }
+        return null;
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        try {
+            if (pooled.physical.isClosed()) {
+                return false;
+            }
+            if (System.currentTimeMillis() - pooled.lastReturnedAt >= validationIntervalMs) {
+                return pooled.physical.isValid(5);
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(Lease lease) {
+        activeLeases.remove(lease);
+        PooledConnection pooled = lease.pooled;
+        try {
+            boolean reusable = !shutdown && !pooled.physical.isClosed();
+            if (reusable && !pooled.physical.getAutoCommit()) {
+                // Never hand out a connection with a half-finished transaction
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            if (reusable) {
+                pooled.lastReturnedAt = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+            } else {
+                closeQuietly(pooled);
+            }
+        } catch (SQLException e) {
+            closeQuietly(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    private void closeQuietly(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+
+            // Evict connections that have been idle too long, oldest first, keeping minSize open
+            PooledConnection oldest;
+            while (totalConnections.get() > minSize
+                    && (oldest = idle.peekLast()) != null
+                    && now - oldest.lastReturnedAt > idleTimeoutMs) {
+                if (idle.removeLastOccurrence(oldest)) {
+                    closeQuietly(oldest);
+                }
+            }
+
+            fillToMinimum();
+
+            if (leakThresholdMs > 0) {
+                for (Lease lease : activeLeases) {
+                    if (!lease.leakReported && now - lease.borrowedAt > leakThresholdMs) {
+                        lease.leakReported = true;
+                        leaksDetected.incrementAndGet();
+                        System.err.println("Possible connection leak: connection held for " + (now - lease.borrowedAt) + "ms");
+                        lease.borrowTrace.printStackTrace();
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Error in connection pool housekeeping: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
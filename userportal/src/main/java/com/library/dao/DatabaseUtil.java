@@ -15,127 +15,137 @@ public class DatabaseUtil {
      * - DB_NAME (default: postgres)
      * - DB_USER (default: postgres)
      * - DB_PASS (default: your password)
+     *
+     * Connection pool settings (system property / environment variable):
+     * - db.pool.min / DB_POOL_MIN (default: 2) idle connections kept open
+     * - db.pool.max / DB_POOL_MAX (default: 10) maximum open connections
+     * - db.pool.timeout / DB_POOL_TIMEOUT (default: 30000) ms to wait for a free connection
+     * - db.pool.idleTimeout / DB_POOL_IDLE_TIMEOUT (default: 300000) ms before extra idle connections are closed
+     * - db.pool.validationInterval / DB_POOL_VALIDATION_INTERVAL (default: 5000) ms of idleness before a connection is re-validated
+     * - db.pool.leakThreshold / DB_POOL_LEAK_THRESHOLD (default: 60000) ms a connection may be held before it is reported, 0 disables
      */
 
-    public static Connection getConnection() throws SQLException {
-        String host = System.getProperty("db.host", System.getenv().getOrDefault("DB_HOST", "db.yctoxgzswavkcxscoxyk.supabase.co"));
-        String port = System.getProperty("db.port", System.getenv().getOrDefault("DB_PORT", "5432"));
-        String name = System.getProperty("db.name", System.getenv().getOrDefault("DB_NAME", "postgres"));
-        String user = System.getProperty("db.user", System.getenv().getOrDefault("DB_USER", "postgres"));
-        String pass = System.getProperty("db.pass", System.getenv().getOrDefault("DB_PASS", "2005"));
-
-        String url = String.format("jdbc:postgresql://%s:%s/%s?sslmode=require&connectTimeout=30&socketTimeout=30", host, port, name);
+    private static volatile ConnectionPool pool;
+    private static boolean shutdownHookRegistered = false;
 
+    static {
         try {
             Class.forName("org.postgresql.Driver");
         } catch (ClassNotFoundException e) {
             System.err.println("PostgreSQL JDBC Driver not found. Add the PostgreSQL connector dependency.");
             e.printStackTrace();
         }
-        return DriverManager.getConnection(url, user, pass);
     }
 
-    public static void initializeDatabase() {
-        try (Connection conn = getConnection(); Statement stmt = conn.createStatement()) {
+    /**
+     * Borrows a connection from the shared pool. Closing the returned connection
+     * hands it back to the pool.
+     *
+     * @return a pooled database connection
+     * @throws SQLException if no connection could be obtained
+     */
+    public static Connection getConnection() throws SQLException {
+        return getPool().getConnection();
+    }
 
-            stmt.execute("CREATE TABLE IF NOT EXISTS admins (" +
-                    "id SERIAL PRIMARY KEY, " +
-                    "admin_id VARCHAR(50), " +
-                    "name VARCHAR(100), " +
-                    "email VARCHAR(100), " +
-                    "mobile VARCHAR(15), " +
-                    "password_hash VARCHAR(255))");
-
-            stmt.execute("CREATE TABLE IF NOT EXISTS students (" +
-                    "id SERIAL PRIMARY KEY, " +
-                    "name VARCHAR(100), " +
-                    "student_id VARCHAR(50), " +
-                    "email VARCHAR(100), " +
-                    "mobile VARCHAR(15), " +
-                    "rfid VARCHAR(50), " +
-                    "course VARCHAR(100), " +
-                    "active BOOLEAN DEFAULT TRUE)");
-
-            stmt.execute("CREATE TABLE IF NOT EXISTS faculty (" +
-                    "id SERIAL PRIMARY KEY, " +
-                    "name VARCHAR(100), " +
-                    "faculty_id VARCHAR(50), " +
-                    "email VARCHAR(100), " +
-                    "mobile VARCHAR(15), " +
-                    "rfid VARCHAR(50), " +
-                    "active BOOLEAN DEFAULT TRUE)");
-
-            stmt.execute("CREATE TABLE IF NOT EXISTS categories (" +
-                    "id SERIAL PRIMARY KEY, " +
-                    "name VARCHAR(100))");
-
-            stmt.execute("CREATE TABLE IF NOT EXISTS books (" +
-                    "id SERIAL PRIMARY KEY, " +
-                    "name VARCHAR(100), " +
-                    "author VARCHAR(100), " +
-                    "barcode VARCHAR(50), " +
-                    "category_id INT REFERENCES categories(id), " +
-                    "quantity INT DEFAULT 0, " +
-                    "available BOOLEAN DEFAULT TRUE)");
-
-            stmt.execute("CREATE TABLE IF NOT EXISTS issued_books (" +
-                    "id SERIAL PRIMARY KEY, " +
-                    "student_id INT REFERENCES students(id), " +
-                    "faculty_id INT REFERENCES faculty(id), " +
-                    "book_id INT REFERENCES books(id), " +
-                    "issue_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
-
-            stmt.execute("CREATE TABLE IF NOT EXISTS returned_books (" +
-                    "id SERIAL PRIMARY KEY, " +
-                    "student_id INT REFERENCES students(id), " +
-                    "book_id INT REFERENCES books(id), " +
-                    "return_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
-
-            stmt.execute("CREATE TABLE IF NOT EXISTS logs (" +
-                    "id SERIAL PRIMARY KEY, " +
-                    "action VARCHAR(255), " +
-                    "timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
-
-            // Run migrations for existing tables
-            runMigrations(conn);
-
-            System.out.println("Database initialized successfully for Supabase PostgreSQL.");
+    /**
+     * Returns a snapshot of the connection pool counters (active/idle/wait time) for troubleshooting.
+     *
+     * @return the current pool statistics
+     */
+    public static ConnectionPool.PoolStats getPoolStats() {
+        return getPool().getStats();
+    }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
+    /**
+     * Opens the pool's minimum number of connections ahead of time so the first query
+     * does not pay for the connection handshake.
+     *
+     * @throws SQLException if the database cannot be reached
+     */
+    public static void warmUpPool() throws SQLException {
+        ConnectionPool p = getPool();
+        p.getConnection().close();
+        p.fillToMinimum();
+    }
+
+    /**
+     * Closes all pooled connections. Called automatically on JVM shutdown.
+     */
+    public static synchronized void shutdownPool() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
         }
     }
 
-    public static void clearAllData() {
-        try (Connection conn = getConnection(); Statement stmt = conn.createStatement()) {
+    private static ConnectionPool getPool() {
+        ConnectionPool p = pool;
+        if (p == null) {
+            synchronized (DatabaseUtil.class) {
+                p = pool;
+                if (p == null) {
+                    p = new ConnectionPool(DatabaseUtil::openPhysicalConnection,
+                            Integer.parseInt(setting("db.pool.min", "DB_POOL_MIN", "2")),
+                            Integer.parseInt(setting("db.pool.max", "DB_POOL_MAX", "10")),
+                            Long.parseLong(setting("db.pool.timeout", "DB_POOL_TIMEOUT", "30000")),
+                            Long.parseLong(setting("db.pool.idleTimeout", "DB_POOL_IDLE_TIMEOUT", "300000")),
+                            Long.parseLong(setting("db.pool.validationInterval", "DB_POOL_VALIDATION_INTERVAL", "5000")),
+                            Long.parseLong(setting("db.pool.leakThreshold", "DB_POOL_LEAK_THRESHOLD", "60000")));
+                    pool = p;
+                    if (!shutdownHookRegistered) {
+                        Runtime.getRuntime().addShutdownHook(new Thread(DatabaseUtil::shutdownPool, "db-pool-shutdown"));
+                        shutdownHookRegistered = true;
+                    }
+                }
+            }
+        }
+        return p;
+    }
 
-            // PostgreSQL me TRUNCATE CASCADE use karke foreign key constraints handle karo
-            stmt.execute("TRUNCATE TABLE logs, issued_books, returned_books, books, categories, faculty, students, admins RESTART IDENTITY CASCADE");
+    /**
+     * Opens a new connection outside the pool, for long-lived sessions such as LISTEN
+     * that must not be handed to other callers. The caller closes it.
+     */
+    static Connection openPhysicalConnection() throws SQLException {
+        String host = setting("db.host", "DB_HOST", "db.yctoxgzswavkcxscoxyk.supabase.co");
+        String port = setting("db.port", "DB_PORT", "5432");
+        String name = setting("db.name", "DB_NAME", "postgres");
+        String user = setting("db.user", "DB_USER", "postgres");
+        String pass = setting("db.pass", "DB_PASS", "2005");
 
-            System.out.println("All data cleared from the database.");
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        String url = String.format("jdbc:postgresql://%s:%s/%s?sslmode=require&connectTimeout=30&socketTimeout=30", host, port, name);
+        return DriverManager.getConnection(url, user, pass);
+    }
+
+    private static String setting(String property, String envVar, String defaultValue) {
+        return System.getProperty(property, System.getenv().getOrDefault(envVar, defaultValue));
     }
 
     /**
-     * Runs database migrations to update existing tables with new columns.
-     * @param conn the database connection
+     * Brings the database schema up to date through {@link SchemaMigrator}.
+     * When the schema is already current this is a single query against schema_version.
      */
-    private static void runMigrations(Connection conn) {
-        try (Statement stmt = conn.createStatement()) {
-            // Add available column to books table if it doesn't exist
-            stmt.execute("ALTER TABLE books ADD COLUMN IF NOT EXISTS available BOOLEAN DEFAULT TRUE");
+    public static void initializeDatabase() {
+        try (Connection conn = getConnection()) {
+            int applied = SchemaMigrator.migrate(conn);
+            if (applied > 0) {
+                System.out.println("Database initialized successfully for Supabase PostgreSQL (" + applied + " migration(s) applied).");
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
 
-            // Add faculty_id column to issued_books table if it doesn't exist
-            stmt.execute("ALTER TABLE issued_books ADD COLUMN IF NOT EXISTS faculty_id INT REFERENCES faculty(id)");
+    public static void clearAllData() {
+        try (Connection conn = getConnection(); Statement stmt = conn.createStatement()) {
 
-            // Add faculty_id column to returned_books table if it doesn't exist
-            stmt.execute("ALTER TABLE returned_books ADD COLUMN IF NOT EXISTS faculty_id INT REFERENCES faculty(id)");
+            // PostgreSQL me TRUNCATE CASCADE use karke foreign key constraints handle karo
+            stmt.execute("TRUNCATE TABLE logs, issued_books, returned_books, books, categories, faculty, students, admins RESTART IDENTITY CASCADE");
+            CatalogCache.invalidate();
 
-            System.out.println("Database migrations completed successfully.");
+            System.out.println("All data cleared from the database.");
         } catch (SQLException e) {
-            System.err.println("Error running migrations: " + e.getMessage());
             e.printStackTrace();
         }
     }
@@ -0,0 +1,158 @@
+package com.library.dao;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Data access for the email_outbox table, the durable queue of notification emails.
+ *
+ * Notices are added with {@link #enqueue} on the caller's connection, inside the transaction that issues or returns
+ * the books, so a notice exists exactly when the change it describes was committed. {@link com.library.util.EmailQueue}
+ * claims due notices, sends them and records the outcome.
+ *
+ * Claiming a notice does not hold a lock while it is sent; it pushes next_attempt_at forward by a lease instead.
+ * If the process stops between sending and {@link #markSent}, the notice becomes due again once the lease runs out
+ * and is sent again, so every notice is delivered at least once.
+ */
+public class EmailOutboxDAO {
+
+    /**
+     * A claimed notice.
+     */
+    public static final class Notice {
+        public final long id;
+        public final String recipient;
+        public final String subject;
+        public final String header;
+        public final String item;
+        public final String footer;
+        public final int attempts;
+        public final Timestamp createdAt;
+
+        Notice(ResultSet rs) throws SQLException {
+            id = rs.getLong("id");
+            recipient = rs.getString("recipient");
+            subject = rs.getString("subject");
+            header = rs.getString("header");
+            item = rs.getString("item");
+            footer = rs.getString("footer");
+            attempts = rs.getInt("attempts");
+            createdAt = rs.getTimestamp("created_at");
+        }
+    }
+
+    private static final String INSERT_SQL =
+            "INSERT INTO email_outbox (recipient, subject, header, item, footer) VALUES (?, ?, ?, ?, ?)";
+
+    // SKIP LOCKED lets several workers or kiosks claim at once without taking the same notices
+    private static final String CLAIM_SQL =
+            "UPDATE email_outbox SET attempts = attempts + 1, " +
+            "next_attempt_at = CURRENT_TIMESTAMP + ? * INTERVAL '1 millisecond' " +
+            "WHERE id IN (SELECT id FROM email_outbox WHERE status = 'pending' AND next_attempt_at <= CURRENT_TIMESTAMP " +
+            "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, recipient, subject, header, item, footer, attempts, created_at";
+
+    // Waits retryDelay * 2^(attempts - 1) before the next attempt, or dead-letters after the last one
+    private static final String FAIL_SQL =
+            "UPDATE email_outbox SET last_error = ?, " +
+            "status = CASE WHEN attempts >= ? THEN 'dead' ELSE 'pending' END, " +
+            "next_attempt_at = CURRENT_TIMESTAMP + ? * POWER(2, attempts - 1) * INTERVAL '1 millisecond' " +
+            "WHERE id = ANY(?) RETURNING status";
+
+    /**
+     * Adds a notice in the caller's transaction. Notices to the same recipient with the same subject that are
+     * claimed together are sent as one digest.
+     *
+     * @param conn      the connection of the transaction that the notice belongs to
+     * @param recipient the recipient's address
+     * @param subject   the subject line
+     * @param header    the opening of the message, used once per digest
+     * @param item      the part specific to this notice
+     * @param footer    the closing of the message; the last notice's footer is used
+     * @throws SQLException if the notice could not be written, which should roll back the transaction
+     */
+    public static void enqueue(Connection conn, String recipient, String subject, String header, String item,
+                               String footer) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+            stmt.setString(1, recipient);
+            stmt.setString(2, subject);
+            stmt.setString(3, header);
+            stmt.setString(4, item);
+            stmt.setString(5, footer);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Claims due notices and counts the attempt.
+     *
+     * @param limit   maximum number of notices to claim
+     * @param leaseMs how long the notices stay claimed before they are due again
+     * @return the claimed notices, oldest first
+     */
+    public List<Notice> claimDue(int limit, long leaseMs) throws SQLException {
+        List<Notice> notices = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(CLAIM_SQL)) {
+            stmt.setLong(1, leaseMs);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    notices.add(new Notice(rs));
+                }
+            }
+        }
+        notices.sort(Comparator.comparingLong(n -> n.id));
+        return notices;
+    }
+
+    /**
+     * Records that notices were delivered.
+     */
+    public void markSent(List<Long> ids) throws SQLException {
+        String sql = "UPDATE email_outbox SET status = 'sent', sent_at = CURRENT_TIMESTAMP, last_error = NULL WHERE id = ANY(?)";
+        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, conn.createArrayOf("bigint", ids.toArray()));
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Records a failed attempt and schedules the next one with exponential backoff.
+     *
+     * @param ids          the notices that could not be sent
+     * @param error        the reason, kept for troubleshooting
+     * @param maxAttempts  notices that have had this many attempts are moved to the 'dead' status
+     * @param retryDelayMs the delay before the first retry; it doubles with each attempt
+     * @return the number of notices that were dead-lettered
+     */
+    public int markFailed(List<Long> ids, String error, int maxAttempts, long retryDelayMs) throws SQLException {
+        int dead = 0;
+        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(FAIL_SQL)) {
+            stmt.setString(1, error);
+            stmt.setInt(2, maxAttempts);
+            stmt.setLong(3, retryDelayMs);
+            stmt.setArray(4, conn.createArrayOf("bigint", ids.toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if ("dead".equals(rs.getString("status"))) {
+                        dead++;
+                    }
+                }
+            }
+        }
+        return dead;
+    }
+
+    /**
+     * @return the number of notices waiting to be sent, including ones waiting for a retry
+     */
+    public int countPending() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM email_outbox WHERE status = 'pending'");
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.library.dao;
 
 import java.sql.*;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Data Access Object (DAO) for IssuedBook entities.
@@ -56,6 +60,155 @@ public class IssuedBookDAO {
         return books;
     }
 
+    /**
+     * Retrieves the books issued to a borrower on the caller's connection, so books issued or returned
+     * in the caller's open transaction are taken into account.
+     *
+     * @param conn the connection to use
+     * @param userType whether the borrower is a student or faculty member
+     * @param userId the ID of the student or faculty member
+     * @return a list of [book_title, barcode, author] arrays
+     */
+    public List<String[]> getIssuedBooks(Connection conn, BorrowerType userType, int userId) throws SQLException {
+        String sql = "SELECT b.name, b.barcode, b.author FROM issued_books ib JOIN books b ON ib.book_id = b.id WHERE ib." + userType.getColumn() + " = ?";
+        List<String[]> books = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    books.add(new String[]{rs.getString("name"), rs.getString("barcode"), rs.getString("author")});
+                }
+            }
+        }
+        return books;
+    }
+
+    /**
+     * Maximum number of books a student or faculty member may hold at once.
+     */
+    public static final int MAX_ISSUED_BOOKS = 5;
+
+    /**
+     * Outcome of an issue attempt.
+     */
+    public enum IssueResult {
+        /** The book was issued. */
+        ISSUED,
+        /** Every copy of the book is already issued. */
+        NO_COPIES,
+        /** No book exists with the given barcode. */
+        NOT_FOUND,
+        /** The borrower already holds {@link #MAX_ISSUED_BOOKS} books. */
+        LIMIT_REACHED,
+        /** The book could have been issued, but the batch was not committed because another book could not. */
+        NOT_ATTEMPTED,
+        /** The operation failed because of a database error. */
+        ERROR
+    }
+
+    /**
+     * Kind of borrower a book is issued to, mapped to its column in issued_books.
+     */
+    public enum BorrowerType {
+        STUDENT("student_id", "students"),
+        FACULTY("faculty_id", "faculty");
+
+        private final String column;
+        private final String table;
+
+        BorrowerType(String column, String table) {
+            this.column = column;
+            this.table = table;
+        }
+
+        String getColumn() {
+            return column;
+        }
+
+        /**
+         * @return the borrower's own table, which holds their issued_count
+         */
+        String getTable() {
+            return table;
+        }
+    }
+
+    /**
+     * Outcome of a batch issue. Nothing is committed unless every barcode could be issued,
+     * in which case {@link #isCommitted()} is true.
+     */
+    public static class BatchIssueResult {
+        private final List<Map.Entry<String, IssueResult>> outcomes;
+        private final boolean committed;
+
+        BatchIssueResult(List<Map.Entry<String, IssueResult>> outcomes, boolean committed) {
+            this.outcomes = Collections.unmodifiableList(outcomes);
+            this.committed = committed;
+        }
+
+        /**
+         * @return barcode and outcome for each requested book, one per position in the request, so a barcode
+         *         requested twice has two entries
+         */
+        public List<Map.Entry<String, IssueResult>> getOutcomes() { return outcomes; }
+
+        /**
+         * @return true if all books were issued and the transaction was committed
+         */
+        public boolean isCommitted() { return committed; }
+    }
+
+    /**
+     * Writes notices, such as notification emails, for a batch issue or return on the same connection,
+     * so they are committed or rolled back together with it.
+     */
+    public interface NoticeWriter {
+        /**
+         * @param conn the connection of the open transaction
+         * @param barcodes the barcodes that were issued or returned
+         * @throws SQLException to roll back the whole batch
+         */
+        void write(Connection conn, List<String> barcodes) throws SQLException;
+    }
+
+    // Locks the book row so concurrent issues of the same title are serialized. issued_count is kept by the
+    // issued_books triggers (schema migration 9), so the availability check needs no count over issued_books
+    private static final String LOCK_BOOK_SQL =
+            "SELECT id, quantity, issued_count FROM books WHERE barcode = ? ORDER BY id LIMIT 1 FOR UPDATE";
+
+    // Locks the borrower row, after the books, so concurrent issues to one borrower cannot both pass the limit;
+    // %1$s is the borrower table (students or faculty)
+    private static final String LOCK_BORROWER_SQL = "SELECT issued_count FROM %1$s WHERE id = ? FOR UPDATE";
+
+    // Deletes one issued copy and records it in returned_books in a single statement; %1$s is the borrower column
+    private static final String ATOMIC_RETURN_SQL =
+            "WITH target AS (" +
+            "SELECT ib.id FROM issued_books ib JOIN books b ON b.id = ib.book_id " +
+            "WHERE ib.%1$s = ? AND b.barcode = ? ORDER BY ib.issue_date, ib.id LIMIT 1 FOR UPDATE OF ib), " +
+            "del AS (DELETE FROM issued_books WHERE id IN (SELECT id FROM target) " +
+            "RETURNING student_id, faculty_id, book_id) " +
+            "INSERT INTO returned_books (student_id, faculty_id, book_id) " +
+            "SELECT student_id, faculty_id, book_id FROM del";
+
+    // Locks the books of a batch return in id order, before BATCH_RETURN_SQL. Its delete triggers update each book
+    // and then the borrower row by row in no particular order, which could deadlock with a batch issue that holds
+    // the books in id order and waits for the borrower
+    private static final String LOCK_RETURN_BOOKS_SQL =
+            "SELECT id FROM books WHERE barcode = ANY(?) ORDER BY id FOR UPDATE";
+
+    // Batched form of ATOMIC_RETURN_SQL: returns as many copies of each barcode as were requested
+    private static final String BATCH_RETURN_SQL =
+            "WITH req AS (SELECT barcode, COUNT(*) AS n FROM unnest(?::varchar[]) AS r(barcode) GROUP BY barcode), " +
+            "target AS (SELECT id FROM (" +
+            "SELECT ib.id, req.n, ROW_NUMBER() OVER (PARTITION BY b.barcode ORDER BY ib.issue_date, ib.id) AS rn " +
+            "FROM issued_books ib JOIN books b ON b.id = ib.book_id JOIN req ON req.barcode = b.barcode " +
+            "WHERE ib.%1$s = ?) t WHERE rn <= n), " +
+            "del AS (DELETE FROM issued_books WHERE id IN (SELECT id FROM target) " +
+            "RETURNING student_id, faculty_id, book_id), " +
+            "ins AS (INSERT INTO returned_books (student_id, faculty_id, book_id) " +
+            "SELECT student_id, faculty_id, book_id FROM del RETURNING book_id) " +
+            "SELECT b.barcode FROM ins JOIN books b ON b.id = ins.book_id";
+
     /**
      * Issues a book to a student by inserting a record into the issued_books table.
      * Checks if the book has available copies before proceeding.
@@ -65,154 +218,347 @@ public class IssuedBookDAO {
      * @return true if the operation succeeds, false otherwise
      */
     public boolean issueBook(int studentId, String barcode) {
-        // Get book ID from barcode
-        int bookId = getBookIdByBarcode(barcode);
-        if (bookId == -1) {
-            System.err.println("Book with barcode " + barcode + " not found.");
-            return false;
-        }
+        return tryIssueBook(studentId, barcode) == IssueResult.ISSUED;
+    }
 
-        // Check if book has available copies (quantity > issued count)
-        String checkSql = "SELECT quantity FROM books WHERE id = ?";
-        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement checkStmt = conn.prepareStatement(checkSql)) {
-            checkStmt.setInt(1, bookId);
-            ResultSet rs = checkStmt.executeQuery();
-            if (rs.next()) {
-                int quantity = rs.getInt("quantity");
-                int issuedCount = getIssuedCountForBook(bookId);
-                if (issuedCount >= quantity) {
-                    System.err.println("Book with barcode " + barcode + " has no available copies (quantity: " + quantity + ", issued: " + issuedCount + ").");
-                    return false;
+    /**
+     * Issues a book to a faculty member by inserting a record into the issued_books table.
+     * Checks if the book has available copies before proceeding.
+     *
+     * @param facultyId the ID of the faculty member
+     * @param barcode the barcode of the book to issue
+     * @return true if the operation succeeds, false otherwise
+     */
+    public boolean issueBookForFaculty(int facultyId, String barcode) {
+        return tryIssueBookForFaculty(facultyId, barcode) == IssueResult.ISSUED;
+    }
+
+    /**
+     * Atomically issues a book to a student.
+     * The barcode lookup, availability check, borrower limit check and insert run in a single
+     * transaction with the book row locked, so two counters cannot hand out the last copy twice.
+     *
+     * @param studentId the ID of the student
+     * @param barcode the barcode of the book to issue
+     * @return the outcome of the issue attempt
+     */
+    public IssueResult tryIssueBook(int studentId, String barcode) {
+        return issueAtomically(BorrowerType.STUDENT, studentId, barcode);
+    }
+
+    /**
+     * Atomically issues a book to a faculty member.
+     * See {@link #tryIssueBook(int, String)} for the locking behaviour.
+     *
+     * @param facultyId the ID of the faculty member
+     * @param barcode the barcode of the book to issue
+     * @return the outcome of the issue attempt
+     */
+    public IssueResult tryIssueBookForFaculty(int facultyId, String barcode) {
+        return issueAtomically(BorrowerType.FACULTY, facultyId, barcode);
+    }
+
+    private IssueResult issueAtomically(BorrowerType borrowerType, int borrowerId, String barcode) {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                IssueResult result = issueInTransaction(conn, borrowerType, borrowerId, barcode);
+                if (result == IssueResult.ISSUED) {
+                    conn.commit();
+                } else {
+                    conn.rollback();
                 }
-            } else {
-                System.err.println("Book with barcode " + barcode + " not found.");
-                return false;
+                return result;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
         } catch (SQLException e) {
-            System.err.println("Error checking book availability: " + e.getMessage());
+            System.err.println("Error in issueBook: " + e.getMessage());
             e.printStackTrace();
-            return false;
+            return IssueResult.ERROR;
         }
+    }
 
-        // Proceed with issuing
-        String sql = "INSERT INTO issued_books (student_id, book_id) VALUES (?, ?)";
-        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, studentId);
-            stmt.setInt(2, bookId);
-            int rows = stmt.executeUpdate();
-            if (rows > 0) {
-                return true;
+    /**
+     * Runs the issue steps on a connection whose transaction is managed by the caller.
+     */
+    private IssueResult issueInTransaction(Connection conn, BorrowerType borrowerType, int borrowerId, String barcode) throws SQLException {
+        int bookId;
+        int quantity;
+        int issued;
+        try (PreparedStatement lockStmt = conn.prepareStatement(LOCK_BOOK_SQL)) {
+            lockStmt.setString(1, barcode);
+            try (ResultSet rs = lockStmt.executeQuery()) {
+                if (!rs.next()) {
+                    System.err.println("Book with barcode " + barcode + " not found.");
+                    return IssueResult.NOT_FOUND;
+                }
+                bookId = rs.getInt("id");
+                quantity = rs.getInt("quantity");
+                issued = rs.getInt("issued_count");
             }
-        } catch (SQLException e) {
-            System.err.println("Error in issueBook: " + e.getMessage());
-            e.printStackTrace();
         }
-        return false;
+        if (issued >= quantity) {
+            System.err.println("Book with barcode " + barcode + " has no available copies (quantity: " + quantity + ", issued: " + issued + ").");
+            return IssueResult.NO_COPIES;
+        }
+
+        int held = lockBorrower(conn, borrowerType, borrowerId);
+        if (held >= MAX_ISSUED_BOOKS) {
+            System.err.println("Borrower " + borrowerId + " already holds " + held + " books.");
+            return IssueResult.LIMIT_REACHED;
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO issued_books (" + borrowerType.getColumn() + ", book_id) VALUES (?, ?)")) {
+            stmt.setInt(1, borrowerId);
+            stmt.setInt(2, bookId);
+            stmt.executeUpdate();
+        }
+        return IssueResult.ISSUED;
     }
 
     /**
-     * Issues a book to a faculty member by inserting a record into the issued_books table.
-     * Checks if the book has available copies before proceeding.
+     * Locks the borrower's row for the rest of the transaction.
      *
-     * @param facultyId the ID of the faculty member
-     * @param barcode the barcode of the book to issue
-     * @return true if the operation succeeds, false otherwise
+     * @return the number of books the borrower holds
      */
-    public boolean issueBookForFaculty(int facultyId, String barcode) {
-        // Get book ID from barcode
-        int bookId = getBookIdByBarcode(barcode);
-        if (bookId == -1) {
-            System.err.println("Book with barcode " + barcode + " not found.");
-            return false;
+    private int lockBorrower(Connection conn, BorrowerType borrowerType, int borrowerId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(String.format(LOCK_BORROWER_SQL, borrowerType.getTable()))) {
+            stmt.setInt(1, borrowerId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                // An unknown borrower fails on the issued_books foreign key when the book is inserted
+                return rs.next() ? rs.getInt(1) : 0;
+            }
         }
+    }
 
-        // Check if book has available copies (quantity > issued count)
-        String checkSql = "SELECT quantity FROM books WHERE id = ?";
-        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement checkStmt = conn.prepareStatement(checkSql)) {
-            checkStmt.setInt(1, bookId);
-            ResultSet rs = checkStmt.executeQuery();
-            if (rs.next()) {
-                int quantity = rs.getInt("quantity");
-                int issuedCount = getIssuedCountForBook(bookId);
-                if (issuedCount >= quantity) {
-                    System.err.println("Book with barcode " + barcode + " has no available copies (quantity: " + quantity + ", issued: " + issuedCount + ").");
-                    return false;
+    /**
+     * Issues several books to one borrower in a single all-or-nothing transaction.
+     * The requested books are locked in id order, availability and the {@link #MAX_ISSUED_BOOKS}
+     * limit are checked once for the whole batch, and the inserts are sent as one JDBC batch,
+     * so the round-trip count no longer grows with the number of books.
+     *
+     * @param userId the ID of the student or faculty member
+     * @param userType whether the borrower is a student or faculty member
+     * @param barcodes the barcodes of the books to issue
+     * @return the per-barcode outcomes and whether the batch was committed
+     */
+    public BatchIssueResult issueBooks(int userId, BorrowerType userType, List<String> barcodes) {
+        return issueBooks(userId, userType, barcodes, null);
+    }
+
+    /**
+     * Issues several books like {@link #issueBooks(int, BorrowerType, List)} and, if they can all be issued,
+     * writes notices for them in the same transaction.
+     *
+     * @param userId the ID of the student or faculty member
+     * @param userType whether the borrower is a student or faculty member
+     * @param barcodes the barcodes of the books to issue
+     * @param notices called before the commit; may be null
+     * @return the per-barcode outcomes and whether the batch was committed
+     */
+    public BatchIssueResult issueBooks(int userId, BorrowerType userType, List<String> barcodes, NoticeWriter notices) {
+        List<Map.Entry<String, IssueResult>> outcomes = new ArrayList<>();
+        if (barcodes.isEmpty()) {
+            return new BatchIssueResult(outcomes, false);
+        }
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                boolean committed = issueBatchInTransaction(conn, userType, userId, barcodes, outcomes);
+                if (committed) {
+                    if (notices != null) {
+                        notices.write(conn, barcodes);
+                    }
+                    conn.commit();
+                } else {
+                    conn.rollback();
                 }
-            } else {
-                System.err.println("Book with barcode " + barcode + " not found.");
-                return false;
+                return new BatchIssueResult(outcomes, committed);
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
         } catch (SQLException e) {
-            System.err.println("Error checking book availability: " + e.getMessage());
+            System.err.println("Error in issueBooks: " + e.getMessage());
             e.printStackTrace();
+            outcomes.clear();
+            for (String barcode : barcodes) {
+                outcomes.add(new AbstractMap.SimpleImmutableEntry<>(barcode, IssueResult.ERROR));
+            }
+            return new BatchIssueResult(outcomes, false);
+        }
+    }
+
+    private boolean issueBatchInTransaction(Connection conn, BorrowerType borrowerType, int borrowerId,
+                                            List<String> barcodes, List<Map.Entry<String, IssueResult>> outcomes) throws SQLException {
+        // Lock every requested book in id order so concurrent batches cannot deadlock
+        Map<String, int[]> booksByBarcode = new HashMap<>(); // barcode -> [id, quantity]
+        Map<Integer, Integer> issuedByBook = new HashMap<>();
+        String lockSql = "SELECT id, barcode, quantity, issued_count FROM books WHERE barcode = ANY(?) ORDER BY id FOR UPDATE";
+        try (PreparedStatement stmt = conn.prepareStatement(lockSql)) {
+            stmt.setArray(1, conn.createArrayOf("varchar", barcodes.toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    booksByBarcode.putIfAbsent(rs.getString("barcode"), new int[]{rs.getInt("id"), rs.getInt("quantity")});
+                    issuedByBook.put(rs.getInt("id"), rs.getInt("issued_count"));
+                }
+            }
+        }
+
+        int held = lockBorrower(conn, borrowerType, borrowerId);
+
+        List<Integer> toInsert = new ArrayList<>();
+        List<IssueResult> results = new ArrayList<>();
+        for (String barcode : barcodes) {
+            int[] book = booksByBarcode.get(barcode);
+            if (book == null) {
+                results.add(IssueResult.NOT_FOUND);
+            } else if (issuedByBook.getOrDefault(book[0], 0) >= book[1]) {
+                results.add(IssueResult.NO_COPIES);
+            } else if (held + toInsert.size() >= MAX_ISSUED_BOOKS) {
+                results.add(IssueResult.LIMIT_REACHED);
+            } else {
+                results.add(IssueResult.ISSUED);
+                issuedByBook.merge(book[0], 1, Integer::sum);
+                toInsert.add(book[0]);
+            }
+        }
+        boolean complete = toInsert.size() == barcodes.size();
+        for (int i = 0; i < barcodes.size(); i++) {
+            // Nothing is issued from a rejected batch, including the books that passed
+            IssueResult result = !complete && results.get(i) == IssueResult.ISSUED ? IssueResult.NOT_ATTEMPTED : results.get(i);
+            outcomes.add(new AbstractMap.SimpleImmutableEntry<>(barcodes.get(i), result));
+        }
+        if (!complete) {
+            System.err.println("Batch issue for borrower " + borrowerId + " rejected: " + outcomes);
             return false;
         }
 
-        // Proceed with issuing
-        String sql = "INSERT INTO issued_books (faculty_id, book_id) VALUES (?, ?)";
-        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, facultyId);
-            stmt.setInt(2, bookId);
-            int rows = stmt.executeUpdate();
-            if (rows > 0) {
-                return true;
+        String insertSql = "INSERT INTO issued_books (" + borrowerType.getColumn() + ", book_id) VALUES (?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(insertSql)) {
+            for (int bookId : toInsert) {
+                stmt.setInt(1, borrowerId);
+                stmt.setInt(2, bookId);
+                stmt.addBatch();
             }
-        } catch (SQLException e) {
-            System.err.println("Error in issueBookForFaculty: " + e.getMessage());
-            e.printStackTrace();
+            stmt.executeBatch();
         }
-        return false;
+        return true;
     }
 
     /**
-     * Returns a book by deleting the corresponding record from the issued_books table.
+     * Returns a book by moving one matching record from issued_books to returned_books.
      * Uses the student's ID and the book's barcode to identify the record.
-     * Book availability is calculated dynamically based on quantity vs issued count.
+     * The delete and the history insert happen in one statement, so they succeed or fail together.
      *
      * @param studentId the ID of the student
      * @param barcode the barcode of the book to return
      * @return true if the operation succeeds, false otherwise
      */
     public boolean returnBook(int studentId, String barcode) {
-        String sql = "DELETE FROM issued_books WHERE student_id = ? AND book_id = (SELECT id FROM books WHERE barcode = ?)";
-        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, studentId);
-            stmt.setString(2, barcode);
-            int rows = stmt.executeUpdate();
-            if (rows > 0) {
-                return true;
-            } else {
-                System.err.println("No issued book found for student " + studentId + " and barcode " + barcode);
-            }
-        } catch (SQLException e) {
-            System.err.println("Error in returnBook: " + e.getMessage());
-            e.printStackTrace();
-        }
-        return false;
+        return returnAtomically(BorrowerType.STUDENT, studentId, barcode, "returnBook");
     }
 
     /**
-     * Returns a book by deleting the corresponding record from the issued_books table.
+     * Returns a book by moving one matching record from issued_books to returned_books.
      * Uses the faculty member's ID and the book's barcode to identify the record.
-     * Book availability is calculated dynamically based on quantity vs issued count.
+     * The delete and the history insert happen in one statement, so they succeed or fail together.
      *
      * @param facultyId the ID of the faculty member
      * @param barcode the barcode of the book to return
      * @return true if the operation succeeds, false otherwise
      */
     public boolean returnBookForFaculty(int facultyId, String barcode) {
-        String sql = "DELETE FROM issued_books WHERE faculty_id = ? AND book_id = (SELECT id FROM books WHERE barcode = ?)";
-        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, facultyId);
+        return returnAtomically(BorrowerType.FACULTY, facultyId, barcode, "returnBookForFaculty");
+    }
+
+    /**
+     * Returns several books from one borrower in one transaction, locking the books in id order first.
+     * Each barcode is returned at most as many times as it appears in the list; barcodes
+     * that are not currently issued to the borrower are simply left out of the result.
+     *
+     * @param userId the ID of the student or faculty member
+     * @param userType whether the borrower is a student or faculty member
+     * @param barcodes the barcodes of the books being returned
+     * @return the barcodes that were actually returned, one entry per returned copy
+     */
+    public List<String> returnBooks(int userId, BorrowerType userType, List<String> barcodes) {
+        return returnBooks(userId, userType, barcodes, null);
+    }
+
+    /**
+     * Returns several books like {@link #returnBooks(int, BorrowerType, List)} and writes notices for the
+     * returned ones in the same transaction.
+     *
+     * @param userId the ID of the student or faculty member
+     * @param userType whether the borrower is a student or faculty member
+     * @param barcodes the barcodes of the books being returned
+     * @param notices called with the returned barcodes before the commit, if any were returned; may be null
+     * @return the barcodes that were actually returned, one entry per returned copy
+     */
+    public List<String> returnBooks(int userId, BorrowerType userType, List<String> barcodes, NoticeWriter notices) {
+        List<String> returned = new ArrayList<>();
+        if (barcodes.isEmpty()) {
+            return returned;
+        }
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                returned = runBatchReturn(conn, userType, userId, barcodes);
+                if (notices != null && !returned.isEmpty()) {
+                    notices.write(conn, returned);
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error in returnBooks: " + e.getMessage());
+            e.printStackTrace();
+            returned = new ArrayList<>();
+        }
+        return returned;
+    }
+
+    private List<String> runBatchReturn(Connection conn, BorrowerType userType, int userId, List<String> barcodes) throws SQLException {
+        List<String> returned = new ArrayList<>();
+        try (PreparedStatement lockStmt = conn.prepareStatement(LOCK_RETURN_BOOKS_SQL)) {
+            lockStmt.setArray(1, conn.createArrayOf("varchar", barcodes.toArray()));
+            lockStmt.executeQuery().close();
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(String.format(BATCH_RETURN_SQL, userType.getColumn()))) {
+            stmt.setArray(1, conn.createArrayOf("varchar", barcodes.toArray()));
+            stmt.setInt(2, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    returned.add(rs.getString("barcode"));
+                }
+            }
+        }
+        return returned;
+    }
+
+    private boolean returnAtomically(BorrowerType borrowerType, int borrowerId, String barcode, String operation) {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(String.format(ATOMIC_RETURN_SQL, borrowerType.getColumn()))) {
+            stmt.setInt(1, borrowerId);
             stmt.setString(2, barcode);
-            int rows = stmt.executeUpdate();
-            if (rows > 0) {
+            if (stmt.executeUpdate() > 0) {
                 return true;
-            } else {
-                System.err.println("No issued book found for faculty " + facultyId + " and barcode " + barcode);
             }
+            System.err.println("No issued book found for " + borrowerType.name().toLowerCase() + " " + borrowerId + " and barcode " + barcode);
         } catch (SQLException e) {
-            System.err.println("Error in returnBookForFaculty: " + e.getMessage());
+            System.err.println("Error in " + operation + ": " + e.getMessage());
             e.printStackTrace();
         }
         return false;
@@ -225,7 +571,7 @@ public class IssuedBookDAO {
      * @return the number of issued books
      */
     public int getIssuedCountForStudent(int studentId) {
-        String sql = "SELECT COUNT(*) FROM issued_books WHERE student_id = ?";
+        String sql = "SELECT issued_count FROM students WHERE id = ?";
         try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, studentId);
             ResultSet rs = stmt.executeQuery();
@@ -246,7 +592,7 @@ public class IssuedBookDAO {
      * @return the number of issued books
      */
     public int getIssuedCountForFaculty(int facultyId) {
-        String sql = "SELECT COUNT(*) FROM issued_books WHERE faculty_id = ?";
+        String sql = "SELECT issued_count FROM faculty WHERE id = ?";
         try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, facultyId);
             ResultSet rs = stmt.executeQuery();
@@ -260,6 +606,25 @@ public class IssuedBookDAO {
         return 0;
     }
 
+    /**
+     * Retrieves the number of issued copies of every book that has any, with one query.
+     *
+     * @return book ID to number of issued copies; books with none issued are absent
+     */
+    public Map<Integer, Integer> getIssuedCounts() {
+        Map<Integer, Integer> counts = new HashMap<>();
+        String sql = "SELECT id, issued_count FROM books WHERE issued_count > 0";
+        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                counts.put(rs.getInt(1), rs.getInt(2));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error in getIssuedCounts: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return counts;
+    }
+
     /**
      * Retrieves the count of issued copies for a specific book.
      *
@@ -267,7 +632,7 @@ public class IssuedBookDAO {
      * @return the number of issued copies
      */
     public int getIssuedCountForBook(int bookId) {
-        String sql = "SELECT COUNT(*) FROM issued_books WHERE book_id = ?";
+        String sql = "SELECT issued_count FROM books WHERE id = ?";
         try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, bookId);
             ResultSet rs = stmt.executeQuery();
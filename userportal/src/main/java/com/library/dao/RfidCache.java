@@ -0,0 +1,223 @@
+package com.library.dao;
+
+import com.library.model.User;
+
+import java.sql.*;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory map from RFID tag to the student or faculty member it belongs to.
+ * Students and faculty share one map keyed by the normalized (trimmed, lower-case) tag, so a card tap
+ * resolves without a database round-trip. Inactive accounts are kept as well so that they can be rejected locally.
+ *
+ * The cache is loaded by {@link #warmUp()} at startup. Changes made in the admin portal (a card blocked, unblocked,
+ * re-assigned or deleted) arrive on {@link CatalogCache}'s LISTEN/NOTIFY channel (schema migration 10) and drop
+ * just the affected tags, so the next tap re-reads them; the whole cache is reloaded whenever that listener
+ * (re)connects. With {@code catalog.cache.listen=false} it is instead reloaded every
+ * {@code rfid.cache.refreshSeconds} seconds (env {@code RFID_CACHE_REFRESH_SECONDS}, default 60).
+ * Misses fall back to the database and the result is added to the cache.
+ */
+public final class RfidCache {
+
+    /**
+     * A cached identity: the user details plus whether the account is active.
+     */
+    static final class Entry {
+        final User user;
+
+        Entry(User user) {
+            this.user = user;
+        }
+
+        boolean isActive() {
+            return user.isActive();
+        }
+    }
+
+    // Students are listed first so they win if the same tag is ever registered in both tables
+    private static final String SELECT_IDENTITIES =
+            "SELECT 0 AS kind, id, name, student_id AS code, email, mobile, rfid, course, active FROM students WHERE rfid IS NOT NULL %1$s " +
+            "UNION ALL " +
+            "SELECT 1 AS kind, id, name, faculty_id AS code, email, mobile, rfid, '' AS course, active FROM faculty WHERE rfid IS NOT NULL %1$s " +
+            "ORDER BY kind";
+
+    // A reload that overlapped an invalidation is retried this many times before it gives up
+    private static final int MAX_REFRESH_ATTEMPTS = 3;
+
+    private static volatile Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private static volatile boolean warmed = false;
+    // Bumped by every invalidation so a load that overlapped a change is not installed
+    private static final AtomicLong version = new AtomicLong();
+    private static ScheduledExecutorService refresher;
+
+    private RfidCache() {
+    }
+
+    /**
+     * Loads every student and faculty RFID into memory and, if change notifications are off, starts the
+     * periodic reload. Safe to call more than once; later calls just reload the cache.
+     */
+    public static synchronized void warmUp() {
+        refresh();
+        if (refresher == null && !CatalogCache.LISTEN) {
+            long interval = Long.parseLong(System.getProperty("rfid.cache.refreshSeconds",
+                    System.getenv().getOrDefault("RFID_CACHE_REFRESH_SECONDS", "60")));
+            refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "rfid-cache-refresh");
+                t.setDaemon(true);
+                return t;
+            });
+            refresher.scheduleWithFixedDelay(RfidCache::refresh, interval, interval, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Reloads all identities with a single query and swaps them in atomically.
+     * On failure the previous contents are kept.
+     */
+    public static void refresh() {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(String.format(SELECT_IDENTITIES, ""))) {
+            for (int attempt = 0; attempt < MAX_REFRESH_ATTEMPTS; attempt++) {
+                long loadVersion = version.get();
+                Map<String, Entry> loaded = new HashMap<>();
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Entry entry = readEntry(rs);
+                        merge(loaded, normalize(entry.user.getRfid()), entry);
+                    }
+                }
+                synchronized (RfidCache.class) {
+                    if (version.get() == loadVersion) {
+                        entries = new ConcurrentHashMap<>(loaded);
+                        warmed = true;
+                        return;
+                    }
+                }
+            }
+            System.err.println("RFID cache reload kept overlapping card changes; serving the previous contents");
+        } catch (SQLException e) {
+            System.err.println("Error refreshing RFID cache: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Drops a single tag so the next tap re-reads it from the database.
+     *
+     * @param rfid the RFID tag to forget
+     */
+    public static void invalidate(String rfid) {
+        if (rfid != null) {
+            synchronized (RfidCache.class) {
+                version.incrementAndGet();
+                entries.remove(normalize(rfid));
+            }
+        }
+    }
+
+    /**
+     * Applies one change notification: "students:&lt;rfid&gt;" or "faculty:&lt;rfid&gt;" drops that tag,
+     * a bare table name (a TRUNCATE) reloads everything.
+     */
+    static void apply(String payload) {
+        int colon = payload.indexOf(':');
+        if (colon >= 0) {
+            invalidate(payload.substring(colon + 1));
+        } else {
+            version.incrementAndGet();
+            refresh();
+        }
+    }
+
+    /**
+     * @return true once the cache has been loaded at least once
+     */
+    public static boolean isWarmed() {
+        return warmed;
+    }
+
+    /**
+     * Resolves a tag, first from memory and then from the database.
+     *
+     * @param rfid the raw RFID tag as read from the card
+     * @return the cached entry, or null if the tag is not registered
+     * @throws SQLException if the database fallback fails
+     */
+    static Entry lookup(String rfid) throws SQLException {
+        String key = normalize(rfid);
+        Entry cached = entries.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long loadVersion = version.get();
+        Entry loaded = null;
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(String.format(SELECT_IDENTITIES, "AND LOWER(rfid) = ?"))) {
+            stmt.setString(1, key);
+            stmt.setString(2, key);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Entry entry = readEntry(rs);
+                    if (loaded == null || (!loaded.isActive() && entry.isActive())) {
+                        loaded = entry;
+                    }
+                }
+            }
+        }
+        if (loaded != null) {
+            synchronized (RfidCache.class) {
+                // Not cached if the card changed while it was being read; the next tap reads it again
+                if (version.get() == loadVersion) {
+                    merge(entries, key, loaded);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns a copy of the cached user so callers cannot modify the shared instance.
+     */
+    static User copyOf(User source) {
+        User u = new User();
+        u.setId(source.getId());
+        u.setName(source.getName());
+        u.setStudentId(source.getStudentId());
+        u.setEmail(source.getEmail());
+        u.setMobile(source.getMobile());
+        u.setRfid(source.getRfid());
+        u.setCourse(source.getCourse());
+        u.setActive(source.isActive());
+        return u;
+    }
+
+    static String normalize(String rfid) {
+        return rfid.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // An active account takes precedence over an inactive one with the same tag
+    private static void merge(Map<String, Entry> target, String key, Entry entry) {
+        target.merge(key, entry, (existing, incoming) -> !existing.isActive() && incoming.isActive() ? incoming : existing);
+    }
+
+    private static Entry readEntry(ResultSet rs) throws SQLException {
+        User u = new User();
+        u.setId(rs.getInt("id"));
+        u.setName(rs.getString("name"));
+        u.setStudentId(rs.getString("code")); // faculty_id doubles as studentId for faculty, for compatibility
+        u.setEmail(rs.getString("email"));
+        u.setMobile(rs.getString("mobile"));
+        u.setRfid(rs.getString("rfid"));
+        u.setCourse(rs.getString("course")); // empty for faculty, which is how controllers tell them apart
+        u.setActive(rs.getBoolean("active"));
+        return new Entry(u);
+    }
+}
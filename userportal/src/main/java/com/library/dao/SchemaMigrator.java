@@ -0,0 +1,539 @@
+package com.library.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Versioned schema migrations shared by the admin and user portals.
+ *
+ * Applied migrations are recorded in the schema_version table together with a checksum of their SQL.
+ * On startup {@link #migrate(Connection)} reads that table with a single query; when every known migration
+ * is already recorded with a matching checksum nothing else is executed. Otherwise the pending migrations
+ * are applied in order, each in its own transaction, under an advisory lock so that two portals starting
+ * at the same time do not race.
+ *
+ * Both portals must ship the same migration list. New schema changes are added as a new version at the
+ * end of {@link #MIGRATIONS}; an applied migration must never be edited, or its checksum will no longer match.
+ */
+public final class SchemaMigrator {
+
+    /**
+     * A single schema version.
+     */
+    static final class Migration {
+        final int version;
+        final String description;
+        final List<String> statements;
+        final boolean tolerant;
+
+        /**
+         * @param tolerant when true, each statement runs under a savepoint and a failing statement is logged and skipped
+         */
+        Migration(int version, String description, boolean tolerant, String... statements) {
+            this.version = version;
+            this.description = description;
+            this.tolerant = tolerant;
+            this.statements = Collections.unmodifiableList(Arrays.asList(statements));
+        }
+
+        String checksum() {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                digest.update(description.getBytes(StandardCharsets.UTF_8));
+                for (String statement : statements) {
+                    digest.update((byte) '\n');
+                    digest.update(statement.getBytes(StandardCharsets.UTF_8));
+                }
+                StringBuilder hex = new StringBuilder();
+                for (byte b : digest.digest()) {
+                    hex.append(String.format("%02x", b));
+                }
+                return hex.toString();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    }
+
+    // Arbitrary key for pg_advisory_xact_lock, shared by both portals
+    private static final long MIGRATION_LOCK_KEY = 7_314_202_501L;
+
+    private static final String CREATE_VERSION_TABLE = "CREATE TABLE IF NOT EXISTS schema_version (" +
+            "version INT PRIMARY KEY, " +
+            "description VARCHAR(200), " +
+            "checksum VARCHAR(64), " +
+            "installed_on TIMESTAMP DEFAULT CURRENT_TIMESTAMP)";
+
+    static final List<Migration> MIGRATIONS = Collections.unmodifiableList(Arrays.asList(
+            new Migration(1, "Baseline schema", false,
+                    "CREATE TABLE IF NOT EXISTS admins (" +
+                            "id SERIAL PRIMARY KEY, " +
+                            "admin_id VARCHAR(50), " +
+                            "name VARCHAR(100), " +
+                            "email VARCHAR(100), " +
+                            "mobile VARCHAR(15), " +
+                            "password_hash VARCHAR(255))",
+                    "CREATE TABLE IF NOT EXISTS students (" +
+                            "id SERIAL PRIMARY KEY, " +
+                            "name VARCHAR(100), " +
+                            "student_id VARCHAR(50), " +
+                            "email VARCHAR(100), " +
+                            "mobile VARCHAR(15), " +
+                            "rfid VARCHAR(50), " +
+                            "course VARCHAR(100), " +
+                            "active BOOLEAN DEFAULT TRUE)",
+                    "CREATE TABLE IF NOT EXISTS faculty (" +
+                            "id SERIAL PRIMARY KEY, " +
+                            "name VARCHAR(100), " +
+                            "faculty_id VARCHAR(50), " +
+                            "email VARCHAR(100), " +
+                            "mobile VARCHAR(15), " +
+                            "rfid VARCHAR(50), " +
+                            "active BOOLEAN DEFAULT TRUE)",
+                    "CREATE TABLE IF NOT EXISTS categories (" +
+                            "id SERIAL PRIMARY KEY, " +
+                            "name VARCHAR(100))",
+                    "CREATE TABLE IF NOT EXISTS books (" +
+                            "id SERIAL PRIMARY KEY, " +
+                            "name VARCHAR(100), " +
+                            "author VARCHAR(100), " +
+                            "barcode VARCHAR(50), " +
+                            "category_id INT REFERENCES categories(id), " +
+                            "quantity INT DEFAULT 0, " +
+                            "available BOOLEAN DEFAULT TRUE)",
+                    "CREATE TABLE IF NOT EXISTS issued_books (" +
+                            "id SERIAL PRIMARY KEY, " +
+                            "student_id INT REFERENCES students(id), " +
+                            "faculty_id INT REFERENCES faculty(id), " +
+                            "book_id INT REFERENCES books(id), " +
+                            "issue_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP)",
+                    "CREATE TABLE IF NOT EXISTS returned_books (" +
+                            "id SERIAL PRIMARY KEY, " +
+                            "student_id INT REFERENCES students(id), " +
+                            "faculty_id INT REFERENCES faculty(id), " +
+                            "book_id INT REFERENCES books(id), " +
+                            "return_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP)",
+                    "CREATE TABLE IF NOT EXISTS logs (" +
+                            "id SERIAL PRIMARY KEY, " +
+                            "action VARCHAR(255), " +
+                            "timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP)"),
+
+            // Databases created by older builds of either portal may be missing these columns
+            new Migration(2, "Columns that drifted between the portals", false,
+                    "ALTER TABLE books ADD COLUMN IF NOT EXISTS available BOOLEAN DEFAULT TRUE",
+                    "ALTER TABLE issued_books ADD COLUMN IF NOT EXISTS faculty_id INT REFERENCES faculty(id)",
+                    "ALTER TABLE returned_books ADD COLUMN IF NOT EXISTS faculty_id INT REFERENCES faculty(id)"),
+
+            // Unique indexes are followed by a plain index of the same name, which is a no-op when the unique
+            // one was created and a fallback when existing duplicates prevented it. Trigram indexes are skipped
+            // if the pg_trgm extension is not available.
+            new Migration(3, "Lookup, unique and trigram indexes", true,
+                    "CREATE UNIQUE INDEX IF NOT EXISTS idx_books_barcode ON books (barcode)",
+                    "CREATE INDEX IF NOT EXISTS idx_books_barcode ON books (barcode)",
+                    "CREATE UNIQUE INDEX IF NOT EXISTS idx_students_rfid_lower ON students (LOWER(rfid))",
+                    "CREATE INDEX IF NOT EXISTS idx_students_rfid_lower ON students (LOWER(rfid))",
+                    "CREATE UNIQUE INDEX IF NOT EXISTS idx_faculty_rfid_lower ON faculty (LOWER(rfid))",
+                    "CREATE INDEX IF NOT EXISTS idx_faculty_rfid_lower ON faculty (LOWER(rfid))",
+                    "CREATE UNIQUE INDEX IF NOT EXISTS idx_students_email ON students (email)",
+                    "CREATE INDEX IF NOT EXISTS idx_students_email ON students (email)",
+                    "CREATE UNIQUE INDEX IF NOT EXISTS idx_students_mobile ON students (mobile)",
+                    "CREATE INDEX IF NOT EXISTS idx_students_mobile ON students (mobile)",
+                    "CREATE UNIQUE INDEX IF NOT EXISTS idx_faculty_email ON faculty (email)",
+                    "CREATE INDEX IF NOT EXISTS idx_faculty_email ON faculty (email)",
+                    "CREATE UNIQUE INDEX IF NOT EXISTS idx_faculty_mobile ON faculty (mobile)",
+                    "CREATE INDEX IF NOT EXISTS idx_faculty_mobile ON faculty (mobile)",
+                    "CREATE INDEX IF NOT EXISTS idx_students_rfid ON students (rfid)",
+                    "CREATE INDEX IF NOT EXISTS idx_faculty_rfid ON faculty (rfid)",
+                    "CREATE INDEX IF NOT EXISTS idx_books_category_id ON books (category_id)",
+                    "CREATE INDEX IF NOT EXISTS idx_issued_books_student_id ON issued_books (student_id)",
+                    "CREATE INDEX IF NOT EXISTS idx_issued_books_faculty_id ON issued_books (faculty_id)",
+                    "CREATE INDEX IF NOT EXISTS idx_issued_books_book_id ON issued_books (book_id)",
+                    "CREATE INDEX IF NOT EXISTS idx_returned_books_book_id ON returned_books (book_id)",
+                    "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+                    "CREATE INDEX IF NOT EXISTS idx_books_name_trgm ON books USING gin (LOWER(name) gin_trgm_ops)",
+                    "CREATE INDEX IF NOT EXISTS idx_books_author_trgm ON books USING gin (LOWER(author) gin_trgm_ops)",
+                    "CREATE INDEX IF NOT EXISTS idx_books_barcode_trgm ON books USING gin (LOWER(barcode) gin_trgm_ops)",
+                    "CREATE INDEX IF NOT EXISTS idx_students_name_trgm ON students USING gin (LOWER(name) gin_trgm_ops)",
+                    "CREATE INDEX IF NOT EXISTS idx_faculty_name_trgm ON faculty USING gin (LOWER(name) gin_trgm_ops)",
+                    "CREATE INDEX IF NOT EXISTS idx_categories_name_trgm ON categories USING gin (LOWER(name) gin_trgm_ops)"),
+
+            // Payload is "<table>:<id>" for row changes and just "<table>" for TRUNCATE; see CatalogCache
+            new Migration(4, "Catalog change notifications", false,
+                    "CREATE OR REPLACE FUNCTION notify_catalog_change() RETURNS trigger AS $$ " +
+                            "BEGIN " +
+                            "IF TG_LEVEL = 'STATEMENT' THEN " +
+                            "PERFORM pg_notify('catalog_changed', TG_TABLE_NAME); " +
+                            "ELSIF TG_OP = 'DELETE' THEN " +
+                            "PERFORM pg_notify('catalog_changed', TG_TABLE_NAME || ':' || OLD.id); " +
+                            "ELSE " +
+                            "PERFORM pg_notify('catalog_changed', TG_TABLE_NAME || ':' || NEW.id); " +
+                            "END IF; " +
+                            "RETURN NULL; " +
+                            "END $$ LANGUAGE plpgsql",
+                    "DROP TRIGGER IF EXISTS books_notify_change ON books",
+                    "CREATE TRIGGER books_notify_change AFTER INSERT OR UPDATE OR DELETE ON books " +
+                            "FOR EACH ROW EXECUTE FUNCTION notify_catalog_change()",
+                    "DROP TRIGGER IF EXISTS books_notify_truncate ON books",
+                    "CREATE TRIGGER books_notify_truncate AFTER TRUNCATE ON books " +
+                            "FOR EACH STATEMENT EXECUTE FUNCTION notify_catalog_change()",
+                    "DROP TRIGGER IF EXISTS categories_notify_change ON categories",
+                    "CREATE TRIGGER categories_notify_change AFTER INSERT OR UPDATE OR DELETE ON categories " +
+                            "FOR EACH ROW EXECUTE FUNCTION notify_catalog_change()",
+                    "DROP TRIGGER IF EXISTS categories_notify_truncate ON categories",
+                    "CREATE TRIGGER categories_notify_truncate AFTER TRUNCATE ON categories " +
+                            "FOR EACH STATEMENT EXECUTE FUNCTION notify_catalog_change()"),
+
+            // Notification emails written in the same transaction as the issue or return; see EmailOutboxDAO
+            new Migration(5, "Email outbox", false,
+                    "CREATE TABLE IF NOT EXISTS email_outbox (" +
+                            "id BIGSERIAL PRIMARY KEY, " +
+                            "recipient VARCHAR(255) NOT NULL, " +
+                            "subject VARCHAR(255) NOT NULL, " +
+                            "header TEXT NOT NULL, " +
+                            "item TEXT NOT NULL, " +
+                            "footer TEXT NOT NULL, " +
+                            "status VARCHAR(10) NOT NULL DEFAULT 'pending', " +
+                            "attempts INT NOT NULL DEFAULT 0, " +
+                            "next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+                            "created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+                            "sent_at TIMESTAMP, " +
+                            "last_error TEXT)",
+                    "CREATE INDEX IF NOT EXISTS idx_email_outbox_due ON email_outbox (next_attempt_at) WHERE status = 'pending'"),
+
+            // Who did what to which record; see LogDAO. Rows logged before this version keep action_type 'info'.
+            // The full-text index expression must match the one LogDAO searches with.
+            new Migration(6, "Structured audit log", false,
+                    "ALTER TABLE logs ADD COLUMN IF NOT EXISTS actor VARCHAR(100)",
+                    "ALTER TABLE logs ADD COLUMN IF NOT EXISTS action_type VARCHAR(20) NOT NULL DEFAULT 'info'",
+                    "ALTER TABLE logs ADD COLUMN IF NOT EXISTS entity_type VARCHAR(30)",
+                    "ALTER TABLE logs ADD COLUMN IF NOT EXISTS entity_id VARCHAR(64)",
+                    "CREATE INDEX IF NOT EXISTS idx_logs_timestamp ON logs (timestamp DESC, id DESC)",
+                    "CREATE INDEX IF NOT EXISTS idx_logs_type_timestamp ON logs (action_type, timestamp DESC, id DESC)",
+                    "CREATE INDEX IF NOT EXISTS idx_logs_actor_timestamp ON logs (actor, timestamp DESC)",
+                    "CREATE INDEX IF NOT EXISTS idx_logs_entity ON logs (entity_type, entity_id)",
+                    "CREATE INDEX IF NOT EXISTS idx_logs_action_fts ON logs USING gin (to_tsvector('simple', COALESCE(action, '')))"),
+
+            // One partition per month (logs_YYYY_MM), so LogRetention can archive and drop a month at a time.
+            // ensure_log_partition creates a month's partition, moving in any rows the default partition caught
+            // for it, which would otherwise block the partition from being created.
+            new Migration(7, "Monthly audit log partitions", false,
+                    "ALTER TABLE logs RENAME TO logs_unpartitioned",
+                    "ALTER TABLE logs_unpartitioned DROP CONSTRAINT IF EXISTS logs_pkey",
+                    "DROP INDEX IF EXISTS idx_logs_timestamp, idx_logs_type_timestamp, idx_logs_actor_timestamp, " +
+                            "idx_logs_entity, idx_logs_action_fts",
+                    "CREATE TABLE logs (" +
+                            "id INT NOT NULL DEFAULT nextval('logs_id_seq'), " +
+                            "action VARCHAR(255), " +
+                            "timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+                            "actor VARCHAR(100), " +
+                            "action_type VARCHAR(20) NOT NULL DEFAULT 'info', " +
+                            "entity_type VARCHAR(30), " +
+                            "entity_id VARCHAR(64), " +
+                            "PRIMARY KEY (id, timestamp)) PARTITION BY RANGE (timestamp)",
+                    "ALTER SEQUENCE logs_id_seq OWNED BY logs.id",
+                    "CREATE TABLE logs_default PARTITION OF logs DEFAULT",
+                    "CREATE OR REPLACE FUNCTION ensure_log_partition(p_month DATE) RETURNS TEXT AS $$ " +
+                            "DECLARE " +
+                            "start_ts TIMESTAMP := date_trunc('month', p_month); " +
+                            "end_ts TIMESTAMP := date_trunc('month', p_month) + INTERVAL '1 month'; " +
+                            "part TEXT := 'logs_' || to_char(p_month, 'YYYY_MM'); " +
+                            "BEGIN " +
+                            "PERFORM pg_advisory_xact_lock(hashtext('ensure_log_partition')); " +
+                            "IF to_regclass(part) IS NOT NULL THEN RETURN part; END IF; " +
+                            "EXECUTE format('CREATE TABLE %I (LIKE logs INCLUDING DEFAULTS)', part); " +
+                            "EXECUTE format('WITH moved AS (DELETE FROM logs_default WHERE timestamp >= %L AND timestamp < %L RETURNING *) " +
+                            "INSERT INTO %I SELECT * FROM moved', start_ts, end_ts, part); " +
+                            "EXECUTE format('ALTER TABLE logs ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', part, start_ts, end_ts); " +
+                            "RETURN part; " +
+                            "END $$ LANGUAGE plpgsql",
+                    "DO $$ DECLARE m TIMESTAMP; BEGIN " +
+                            "FOR m IN SELECT DISTINCT date_trunc('month', timestamp) FROM logs_unpartitioned WHERE timestamp IS NOT NULL LOOP " +
+                            "PERFORM ensure_log_partition(m::date); " +
+                            "END LOOP; " +
+                            "PERFORM ensure_log_partition(CURRENT_DATE); " +
+                            "PERFORM ensure_log_partition((CURRENT_DATE + INTERVAL '1 month')::date); " +
+                            "END $$",
+                    "INSERT INTO logs (id, action, timestamp, actor, action_type, entity_type, entity_id) " +
+                            "SELECT id, action, COALESCE(timestamp, CURRENT_TIMESTAMP), actor, action_type, entity_type, entity_id " +
+                            "FROM logs_unpartitioned",
+                    "DROP TABLE logs_unpartitioned",
+                    "CREATE INDEX IF NOT EXISTS idx_logs_timestamp ON logs (timestamp DESC, id DESC)",
+                    "CREATE INDEX IF NOT EXISTS idx_logs_type_timestamp ON logs (action_type, timestamp DESC, id DESC)",
+                    "CREATE INDEX IF NOT EXISTS idx_logs_actor_timestamp ON logs (actor, timestamp DESC)",
+                    "CREATE INDEX IF NOT EXISTS idx_logs_entity ON logs (entity_type, entity_id)",
+                    "CREATE INDEX IF NOT EXISTS idx_logs_action_fts ON logs USING gin (to_tsvector('simple', COALESCE(action, '')))"),
+
+            // Precomputed dashboard counters, read when stats.source=summary; see StatsDAO. The unique index
+            // allows REFRESH ... CONCURRENTLY, so readers are not blocked while it is refreshed.
+            new Migration(8, "Dashboard summary view", false,
+                    "CREATE MATERIALIZED VIEW IF NOT EXISTS library_stats_summary AS SELECT " +
+                            "1 AS id, " +
+                            "(SELECT COALESCE(SUM(quantity), 0) FROM books) AS total_books, " +
+                            "(SELECT COUNT(*) FROM issued_books) AS issued_books, " +
+                            "(SELECT COUNT(*) FROM students) AS students, " +
+                            "(SELECT COUNT(*) FROM faculty) AS faculty, " +
+                            "CURRENT_TIMESTAMP AS refreshed_at",
+                    "CREATE UNIQUE INDEX IF NOT EXISTS idx_library_stats_summary_id ON library_stats_summary (id)"),
+
+            // Loan counters kept by triggers in the same transaction as the issue or return, so availability and
+            // borrower limit checks read one row instead of counting issued_books. reconcile_issued_counts recounts
+            // them with issued_books locked against writes and returns how many rows were wrong (replaced by
+            // migration 11); it also fills them in here. The catalog notification now ignores updates that only touch the counter, which would
+            // otherwise evict the book from every portal's CatalogCache on each issue and return.
+            new Migration(9, "Trigger-maintained loan counters", false,
+                    "ALTER TABLE books ADD COLUMN IF NOT EXISTS issued_count INT NOT NULL DEFAULT 0",
+                    "ALTER TABLE students ADD COLUMN IF NOT EXISTS issued_count INT NOT NULL DEFAULT 0",
+                    "ALTER TABLE faculty ADD COLUMN IF NOT EXISTS issued_count INT NOT NULL DEFAULT 0",
+                    "CREATE OR REPLACE FUNCTION maintain_issued_counts() RETURNS trigger AS $$ " +
+                            "BEGIN " +
+                            "IF TG_OP IN ('UPDATE', 'DELETE') THEN " +
+                            "UPDATE books SET issued_count = issued_count - 1 WHERE id = OLD.book_id; " +
+                            "UPDATE students SET issued_count = issued_count - 1 WHERE id = OLD.student_id; " +
+                            "UPDATE faculty SET issued_count = issued_count - 1 WHERE id = OLD.faculty_id; " +
+                            "END IF; " +
+                            "IF TG_OP IN ('INSERT', 'UPDATE') THEN " +
+                            "UPDATE books SET issued_count = issued_count + 1 WHERE id = NEW.book_id; " +
+                            "UPDATE students SET issued_count = issued_count + 1 WHERE id = NEW.student_id; " +
+                            "UPDATE faculty SET issued_count = issued_count + 1 WHERE id = NEW.faculty_id; " +
+                            "END IF; " +
+                            "RETURN NULL; " +
+                            "END $$ LANGUAGE plpgsql",
+                    "CREATE OR REPLACE FUNCTION reset_issued_counts() RETURNS trigger AS $$ " +
+                            "BEGIN " +
+                            "UPDATE books SET issued_count = 0 WHERE issued_count <> 0; " +
+                            "UPDATE students SET issued_count = 0 WHERE issued_count <> 0; " +
+                            "UPDATE faculty SET issued_count = 0 WHERE issued_count <> 0; " +
+                            "RETURN NULL; " +
+                            "END $$ LANGUAGE plpgsql",
+                    "CREATE OR REPLACE FUNCTION reconcile_issued_counts() RETURNS INT AS $$ " +
+                            "DECLARE fixed INT := 0; n INT; " +
+                            "BEGIN " +
+                            "LOCK TABLE issued_books IN SHARE MODE; " +
+                            "UPDATE books t SET issued_count = COALESCE(c.n, 0) FROM books b " +
+                            "LEFT JOIN (SELECT book_id, COUNT(*) AS n FROM issued_books GROUP BY book_id) c ON c.book_id = b.id " +
+                            "WHERE t.id = b.id AND t.issued_count <> COALESCE(c.n, 0); " +
+                            "GET DIAGNOSTICS n = ROW_COUNT; fixed := fixed + n; " +
+                            "UPDATE students t SET issued_count = COALESCE(c.n, 0) FROM students s " +
+                            "LEFT JOIN (SELECT student_id, COUNT(*) AS n FROM issued_books GROUP BY student_id) c ON c.student_id = s.id " +
+                            "WHERE t.id = s.id AND t.issued_count <> COALESCE(c.n, 0); " +
+                            "GET DIAGNOSTICS n = ROW_COUNT; fixed := fixed + n; " +
+                            "UPDATE faculty t SET issued_count = COALESCE(c.n, 0) FROM faculty f " +
+                            "LEFT JOIN (SELECT faculty_id, COUNT(*) AS n FROM issued_books GROUP BY faculty_id) c ON c.faculty_id = f.id " +
+                            "WHERE t.id = f.id AND t.issued_count <> COALESCE(c.n, 0); " +
+                            "GET DIAGNOSTICS n = ROW_COUNT; fixed := fixed + n; " +
+                            "RETURN fixed; " +
+                            "END $$ LANGUAGE plpgsql",
+                    "SELECT reconcile_issued_counts()",
+                    "DROP TRIGGER IF EXISTS issued_books_maintain_counts ON issued_books",
+                    "CREATE TRIGGER issued_books_maintain_counts AFTER INSERT OR DELETE OR UPDATE OF book_id, student_id, faculty_id " +
+                            "ON issued_books FOR EACH ROW EXECUTE FUNCTION maintain_issued_counts()",
+                    "DROP TRIGGER IF EXISTS issued_books_reset_counts ON issued_books",
+                    "CREATE TRIGGER issued_books_reset_counts AFTER TRUNCATE ON issued_books " +
+                            "FOR EACH STATEMENT EXECUTE FUNCTION reset_issued_counts()",
+                    "DROP TRIGGER IF EXISTS books_notify_change ON books",
+                    "CREATE TRIGGER books_notify_change AFTER INSERT OR DELETE " +
+                            "OR UPDATE OF name, author, barcode, category_id, quantity, available ON books " +
+                            "FOR EACH ROW EXECUTE FUNCTION notify_catalog_change()"),
+
+            // RFID identity changes on the catalog_changed channel, for the user portal's RfidCache: the payload is
+            // "students:<rfid>" or "faculty:<rfid>" for the tag before and after the change, and just the table name
+            // after a TRUNCATE. Updates that only touch issued_count are left out.
+            new Migration(10, "Borrower change notifications", false,
+                    "CREATE OR REPLACE FUNCTION notify_borrower_change() RETURNS trigger AS $$ " +
+                            "BEGIN " +
+                            "IF TG_LEVEL = 'STATEMENT' THEN " +
+                            "PERFORM pg_notify('catalog_changed', TG_TABLE_NAME); " +
+                            "RETURN NULL; " +
+                            "END IF; " +
+                            "IF TG_OP IN ('UPDATE', 'DELETE') THEN " +
+                            "IF OLD.rfid IS NOT NULL THEN PERFORM pg_notify('catalog_changed', TG_TABLE_NAME || ':' || OLD.rfid); END IF; " +
+                            "END IF; " +
+                            "IF TG_OP IN ('INSERT', 'UPDATE') THEN " +
+                            "IF NEW.rfid IS NOT NULL THEN PERFORM pg_notify('catalog_changed', TG_TABLE_NAME || ':' || NEW.rfid); END IF; " +
+                            "END IF; " +
+                            "RETURN NULL; " +
+                            "END $$ LANGUAGE plpgsql",
+                    "DROP TRIGGER IF EXISTS students_notify_change ON students",
+                    "CREATE TRIGGER students_notify_change AFTER INSERT OR DELETE " +
+                            "OR UPDATE OF name, student_id, email, mobile, rfid, course, active ON students " +
+                            "FOR EACH ROW EXECUTE FUNCTION notify_borrower_change()",
+                    "DROP TRIGGER IF EXISTS students_notify_truncate ON students",
+                    "CREATE TRIGGER students_notify_truncate AFTER TRUNCATE ON students " +
+                            "FOR EACH STATEMENT EXECUTE FUNCTION notify_borrower_change()",
+                    "DROP TRIGGER IF EXISTS faculty_notify_change ON faculty",
+                    "CREATE TRIGGER faculty_notify_change AFTER INSERT OR DELETE " +
+                            "OR UPDATE OF name, faculty_id, email, mobile, rfid, active ON faculty " +
+                            "FOR EACH ROW EXECUTE FUNCTION notify_borrower_change()",
+                    "DROP TRIGGER IF EXISTS faculty_notify_truncate ON faculty",
+                    "CREATE TRIGGER faculty_notify_truncate AFTER TRUNCATE ON faculty " +
+                            "FOR EACH STATEMENT EXECUTE FUNCTION notify_borrower_change()"),
+
+            // reconcile_issued_counts without the issued_books table lock, which it took before the counter rows
+            // while issues and returns lock a book row, then the borrower, then write issued_books, so the two
+            // could deadlock. Rows that look wrong are found without locks, then each is locked in id order (books,
+            // then students, then faculty, as the issue path and the counter triggers do) and recounted: with the
+            // row locked, no issue or return can change its loans without updating the counter after the recount.
+            new Migration(11, "Row-locked loan counter reconcile", false,
+                    "CREATE OR REPLACE FUNCTION reconcile_issued_counts() RETURNS INT AS $$ " +
+                            "DECLARE fixed INT := 0; r RECORD; n INT; " +
+                            "BEGIN " +
+                            "FOR r IN SELECT b.id FROM books b " +
+                            "LEFT JOIN (SELECT book_id, COUNT(*) AS n FROM issued_books GROUP BY book_id) c ON c.book_id = b.id " +
+                            "WHERE b.issued_count <> COALESCE(c.n, 0) ORDER BY b.id LOOP " +
+                            "PERFORM 1 FROM books WHERE id = r.id FOR UPDATE; " +
+                            "SELECT COUNT(*) INTO n FROM issued_books WHERE book_id = r.id; " +
+                            "UPDATE books SET issued_count = n WHERE id = r.id AND issued_count <> n; " +
+                            "IF FOUND THEN fixed := fixed + 1; END IF; " +
+                            "END LOOP; " +
+                            "FOR r IN SELECT s.id FROM students s " +
+                            "LEFT JOIN (SELECT student_id, COUNT(*) AS n FROM issued_books GROUP BY student_id) c ON c.student_id = s.id " +
+                            "WHERE s.issued_count <> COALESCE(c.n, 0) ORDER BY s.id LOOP " +
+                            "PERFORM 1 FROM students WHERE id = r.id FOR UPDATE; " +
+                            "SELECT COUNT(*) INTO n FROM issued_books WHERE student_id = r.id; " +
+                            "UPDATE students SET issued_count = n WHERE id = r.id AND issued_count <> n; " +
+                            "IF FOUND THEN fixed := fixed + 1; END IF; " +
+                            "END LOOP; " +
+                            "FOR r IN SELECT f.id FROM faculty f " +
+                            "LEFT JOIN (SELECT faculty_id, COUNT(*) AS n FROM issued_books GROUP BY faculty_id) c ON c.faculty_id = f.id " +
+                            "WHERE f.issued_count <> COALESCE(c.n, 0) ORDER BY f.id LOOP " +
+                            "PERFORM 1 FROM faculty WHERE id = r.id FOR UPDATE; " +
+                            "SELECT COUNT(*) INTO n FROM issued_books WHERE faculty_id = r.id; " +
+                            "UPDATE faculty SET issued_count = n WHERE id = r.id AND issued_count <> n; " +
+                            "IF FOUND THEN fixed := fixed + 1; END IF; " +
+                            "END LOOP; " +
+                            "RETURN fixed; " +
+                            "END $$ LANGUAGE plpgsql")
+    ));
+
+    private SchemaMigrator() {
+    }
+
+    /**
+     * Brings the schema up to the latest version.
+     *
+     * @param conn a connection in auto-commit mode
+     * @return the number of migrations applied, 0 when the schema was already current
+     * @throws SQLException if a migration fails or an applied migration's checksum no longer matches
+     */
+    public static int migrate(Connection conn) throws SQLException {
+        Map<Integer, String> applied = readAppliedVersions(conn);
+        if (applied != null && verify(applied).isEmpty()) {
+            return 0;
+        }
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_VERSION_TABLE);
+        }
+
+        int count = 0;
+        conn.setAutoCommit(false);
+        try {
+            for (Migration migration : MIGRATIONS) {
+                try (PreparedStatement lock = conn.prepareStatement("SELECT pg_advisory_xact_lock(?)")) {
+                    lock.setLong(1, MIGRATION_LOCK_KEY);
+                    lock.execute();
+                }
+                // Re-read under the lock; another portal may have applied this version meanwhile
+                applied = readAppliedVersions(conn);
+                if (applied.containsKey(migration.version)) {
+                    conn.commit();
+                    continue;
+                }
+                apply(conn, migration);
+                conn.commit();
+                count++;
+                System.out.println("Applied schema migration " + migration.version + ": " + migration.description);
+            }
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+
+        List<Integer> pending = verify(readAppliedVersions(conn));
+        if (!pending.isEmpty()) {
+            throw new SQLException("Schema migrations still pending after migrate: " + pending);
+        }
+        return count;
+    }
+
+    /**
+     * Reads the applied versions with one query.
+     *
+     * @return version to checksum, or null if the schema_version table does not exist yet
+     */
+    private static Map<Integer, String> readAppliedVersions(Connection conn) throws SQLException {
+        Map<Integer, String> applied = new LinkedHashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_version ORDER BY version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getString("checksum"));
+            }
+        } catch (SQLException e) {
+            // 42P01 = undefined_table: a database that predates versioned migrations
+            if ("42P01".equals(e.getSQLState())) {
+                if (!conn.getAutoCommit()) {
+                    conn.rollback();
+                }
+                return null;
+            }
+            throw e;
+        }
+        return applied;
+    }
+
+    /**
+     * Checks the applied versions against {@link #MIGRATIONS}.
+     *
+     * @return the versions still to be applied
+     * @throws SQLException if an applied migration was changed after it ran
+     */
+    private static List<Integer> verify(Map<Integer, String> applied) throws SQLException {
+        List<Integer> pending = new ArrayList<>();
+        for (Migration migration : MIGRATIONS) {
+            String checksum = applied.get(migration.version);
+            if (checksum == null) {
+                pending.add(migration.version);
+            } else if (!checksum.equals(migration.checksum())) {
+                throw new SQLException("Checksum mismatch for schema migration " + migration.version
+                        + " (" + migration.description + "); applied migrations must not be edited");
+            }
+        }
+        return pending;
+    }
+
+    private static void apply(Connection conn, Migration migration) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : migration.statements) {
+                if (!migration.tolerant) {
+                    stmt.execute(sql);
+                    continue;
+                }
+                Savepoint savepoint = conn.setSavepoint();
+                try {
+                    stmt.execute(sql);
+                    conn.releaseSavepoint(savepoint);
+                } catch (SQLException e) {
+                    conn.rollback(savepoint);
+                    System.err.println("Skipped \"" + sql + "\" in migration " + migration.version + ": " + e.getMessage());
+                }
+            }
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO schema_version (version, description, checksum) VALUES (?, ?, ?)")) {
+            stmt.setInt(1, migration.version);
+            stmt.setString(2, migration.description);
+            stmt.setString(3, migration.checksum());
+            stmt.executeUpdate();
+        }
+    }
+}
@@ -14,73 +14,28 @@ public class UserDAO {
 
     /**
      * Authenticates a user using their RFID tag.
-     * Retrieves user details if the RFID matches an active user record in either students or faculty table.
+     * Resolves the tag through {@link RfidCache}, which answers from memory and falls back to the
+     * students and faculty tables on a miss.
      *
      * @param rfid the RFID tag of the user
-     * @return a User object if authentication succeeds, null otherwise
+     * @return a User object if authentication succeeds
+     * @throws RuntimeException if the tag is unknown, the account is inactive, or the database cannot be reached
      */
     public User loginByRfid(String rfid) {
-        // First, try to find in students table (case-insensitive)
-        String studentSql = "SELECT * FROM students WHERE LOWER(rfid) = LOWER(?) AND active = TRUE";
-        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(studentSql)) {
-            stmt.setString(1, rfid);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                User u = new User();
-                u.setId(rs.getInt("id"));
-                u.setName(rs.getString("name"));
-                u.setStudentId(rs.getString("student_id"));
-                u.setEmail(rs.getString("email"));
-                u.setMobile(rs.getString("mobile"));
-                u.setRfid(rs.getString("rfid"));
-                u.setCourse(rs.getString("course"));
-                u.setActive(rs.getBoolean("active"));
-                return u;
-            }
+        RfidCache.Entry entry;
+        try {
+            entry = RfidCache.lookup(rfid);
         } catch (SQLException e) {
             e.printStackTrace();
             throw new RuntimeException("Database error: " + e.getMessage());
         }
-
-        // If not found in students, try faculty table (case-insensitive)
-        String facultySql = "SELECT * FROM faculty WHERE LOWER(rfid) = LOWER(?) AND active = TRUE";
-        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(facultySql)) {
-            stmt.setString(1, rfid);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                User u = new User();
-                u.setId(rs.getInt("id"));
-                u.setName(rs.getString("name"));
-                u.setStudentId(rs.getString("faculty_id")); // Use faculty_id as studentId for compatibility
-                u.setEmail(rs.getString("email"));
-                u.setMobile(rs.getString("mobile"));
-                u.setRfid(rs.getString("rfid"));
-                u.setCourse(""); // Faculty does not have a course field, set to empty
-                u.setActive(rs.getBoolean("active"));
-                return u;
-            } else {
-                // Check if RFID exists but is inactive in faculty (case-insensitive)
-                String checkSql = "SELECT active FROM faculty WHERE LOWER(rfid) = LOWER(?)";
-                try (PreparedStatement checkStmt = conn.prepareStatement(checkSql)) {
-                    checkStmt.setString(1, rfid);
-                    ResultSet checkRs = checkStmt.executeQuery();
-                    if (checkRs.next()) {
-                        boolean active = checkRs.getBoolean("active");
-                        if (!active) {
-                            throw new RuntimeException("Account is inactive. Please contact administrator.");
-                        }
-                    } else {
-                        throw new RuntimeException("RFID not found in database. Sample RFIDs: RFID001 (Student), RFID002 (Student), RFID003 (Faculty), RFID004 (Faculty)");
-                    }
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            throw new RuntimeException("Database error: " + e.getMessage());
-        } catch (RuntimeException e) {
-            throw e; // Re-throw custom exceptions
+        if (entry == null) {
+            throw new RuntimeException("RFID not found in database. Sample RFIDs: RFID001 (Student), RFID002 (Student), RFID003 (Faculty), RFID004 (Faculty)");
         }
-        return null;
+        if (!entry.isActive()) {
+            throw new RuntimeException("Account is inactive. Please contact administrator.");
+        }
+        return RfidCache.copyOf(entry.user);
     }
 
     /**
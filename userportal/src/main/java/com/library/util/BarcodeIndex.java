@@ -0,0 +1,148 @@
+package com.library.util;
+
+import com.library.model.Book;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable barcode lookup table for the issue screen, where a barcode scanner types one character at a time
+ * and every intermediate value is checked for an exact match.
+ *
+ * Exact lookups use an open-addressing hash table of int slots (linear probing, load factor at most 0.5) that
+ * point into a dense array of books, with each barcode's hash kept next to it so a probe only compares strings
+ * when the hashes are equal. Prefix queries use the barcodes sorted once at build time, so they cost a binary
+ * search rather than a pass over the catalog.
+ *
+ * If two books share a barcode, the first one given wins.
+ */
+public final class BarcodeIndex {
+
+    private final Book[] books;
+    private final int[] hashes;
+    // Slot + 1 of the book in each bucket; 0 marks an empty bucket
+    private final int[] table;
+    private final int mask;
+    private final String[] sortedBarcodes;
+    private final int[] sortedSlots;
+
+    /**
+     * Builds the index. Books without a barcode are skipped.
+     *
+     * @param catalog the books to index
+     */
+    public BarcodeIndex(Collection<Book> catalog) {
+        int capacity = Integer.highestOneBit(Math.max(2, catalog.size()) * 2 - 1) << 1;
+        table = new int[capacity];
+        mask = capacity - 1;
+        Book[] slots = new Book[catalog.size()];
+        int[] slotHashes = new int[catalog.size()];
+        int count = 0;
+        for (Book book : catalog) {
+            String barcode = book.getBarcode();
+            if (barcode == null) {
+                continue;
+            }
+            int hash = hash(barcode);
+            int bucket = find(barcode, hash, slots, slotHashes);
+            if (table[bucket] == 0) {
+                slots[count] = book;
+                slotHashes[count] = hash;
+                table[bucket] = ++count;
+            }
+        }
+        books = Arrays.copyOf(slots, count);
+        hashes = Arrays.copyOf(slotHashes, count);
+
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> books[a].getBarcode().compareTo(books[b].getBarcode()));
+        sortedBarcodes = new String[count];
+        sortedSlots = new int[count];
+        for (int i = 0; i < count; i++) {
+            sortedSlots[i] = order[i];
+            sortedBarcodes[i] = books[order[i]].getBarcode();
+        }
+    }
+
+    /**
+     * @param barcode the exact barcode, as scanned
+     * @return the book with this barcode, or null if there is none
+     */
+    public Book get(String barcode) {
+        if (barcode == null) {
+            return null;
+        }
+        int slot = table[find(barcode, hash(barcode), books, hashes)];
+        return slot != 0 ? books[slot - 1] : null;
+    }
+
+    /**
+     * @param prefix the start of a barcode, e.g. the characters a scanner has sent so far
+     * @return true if at least one barcode starts with {@code prefix}
+     */
+    public boolean hasPrefix(String prefix) {
+        int i = lowerBound(prefix);
+        return i < sortedBarcodes.length && sortedBarcodes[i].startsWith(prefix);
+    }
+
+    /**
+     * @param prefix the start of a barcode
+     * @param limit  maximum number of books to return
+     * @return books whose barcode starts with {@code prefix}, in barcode order
+     */
+    public List<Book> withPrefix(String prefix, int limit) {
+        List<Book> matches = new ArrayList<>();
+        for (int i = lowerBound(prefix); i < sortedBarcodes.length && matches.size() < limit
+                && sortedBarcodes[i].startsWith(prefix); i++) {
+            matches.add(books[sortedSlots[i]]);
+        }
+        return matches;
+    }
+
+    /**
+     * @return the number of distinct barcodes
+     */
+    public int size() {
+        return books.length;
+    }
+
+    /**
+     * Probes for {@code barcode} and returns its bucket, or the empty bucket where it would go.
+     */
+    private int find(String barcode, int hash, Book[] slots, int[] slotHashes) {
+        int bucket = hash & mask;
+        while (table[bucket] != 0) {
+            int slot = table[bucket] - 1;
+            if (slotHashes[slot] == hash && slots[slot].getBarcode().equals(barcode)) {
+                return bucket;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+        return bucket;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = sortedBarcodes.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedBarcodes[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Mixes the high bits into the low bits that pick the bucket, as HashMap does
+    private static int hash(String barcode) {
+        int h = barcode.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,249 @@
+package com.library.util;
+
+import com.library.dao.EmailOutboxDAO;
+import jakarta.mail.MessagingException;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers the notification emails queued in the email_outbox table (see {@link EmailOutboxDAO}), so the kiosk never
+ * waits on the SMTP server and notices survive restarts and SMTP outages.
+ *
+ * {@code mail.queue.workers} threads (env {@code MAIL_QUEUE_WORKERS}, default 2) claim due notices in batches,
+ * every {@code mail.outbox.pollMs} (env {@code MAIL_OUTBOX_POLL_MS}, default 10000) or as soon as {@link #wakeUp()}
+ * is called after a checkout commits. Notices for the same recipient and subject in one batch are merged into one
+ * digest: the header of the first notice, the item of every notice, and the footer of the last one, so a five-book
+ * checkout sends one email. Each worker keeps its own SMTP connection open, see {@link MailSession}.
+ *
+ * A failed send is retried up to {@code mail.queue.maxAttempts} attempts in total (env {@code MAIL_QUEUE_MAX_ATTEMPTS},
+ * default 6), waiting {@code mail.queue.retryDelayMs} (env {@code MAIL_QUEUE_RETRY_DELAY_MS}, default 5000) before
+ * the first retry and twice as long before each following one. After that the notice is marked 'dead' and left in
+ * the table for inspection.
+ */
+public final class EmailQueue {
+
+    private static final int WORKERS = Integer.parseInt(System.getProperty("mail.queue.workers",
+            System.getenv().getOrDefault("MAIL_QUEUE_WORKERS", "2")));
+    private static final long POLL_MS = Long.parseLong(System.getProperty("mail.outbox.pollMs",
+            System.getenv().getOrDefault("MAIL_OUTBOX_POLL_MS", "10000")));
+    private static final int MAX_ATTEMPTS = Integer.parseInt(System.getProperty("mail.queue.maxAttempts",
+            System.getenv().getOrDefault("MAIL_QUEUE_MAX_ATTEMPTS", "6")));
+    private static final long RETRY_DELAY_MS = Long.parseLong(System.getProperty("mail.queue.retryDelayMs",
+            System.getenv().getOrDefault("MAIL_QUEUE_RETRY_DELAY_MS", "5000")));
+    private static final int BATCH_SIZE = 50;
+    // Longer than any send takes; a claimed notice is retried after this if its worker died
+    private static final long LEASE_MS = TimeUnit.MINUTES.toMillis(2);
+
+    /**
+     * Delivery counters since the queue was started, and the current outbox backlog.
+     */
+    public static final class Stats {
+        public final long messagesSent;
+        public final long noticesSent;
+        public final long failedAttempts;
+        public final long deadLettered;
+        public final double messagesPerMinute;
+        public final long averageDelayMs;
+        // Notices in the outbox waiting to be sent or retried, or -1 if the outbox could not be read
+        public final int pending;
+
+        Stats(long messagesSent, long noticesSent, long failedAttempts, long deadLettered, long uptimeNanos,
+              long totalDelayMs, int pending) {
+            this.messagesSent = messagesSent;
+            this.noticesSent = noticesSent;
+            this.failedAttempts = failedAttempts;
+            this.deadLettered = deadLettered;
+            this.messagesPerMinute = uptimeNanos > 0 ? messagesSent * 60e9 / uptimeNanos : 0;
+            this.averageDelayMs = noticesSent > 0 ? totalDelayMs / noticesSent : 0;
+            this.pending = pending;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d emails (%d notices) sent, %.1f/min, average delay %d ms, %d failed attempts, %d dead-lettered, %s pending",
+                    messagesSent, noticesSent, messagesPerMinute, averageDelayMs, failedAttempts, deadLettered,
+                    pending >= 0 ? String.valueOf(pending) : "unknown");
+        }
+    }
+
+    private static final Object lock = new Object();
+    private static final List<Thread> workers = new ArrayList<>();
+    private static volatile boolean running;
+    private static boolean workAvailable;
+    private static long startedAt;
+
+    private static final AtomicLong messagesSent = new AtomicLong();
+    private static final AtomicLong noticesSent = new AtomicLong();
+    private static final AtomicLong failedAttempts = new AtomicLong();
+    private static final AtomicLong deadLettered = new AtomicLong();
+    // Summed over notices, from when the notice was committed to when it was sent
+    private static final AtomicLong totalDelayMs = new AtomicLong();
+
+    private EmailQueue() {
+    }
+
+    /**
+     * Starts the delivery workers. Safe to call more than once.
+     */
+    public static void start() {
+        synchronized (lock) {
+            if (running) {
+                return;
+            }
+            running = true;
+            workAvailable = true;
+            startedAt = System.nanoTime();
+            for (int i = 1; i <= WORKERS; i++) {
+                Thread worker = new Thread(EmailQueue::work, "email-queue-" + i);
+                worker.setDaemon(true);
+                worker.start();
+                workers.add(worker);
+            }
+        }
+    }
+
+    /**
+     * Tells the workers that notices were just committed, so they do not wait for the next poll.
+     */
+    public static void wakeUp() {
+        synchronized (lock) {
+            workAvailable = true;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Stops the workers, waiting up to {@code timeoutMs} for messages being sent. Notices not yet sent stay in
+     * the outbox and are delivered after the next start.
+     *
+     * @param timeoutMs how long to wait for sends to finish
+     */
+    public static void shutdown(long timeoutMs) {
+        List<Thread> stopping;
+        synchronized (lock) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            lock.notifyAll();
+            stopping = new ArrayList<>(workers);
+            workers.clear();
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        try {
+            for (Thread worker : stopping) {
+                worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("Email queue stopped: " + stats());
+    }
+
+    /**
+     * Reads the counters and counts the pending notices in the outbox, which takes a database query.
+     *
+     * @return delivery counters since the queue was started
+     */
+    public static Stats stats() {
+        long uptime;
+        synchronized (lock) {
+            uptime = startedAt > 0 ? System.nanoTime() - startedAt : 0;
+        }
+        int pending;
+        try {
+            pending = new EmailOutboxDAO().countPending();
+        } catch (SQLException e) {
+            System.err.println("❌ Error counting pending emails: " + e.getMessage());
+            pending = -1;
+        }
+        return new Stats(messagesSent.get(), noticesSent.get(), failedAttempts.get(), deadLettered.get(), uptime,
+                totalDelayMs.get(), pending);
+    }
+
+    private static void work() {
+        EmailOutboxDAO outbox = new EmailOutboxDAO();
+        try {
+            while (running) {
+                int claimed = 0;
+                try {
+                    claimed = dispatchBatch(outbox);
+                } catch (SQLException e) {
+                    System.err.println("❌ Error reading email outbox: " + e.getMessage());
+                }
+                // A full batch means more may be due; otherwise wait for a wake-up or the next poll
+                if (claimed < BATCH_SIZE) {
+                    synchronized (lock) {
+                        if (running && !workAvailable) {
+                            lock.wait(POLL_MS);
+                        }
+                        workAvailable = false;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            MailSession.closeTransport();
+        }
+    }
+
+    /**
+     * Claims one batch of due notices and sends them as one message per recipient and subject.
+     *
+     * @return the number of notices claimed
+     */
+    private static int dispatchBatch(EmailOutboxDAO outbox) throws SQLException {
+        List<EmailOutboxDAO.Notice> notices = outbox.claimDue(BATCH_SIZE, LEASE_MS);
+        Map<String, List<EmailOutboxDAO.Notice>> digests = new LinkedHashMap<>();
+        for (EmailOutboxDAO.Notice notice : notices) {
+            digests.computeIfAbsent(notice.recipient.trim().toLowerCase() + "\n" + notice.subject,
+                    key -> new ArrayList<>()).add(notice);
+        }
+        for (List<EmailOutboxDAO.Notice> digest : digests.values()) {
+            deliver(outbox, digest);
+        }
+        return notices.size();
+    }
+
+    private static void deliver(EmailOutboxDAO outbox, List<EmailOutboxDAO.Notice> digest) throws SQLException {
+        EmailOutboxDAO.Notice first = digest.get(0);
+        StringBuilder body = new StringBuilder(first.header);
+        List<Long> ids = new ArrayList<>();
+        for (EmailOutboxDAO.Notice notice : digest) {
+            body.append(notice.item);
+            ids.add(notice.id);
+        }
+        body.append(digest.get(digest.size() - 1).footer);
+
+        try {
+            MailSession.send(first.recipient, first.subject, body.toString());
+        } catch (MessagingException | RuntimeException e) {
+            MailSession.closeTransport();
+            failedAttempts.incrementAndGet();
+            int dead = outbox.markFailed(ids, e.getMessage(), MAX_ATTEMPTS, RETRY_DELAY_MS);
+            deadLettered.addAndGet(dead);
+            if (dead > 0) {
+                System.err.println("❌ Giving up sending email to " + first.recipient + " after " + first.attempts + " attempts: " + e.getMessage());
+            } else {
+                System.err.println("❌ Failed to send email to " + first.recipient + ", will retry: " + e.getMessage());
+            }
+            return;
+        }
+        // If this fails the notices are sent again when their lease runs out
+        outbox.markSent(ids);
+        long now = System.currentTimeMillis();
+        messagesSent.incrementAndGet();
+        noticesSent.addAndGet(digest.size());
+        for (EmailOutboxDAO.Notice notice : digest) {
+            totalDelayMs.addAndGet(Math.max(0, now - notice.createdAt.getTime()));
+        }
+        System.out.println("✅ Email sent successfully to: " + first.recipient);
+    }
+}
@@ -1,73 +1,24 @@
 package com.library.util;
 
-import jakarta.mail.*;
-import jakarta.mail.internet.*;
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.Properties;
+import com.library.dao.EmailOutboxDAO;
+import jakarta.mail.MessagingException;
+import java.sql.Connection;
+import java.sql.SQLException;
 
 /**
  * EmailService handles sending emails for the Library Management System.
- * Supports various email templates for notifications and verification.
+ * Message texts come from {@link MailTemplates} and are sent over the shared {@link MailSession},
+ * so creating an EmailService is cheap.
  */
 public class EmailService {
-    private static final String CONFIG_FILE = "email.properties";
-    private Properties emailConfig;
-    private Session session;
-
-    public EmailService() {
-        loadEmailConfig();
-        setupMailSession();
-    }
-
-    private void loadEmailConfig() {
-        emailConfig = new Properties();
-        try (InputStream input = getClass().getClassLoader().getResourceAsStream(CONFIG_FILE)) {
-            if (input == null) {
-                System.err.println("❌ Unable to find " + CONFIG_FILE);
-                throw new RuntimeException("Email configuration file not found");
-            }
-            emailConfig.load(input);
-        } catch (IOException e) {
-            System.err.println("❌ Error loading email configuration: " + e.getMessage());
-            throw new RuntimeException("Failed to load email configuration", e);
-        }
-    }
-
-    private void setupMailSession() {
-        Properties props = new Properties();
-        props.put("mail.smtp.host", emailConfig.getProperty("mail.smtp.host", "smtp.gmail.com"));
-        props.put("mail.smtp.port", emailConfig.getProperty("mail.smtp.port", "587"));
-        props.put("mail.smtp.auth", emailConfig.getProperty("mail.smtp.auth", "true"));
-        props.put("mail.smtp.starttls.enable", emailConfig.getProperty("mail.smtp.starttls.enable", "true"));
-
-        final String username = emailConfig.getProperty("mail.username");
-        final String password = emailConfig.getProperty("mail.password");
-
-        if (username == null || password == null) {
-            throw new RuntimeException("Email username or password not configured");
-        }
-
-        session = Session.getInstance(props, new Authenticator() {
-            @Override
-            protected PasswordAuthentication getPasswordAuthentication() {
-                return new PasswordAuthentication(username, password);
-            }
-        });
-    }
+    private static final String FACULTY_SUFFIX = " - Faculty";
 
     /**
      * Sends an email with the specified parameters.
      */
     public boolean sendEmail(String to, String subject, String body) {
         try {
-            Message message = new MimeMessage(session);
-            message.setFrom(new InternetAddress(emailConfig.getProperty("mail.username")));
-            message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(to));
-            message.setSubject(subject);
-            message.setText(body);
-
-            Transport.send(message);
+            MailSession.send(to, subject, body);
             System.out.println("✅ Email sent successfully to: " + to);
             return true;
         } catch (MessagingException e) {
@@ -83,25 +34,19 @@ public class EmailService {
     public boolean sendBookIssueNotification(String studentEmail, String studentName, String rfid,
                                            String bookName, String issueDate, String dueDate,
                                            String issuedBooksList) {
-        String subject = "Library Book Issue Confirmation";
-        String body = String.format(
-            "Dear %s,\n\n" +
-            "Your book has been successfully issued!\n\n" +
-            "Student Details:\n" +
-            "Name: %s\n" +
-            "RFID: %s\n\n" +
-            "Book Details:\n" +
-            "Book Name: %s\n" +
-            "Issue Date: %s\n" +
-            "Due Date: %s\n\n" +
-            "Currently Issued Books:\n%s\n\n" +
-            "Please return the book by the due date to avoid fines.\n\n" +
-            "Best regards,\n" +
-            "Library Management System",
-            studentName, studentName, rfid, bookName, issueDate, dueDate, issuedBooksList
-        );
+        return sendEmail(studentEmail, MailTemplates.BOOK_ISSUE_SUBJECT,
+                issueHeader(studentName, "Student", rfid) + issueItem(bookName, issueDate, dueDate) + issueFooter(issuedBooksList));
+    }
 
-        return sendEmail(studentEmail, subject, body);
+    /**
+     * Adds a book issue notification to the email outbox in the caller's transaction; {@link EmailQueue} sends it,
+     * together with the other books of the same checkout, as one email. Does not need the mail configuration.
+     */
+    public static void queueBookIssueNotification(Connection conn, String studentEmail, String studentName, String rfid,
+                                                  String bookName, String issueDate, String dueDate,
+                                                  String issuedBooksList) throws SQLException {
+        EmailOutboxDAO.enqueue(conn, studentEmail, MailTemplates.BOOK_ISSUE_SUBJECT, issueHeader(studentName, "Student", rfid),
+                issueItem(bookName, issueDate, dueDate), issueFooter(issuedBooksList));
     }
 
     /**
@@ -109,66 +54,35 @@ public class EmailService {
      */
     public boolean sendBookReturnNotification(String studentEmail, String studentName, String rfid,
                                             String bookReturned, String returnDate, String remainingBooksList) {
-        String subject = "Library Book Return Confirmation";
-        String body = String.format(
-            "Dear %s,\n\n" +
-            "Your book return has been successfully processed!\n\n" +
-            "Student Details:\n" +
-            "Name: %s\n" +
-            "RFID: %s\n\n" +
-            "Return Details:\n" +
-            "Book Returned: %s\n" +
-            "Return Date: %s\n\n" +
-            "Remaining Issued Books:\n%s\n\n" +
-            "Thank you for returning the book on time.\n\n" +
-            "Best regards,\n" +
-            "Library Management System",
-            studentName, studentName, rfid, bookReturned, returnDate, remainingBooksList
-        );
+        return sendEmail(studentEmail, MailTemplates.BOOK_RETURN_SUBJECT,
+                returnHeader(studentName, "Student", rfid) + returnItem(bookReturned, returnDate) + returnFooter(remainingBooksList));
+    }
 
-        return sendEmail(studentEmail, subject, body);
+    /**
+     * Adds a book return notification to the email outbox in the caller's transaction; {@link EmailQueue} sends it,
+     * together with the other books of the same return, as one email. Does not need the mail configuration.
+     */
+    public static void queueBookReturnNotification(Connection conn, String studentEmail, String studentName, String rfid,
+                                                   String bookReturned, String returnDate,
+                                                   String remainingBooksList) throws SQLException {
+        EmailOutboxDAO.enqueue(conn, studentEmail, MailTemplates.BOOK_RETURN_SUBJECT, returnHeader(studentName, "Student", rfid),
+                returnItem(bookReturned, returnDate), returnFooter(remainingBooksList));
     }
 
     /**
      * Sends student registration confirmation email.
      */
     public boolean sendStudentRegistrationNotification(String studentEmail, String studentName, String rfid) {
-        String subject = "Welcome to Library Management System";
-        String body = String.format(
-            "Dear %s,\n\n" +
-            "Welcome to the Library Management System!\n\n" +
-            "Your registration has been successfully completed.\n\n" +
-            "Student Details:\n" +
-            "Name: %s\n" +
-            "RFID: %s\n\n" +
-            "You can now use your RFID card to login and issue books.\n\n" +
-            "Best regards,\n" +
-            "Library Management System",
-            studentName, studentName, rfid
-        );
-
-        return sendEmail(studentEmail, subject, body);
+        return sendEmail(studentEmail, MailTemplates.STUDENT_REGISTRATION_SUBJECT,
+                MailTemplates.STUDENT_REGISTRATION.render("name", studentName, "rfid", rfid));
     }
 
     /**
      * Sends faculty registration confirmation email.
      */
     public boolean sendFacultyRegistrationNotification(String facultyEmail, String facultyName, String rfid) {
-        String subject = "Welcome to Library Management System - Faculty";
-        String body = String.format(
-            "Dear %s,\n\n" +
-            "Welcome to the Library Management System!\n\n" +
-            "Your faculty registration has been successfully completed.\n\n" +
-            "Faculty Details:\n" +
-            "Name: %s\n" +
-            "RFID: %s\n\n" +
-            "You can now use your RFID card to login and issue books.\n\n" +
-            "Best regards,\n" +
-            "Library Management System",
-            facultyName, facultyName, rfid
-        );
-
-        return sendEmail(facultyEmail, subject, body);
+        return sendEmail(facultyEmail, MailTemplates.FACULTY_REGISTRATION_SUBJECT,
+                MailTemplates.FACULTY_REGISTRATION.render("name", facultyName, "rfid", rfid));
     }
 
     /**
@@ -177,25 +91,8 @@ public class EmailService {
     public boolean sendFacultyBookIssueNotification(String facultyEmail, String facultyName, String rfid,
                                            String bookName, String issueDate, String dueDate,
                                            String issuedBooksList) {
-        String subject = "Library Book Issue Confirmation - Faculty";
-        String body = String.format(
-            "Dear %s,\n\n" +
-            "Your book has been successfully issued!\n\n" +
-            "Faculty Details:\n" +
-            "Name: %s\n" +
-            "RFID: %s\n\n" +
-            "Book Details:\n" +
-            "Book Name: %s\n" +
-            "Issue Date: %s\n" +
-            "Due Date: %s\n\n" +
-            "Currently Issued Books:\n%s\n\n" +
-            "Please return the book by the due date to avoid fines.\n\n" +
-            "Best regards,\n" +
-            "Library Management System",
-            facultyName, facultyName, rfid, bookName, issueDate, dueDate, issuedBooksList
-        );
-
-        return sendEmail(facultyEmail, subject, body);
+        return sendEmail(facultyEmail, MailTemplates.BOOK_ISSUE_SUBJECT + FACULTY_SUFFIX,
+                issueHeader(facultyName, "Faculty", rfid) + issueItem(bookName, issueDate, dueDate) + issueFooter(issuedBooksList));
     }
 
     /**
@@ -203,88 +100,57 @@ public class EmailService {
      */
     public boolean sendFacultyBookReturnNotification(String facultyEmail, String facultyName, String rfid,
                                             String bookReturned, String returnDate, String remainingBooksList) {
-        String subject = "Library Book Return Confirmation - Faculty";
-        String body = String.format(
-            "Dear %s,\n\n" +
-            "Your book return has been successfully processed!\n\n" +
-            "Faculty Details:\n" +
-            "Name: %s\n" +
-            "RFID: %s\n\n" +
-            "Return Details:\n" +
-            "Book Returned: %s\n" +
-            "Return Date: %s\n\n" +
-            "Remaining Issued Books:\n%s\n\n" +
-            "Thank you for returning the book on time.\n\n" +
-            "Best regards,\n" +
-            "Library Management System",
-            facultyName, facultyName, rfid, bookReturned, returnDate, remainingBooksList
-        );
-
-        return sendEmail(facultyEmail, subject, body);
+        return sendEmail(facultyEmail, MailTemplates.BOOK_RETURN_SUBJECT + FACULTY_SUFFIX,
+                returnHeader(facultyName, "Faculty", rfid) + returnItem(bookReturned, returnDate) + returnFooter(remainingBooksList));
     }
 
     /**
      * Sends admin notification for faculty registration.
      */
     public boolean sendAdminFacultyRegistrationNotification(String adminEmail, String facultyName, String facultyId, String facultyEmail) {
-        String subject = "New Faculty Registration Notification";
-        String body = String.format(
-            "Dear Admin,\n\n" +
-            "A new faculty member has registered in the Library Management System.\n\n" +
-            "Faculty Details:\n" +
-            "Name: %s\n" +
-            "Faculty ID: %s\n" +
-            "Email: %s\n\n" +
-            "Please review and approve if necessary.\n\n" +
-            "Best regards,\n" +
-            "Library Management System",
-            facultyName, facultyId, facultyEmail
-        );
-
-        return sendEmail(adminEmail, subject, body);
+        return sendEmail(adminEmail, MailTemplates.ADMIN_FACULTY_REGISTRATION_SUBJECT,
+                MailTemplates.ADMIN_FACULTY_REGISTRATION.render("name", facultyName, "facultyId", facultyId, "email", facultyEmail));
     }
 
     /**
      * Sends admin notification for faculty book issue.
      */
     public boolean sendAdminFacultyBookIssueNotification(String adminEmail, String facultyName, String facultyId, String bookName, String issueDate) {
-        String subject = "Faculty Book Issue Notification";
-        String body = String.format(
-            "Dear Admin,\n\n" +
-            "A faculty member has issued a book.\n\n" +
-            "Faculty Details:\n" +
-            "Name: %s\n" +
-            "Faculty ID: %s\n\n" +
-            "Book Details:\n" +
-            "Book Name: %s\n" +
-            "Issue Date: %s\n\n" +
-            "Best regards,\n" +
-            "Library Management System",
-            facultyName, facultyId, bookName, issueDate
-        );
-
-        return sendEmail(adminEmail, subject, body);
+        return sendEmail(adminEmail, MailTemplates.ADMIN_FACULTY_BOOK_ISSUE_SUBJECT,
+                MailTemplates.ADMIN_FACULTY_BOOK_ACTIVITY.render("action", "issued", "name", facultyName, "facultyId", facultyId,
+                        "book", bookName, "dateLabel", "Issue Date", "date", issueDate));
     }
 
     /**
      * Sends admin notification for faculty book return.
      */
     public boolean sendAdminFacultyBookReturnNotification(String adminEmail, String facultyName, String facultyId, String bookName, String returnDate) {
-        String subject = "Faculty Book Return Notification";
-        String body = String.format(
-            "Dear Admin,\n\n" +
-            "A faculty member has returned a book.\n\n" +
-            "Faculty Details:\n" +
-            "Name: %s\n" +
-            "Faculty ID: %s\n\n" +
-            "Book Details:\n" +
-            "Book Name: %s\n" +
-            "Return Date: %s\n\n" +
-            "Best regards,\n" +
-            "Library Management System",
-            facultyName, facultyId, bookName, returnDate
-        );
+        return sendEmail(adminEmail, MailTemplates.ADMIN_FACULTY_BOOK_RETURN_SUBJECT,
+                MailTemplates.ADMIN_FACULTY_BOOK_ACTIVITY.render("action", "returned", "name", facultyName, "facultyId", facultyId,
+                        "book", bookName, "dateLabel", "Return Date", "date", returnDate));
+    }
+
+    private static String issueHeader(String name, String role, String rfid) {
+        return MailTemplates.BOOK_ISSUE_HEADER.render("name", name, "role", role, "rfid", rfid);
+    }
+
+    private static String issueItem(String bookName, String issueDate, String dueDate) {
+        return MailTemplates.BOOK_ISSUE_ITEM.render("book", bookName, "issueDate", issueDate, "dueDate", dueDate);
+    }
+
+    private static String issueFooter(String issuedBooksList) {
+        return MailTemplates.BOOK_ISSUE_FOOTER.render("issuedBooks", issuedBooksList);
+    }
+
+    private static String returnHeader(String name, String role, String rfid) {
+        return MailTemplates.BOOK_RETURN_HEADER.render("name", name, "role", role, "rfid", rfid);
+    }
+
+    private static String returnItem(String bookReturned, String returnDate) {
+        return MailTemplates.BOOK_RETURN_ITEM.render("book", bookReturned, "returnDate", returnDate);
+    }
 
-        return sendEmail(adminEmail, subject, body);
+    private static String returnFooter(String remainingBooksList) {
+        return MailTemplates.BOOK_RETURN_FOOTER.render("issuedBooks", remainingBooksList);
     }
 }
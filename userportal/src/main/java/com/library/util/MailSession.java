@@ -0,0 +1,200 @@
+package com.library.util;
+
+import jakarta.mail.Authenticator;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.PasswordAuthentication;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * The mail connection shared by every email a portal sends; both portals ship the same copy.
+ *
+ * email.properties is read once, and any key in it can be overridden with a system property of the same name
+ * (e.g. {@code -Dmail.smtp.host=localhost}). The Session is built once, and each sending thread keeps its SMTP
+ * connection open between messages instead of connecting and logging in for every email. A connection the server
+ * has dropped while idle is reopened and the message sent again. Connecting times out after 10 seconds and each
+ * read or write after 20 ({@code mail.smtp.connectiontimeout}, {@code mail.smtp.timeout},
+ * {@code mail.smtp.writetimeout}, in milliseconds).
+ *
+ * With {@code mail.mode=local} (env {@code MAIL_MODE}) nothing is sent: messages are kept in memory, see
+ * {@link #localOutbox()}, and printed to the console. Use it for tests and demos without an SMTP server.
+ */
+public final class MailSession {
+
+    /**
+     * A message kept by the local mode instead of being sent.
+     */
+    public static final class LocalMessage {
+        public final String to;
+        public final String subject;
+        public final String body;
+
+        LocalMessage(String to, String subject, String body) {
+            this.to = to;
+            this.subject = subject;
+            this.body = body;
+        }
+    }
+
+    private static final String CONFIG_FILE = "email.properties";
+    private static final int LOCAL_OUTBOX_LIMIT = 100;
+
+    private static Properties config;
+    private static Session session;
+    private static final ThreadLocal<Transport> transports = new ThreadLocal<>();
+    // Guarded by itself; oldest messages are dropped beyond LOCAL_OUTBOX_LIMIT
+    private static final Deque<LocalMessage> localOutbox = new ArrayDeque<>();
+
+    private MailSession() {
+    }
+
+    /**
+     * @return true if messages are kept in memory instead of being sent
+     */
+    public static boolean isLocal() {
+        return "local".equalsIgnoreCase(System.getProperty("mail.mode", System.getenv().getOrDefault("MAIL_MODE", "smtp")));
+    }
+
+    /**
+     * Sends a plain-text email over this thread's SMTP connection, opening it if needed.
+     *
+     * @throws MessagingException if the message could not be sent or mail is not configured
+     */
+    public static void send(String to, String subject, String body) throws MessagingException {
+        if (isLocal()) {
+            synchronized (localOutbox) {
+                if (localOutbox.size() == LOCAL_OUTBOX_LIMIT) {
+                    localOutbox.removeFirst();
+                }
+                localOutbox.addLast(new LocalMessage(to, subject, body));
+            }
+            System.out.println("📧 [local mail] To: " + to + " | " + subject);
+            return;
+        }
+
+        MimeMessage message = new MimeMessage(session());
+        message.setFrom(new InternetAddress(config.getProperty("mail.username")));
+        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(to));
+        message.setSubject(subject);
+        message.setText(body);
+
+        Transport transport = transports.get();
+        if (transport != null) {
+            try {
+                transport.sendMessage(message, message.getAllRecipients());
+                return;
+            } catch (SendFailedException e) {
+                // The server refused the message itself; sending it again would not help
+                throw e;
+            } catch (MessagingException e) {
+                // Most likely an idle connection the server closed; reconnect and try once more
+                closeTransport();
+            }
+        }
+        transport = session().getTransport("smtp");
+        transport.connect();
+        transports.set(transport);
+        try {
+            transport.sendMessage(message, message.getAllRecipients());
+        } catch (MessagingException e) {
+            closeTransport();
+            throw e;
+        }
+    }
+
+    /**
+     * Closes this thread's SMTP connection, if it has one.
+     */
+    public static void closeTransport() {
+        Transport transport = transports.get();
+        transports.remove();
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                // The connection is being discarded anyway
+            }
+        }
+    }
+
+    /**
+     * @return the messages kept by the local mode, oldest first
+     */
+    public static List<LocalMessage> localOutbox() {
+        synchronized (localOutbox) {
+            return new ArrayList<>(localOutbox);
+        }
+    }
+
+    /**
+     * Empties the local mode's outbox.
+     */
+    public static void clearLocalOutbox() {
+        synchronized (localOutbox) {
+            localOutbox.clear();
+        }
+    }
+
+    private static synchronized Session session() throws MessagingException {
+        if (session != null) {
+            return session;
+        }
+        Properties file = new Properties();
+        try (InputStream input = MailSession.class.getClassLoader().getResourceAsStream(CONFIG_FILE)) {
+            if (input == null) {
+                System.err.println("❌ Unable to find " + CONFIG_FILE);
+                throw new MessagingException("Email configuration file not found");
+            }
+            file.load(input);
+        } catch (IOException e) {
+            System.err.println("❌ Error loading email configuration: " + e.getMessage());
+            throw new MessagingException("Failed to load email configuration", e);
+        }
+        Properties loaded = new Properties();
+        for (String key : file.stringPropertyNames()) {
+            loaded.setProperty(key, System.getProperty(key, file.getProperty(key)));
+        }
+
+        Properties props = new Properties();
+        props.put("mail.smtp.host", System.getProperty("mail.smtp.host", loaded.getProperty("mail.smtp.host", "smtp.gmail.com")));
+        props.put("mail.smtp.port", System.getProperty("mail.smtp.port", loaded.getProperty("mail.smtp.port", "587")));
+        props.put("mail.smtp.auth", System.getProperty("mail.smtp.auth", loaded.getProperty("mail.smtp.auth", "true")));
+        props.put("mail.smtp.starttls.enable", System.getProperty("mail.smtp.starttls.enable",
+                loaded.getProperty("mail.smtp.starttls.enable", "true")));
+        // Without these a stalled server blocks the sending thread forever; EmailQueue's 2 minute lease assumes
+        // a send fails well within that time
+        props.put("mail.smtp.connectiontimeout", System.getProperty("mail.smtp.connectiontimeout",
+                loaded.getProperty("mail.smtp.connectiontimeout", "10000")));
+        props.put("mail.smtp.timeout", System.getProperty("mail.smtp.timeout",
+                loaded.getProperty("mail.smtp.timeout", "20000")));
+        props.put("mail.smtp.writetimeout", System.getProperty("mail.smtp.writetimeout",
+                loaded.getProperty("mail.smtp.writetimeout", "20000")));
+
+        final String username = loaded.getProperty("mail.username");
+        final String password = loaded.getProperty("mail.password");
+        if (username == null || password == null) {
+            throw new MessagingException("Email username or password not configured");
+        }
+
+        config = loaded;
+        session = Session.getInstance(props, new Authenticator() {
+            @Override
+            protected PasswordAuthentication getPasswordAuthentication() {
+                return new PasswordAuthentication(username, password);
+            }
+        });
+        return session;
+    }
+}
@@ -0,0 +1,187 @@
+package com.library.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The text of every email the portals send, shared by the admin and user portals; both must ship the same copy.
+ *
+ * Templates use {@code {name}} placeholders. Each template is split into its literal text and placeholders once,
+ * when this class loads, so rendering a message is a single pass of appends.
+ */
+public final class MailTemplates {
+
+    /**
+     * A parsed template.
+     */
+    public static final class Template {
+        // Literal text around the placeholders; literals.length == names.length + 1
+        private final String[] literals;
+        private final String[] names;
+        private final int literalLength;
+
+        Template(String text) {
+            List<String> literalParts = new ArrayList<>();
+            List<String> nameParts = new ArrayList<>();
+            int start = 0;
+            int open;
+            while ((open = text.indexOf('{', start)) >= 0) {
+                int close = text.indexOf('}', open);
+                if (close < 0) {
+                    throw new IllegalArgumentException("Unclosed placeholder in template: " + text);
+                }
+                literalParts.add(text.substring(start, open));
+                nameParts.add(text.substring(open + 1, close));
+                start = close + 1;
+            }
+            literalParts.add(text.substring(start));
+            literals = literalParts.toArray(new String[0]);
+            names = nameParts.toArray(new String[0]);
+            int length = 0;
+            for (String literal : literals) {
+                length += literal.length();
+            }
+            literalLength = length;
+        }
+
+        /**
+         * Fills in the placeholders.
+         *
+         * @param namesAndValues placeholder names and their values, alternating
+         * @return the rendered text; null values are rendered as empty text
+         * @throws IllegalArgumentException if a placeholder has no value
+         */
+        public String render(String... namesAndValues) {
+            StringBuilder out = new StringBuilder(literalLength + 32 * names.length);
+            for (int i = 0; i < names.length; i++) {
+                out.append(literals[i]).append(valueOf(names[i], namesAndValues));
+            }
+            return out.append(literals[names.length]).toString();
+        }
+
+        private static String valueOf(String name, String[] namesAndValues) {
+            for (int i = 0; i + 1 < namesAndValues.length; i += 2) {
+                if (namesAndValues[i].equals(name)) {
+                    return namesAndValues[i + 1] != null ? namesAndValues[i + 1] : "";
+                }
+            }
+            throw new IllegalArgumentException("No value for placeholder {" + name + "}");
+        }
+    }
+
+    private static final String SIGNATURE = "Best regards,\nLibrary Management System";
+
+    // Book issue and return notices come in three parts so several books can be sent as one digest:
+    // the header once, an item per book, and the footer once.
+
+    public static final String BOOK_ISSUE_SUBJECT = "Library Book Issue Confirmation";
+    public static final Template BOOK_ISSUE_HEADER = new Template(
+            "Dear {name},\n\n" +
+            "Your books have been successfully issued!\n\n" +
+            "{role} Details:\n" +
+            "Name: {name}\n" +
+            "RFID: {rfid}\n\n");
+    public static final Template BOOK_ISSUE_ITEM = new Template(
+            "Book Details:\n" +
+            "Book Name: {book}\n" +
+            "Issue Date: {issueDate}\n" +
+            "Due Date: {dueDate}\n\n");
+    public static final Template BOOK_ISSUE_FOOTER = new Template(
+            "Currently Issued Books:\n{issuedBooks}\n\n" +
+            "Please return the books by the due date to avoid fines.\n\n" +
+            SIGNATURE);
+
+    public static final String BOOK_RETURN_SUBJECT = "Library Book Return Confirmation";
+    public static final Template BOOK_RETURN_HEADER = new Template(
+            "Dear {name},\n\n" +
+            "Your book return has been successfully processed!\n\n" +
+            "{role} Details:\n" +
+            "Name: {name}\n" +
+            "RFID: {rfid}\n\n");
+    public static final Template BOOK_RETURN_ITEM = new Template(
+            "Return Details:\n" +
+            "Book Returned: {book}\n" +
+            "Return Date: {returnDate}\n\n");
+    public static final Template BOOK_RETURN_FOOTER = new Template(
+            "Remaining Issued Books:\n{issuedBooks}\n\n" +
+            "Thank you for returning the book on time.\n\n" +
+            SIGNATURE);
+
+    public static final String STUDENT_REGISTRATION_SUBJECT = "Welcome to Library Management System";
+    public static final Template STUDENT_REGISTRATION = new Template(
+            "Dear {name},\n\n" +
+            "Welcome to the Library Management System!\n\n" +
+            "Your registration has been successfully completed.\n\n" +
+            "Student Details:\n" +
+            "Name: {name}\n" +
+            "RFID: {rfid}\n\n" +
+            "You can now use your RFID card to login and issue books.\n\n" +
+            SIGNATURE);
+
+    public static final String FACULTY_REGISTRATION_SUBJECT = "Welcome to Library Management System - Faculty";
+    public static final Template FACULTY_REGISTRATION = new Template(
+            "Dear {name},\n\n" +
+            "Welcome to the Library Management System!\n\n" +
+            "Your faculty registration has been successfully completed.\n\n" +
+            "Faculty Details:\n" +
+            "Name: {name}\n" +
+            "RFID: {rfid}\n\n" +
+            "You can now use your RFID card to login and issue books.\n\n" +
+            SIGNATURE);
+
+    public static final String ADMIN_REGISTRATION_SUBJECT = "Admin Registration Confirmation";
+    public static final Template ADMIN_REGISTRATION = new Template(
+            "Dear Admin,\n\n" +
+            "Your admin account has been successfully registered.\n\n" +
+            "Admin Details:\n" +
+            "Admin ID: {adminId}\n" +
+            "Email: {email}\n\n" +
+            "You can now login to the Admin Portal using your Admin ID and password.\n\n" +
+            SIGNATURE);
+
+    public static final String PASSWORD_CHANGE_SUBJECT = "Password Change Confirmation";
+    public static final Template PASSWORD_CHANGE = new Template(
+            "Dear {name},\n\n" +
+            "Your password has been successfully changed.\n\n" +
+            "If you did not make this change, please contact support immediately.\n\n" +
+            SIGNATURE);
+
+    public static final String PASSWORD_RESET_SUBJECT = "Password Reset Verification";
+    public static final Template PASSWORD_RESET = new Template(
+            "Your password reset code is: {code}\n\n" +
+            "Use this code to reset your password.");
+
+    public static final String ACCOUNT_DELETION_SUBJECT = "Account Deletion Notification";
+    public static final Template ACCOUNT_DELETION = new Template(
+            "Dear {name},\n\n" +
+            "We regret to inform you that your {accountType} account has been deleted from the Library Management System.\n\n" +
+            "If you believe this was done in error or have any questions, please contact the library administration.\n\n" +
+            SIGNATURE);
+
+    public static final String ADMIN_FACULTY_REGISTRATION_SUBJECT = "New Faculty Registration Notification";
+    public static final Template ADMIN_FACULTY_REGISTRATION = new Template(
+            "Dear Admin,\n\n" +
+            "A new faculty member has registered in the Library Management System.\n\n" +
+            "Faculty Details:\n" +
+            "Name: {name}\n" +
+            "Faculty ID: {facultyId}\n" +
+            "Email: {email}\n\n" +
+            "Please review and approve if necessary.\n\n" +
+            SIGNATURE);
+
+    public static final String ADMIN_FACULTY_BOOK_ISSUE_SUBJECT = "Faculty Book Issue Notification";
+    public static final String ADMIN_FACULTY_BOOK_RETURN_SUBJECT = "Faculty Book Return Notification";
+    public static final Template ADMIN_FACULTY_BOOK_ACTIVITY = new Template(
+            "Dear Admin,\n\n" +
+            "A faculty member has {action} a book.\n\n" +
+            "Faculty Details:\n" +
+            "Name: {name}\n" +
+            "Faculty ID: {facultyId}\n\n" +
+            "Book Details:\n" +
+            "Book Name: {book}\n" +
+            "{dateLabel}: {date}\n\n" +
+            SIGNATURE);
+
+    private MailTemplates() {
+    }
+}
@@ -0,0 +1,164 @@
+package com.library.util;
+
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.event.EventHandler;
+import javafx.scene.control.TextInputControl;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.util.Duration;
+
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Detects barcode and RFID scanners that act as a keyboard ("keyboard wedge") on a text field, and reports
+ * each scan once as a complete code.
+ *
+ * A scanner types a whole code in a burst, a few milliseconds per character, usually followed by Enter or Tab.
+ * Keys arriving at most {@code scanner.maxGapMs} apart (env {@code SCANNER_MAX_GAP_MS}, default 50) are collected
+ * into one burst; people cannot type that fast for more than a key or two. A burst of at least
+ * {@code scanner.minLength} characters (env {@code SCANNER_MIN_LENGTH}, default 4) is reported when the terminator
+ * arrives, or after a pause if the scanner sends none, so codes of any length work. The terminator of a scan is
+ * consumed so Enter handlers on the field do not run a second time; Enter after normal typing passes through.
+ *
+ * Typed characters still reach the field, so manual entry keeps working. Text listeners that should not react to
+ * every scanned character can check {@link #isScanning()}; fast typing (key rollover) can look like the start of a
+ * burst, so when a burst ends too short to be a scan the {@code onTyped} callback is run to catch up on the changes
+ * those listeners skipped.
+ *
+ * Must be used on the JavaFX application thread.
+ */
+public final class ScannerInput {
+
+    private static final long MAX_GAP_NANOS = Long.parseLong(System.getProperty("scanner.maxGapMs",
+            System.getenv().getOrDefault("SCANNER_MAX_GAP_MS", "50"))) * 1_000_000L;
+    private static final int MIN_LENGTH = Integer.parseInt(System.getProperty("scanner.minLength",
+            System.getenv().getOrDefault("SCANNER_MIN_LENGTH", "4")));
+
+    /**
+     * Ends a burst after a pause; restarted by every key of the burst.
+     */
+    interface Timeout {
+        void restart();
+
+        void stop();
+    }
+
+    private final Consumer<String> onScan;
+    private final Runnable onTyped;
+    private final LongSupplier clock;
+    private final Consumer<Runnable> deferred;
+    private final Timeout timeout;
+    private final StringBuilder burst = new StringBuilder();
+    private long lastKeyNanos;
+
+    /**
+     * @param onScan   called with each complete scan
+     * @param onTyped  called when a burst ends too short to be a scan
+     * @param clock    nanosecond time source
+     * @param deferred runs callbacks later on the JavaFX thread
+     * @param timeout  calls {@link #complete()} once the burst has paused; null for a PauseTransition
+     */
+    ScannerInput(Consumer<String> onScan, Runnable onTyped, LongSupplier clock, Consumer<Runnable> deferred, Timeout timeout) {
+        this.onScan = onScan;
+        this.onTyped = onTyped;
+        this.clock = clock;
+        this.deferred = deferred;
+        this.timeout = timeout != null ? timeout : pauseTimeout();
+    }
+
+    /**
+     * Starts watching a field for scans.
+     *
+     * @param field  the field the scanner types into
+     * @param onScan called once per scan with the scanned code, trimmed
+     * @return the detector, for {@link #isScanning()}
+     */
+    public static ScannerInput attach(TextInputControl field, Consumer<String> onScan) {
+        return attach(field, onScan, () -> { });
+    }
+
+    /**
+     * Starts watching a field for scans.
+     *
+     * @param field   the field the scanner types into
+     * @param onScan  called once per scan with the scanned code, trimmed
+     * @param onTyped called when fast typing looked like the start of a scan but was too short to be one, so text
+     *                listeners that checked {@link #isScanning()} can handle the field's current text after all
+     * @return the detector, for {@link #isScanning()}
+     */
+    public static ScannerInput attach(TextInputControl field, Consumer<String> onScan, Runnable onTyped) {
+        ScannerInput scanner = new ScannerInput(onScan, onTyped, System::nanoTime, Platform::runLater, null);
+        field.addEventFilter(KeyEvent.KEY_TYPED, scanner.typedFilter());
+        field.addEventFilter(KeyEvent.KEY_PRESSED, scanner.terminatorFilter());
+        return scanner;
+    }
+
+    /**
+     * @return true while a burst of scanner input is arriving
+     */
+    public boolean isScanning() {
+        return burst.length() > 1 && clock.getAsLong() - lastKeyNanos <= MAX_GAP_NANOS;
+    }
+
+    EventHandler<KeyEvent> typedFilter() {
+        return e -> {
+            String character = e.getCharacter();
+            if (character.isEmpty() || Character.isISOControl(character.charAt(0))) {
+                return;
+            }
+            long now = clock.getAsLong();
+            if (now - lastKeyNanos > MAX_GAP_NANOS) {
+                burst.setLength(0);
+            }
+            lastKeyNanos = now;
+            burst.append(character);
+            timeout.restart();
+        };
+    }
+
+    EventHandler<KeyEvent> terminatorFilter() {
+        return e -> {
+            if ((e.getCode() == KeyCode.ENTER || e.getCode() == KeyCode.TAB)
+                    && clock.getAsLong() - lastKeyNanos <= MAX_GAP_NANOS && burst.length() >= MIN_LENGTH) {
+                e.consume();
+                complete();
+            }
+        };
+    }
+
+    /**
+     * Ends the current burst: reports it as a scan if it is long enough, otherwise hands the typing back.
+     */
+    void complete() {
+        timeout.stop();
+        String code = burst.toString().trim();
+        // From the second character on, isScanning() was true and text listeners skipped the changes
+        boolean skipped = burst.length() > 1;
+        burst.setLength(0);
+        lastKeyNanos = 0;
+        // Deferred so handlers may open dialogs, which is not allowed while the timeout animation is running
+        if (code.length() >= MIN_LENGTH) {
+            deferred.accept(() -> onScan.accept(code));
+        } else if (skipped) {
+            deferred.accept(onTyped);
+        }
+    }
+
+    private Timeout pauseTimeout() {
+        PauseTransition pause = new PauseTransition(Duration.millis(MAX_GAP_NANOS * 2 / 1_000_000.0));
+        pause.setOnFinished(e -> complete());
+        return new Timeout() {
+            @Override
+            public void restart() {
+                pause.playFromStart();
+            }
+
+            @Override
+            public void stop() {
+                pause.stop();
+            }
+        };
+    }
+}
@@ -0,0 +1,114 @@
+package com.library;
+
+import com.library.model.Book;
+import com.library.util.BarcodeIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BarcodeIndexTest {
+
+    private static Book book(int id, String barcode) {
+        return new Book(id, "Book " + id, "Author", barcode, 1);
+    }
+
+    private static List<String> barcodes(List<Book> books) {
+        return books.stream().map(Book::getBarcode).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testCollidingHashesAreToldApart() {
+        // "Aa" and "BB" have the same String.hashCode, as do all four-letter combinations of them
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        BarcodeIndex index = new BarcodeIndex(Arrays.asList(
+                book(1, "Aa"), book(2, "BB"), book(3, "AaAa"), book(4, "BBBB"), book(5, "AaBB")));
+
+        assertEquals(1, index.get("Aa").getId());
+        assertEquals(2, index.get("BB").getId());
+        assertEquals(3, index.get("AaAa").getId());
+        assertEquals(4, index.get("BBBB").getId());
+        assertEquals(5, index.get("AaBB").getId());
+        // Same hash as the others but not in the index; the probe must end at an empty bucket
+        assertNull(index.get("BBAa"));
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    public void testFirstOfDuplicateBarcodesWins() {
+        BarcodeIndex index = new BarcodeIndex(Arrays.asList(book(1, "BK001"), book(2, "BK001"), book(3, "BK002")));
+
+        assertEquals(1, index.get("BK001").getId());
+        assertEquals(2, index.size());
+        assertEquals(Arrays.asList("BK001", "BK002"), barcodes(index.withPrefix("BK", 10)));
+    }
+
+    @Test
+    public void testBooksWithoutBarcodeAreSkipped() {
+        BarcodeIndex index = new BarcodeIndex(Arrays.asList(book(1, null), book(2, "BK001"), book(3, null)));
+
+        assertEquals(1, index.size());
+        assertEquals(2, index.get("BK001").getId());
+        assertNull(index.get(null));
+        assertEquals(1, index.withPrefix("", 10).size());
+    }
+
+    @Test
+    public void testEmptyCatalog() {
+        BarcodeIndex index = new BarcodeIndex(Collections.emptyList());
+
+        assertEquals(0, index.size());
+        assertNull(index.get("BK001"));
+        assertFalse(index.hasPrefix("B"));
+        assertFalse(index.hasPrefix(""));
+        assertTrue(index.withPrefix("B", 10).isEmpty());
+    }
+
+    @Test
+    public void testSingleBookCatalog() {
+        BarcodeIndex index = new BarcodeIndex(Collections.singletonList(book(7, "BK007")));
+
+        assertEquals(7, index.get("BK007").getId());
+        assertNull(index.get("BK00"));
+        assertTrue(index.hasPrefix("BK00"));
+        assertTrue(index.hasPrefix("BK007"));
+        assertFalse(index.hasPrefix("BK0070"));
+        assertFalse(index.hasPrefix("A"));
+        assertEquals(Collections.singletonList("BK007"), barcodes(index.withPrefix("BK", 10)));
+    }
+
+    @Test
+    public void testPrefixesAtBothEndsOfTheSortedBarcodes() {
+        BarcodeIndex index = new BarcodeIndex(Arrays.asList(
+                book(1, "M100"), book(2, "A100"), book(3, "Z100"), book(4, "A200"), book(5, "Z200")));
+
+        // First and last entries in sorted order
+        assertTrue(index.hasPrefix("A1"));
+        assertEquals(Arrays.asList("A100", "A200"), barcodes(index.withPrefix("A", 10)));
+        assertTrue(index.hasPrefix("Z2"));
+        assertEquals(Arrays.asList("Z100", "Z200"), barcodes(index.withPrefix("Z", 10)));
+        // Before the first and after the last
+        assertFalse(index.hasPrefix("0"));
+        assertTrue(index.withPrefix("0", 10).isEmpty());
+        assertFalse(index.hasPrefix("ZZ"));
+        assertTrue(index.withPrefix("ZZ", 10).isEmpty());
+    }
+
+    @Test
+    public void testWithPrefixRespectsLimit() {
+        List<Book> catalog = new ArrayList<>();
+        for (int i = 20; i >= 1; i--) {
+            catalog.add(book(i, String.format("BK%03d", i)));
+        }
+        BarcodeIndex index = new BarcodeIndex(catalog);
+
+        assertEquals(Arrays.asList("BK001", "BK002", "BK003"), barcodes(index.withPrefix("BK", 3)));
+        assertEquals(20, index.withPrefix("BK", 100).size());
+        assertTrue(index.withPrefix("BK", 0).isEmpty());
+    }
+}
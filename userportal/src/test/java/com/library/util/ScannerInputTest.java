@@ -0,0 +1,135 @@
+package com.library.util;
+
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives the key filters with synthetic timings; {@link ScannerInput#complete()} stands in for the pause timeout.
+ * Uses the defaults of 50 ms between scanner keys and 4 characters per scan.
+ */
+public class ScannerInputTest {
+
+    private static final long MS = 1_000_000L;
+
+    private final AtomicLong now = new AtomicLong(1_000 * MS);
+    private final List<String> scans = new ArrayList<>();
+    private final AtomicInteger typed = new AtomicInteger();
+    private final AtomicInteger timeoutRestarts = new AtomicInteger();
+    private ScannerInput scanner;
+
+    @BeforeEach
+    public void setUp() {
+        scanner = new ScannerInput(scans::add, typed::incrementAndGet, now::get, Runnable::run, new ScannerInput.Timeout() {
+            @Override
+            public void restart() {
+                timeoutRestarts.incrementAndGet();
+            }
+
+            @Override
+            public void stop() {
+            }
+        });
+    }
+
+    private void type(String text, long gapMs) {
+        for (char c : text.toCharArray()) {
+            now.addAndGet(gapMs * MS);
+            scanner.typedFilter().handle(new KeyEvent(KeyEvent.KEY_TYPED, String.valueOf(c), "", KeyCode.UNDEFINED,
+                    false, false, false, false));
+        }
+    }
+
+    private KeyEvent press(KeyCode code, long gapMs) {
+        now.addAndGet(gapMs * MS);
+        KeyEvent event = new KeyEvent(KeyEvent.KEY_PRESSED, "", "", code, false, false, false, false);
+        scanner.terminatorFilter().handle(event);
+        return event;
+    }
+
+    @Test
+    public void testScanWithTerminatorIsReportedOnce() {
+        type("BK001", 5);
+        assertTrue(scanner.isScanning());
+
+        KeyEvent enter = press(KeyCode.ENTER, 5);
+
+        assertTrue(enter.isConsumed());
+        assertEquals(List.of("BK001"), scans);
+        assertEquals(0, typed.get());
+        assertFalse(scanner.isScanning());
+    }
+
+    @Test
+    public void testScanWithoutTerminatorEndsAtTheTimeout() {
+        type("BK0042", 5);
+        assertEquals(6, timeoutRestarts.get());
+
+        now.addAndGet(100 * MS);
+        scanner.complete();
+
+        assertEquals(List.of("BK0042"), scans);
+        assertEquals(0, typed.get());
+    }
+
+    @Test
+    public void testShortFastBurstIsHandedBackAsTyping() {
+        // Key rollover while typing: two keys 10 ms apart, then a normal pause
+        type("BK", 10);
+        assertTrue(scanner.isScanning());
+
+        now.addAndGet(100 * MS);
+        assertFalse(scanner.isScanning());
+        scanner.complete();
+
+        assertTrue(scans.isEmpty());
+        assertEquals(1, typed.get());
+    }
+
+    @Test
+    public void testSlowTypingIsNeverTreatedAsAScan() {
+        type("BK001", 200);
+        assertFalse(scanner.isScanning());
+
+        scanner.complete();
+
+        assertTrue(scans.isEmpty());
+        // Every change reached the text listeners, so there is nothing to catch up on
+        assertEquals(0, typed.get());
+    }
+
+    @Test
+    public void testBurstEndsAtAPauseBetweenKeys() {
+        type("BK", 10);
+        // The next key comes after a pause, so it starts a new burst of one key
+        type("0", 80);
+        assertFalse(scanner.isScanning());
+        type("01", 10);
+        assertTrue(scanner.isScanning());
+
+        scanner.complete();
+
+        assertTrue(scans.isEmpty());
+        assertEquals(1, typed.get());
+    }
+
+    @Test
+    public void testEnterAfterShortBurstPassesThrough() {
+        type("BK", 10);
+
+        KeyEvent enter = press(KeyCode.ENTER, 10);
+
+        assertFalse(enter.isConsumed());
+        assertTrue(scans.isEmpty());
+        scanner.complete();
+        assertEquals(1, typed.get());
+    }
+}